@@ -0,0 +1,78 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.GameState;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+
+/**
+ * Measures how long each bundled agent takes to make a decision. Before
+ * measuring, the agent is informed of a few hundred hands of play (every
+ * action a call) so that agents which keep a history, like
+ * ProjectPokerPlayer, are measured with a realistic one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentPromptBenchmark {
+
+	@Param({ "TheFish", "TheRock", "TheManiac", "ProjectPokerPlayer" })
+	public String agent;
+
+	/** Number of hands the agent has seen before being prompted. */
+	@Param({ "300" })
+	public int history;
+
+	private PokerAgent pokerAgent;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setUp() throws ClassNotFoundException {
+		pokerAgent = (PokerAgent) new AgentFactory(
+				(Class<? extends PokerAgent>) Class
+						.forName("com.gmail.jdesmond10.pokerai.agent." + agent))
+				.createClient(true);
+
+		final GameState state = new GameState(2, new SeededDeckSource(42));
+		pokerAgent.inform(state.generateLimitedGameState(0));
+		int hands = 0;
+		while (hands < history || state.getCurrentPlayer() != 0) {
+			final int call = state.getGameStateData().getCallAmount();
+			if (state.applyAction(new BettingAction(call))) {
+				hands++;
+				state.endHand();
+				pokerAgent.inform(state.generateLimitedGameState(0));
+				if (state.isTerminalState()) {
+					throw new IllegalStateException(
+							"The warm up game ended early");
+				}
+				while (state.dealNextHand()) {
+					state.endHand();
+					pokerAgent.inform(state.generateLimitedGameState(0));
+				}
+			}
+			pokerAgent.inform(state.generateLimitedGameState(0));
+		}
+	}
+
+	@Benchmark
+	public BettingAction prompt() {
+		return pokerAgent.prompt();
+	}
+}
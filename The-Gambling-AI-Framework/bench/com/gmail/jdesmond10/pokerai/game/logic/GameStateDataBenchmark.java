@@ -0,0 +1,105 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmarks of the GameStateData methods called on every action, with
+ * their {@link PackedGameState} equivalents alongside for comparison. This
+ * lives in the game.logic package so it can reach the protected transition
+ * methods.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateDataBenchmark {
+
+	/** The first decision of a hand: the small blind to call or raise. */
+	private GameStateData opening;
+	/** The big blind, facing a raise to 10. */
+	private GameStateData facingRaise;
+	private long packedOpening;
+	private long packedFacingRaise;
+
+	private BettingAction call;
+	private BettingAction raise;
+	private BettingAction reraise;
+
+	@Setup
+	public void setUp() {
+		opening = GameStateData.getInitialGameStateData(new SeededDeckSource(
+				42));
+		call = new BettingAction(opening.getCallAmount());
+		raise = new BettingAction(9);
+		facingRaise = opening.getResultingGameStateData(raise);
+		reraise = new BettingAction(facingRaise.getCallAmount() + 20);
+
+		packedOpening = opening.toPacked();
+		packedFacingRaise = facingRaise.toPacked();
+	}
+
+	@Benchmark
+	public GameStateData getResultingGameStateDataCall() {
+		return opening.getResultingGameStateData(call);
+	}
+
+	@Benchmark
+	public GameStateData getResultingGameStateDataRaise() {
+		return facingRaise.getResultingGameStateData(reraise);
+	}
+
+	@Benchmark
+	public GameStateData getResultingGameStateDataFold() {
+		return facingRaise.getResultingGameStateData(BettingAction.FOLD);
+	}
+
+	@Benchmark
+	public int getCallAmount() {
+		return facingRaise.getCallAmount();
+	}
+
+	@Benchmark
+	public int getMaxBetAmount() {
+		return facingRaise.getMaxBetAmount();
+	}
+
+	@Benchmark
+	public boolean isLegalAction() {
+		return facingRaise.isLegalAction(reraise);
+	}
+
+	@Benchmark
+	public long packedApplyActionRaise() {
+		return PackedGameState.applyAction(packedFacingRaise,
+				reraise.getAmount());
+	}
+
+	@Benchmark
+	public long packedApplyActionCall() {
+		return PackedGameState.applyAction(packedOpening, call.getAmount());
+	}
+
+	@Benchmark
+	public int packedGetMaxBetAmount() {
+		return PackedGameState.getMaxBetAmount(packedFacingRaise);
+	}
+
+	@Benchmark
+	public boolean packedIsLegalAction() {
+		return PackedGameState.isLegalAction(packedFacingRaise,
+				reraise.getAmount());
+	}
+}
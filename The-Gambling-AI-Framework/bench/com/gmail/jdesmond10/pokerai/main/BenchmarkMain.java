@@ -0,0 +1,25 @@
+package com.gmail.jdesmond10.pokerai.main;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark with the gc profiler, so that allocation rates
+ * (gc.alloc.rate.norm, bytes per operation) are reported next to the times.
+ */
+public class BenchmarkMain {
+
+	/**
+	 * @param args
+	 *            [regular expression of the benchmarks to run, default all]
+	 */
+	public static void main(final String[] args) throws RunnerException {
+		final Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "com.gmail.jdesmond10.*")
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,94 @@
+package com.gmail.jdesmond10.pokerai.main;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gmail.jdesmond10.pokerai.agent.AgentFactory;
+import com.gmail.jdesmond10.pokerai.agent.PokerAgent;
+import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.MatchEngine;
+import com.gmail.jdesmond10.pokerai.game.MatchResult;
+import com.gmail.jdesmond10.pokerai.game.Server;
+
+/**
+ * Plays whole sit n' gos against TheFish, both through {@link Server#run()}
+ * (with pausing and printing off) and through the headless
+ * {@link MatchEngine}. Besides matches per second, the hands and actions
+ * counters report hands/sec and actions/sec; run with the gc profiler to get
+ * bytes per hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerBenchmark {
+
+	/** Simple name of the agent playing against TheFish. */
+	@Param({ "TheFish", "TheRock", "TheManiac", "ProjectPokerPlayer" })
+	public String agent;
+
+	/** Hands and actions played, reported by JMH as rates. */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long hands;
+		public long actions;
+	}
+
+	private ClientFactory agentFactory;
+	private ClientFactory fishFactory;
+	private MatchEngine engine;
+	private long seed;
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void setUp() throws ClassNotFoundException {
+		Main.SHOULD_PAUSE = false;
+		Main.SHOULD_PRINT = false;
+		agentFactory = new AgentFactory(
+				(Class<? extends PokerAgent>) Class
+						.forName("com.gmail.jdesmond10.pokerai.agent." + agent));
+		fishFactory = new AgentFactory(
+				com.gmail.jdesmond10.pokerai.agent.TheFish.class);
+		engine = new MatchEngine();
+	}
+
+	@Benchmark
+	public Server serverSitNGo(final Counters counters) {
+		final List<Client> clients = new LinkedList<Client>();
+		clients.add(agentFactory.createClient(true));
+		clients.add(fishFactory.createClient(false));
+		final Server server = new Server(clients, false);
+		server.run();
+		counters.hands += server.getHandCount();
+		counters.actions += server.getActionCount();
+		return server;
+	}
+
+	@Benchmark
+	public MatchResult matchEngineSitNGo(final Counters counters) {
+		final MatchResult result = engine.play(agentFactory.createClient(true),
+				fishFactory.createClient(false), seed++);
+		counters.hands += result.handCount;
+		counters.actions += result.actionCount;
+		return result;
+	}
+}
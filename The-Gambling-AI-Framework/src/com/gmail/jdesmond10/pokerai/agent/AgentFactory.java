@@ -0,0 +1,47 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+
+/**
+ * A {@link ClientFactory} for any PokerAgent with a public no-argument
+ * constructor, e.g. {@code new AgentFactory(TheFish.class)}. Every call to
+ * createClient() returns a new agent that has already been initialized for
+ * its seat.
+ */
+public final class AgentFactory implements ClientFactory {
+
+	private final Class<? extends PokerAgent> agentClass;
+
+	/**
+	 * @param agentClass
+	 *            The class of PokerAgent to create. It must have a public
+	 *            no-argument constructor.
+	 */
+	public AgentFactory(final Class<? extends PokerAgent> agentClass) {
+		this.agentClass = agentClass;
+	}
+
+	@Override
+	public Client createClient(final boolean isPlayerOne) {
+		final PokerAgent agent;
+		try {
+			agent = agentClass.getDeclaredConstructor().newInstance();
+		} catch (final ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to create a "
+					+ agentClass.getSimpleName(), e);
+		}
+
+		return agent.initializeAgent(isPlayerOne);
+	}
+
+	@Override
+	public String getName() {
+		return agentClass.getSimpleName();
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+}
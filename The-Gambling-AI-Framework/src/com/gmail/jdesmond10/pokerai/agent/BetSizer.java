@@ -0,0 +1,201 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import java.util.Arrays;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BetAbstraction;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+
+/**
+ * Picks the best bet size of a decision without trying every legal amount.
+ * A coarse pass evaluates a handful of candidates: fold, call, the raises of
+ * a {@link BetAbstraction} (which include all-in), and geometric raises that
+ * would get the stacks in over a given number of bets. A fine pass then walks
+ * from the best candidate towards its neighbours in shrinking steps, so a
+ * size between two candidates can still be found in a logarithmic number of
+ * evaluations.
+ *
+ * Each amount is evaluated at most once per decision. A BetSizer keeps that
+ * cache between decisions, so it is not thread safe; give each agent its own.
+ */
+public final class BetSizer {
+
+	/**
+	 * The value an agent puts on an action of the current decision.
+	 */
+	public interface Evaluator {
+
+		/**
+		 * @param amount
+		 *            a legal amount to put in, or {@link PackedGameState#FOLD}.
+		 * @return The value of putting it in; higher is better.
+		 */
+		double evaluate(int amount);
+	}
+
+	private final BetAbstraction abstraction;
+	/** For each entry n, a raise that gets all in over n bets. */
+	private final int[] geometricBets;
+	private final boolean refine;
+
+	private final int[] candidates;
+	private double[] cache = new double[PackedGameState.MAX_CHIPS + 1];
+	/** The decision each cached value belongs to. */
+	private int[] cacheDecision = new int[PackedGameState.MAX_CHIPS + 1];
+	private int decision;
+	private int evaluations;
+
+	/**
+	 * A sizer with the default abstraction, geometric raises over two and
+	 * three bets, and refinement.
+	 */
+	public BetSizer() {
+		this(BetAbstraction.DEFAULT, new int[] { 2, 3 }, true);
+	}
+
+	/**
+	 * @param abstraction
+	 *            The bet sizes of the coarse pass.
+	 * @param geometricBets
+	 *            For each entry n, the coarse pass also tries the raise that
+	 *            grows the pot by the same factor on each of n bets until the
+	 *            effective stack is all in. May be empty.
+	 * @param refine
+	 *            True to search between the coarse sizes for a better one.
+	 */
+	public BetSizer(final BetAbstraction abstraction,
+			final int[] geometricBets, final boolean refine) {
+		for (final int bets : geometricBets) {
+			if (bets < 1)
+				throw new IllegalArgumentException(
+						"Geometric bet counts must be positive: "
+								+ Arrays.toString(geometricBets));
+		}
+		this.abstraction = abstraction;
+		this.geometricBets = geometricBets.clone();
+		this.refine = refine;
+		candidates = new int[abstraction.getMaxActions()
+				+ geometricBets.length];
+	}
+
+	/**
+	 * Finds the best action of the player to act.
+	 *
+	 * @param state
+	 *            a packed state where the hand is not over.
+	 * @param raises
+	 *            the number of raises already made this hand.
+	 * @param evaluator
+	 *            the value of each action.
+	 * @return The best amount found, or {@link PackedGameState#FOLD}. Ties go
+	 *         to the smaller amount, and to folding.
+	 */
+	public int choose(final long state, final int raises,
+			final Evaluator evaluator) {
+		if (++decision == 0) {
+			// Wrapped: forget every cached value.
+			Arrays.fill(cacheDecision, 0);
+			decision = 1;
+		}
+		evaluations = 0;
+		final int max = PackedGameState.getMaxBetAmount(state);
+		if (max >= cache.length) {
+			cache = new double[max + 1];
+			cacheDecision = new int[max + 1];
+		}
+
+		final int count = getCandidates(state, raises);
+		int best = 0;
+		double bestValue = value(candidates[0], evaluator);
+		for (int i = 1; i < count; i++) {
+			final double value = value(candidates[i], evaluator);
+			if (value > bestValue) {
+				best = i;
+				bestValue = value;
+			}
+		}
+		if (!refine || candidates[best] == PackedGameState.FOLD)
+			return candidates[best];
+
+		// Walk between the neighbouring candidates in shrinking steps.
+		final int low = best > 0 && candidates[best - 1] != PackedGameState.FOLD ? candidates[best - 1]
+				: candidates[best];
+		final int high = best + 1 < count ? candidates[best + 1]
+				: candidates[best];
+		int amount = candidates[best];
+		for (int step = Math.max(1, (high - low) / 4); step > 0;) {
+			final int down = amount - step;
+			final int up = amount + step;
+			double value;
+			if (down > low && (value = value(down, evaluator)) > bestValue) {
+				amount = down;
+				bestValue = value;
+			} else if (up < high
+					&& (value = value(up, evaluator)) > bestValue) {
+				amount = up;
+				bestValue = value;
+			} else {
+				step /= 2;
+			}
+		}
+		return amount;
+	}
+
+	/**
+	 * Writes the coarse candidates into candidates, in increasing order
+	 * without repeats.
+	 *
+	 * @return The number of candidates.
+	 */
+	private int getCandidates(final long state, final int raises) {
+		int count = abstraction.getActions(state, raises, candidates);
+		final int call = PackedGameState.getCallAmount(state);
+		final int max = PackedGameState.getMaxBetAmount(state);
+		if (count == 0 || candidates[count - 1] != max || max == call)
+			return count;
+
+		// Geometric sizes, only where the abstraction offers raises.
+		final double pot = PackedGameState.potSize(state) + call;
+		final double growth = (pot + 2.0 * (max - call)) / pot;
+		for (final int bets : geometricBets) {
+			final int amount = call
+					+ (int) Math.round((Math.pow(growth, 1.0 / bets) - 1)
+							/ 2 * pot);
+			if (amount <= call || amount >= max) {
+				continue;
+			}
+			// Insertion into the sorted candidates.
+			int i = count;
+			while (candidates[i - 1] > amount) {
+				candidates[i] = candidates[i - 1];
+				i--;
+			}
+			if (candidates[i - 1] == amount) {
+				System.arraycopy(candidates, i + 1, candidates, i, count - i);
+				continue;
+			}
+			candidates[i] = amount;
+			count++;
+		}
+		return count;
+	}
+
+	private double value(final int amount, final Evaluator evaluator) {
+		if (amount == PackedGameState.FOLD) {
+			evaluations++;
+			return evaluator.evaluate(amount);
+		}
+		if (cacheDecision[amount] != decision) {
+			evaluations++;
+			cache[amount] = evaluator.evaluate(amount);
+			cacheDecision[amount] = decision;
+		}
+		return cache[amount];
+	}
+
+	/**
+	 * @return The number of actions evaluated during the last decision.
+	 */
+	public int getEvaluationCount() {
+		return evaluations;
+	}
+}
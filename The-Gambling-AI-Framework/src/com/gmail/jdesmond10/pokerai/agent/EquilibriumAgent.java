@@ -0,0 +1,170 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import java.util.SplittableRandom;
+
+import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+import com.gmail.jdesmond10.pokerai.solver.CfrStrategy;
+import com.gmail.jdesmond10.pokerai.solver.GameTree;
+
+/**
+ * Plays the equilibrium strategy computed by the CfrSolver. This is the
+ * unexploitable baseline other agents should be benchmarked against. The
+ * strategy must have been solved for the blinds of the table it plays.
+ *
+ * The agent follows each hand down the solver's {@link GameTree}: every bet
+ * it sees is mapped to the closest bet size in the tree, and the action it
+ * picks from the tree is clamped to what's legal at the real table.
+ *
+ * @see CfrStrategy
+ */
+public class EquilibriumAgent extends PokerAgent {
+
+	/** Value of node while there is no hand in progress. */
+	private static final int NO_NODE = -1;
+
+	private final CfrStrategy strategy;
+	private final SplittableRandom random;
+	private boolean isPlayerOne;
+
+	private GameTree tree;
+	private int effectiveStack;
+	private int node = NO_NODE;
+
+	/**
+	 * @param strategy
+	 *            the solved strategy to play.
+	 * @param seed
+	 *            seed of the generator used to pick between mixed actions.
+	 */
+	public EquilibriumAgent(final CfrStrategy strategy, final long seed) {
+		this.strategy = strategy;
+		random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Creates a factory of EquilibriumAgents that share the given strategy.
+	 * Agents are seeded one after another from the given seed.
+	 */
+	public static ClientFactory factory(final CfrStrategy strategy,
+			final long seed) {
+		final SplittableRandom seeds = new SplittableRandom(seed);
+		return new ClientFactory() {
+			@Override
+			public Client createClient(final boolean isPlayerOne) {
+				final long agentSeed;
+				synchronized (seeds) {
+					agentSeed = seeds.nextLong();
+				}
+				return new EquilibriumAgent(strategy, agentSeed)
+						.initializeAgent(isPlayerOne);
+			}
+
+			@Override
+			public String getName() {
+				return "EquilibriumAgent";
+			}
+		};
+	}
+
+	@Override
+	public PokerAgent initializeAgent(final boolean isPlayerOne) {
+		this.isPlayerOne = isPlayerOne;
+		return this;
+	}
+
+	/**
+	 * Moves down the tree to follow the last action.
+	 */
+	@Override
+	protected void recordState(final GameStateData currentState) {
+		if (currentState.isHandOver) {
+			node = NO_NODE;
+		} else if (currentState.lastAction == null) {
+			if (!currentState.rules.equals(strategy.getRules()))
+				throw new IllegalStateException("A strategy solved for "
+						+ strategy.getRules() + " can't play "
+						+ currentState.rules);
+			// A new hand: the depth is the smaller stack before the blinds.
+			effectiveStack = Math.min(currentState.playerOneStack
+					+ currentState.playerOneAmountBetSoFar,
+					currentState.playerTwoStack
+							+ currentState.playerTwoAmountBetSoFar);
+			tree = strategy.getTree(effectiveStack);
+			node = 0;
+		} else if (node != NO_NODE
+				&& tree.getPlayer(node) != GameTree.TERMINAL) {
+			node = tree.getChild(node, closestAction(currentState.lastAction));
+		}
+	}
+
+	/**
+	 * @return The index of the action of the current node closest to the
+	 *         given action.
+	 */
+	private int closestAction(final BettingAction action) {
+		int best = 0;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int a = 0; a < tree.getChildCount(node); a++) {
+			final int treeAction = tree.getAction(node, a);
+			if (action.isFold() != (treeAction == PackedGameState.FOLD)) {
+				continue;
+			}
+			final int distance = action.isFold() ? 0 : Math.abs(treeAction
+					- action.getAmount());
+			if (distance < bestDistance) {
+				best = a;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public BettingAction prompt() {
+		final GameStateData state = getGameState();
+		final int call = state.getCallAmount();
+
+		// Off the tree (which shouldn't happen), just call.
+		if (node == NO_NODE || tree.getPlayer(node) != treePlayer(state)) {
+			return new BettingAction(call);
+		}
+
+		final Card card = isPlayerOne ? state.playerOneCard
+				: state.playerTwoCard;
+		final int actions = tree.getChildCount(node);
+		double roll = random.nextDouble();
+		int chosen = actions - 1;
+		for (int a = 0; a < actions; a++) {
+			roll -= strategy.getProbability(effectiveStack, node, card.rank(),
+					a);
+			if (roll < 0) {
+				chosen = a;
+				break;
+			}
+		}
+
+		final int amount = tree.getAction(node, chosen);
+		if (amount == PackedGameState.FOLD)
+			return call == 0 ? new BettingAction(0) : BettingAction.FOLD;
+		return new BettingAction(Math.max(call,
+				Math.min(amount, state.getMaxBetAmount())));
+	}
+
+	/**
+	 * @return 0 if this agent has the button (and so is player 0 of the
+	 *         tree), 1 otherwise.
+	 */
+	private int treePlayer(final GameStateData state) {
+		return isPlayerOne == state.playerOneHasButton ? 0 : 1;
+	}
+
+	@Override
+	public String getName() {
+		return "EquilibriumAgent";
+	}
+}
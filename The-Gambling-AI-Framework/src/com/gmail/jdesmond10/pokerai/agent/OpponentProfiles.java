@@ -0,0 +1,241 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * What has been learned about each opponent, by name, shared by every agent
+ * that uses it and kept in a memory-mapped file so it survives the process.
+ * An agent warm-starts from the profile of the opponent it is introduced to
+ * (see {@link com.gmail.jdesmond10.pokerai.game.OpponentAware}) and adds
+ * what it sees to it as it plays.
+ *
+ * Each profile is a fixed size record holding a running mean and variance
+ * (the sufficient statistics of a {@link RunningStat}, without prior or
+ * decay) per {@link Stat}. Updates lock one of a fixed set of stripes, so
+ * tables updating different opponents rarely contend; reads are optimistic
+ * and only lock if they raced an update.
+ *
+ * <pre>
+ * file:   magic "OPP1", capacity (int), profile count (int), then padding
+ *         to 64 bytes, then capacity records of 128 bytes
+ * record: name length (short), UTF-8 name (up to 62 bytes), then for each
+ *         Stat its weight, mean and sum of squares (doubles) and count (long)
+ * </pre>
+ */
+public final class OpponentProfiles implements Closeable {
+
+	/** The statistics kept per opponent. */
+	public enum Stat {
+		/** The share of the opponent's actions in a hand that were bets. */
+		AGGRESSION,
+		/** The cards the opponent was seen to play. */
+		TIGHTNESS
+	}
+
+	private static final byte[] MAGIC = { 'O', 'P', 'P', '1' };
+	private static final int HEADER_SIZE = 64;
+	private static final int CAPACITY_OFFSET = 4;
+	private static final int COUNT_OFFSET = 8;
+	private static final int RECORD_SIZE = 128;
+	/** The longest name, in UTF-8 bytes, that can have a profile. */
+	public static final int MAX_NAME_BYTES = 62;
+	private static final int STATS_OFFSET = 64;
+	private static final int STAT_SIZE = 32;
+	private static final int STRIPES = 64;
+
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+	/** The record of each profile, by name. */
+	private final Map<String, Integer> slots = new ConcurrentHashMap<String, Integer>();
+	private final StampedLock[] locks = new StampedLock[STRIPES];
+	/** Guards the creation of profiles. */
+	private final Object insertLock = new Object();
+	private int count;
+
+	/**
+	 * Opens a profile file, creating it if it doesn't exist.
+	 *
+	 * @param file
+	 *            The file the profiles are kept in.
+	 * @param capacity
+	 *            The most profiles a new file can hold. An existing file
+	 *            keeps the capacity it was created with.
+	 */
+	public OpponentProfiles(final File file, final int capacity)
+			throws IOException {
+		if (capacity < 1)
+			throw new IllegalArgumentException(
+					"capacity must be positive, was " + capacity);
+		final boolean exists = file.exists() && file.length() > 0;
+		final RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			final long length = exists ? out.length() : HEADER_SIZE
+					+ (long) capacity * RECORD_SIZE;
+			if (length > Integer.MAX_VALUE)
+				throw new IOException("A capacity of " + capacity
+						+ " profiles is too large to map");
+			buffer = out.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+					length);
+		} finally {
+			// The mapping stays valid once the file is closed.
+			out.close();
+		}
+
+		if (exists) {
+			final byte[] magic = new byte[MAGIC.length];
+			buffer.get(0, magic);
+			if (!Arrays.equals(magic, MAGIC))
+				throw new IOException(file + " is not an opponent profile file");
+			this.capacity = buffer.getInt(CAPACITY_OFFSET);
+			count = buffer.getInt(COUNT_OFFSET);
+			if (this.capacity < count
+					|| buffer.capacity() < HEADER_SIZE + (long) this.capacity
+							* RECORD_SIZE)
+				throw new IOException(file + " is truncated");
+			for (int slot = 0; slot < count; slot++) {
+				slots.put(readName(slot), slot);
+			}
+		} else {
+			this.capacity = capacity;
+			buffer.put(0, MAGIC);
+			buffer.putInt(CAPACITY_OFFSET, capacity);
+			buffer.putInt(COUNT_OFFSET, 0);
+		}
+
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new StampedLock();
+		}
+	}
+
+	private String readName(final int slot) {
+		final int base = HEADER_SIZE + slot * RECORD_SIZE;
+		final byte[] utf = new byte[buffer.getShort(base)];
+		buffer.get(base + 2, utf);
+		return new String(utf, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return The record of the named opponent, creating it if asked to, or
+	 *         -1 if there is none (or the name is too long or the file full).
+	 */
+	private int getSlot(final String name, final boolean create) {
+		final Integer slot = slots.get(name);
+		if (slot != null)
+			return slot;
+		if (!create)
+			return -1;
+
+		final byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+		if (utf.length > MAX_NAME_BYTES)
+			return -1;
+		synchronized (insertLock) {
+			final Integer existing = slots.get(name);
+			if (existing != null)
+				return existing;
+			if (count == capacity)
+				return -1;
+
+			final int created = count;
+			final int base = HEADER_SIZE + created * RECORD_SIZE;
+			buffer.putShort(base, (short) utf.length);
+			buffer.put(base + 2, utf);
+			buffer.putInt(COUNT_OFFSET, ++count);
+			// Publishing the slot makes the name visible to other threads.
+			slots.put(name, created);
+			return created;
+		}
+	}
+
+	/**
+	 * Adds an observation to an opponent's profile, creating the profile if
+	 * needed. Opponents whose names are longer than {@link #MAX_NAME_BYTES}
+	 * aren't profiled, and neither are new ones once the file is full.
+	 */
+	public void add(final String name, final Stat stat, final double value) {
+		final int slot = getSlot(name, true);
+		if (slot < 0)
+			return;
+
+		final int base = offset(slot, stat);
+		final StampedLock lock = locks[slot % STRIPES];
+		final long stamp = lock.writeLock();
+		try {
+			// As RunningStat.add, without decay.
+			final double weight = buffer.getDouble(base) + 1;
+			final double mean = buffer.getDouble(base + 8);
+			final double delta = value - mean;
+			final double newMean = mean + delta / weight;
+			buffer.putDouble(base, weight);
+			buffer.putDouble(base + 8, newMean);
+			buffer.putDouble(base + 16, buffer.getDouble(base + 16) + delta
+					* (value - newMean));
+			buffer.putLong(base + 24, buffer.getLong(base + 24) + 1);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return A copy of what is known of one statistic of an opponent (with
+	 *         no prior and no decay), or null if they have no profile.
+	 */
+	public RunningStat get(final String name, final Stat stat) {
+		final int slot = getSlot(name, false);
+		if (slot < 0)
+			return null;
+
+		final int base = offset(slot, stat);
+		final StampedLock lock = locks[slot % STRIPES];
+		long stamp = lock.tryOptimisticRead();
+		RunningStat copy = read(base);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				copy = read(base);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return copy;
+	}
+
+	private RunningStat read(final int base) {
+		return new RunningStat(1, buffer.getDouble(base),
+				buffer.getDouble(base + 8), buffer.getDouble(base + 16),
+				buffer.getLong(base + 24));
+	}
+
+	private static int offset(final int slot, final Stat stat) {
+		return HEADER_SIZE + slot * RECORD_SIZE + STATS_OFFSET
+				+ stat.ordinal() * STAT_SIZE;
+	}
+
+	/**
+	 * @return The number of opponents with a profile.
+	 */
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * Writes the profiles out to the file.
+	 */
+	public void flush() {
+		buffer.force();
+	}
+
+	@Override
+	public void close() {
+		flush();
+	}
+}
@@ -1,113 +1,164 @@
 package com.gmail.jdesmond10.pokerai.agent;
 
-import java.util.ArrayList;
-
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
 import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
 
 /**
  * manages Aggression and Tightness for ProjectPokerPlayer
  * 
+ * Only running statistics are kept, not the states themselves, so every
+ * update and query is O(1) and the memory used doesn't grow over a session.
+ * 
  * @author Tyler Parr
  *
  */
 public class PPPHelpur {
-	private final ArrayList<Double> agg;
-	private final ArrayList<Integer> tight;
-	private final ArrayList<GameStateData> history;
-	// list of previous gameStates
+	/**
+	 * The most observations an opponent's lifetime profile is worth when it
+	 * starts a new match, so that a long history can't drown out what is
+	 * learned in the match itself.
+	 */
+	static final double MAX_PROFILE_WEIGHT = 100;
+
+	/** The share of the opponent's actions in a hand that were bets. */
+	private final RunningStat agg;
+	/** The cards the opponent was seen to play (or fold, as a Queen). */
+	private final RunningStat tight;
 
-	private final double weight;
 	/*
-	 * represents how quickly PPPHelpur will "learn" by filling agg and tight
-	 * with weight number of .5's or 8's, respectively. This prevents the
-	 * program from falling into traps like assuming someone who's folded the
-	 * first two turns will only play if they get an ace.
+	 * The weight represents how quickly PPPHelpur will "learn", by starting
+	 * agg and tight off with weight observations of .5 and 8 respectively.
+	 * This prevents the program from falling into traps like assuming someone
+	 * who's folded the first two turns will only play if they get an ace.
 	 */
 
 	private final boolean turn;
 
+	/** The state before the current one, or null before the first. */
+	private GameStateData previous;
+	/** The state before previous, or null. */
+	private GameStateData beforePrevious;
+	// the opponent's actions so far this hand
+	private int bets;
+	private int checks;
+
+	/** Where what is learned is shared, or null. */
+	private OpponentProfiles profiles;
+	private String opponentName;
+
 	public PPPHelpur(final boolean turn, final int weight) {
-		agg = new ArrayList<Double>();
-		tight = new ArrayList<Integer>();
-		history = new ArrayList<GameStateData>();
-		this.weight = weight;
+		this(turn, weight, 1);
+	}
+
+	/**
+	 * @param turn
+	 *            True if we are player one.
+	 * @param weight
+	 *            How many observations the starting guesses are worth.
+	 * @param decay
+	 *            How much older hands are discounted at each new one, between
+	 *            0 (exclusive) and 1; 1 never forgets.
+	 */
+	public PPPHelpur(final boolean turn, final int weight, final double decay) {
+		agg = new RunningStat(.5, weight, decay);
+		tight = new RunningStat(8, weight, decay);
 		this.turn = turn;
 	}
 
+	/**
+	 * Starts from what the profiles already know of the opponent, worth at
+	 * most {@link #MAX_PROFILE_WEIGHT} observations, and adds everything
+	 * learned from now on to them.
+	 * 
+	 * @param profiles
+	 *            the shared profiles.
+	 * @param opponentName
+	 *            the name of the opponent.
+	 */
+	public void useProfile(final OpponentProfiles profiles,
+			final String opponentName) {
+		this.profiles = profiles;
+		this.opponentName = opponentName;
+		final RunningStat knownAgg = profiles.get(opponentName,
+				OpponentProfiles.Stat.AGGRESSION);
+		if (knownAgg != null) {
+			agg.merge(knownAgg.capWeight(MAX_PROFILE_WEIGHT));
+		}
+		final RunningStat knownTight = profiles.get(opponentName,
+				OpponentProfiles.Stat.TIGHTNESS);
+		if (knownTight != null) {
+			tight.merge(knownTight.capWeight(MAX_PROFILE_WEIGHT));
+		}
+	}
+
 	// return range of behavior for player
 	public void update(final GameStateData currentState) {
-		history.add(currentState);
+		// the last action was the opponent's if it was their turn before it
+		if (previous != null && !previous.isHandOver && !ourTurn(previous)
+				&& currentState.lastAction != null) {
+			if (currentState.lastAction.isCheck()) {
+				checks++;
+			} else if (!currentState.lastAction.isFold()) {
+				bets++;
+			}
+		}
 
 		// adds collected data when a fresh hand begins
 		if (currentState.isHandOver) {
 			updateAgg();
-			updateTight();
+			updateTight(currentState);
 		}
+
+		beforePrevious = previous;
+		previous = currentState;
 	}
 
 	// evaluates opponent aggression over this hand
 	private void updateAgg() {
-		double val = 0;
-		int bets = 0;
-		int checks = 0;
-		for (int i = history.size() - 2; i > 0 || history.get(i).isHandOver; i--) {
-			if (!ourTurn(i) && !newHand(i + 1)) {
-				if (history.get(i + 1).lastAction.isCheck()) {
-					checks++;
-				} else if (!history.get(i + 1).lastAction.isFold()) {
-					bets++;
-				}
-			}
-		}
 		if (bets + checks != 0) {
-			val = bets / (bets + checks);
+			addAgg((double) bets / (bets + checks));
 		}
-		agg.add(val);
+		bets = 0;
+		checks = 0;
 	}
 
-	private void updateTight() {
-		if (turn) {
-			if (history.get(history.size() - 1).playerTwoCard.value != 0) {
-				tight.add(history.get(history.size() - 1).playerTwoCard.value);
-			}
-		} else {
-			if (history.get(history.size() - 1).playerOneCard.value != 0) {
-				tight.add(history.get(history.size() - 1).playerOneCard.value);
-			}
+	private void updateTight(final GameStateData currentState) {
+		final int card = turn ? currentState.playerTwoCard.value
+				: currentState.playerOneCard.value;
+		// only a showdown shows the card; a fold shows Fold or Winner
+		if (card >= Card.Two.value && card <= Card.Ace.value) {
+			addTight(card);
 		}
-		if (history.size() - 2 < 0) {
-
-		} else if (!ourTurn(history.size() - 2)) {
-			if (history.get(history.size() - 1).lastAction == null) {
-				;
-			} else if (history.get(history.size() - 1).lastAction.isFold()) {
-				tight.add(12);
-			}
-		} else {
-			if (history.get(history.size() - 2).playerOneToBet) {
+		if (previous != null && !ourTurn(previous)
+				&& currentState.lastAction != null
+				&& currentState.lastAction.isFold()) {
+			addTight(12);
+		}
+	}
 
-			}
+	private void addAgg(final double value) {
+		agg.add(value);
+		if (profiles != null) {
+			profiles.add(opponentName, OpponentProfiles.Stat.AGGRESSION, value);
 		}
 	}
 
-	private Boolean ourTurn(final int i) {
-		if (turn) {
-			if (history.get(i).playerOneToBet)
-				return true;
-			else
-				return false;
-		} else {
-			if (!history.get(i).playerOneToBet)
-				return true;
-			else
-				return false;
+	private void addTight(final double value) {
+		tight.add(value);
+		if (profiles != null) {
+			profiles.add(opponentName, OpponentProfiles.Stat.TIGHTNESS, value);
 		}
 	}
 
-	private Boolean newHand(final int i) {
-		if (i < 1 || i >= history.size())
-			return false;
-		return history.get(i - 1).isHandOver;
+	private boolean ourTurn(final GameStateData state) {
+		return state.playerOneToBet == turn;
+	}
+
+	/**
+	 * @return True if the latest state is the first of its hand.
+	 */
+	public boolean isStartOfHand() {
+		return beforePrevious == null || beforePrevious.isHandOver;
 	}
 
 	/**
@@ -115,14 +166,7 @@ public class PPPHelpur {
 	 * within the range of get plus or minus getVar.
 	 */
 	public double getAgg() {
-		double rtn = 0;
-		for (int i = 0; i < agg.size(); i++) {
-			rtn += agg.get(i);
-		}
-		rtn += weight * .5;
-		// prevents our value of get tight from shifting too rapidly while
-		// tight.size is small
-		return rtn / (agg.size() + weight);
+		return agg.getMean();
 	}
 
 	/**
@@ -131,53 +175,21 @@ public class PPPHelpur {
 	 * @return
 	 */
 	public double getAggVar() {
-		double rtn = 0;
-		double temp = 0;
-		final double arg = getTight();
-		for (int i = 0; i < agg.size(); i++) {
-			temp = (arg - agg.get(i));
-			rtn += temp * temp;
-		}
-
-		temp = (.5 - arg);
-		rtn += weight * temp * temp;
-		return Math.sqrt(rtn) / Math.sqrt(tight.size() + weight);
+		return agg.getStandardDeviation();
 	}
 
 	public double getTight() {
-		double rtn = 0;
-		for (int i = 0; i < tight.size(); i++) {
-			rtn += tight.get(i);
-		}
-		rtn += weight * 8;
-		// prevents our value of get tight from shifting too rapidly while
-		// tight.size is small
-		return rtn / (tight.size() + weight);
+		return tight.getMean();
 	}
 
 	// finds slightly modified stdom for collected values
 	public double getTightVar() {
-		double rtn = 0;
-		double temp = 0;
-		final double tite = getTight();
-		for (int i = 0; i < tight.size(); i++) {
-			temp = (tite - tight.get(i));
-			rtn += temp * temp;
-		}
-
-		temp = (8 - tite);
-		rtn += weight * temp * temp;
-		return Math.sqrt(rtn) / Math.sqrt(tight.size() + weight);
-	}
-
-	public ArrayList<GameStateData> getHistory() {
-		return history;
+		return tight.getStandardDeviation();
 	}
 
 	@Override
 	public String toString() {
 		return "PPPHelpur [agg=" + getAgg() + ", aggVar=" + getAggVar()
-				+ ", aggConf=" + ", tight=" + tight + ", tightVar="
-				+ getTightVar() + ", tightConf=" + "]";
+				+ ", tight=" + getTight() + ", tightVar=" + getTightVar() + "]";
 	}
 }
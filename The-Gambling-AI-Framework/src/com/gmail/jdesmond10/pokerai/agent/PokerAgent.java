@@ -1,6 +1,7 @@
 package com.gmail.jdesmond10.pokerai.agent;
 
 import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.OpponentAware;
 import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
 import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
 
@@ -11,13 +12,15 @@ import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
  * 
  * @author Josh
  */
-public abstract class PokerAgent implements Client {
+public abstract class PokerAgent implements Client, OpponentAware {
 
 	/**
 	 * Because gameState is immutable, I think it should be okay to have
 	 * subclasses given access to gameState.
 	 */
 	private GameStateData gameState;
+	/** The name of the opponent, or null if it hasn't been given. */
+	private String opponentName;
 
 	/**
 	 * Returns the currently known GameStateData object.
@@ -35,6 +38,24 @@ public abstract class PokerAgent implements Client {
 		gameState = currentState;
 	}
 
+	/**
+	 * Remembers the name of the opponent. Agents that learn about their
+	 * opponents can override this to look up what they already know, but
+	 * must call super.
+	 */
+	@Override
+	public void setOpponentName(final String name) {
+		opponentName = name;
+	}
+
+	/**
+	 * @return The name of the opponent in the current game, or null if it
+	 *         hasn't been given.
+	 */
+	protected final String getOpponentName() {
+		return opponentName;
+	}
+
 	/**
 	 * Initialization method for a PokerAgent.
 	 * 
@@ -1,9 +1,12 @@
 package com.gmail.jdesmond10.pokerai.agent;
 
+import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
 import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
 import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.Equity;
 import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
-import com.gmail.jdesmond10.pokerai.main.Main;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
 
 /**
  * Main Class of the Poker Agent
@@ -15,7 +18,78 @@ public class ProjectPokerPlayer extends PokerAgent {
 	private boolean turn;
 	private PPPHelpur pPPHelpur;
 
-	private final int smallBlind = Main.SMALL_BLIND;
+	private final BetSizer betSizer;
+	/** What is known of opponents, shared between agents, or null. */
+	private final OpponentProfiles profiles;
+	private final BetSizer.Evaluator evaluator = new BetSizer.Evaluator() {
+		@Override
+		public double evaluate(final int amount) {
+			return makeMeMoney(amount);
+		}
+	};
+	// what the opponent might hold, from what they've done
+	private RangeInference rangeInference;
+	// evaluation terms of the current decision
+	private double equity;
+	private boolean startOfHand;
+	private double slope;
+	// raises made so far this hand, by either player
+	private int raises;
+	private GameStateData previousState;
+
+	public ProjectPokerPlayer() {
+		this(new BetSizer());
+	}
+
+	/**
+	 * @param betSizer
+	 *            picks the bet sizes to consider. It must not be shared with
+	 *            another agent.
+	 */
+	public ProjectPokerPlayer(final BetSizer betSizer) {
+		this(betSizer, null);
+	}
+
+	/**
+	 * @param betSizer
+	 *            picks the bet sizes to consider. It must not be shared with
+	 *            another agent.
+	 * @param profiles
+	 *            the opponent profiles to start from and learn into, or null
+	 *            to start every game from scratch.
+	 */
+	public ProjectPokerPlayer(final BetSizer betSizer,
+			final OpponentProfiles profiles) {
+		this.betSizer = betSizer;
+		this.profiles = profiles;
+	}
+
+	/**
+	 * Creates a factory of ProjectPokerPlayers that share what they learn
+	 * about their opponents through the given profiles.
+	 */
+	public static ClientFactory factory(final OpponentProfiles profiles) {
+		return new ClientFactory() {
+			@Override
+			public Client createClient(final boolean isPlayerOne) {
+				return new ProjectPokerPlayer(new BetSizer(), profiles)
+						.initializeAgent(isPlayerOne);
+			}
+
+			@Override
+			public String getName() {
+				return "ProjectPokerPlayer";
+			}
+		};
+	}
+
+	@Override
+	public void setOpponentName(final String name) {
+		super.setOpponentName(name);
+		if (profiles != null && pPPHelpur != null) {
+			pPPHelpur.useProfile(profiles, name);
+		}
+	}
 
 	/**
 	 * Records/Parses the information about the last {@link GameStateData}
@@ -28,6 +102,8 @@ public class ProjectPokerPlayer extends PokerAgent {
 	@Override
 	protected final void recordState(final GameStateData currentState) {
 		pPPHelpur.update(currentState);
+		rangeInference.update(currentState);
+		countRaise(currentState);
 		/*
 		 * not sure if we're using this, depends on how we implement roundBets
 		 * if(newRound()){ for(int i=roundBets.size()-1;i>=0;i--){
@@ -35,6 +111,30 @@ public class ProjectPokerPlayer extends PokerAgent {
 		 */
 	}
 
+	/**
+	 * Counts the raises of the current hand: actions that put in more than
+	 * was needed to call.
+	 */
+	private void countRaise(final GameStateData currentState) {
+		if (previousState == null || previousState.isHandOver) {
+			raises = 0;
+		} else if (currentState.lastAction != null
+				&& !currentState.lastAction.isFold()
+				&& currentState.lastAction.getAmount() > previousState
+						.getCallAmount()) {
+			raises++;
+		}
+		previousState = currentState;
+	}
+
+	/**
+	 * @return The number of raises made so far in the current hand, which
+	 *         limits the raises the BetSizer offers.
+	 */
+	public int getRaisesThisHand() {
+		return raises;
+	}
+
 	/**
 	 * Initialization method for a PokerAgent.
 	 * 
@@ -46,7 +146,10 @@ public class ProjectPokerPlayer extends PokerAgent {
 	@Override
 	public PokerAgent initializeAgent(final boolean isPlayerOne) {
 		pPPHelpur = new PPPHelpur(isPlayerOne, 10);
+		rangeInference = new RangeInference(isPlayerOne);
 		turn = isPlayerOne;
+		raises = 0;
+		previousState = null;
 		return this;
 	}
 
@@ -56,38 +159,33 @@ public class ProjectPokerPlayer extends PokerAgent {
 	 */
 	@Override
 	public BettingAction prompt() {
-		double eq = getEquity();
-		int best = -1;
-		BettingAction jim = BettingAction.FOLD;
-		for (int i = getGameState().getCallAmount(); i < getGameState()
-				.getMaxBetAmount(); i++) {
-			jim = new BettingAction(i);
-			if (makeMeMoney(jim) > eq) {
-				best = i;
-				eq = makeMeMoney(jim);
-			}
-		}
-		if (best == -1)
+		// the terms of makeMeMoney only change between decisions
+		equity = getEquity();
+		startOfHand = pPPHelpur.isStartOfHand();
+		slope = equity - (getTightness() - getCurrentCard().value) / 12;
+
+		final int best = betSizer.choose(getGameState().toPacked(), raises,
+				evaluator);
+		if (best == PackedGameState.FOLD)
 			return BettingAction.FOLD;
-		jim = new BettingAction(best);
-		return (jim);
+		return new BettingAction(best);
 	}
 
 	/**
 	 * 
 	 * @return evaluates net change of A bettingAction
 	 */
-	private double makeMeMoney(final BettingAction bet) {
+	private double makeMeMoney(final int amount) {
+
+		// folding keeps what we have; a bet has to beat it
+		if (amount == PackedGameState.FOLD)
+			return equity;
 
-		if ((bet.isFold()) || bet.isCheck())
+		if (amount == 0)
 			return 3;
 
-		if (pPPHelpur.getHistory().size() - 2 < 0
-				|| pPPHelpur.getHistory()
-				.get(pPPHelpur.getHistory().size() - 2).isHandOver)
-			return getEquity() * bet.getAmount()
-					- (getTightness() - getCurrentCard().value) / 12
-					* bet.getAmount();
+		if (startOfHand)
+			return slope * amount;
 
 		else
 			return 0;
@@ -103,13 +201,9 @@ public class ProjectPokerPlayer extends PokerAgent {
 	 * @return raw statistical amount of pot owned
 	 */
 	private double getEquity() {
-		if (turn = false)
-			return ((getGameState().playerOneCard.value - 1.5) / 13)
-					* (getGameState().playerOneAmountBetSoFar + getGameState().playerTwoAmountBetSoFar);
-		else
-			return ((getGameState().playerTwoCard.value - 1.5) / 13)
-					* (getGameState().playerOneAmountBetSoFar + getGameState().playerTwoAmountBetSoFar);
-
+		return Equity.DEFAULT.getEquity(getCurrentCard(),
+				rangeInference.getRange())
+				* (getGameState().playerOneAmountBetSoFar + getGameState().playerTwoAmountBetSoFar);
 	}
 
 	/**
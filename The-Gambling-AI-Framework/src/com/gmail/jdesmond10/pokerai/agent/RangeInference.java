@@ -0,0 +1,164 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import java.util.Arrays;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.game.logic.Range;
+
+/**
+ * Infers what card the opponent holds from what they do. An agent passes
+ * every state it is informed of to {@link #update(GameStateData)}; each
+ * action of the opponent then narrows {@link #getRange()} by Bayes' rule:
+ * the weight of each rank is multiplied by how likely the opponent is to act
+ * that way holding it.
+ *
+ * Those likelihoods are learned from showdowns, where the opponent's card is
+ * shown: every action they took in the hand is counted against the card they
+ * turned out to have. Actions are put into a few buckets (call or check,
+ * raise of up to the pot, bigger raise), and every count starts from a small
+ * prior in which better cards raise more, so an unseen combination is unlikely
+ * rather than impossible and a fresh table already reads something into a
+ * raise. Hands the opponent folded never teach anything, so the tables only
+ * describe hands that go to showdown; that bias is the price of learning from
+ * what can be seen.
+ *
+ * Updates cost O(ranks) and allocate nothing. Not thread safe; each agent
+ * keeps its own.
+ */
+public final class RangeInference {
+
+	/** A call, or a check. */
+	public static final int CALL = 0;
+	/** A raise of up to the pot after calling. */
+	public static final int SMALL_RAISE = 1;
+	/** A raise of more than the pot after calling, including all-ins. */
+	public static final int BIG_RAISE = 2;
+	private static final int BUCKETS = 3;
+	/** The most actions of one hand remembered for learning. */
+	private static final int MAX_ACTIONS = 64;
+
+	private final boolean isPlayerOne;
+	private final Range range = new Range();
+	/** counts[bucket][rank]: actions seen from each card at showdown. */
+	private final double[][] counts = new double[BUCKETS][Card.NUM_RANKS];
+	/** The sum of each rank's counts over the buckets. */
+	private final double[] rankCounts = new double[Card.NUM_RANKS];
+	private final double[] likelihood = new double[Card.NUM_RANKS];
+	/** The buckets of the opponent's actions this hand. */
+	private final int[] actions = new int[MAX_ACTIONS];
+	private int actionCount;
+	private GameStateData previous;
+	private int showdowns;
+
+	/**
+	 * @param isPlayerOne
+	 *            True if the agent using this is player one, so the opponent
+	 *            is player two.
+	 */
+	public RangeInference(final boolean isPlayerOne) {
+		this.isPlayerOne = isPlayerOne;
+		// The prior: raises, big ones most of all, come from better cards.
+		for (int rank = 0; rank < Card.NUM_RANKS; rank++) {
+			final double strength = (rank + 1.0) / Card.NUM_RANKS;
+			counts[CALL][rank] = 1;
+			counts[SMALL_RAISE][rank] = 2 * strength;
+			counts[BIG_RAISE][rank] = 2 * strength * strength;
+			rankCounts[rank] = counts[CALL][rank] + counts[SMALL_RAISE][rank]
+					+ counts[BIG_RAISE][rank];
+		}
+	}
+
+	/**
+	 * Takes in the next state the agent was informed of.
+	 */
+	public void update(final GameStateData state) {
+		// The last action was the opponent's if it was their turn before it.
+		if (previous != null && !previous.isHandOver
+				&& previous.playerOneToBet != isPlayerOne
+				&& state.lastAction != null && !state.lastAction.isFold()) {
+			final int bucket = getBucket(state.lastAction, previous);
+			if (actionCount < MAX_ACTIONS) {
+				actions[actionCount++] = bucket;
+			}
+			for (int rank = 0; rank < Card.NUM_RANKS; rank++) {
+				likelihood[rank] = counts[bucket][rank] / rankCounts[rank];
+			}
+			range.multiply(likelihood);
+			range.normalize();
+		}
+
+		if (state.isHandOver && (previous == null || !previous.isHandOver)) {
+			learn(isPlayerOne ? state.playerTwoCard : state.playerOneCard);
+			range.setUniform();
+			actionCount = 0;
+		}
+		previous = state;
+	}
+
+	/**
+	 * Counts the hand's actions against the opponent's card, if it was shown.
+	 */
+	private void learn(final Card card) {
+		if (card.value < Card.Two.value || card.value > Card.Ace.value)
+			return;
+		final int rank = card.rank();
+		for (int i = 0; i < actionCount; i++) {
+			counts[actions[i]][rank]++;
+			rankCounts[rank]++;
+		}
+		showdowns++;
+	}
+
+	/**
+	 * @param action
+	 *            An action other than a fold.
+	 * @param before
+	 *            The state the action was taken in.
+	 * @return The bucket of the action.
+	 */
+	static int getBucket(final BettingAction action, final GameStateData before) {
+		return getBucket(action.getAmount(), before.getCallAmount(),
+				before.potSize);
+	}
+
+	/**
+	 * @param amount
+	 *            The amount put in.
+	 * @param call
+	 *            The amount needed to call.
+	 * @param pot
+	 *            The pot before the action.
+	 * @return The bucket of the action.
+	 */
+	static int getBucket(final int amount, final int call, final int pot) {
+		final int raise = amount - call;
+		if (raise <= 0)
+			return CALL;
+		return raise <= pot + call ? SMALL_RAISE : BIG_RAISE;
+	}
+
+	/**
+	 * @return The chances of the opponent's card given what they've done this
+	 *         hand. The Range is updated in place, so copy it to keep it.
+	 */
+	public Range getRange() {
+		return range;
+	}
+
+	/**
+	 * @return The learned chance of an action of the bucket, given the
+	 *         opponent holds the rank.
+	 */
+	public double getLikelihood(final int bucket, final int rank) {
+		return counts[bucket][rank] / rankCounts[rank];
+	}
+
+	/**
+	 * @return The number of showdowns learned from.
+	 */
+	public int getShowdownCount() {
+		return showdowns;
+	}
+}
@@ -0,0 +1,158 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+/**
+ * The running mean and variance of a stream of observations, kept in
+ * constant memory with Welford's algorithm, so that adding an observation
+ * and reading the statistics are both O(1) however long the stream.
+ *
+ * A RunningStat starts from a prior: a number of imaginary observations of a
+ * guessed mean, which keeps the statistics from swinging wildly over the
+ * first few real ones. It can also forget: with a decay below 1, the weight
+ * of everything seen so far is multiplied by the decay before each new
+ * observation, so an opponent who changes style is tracked within roughly
+ * 1 / (1 - decay) observations.
+ */
+public final class RunningStat {
+
+	private final double decay;
+	/** Total weight of the prior and the observations. */
+	private double weight;
+	private double mean;
+	/** Weighted sum of squared differences from the mean. */
+	private double squares;
+	private long count;
+
+	/**
+	 * A RunningStat with no prior that never forgets.
+	 */
+	public RunningStat() {
+		this(0, 0, 1);
+	}
+
+	/**
+	 * @param priorMean
+	 *            The mean before any observation.
+	 * @param priorWeight
+	 *            How many observations the prior is worth.
+	 * @param decay
+	 *            The factor, between 0 (exclusive) and 1, by which older
+	 *            observations are discounted at each new one. 1 weighs every
+	 *            observation equally.
+	 */
+	public RunningStat(final double priorMean, final double priorWeight,
+			final double decay) {
+		if (priorWeight < 0)
+			throw new IllegalArgumentException(
+					"priorWeight can't be negative, was " + priorWeight);
+		if (!(decay > 0 && decay <= 1))
+			throw new IllegalArgumentException(
+					"decay must be in (0, 1], was " + decay);
+		this.decay = decay;
+		weight = priorWeight;
+		mean = priorMean;
+	}
+
+	/**
+	 * Restores a RunningStat from its fields.
+	 */
+	RunningStat(final double decay, final double weight, final double mean,
+			final double squares, final long count) {
+		this(mean, weight, decay);
+		this.squares = squares;
+		this.count = count;
+	}
+
+	/**
+	 * Adds an observation.
+	 */
+	public void add(final double value) {
+		weight = weight * decay + 1;
+		squares *= decay;
+		final double delta = value - mean;
+		mean += delta / weight;
+		squares += delta * (value - mean);
+		count++;
+	}
+
+	/**
+	 * Adds everything another RunningStat has seen (including its prior) to
+	 * this one, as if the observations had been added here. Decay is not
+	 * applied to either side.
+	 */
+	public void merge(final RunningStat other) {
+		final double total = weight + other.weight;
+		if (total == 0)
+			return;
+		final double delta = other.mean - mean;
+		squares += other.squares + delta * delta * weight * other.weight
+				/ total;
+		mean += delta * other.weight / total;
+		weight = total;
+		count += other.count;
+	}
+
+	/**
+	 * @param maxWeight
+	 *            The most observations the copy may be worth.
+	 * @return A copy with the same mean and variance, worth at most maxWeight
+	 *         observations, for merging into another RunningStat as a prior
+	 *         that new observations can still outweigh. The copy never
+	 *         forgets.
+	 */
+	public RunningStat capWeight(final double maxWeight) {
+		if (maxWeight < 0)
+			throw new IllegalArgumentException(
+					"maxWeight can't be negative, was " + maxWeight);
+		if (weight <= maxWeight)
+			return new RunningStat(1, weight, mean, squares, count);
+		final double scale = maxWeight / weight;
+		return new RunningStat(1, maxWeight, mean, squares * scale,
+				Math.round(count * scale));
+	}
+
+	/**
+	 * @return The number of observations added (not counting the prior).
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The total weight of the prior and the observations.
+	 */
+	public double getWeight() {
+		return weight;
+	}
+
+	double getSquares() {
+		return squares;
+	}
+
+	/**
+	 * @return The weighted mean of the prior and the observations.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * @return The weighted (population) variance of the prior and the
+	 *         observations, or 0 before there is any weight.
+	 */
+	public double getVariance() {
+		return weight == 0 ? 0 : squares / weight;
+	}
+
+	/**
+	 * @return The square root of {@link #getVariance()}.
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	@Override
+	public String toString() {
+		return "RunningStat [count=" + count + ", mean=" + mean
+				+ ", standardDeviation=" + getStandardDeviation() + "]";
+	}
+}
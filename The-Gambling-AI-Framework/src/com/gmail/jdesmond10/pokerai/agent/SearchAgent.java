@@ -0,0 +1,422 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BetAbstraction;
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+import com.gmail.jdesmond10.pokerai.game.logic.Range;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+
+/**
+ * Looks ahead. At each decision the agent runs a depth-limited expectimax
+ * over the rest of the betting: the opponent's card is a chance node weighted
+ * by the {@link RangeInference} posterior, the opponent's actions are chance
+ * nodes weighted by an opponent model, and the agent's own later actions are
+ * max nodes. Positions where the depth runs out are valued as if the hand
+ * were checked down.
+ *
+ * The root action is chosen against the whole range, but below the root each
+ * branch knows the opponent's assumed card, so later decisions are slightly
+ * optimistic; this is the usual price of searching one card at a time.
+ *
+ * The opponent model: facing a bet, the opponent folds as often as they have
+ * been seen to fold to bets of that size (cheap or not), and the more often
+ * the worse their card; otherwise they pick a kind of action (call, small or
+ * big raise) as often as the inference has seen them do it with that card at
+ * showdown.
+ *
+ * The model is a snapshot, taken again only when the number of observations
+ * behind it has doubled, so that its values stay in the
+ * {@link TranspositionTable} (shared by every SearchAgent) for many
+ * decisions instead of one.
+ *
+ * The search deepens one action at a time until it reaches its most depth or
+ * its time budget runs out, and plays the choice of the deepest search it
+ * finished. It runs on packed states with the engine's own rules, with
+ * actions from a {@link BetAbstraction}.
+ */
+public class SearchAgent extends PokerAgent {
+
+	/** How many actions ahead the agent looks at most by default. */
+	public static final int DEFAULT_DEPTH = 6;
+	/** How long the agent searches each decision for by default. */
+	public static final long DEFAULT_TIME_BUDGET_MILLIS = 5;
+	/** Positions searched between two looks at the clock. */
+	private static final int CLOCK_INTERVAL = 256;
+	private static final int RANKS = Card.NUM_RANKS;
+	/** Folds assumed of the opponent, before any are seen, and their weight. */
+	private static final double PRIOR_FOLD_RATE = 0.3;
+	private static final double PRIOR_FOLD_WEIGHT = 4;
+
+	/** 4MB of values, shared by every agent; keys tell the agents apart. */
+	private static final TranspositionTable SHARED_TABLE = new TranspositionTable(
+			18);
+	private static final AtomicLong AGENT_IDS = new AtomicLong();
+
+	private final int maxDepth;
+	private final long timeBudgetNanos;
+	private final TranspositionTable table;
+	private final BetAbstraction abstraction = BetAbstraction.DEFAULT;
+	private final long id = AGENT_IDS.incrementAndGet();
+	/** The actions of each ply, reused. */
+	private final int[][] actions;
+	/** The opponent model's weights of each ply's actions, reused. */
+	private final double[][] weights;
+
+	private boolean isPlayerOne;
+	/** The blinds of the hand being searched. */
+	private TableRules rules;
+	private RangeInference inference;
+	/** How often the opponent folds to small bets, then to big ones. */
+	private final RunningStat[] foldRates = new RunningStat[2];
+	private GameStateData previous;
+	/** The raises made so far in the hand being played, by either player. */
+	private int raises;
+
+	/** The snapshot of foldRates the search uses. */
+	private final double[] foldModel = new double[2];
+	/** The snapshot of the inference's likelihoods, by bucket and rank. */
+	private final double[][] actionModel = new double[3][RANKS];
+	/** Which snapshot is in use; see {@link #updateModel()}. */
+	private int modelEpoch;
+	/** Separates this search's values from other agents' and models'. */
+	private long salt;
+
+	/** The depth of the search being run. */
+	private int depth;
+	private int completedDepth;
+	private long deadline;
+	private boolean outOfTime;
+	private long nodes;
+
+	public SearchAgent() {
+		this(DEFAULT_DEPTH, DEFAULT_TIME_BUDGET_MILLIS, SHARED_TABLE);
+	}
+
+	/**
+	 * Creates an agent that always searches to the given depth, however long
+	 * it takes.
+	 *
+	 * @param depth
+	 *            The number of actions to look ahead, at least 1.
+	 * @param table
+	 *            Where values are cached; may be shared with other agents.
+	 */
+	public SearchAgent(final int depth, final TranspositionTable table) {
+		this(depth, 0, table);
+	}
+
+	/**
+	 * @param maxDepth
+	 *            The most actions to look ahead, at least 1.
+	 * @param timeBudgetMillis
+	 *            How long a decision may take, or 0 for no limit. The search
+	 *            one action ahead always finishes, whatever the budget.
+	 * @param table
+	 *            Where values are cached; may be shared with other agents.
+	 */
+	public SearchAgent(final int maxDepth, final long timeBudgetMillis,
+			final TranspositionTable table) {
+		if (maxDepth < 1)
+			throw new IllegalArgumentException(
+					"maxDepth must be positive, was " + maxDepth);
+		if (timeBudgetMillis < 0)
+			throw new IllegalArgumentException(
+					"timeBudgetMillis must not be negative, was "
+							+ timeBudgetMillis);
+		this.maxDepth = maxDepth;
+		timeBudgetNanos = timeBudgetMillis * 1000000;
+		this.table = table;
+		actions = new int[maxDepth][abstraction.getMaxActions()];
+		weights = new double[maxDepth][abstraction.getMaxActions()];
+	}
+
+	@Override
+	public PokerAgent initializeAgent(final boolean isPlayerOne) {
+		this.isPlayerOne = isPlayerOne;
+		inference = new RangeInference(isPlayerOne);
+		for (int i = 0; i < foldRates.length; i++) {
+			foldRates[i] = new RunningStat(PRIOR_FOLD_RATE, PRIOR_FOLD_WEIGHT,
+					1);
+		}
+		previous = null;
+		raises = 0;
+		modelEpoch = -1;
+		return this;
+	}
+
+	@Override
+	protected void recordState(final GameStateData currentState) {
+		inference.update(currentState);
+		// Did the opponent fold to a bet?
+		if (previous != null && !previous.isHandOver
+				&& previous.playerOneToBet != isPlayerOne
+				&& previous.getCallAmount() > 0
+				&& currentState.lastAction != null) {
+			foldRates[getBetSize(previous.getCallAmount(), previous.potSize)]
+					.add(currentState.lastAction.isFold() ? 1 : 0);
+		}
+		// Raises limit the actions left, so the search starts from the hand's.
+		if (previous == null || previous.isHandOver) {
+			raises = 0;
+		} else if (currentState.lastAction != null
+				&& !currentState.lastAction.isFold()
+				&& currentState.lastAction.getAmount() > previous
+						.getCallAmount()) {
+			raises++;
+		}
+		previous = currentState;
+	}
+
+	@Override
+	public BettingAction prompt() {
+		nodes = 0;
+		outOfTime = false;
+		deadline = System.nanoTime() + timeBudgetNanos;
+		updateModel();
+
+		rules = getGameState().rules;
+		final long state = getGameState().toPacked();
+		final Card own = isPlayerOne ? PackedGameState.playerOneCard(state)
+				: PackedGameState.playerTwoCard(state);
+		final Range range = inference.getRange();
+		final int count = abstraction.getActions(state, raises, actions[0]);
+		final int call = PackedGameState.getCallAmount(state);
+
+		int best = actions[0][0];
+		completedDepth = 0;
+		for (depth = 1; depth <= maxDepth; depth++) {
+			int bestThisDepth = actions[0][0];
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < count && !outOfTime; i++) {
+				final int action = actions[0][i];
+				double value = 0;
+				for (int rank = 0; rank < RANKS; rank++) {
+					final double p = range.getProbability(rank);
+					if (p == 0) {
+						continue;
+					}
+					final long dealt = isPlayerOne ? PackedGameState
+							.withCards(state, own, Card.fromRank(rank))
+							: PackedGameState.withCards(state,
+									Card.fromRank(rank), own);
+					value += p
+							* search(PackedGameState.applyAction(dealt,
+									action, rules), 1,
+									action > call ? raises + 1 : raises);
+				}
+				if (value > bestValue) {
+					bestThisDepth = action;
+					bestValue = value;
+				}
+			}
+			// A search cut short has only looked at some of the actions.
+			if (outOfTime) {
+				break;
+			}
+			best = bestThisDepth;
+			completedDepth = depth;
+		}
+
+		if (best == PackedGameState.FOLD)
+			return BettingAction.FOLD;
+		return new BettingAction(best);
+	}
+
+	/**
+	 * Takes a new snapshot of the opponent model each time the number of
+	 * observations behind it doubles. Values in the table only hold for one
+	 * snapshot, so the salt changes with it; early on the model moves a lot
+	 * with each observation and is taken again often, later hardly at all.
+	 */
+	private void updateModel() {
+		final long observations = inference.getShowdownCount()
+				+ foldRates[0].getCount() + foldRates[1].getCount();
+		final int epoch = 64 - Long.numberOfLeadingZeros(observations);
+		if (epoch == modelEpoch)
+			return;
+
+		modelEpoch = epoch;
+		salt = id << 32 | epoch;
+		for (int size = 0; size < foldModel.length; size++) {
+			foldModel[size] = foldRates[size].getMean();
+		}
+		for (int bucket = 0; bucket < actionModel.length; bucket++) {
+			for (int rank = 0; rank < RANKS; rank++) {
+				actionModel[bucket][rank] = inference.getLikelihood(bucket,
+						rank);
+			}
+		}
+	}
+
+	/**
+	 * @param state
+	 *            A packed state with both cards known.
+	 * @param ply
+	 *            The number of actions taken since the root.
+	 * @param raises
+	 *            The number of raises made so far in the hand.
+	 * @return The chips the agent expects to have after the hand.
+	 */
+	private double search(final long state, final int ply, final int raises) {
+		if (outOfTime)
+			return 0;
+		if (++nodes % CLOCK_INTERVAL == 0 && timeBudgetNanos > 0 && depth > 1
+				&& System.nanoTime() > deadline) {
+			outOfTime = true;
+			return 0;
+		}
+		if (PackedGameState.isHandOver(state) || ply == depth)
+			return getOwnStack(PackedGameState.endHand(state));
+
+		final long key = TranspositionTable.key(state, depth - ply, raises,
+				salt);
+		final double cached = table.get(key);
+		if (!Double.isNaN(cached))
+			return cached;
+
+		final int[] plyActions = actions[ply];
+		final int count = abstraction.getActions(state, raises, plyActions);
+		final int call = PackedGameState.getCallAmount(state);
+		final boolean ownTurn = PackedGameState.playerOneToBet(state) == isPlayerOne;
+		double value;
+		if (ownTurn) {
+			value = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < count; i++) {
+				value = Math.max(value, search(PackedGameState.applyAction(
+						state, plyActions[i], rules), ply + 1,
+						plyActions[i] > call ? raises + 1 : raises));
+			}
+		} else {
+			final double[] plyWeights = weights[ply];
+			getOpponentModel(state, plyActions, count, plyWeights);
+			value = 0;
+			for (int i = 0; i < count; i++) {
+				if (plyWeights[i] > 0) {
+					value += plyWeights[i]
+							* search(PackedGameState.applyAction(state,
+									plyActions[i], rules), ply + 1,
+									plyActions[i] > call ? raises + 1 : raises);
+				}
+			}
+		}
+
+		// Values below a search cut short are incomplete.
+		if (!outOfTime) {
+			table.put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Writes how likely the opponent is to take each action into weights.
+	 */
+	private void getOpponentModel(final long state, final int[] actions,
+			final int count, final double[] weights) {
+		final int rank = (isPlayerOne ? PackedGameState.playerTwoCard(state)
+				: PackedGameState.playerOneCard(state)).rank();
+		final int call = PackedGameState.getCallAmount(state);
+		final int pot = PackedGameState.potSize(state);
+
+		// Worse cards fold more, as often on average as the opponent has.
+		double fold = 0;
+		if (call > 0) {
+			final double equity = (rank + 0.5) / RANKS;
+			fold = Math.min(1, 2 * foldModel[getBetSize(call, pot)]
+					* (1 - equity));
+		}
+
+		// Share what's left between the kinds of action on offer.
+		int calls = 0;
+		int smallRaises = 0;
+		int bigRaises = 0;
+		for (int i = 0; i < count; i++) {
+			if (actions[i] == PackedGameState.FOLD) {
+				continue;
+			}
+			switch (RangeInference.getBucket(actions[i], call, pot)) {
+			case RangeInference.CALL:
+				calls++;
+				break;
+			case RangeInference.SMALL_RAISE:
+				smallRaises++;
+				break;
+			default:
+				bigRaises++;
+			}
+		}
+		final double callLikelihood = calls > 0 ? actionModel[RangeInference.CALL][rank]
+				: 0;
+		final double smallLikelihood = smallRaises > 0 ? actionModel[RangeInference.SMALL_RAISE][rank]
+				: 0;
+		final double bigLikelihood = bigRaises > 0 ? actionModel[RangeInference.BIG_RAISE][rank]
+				: 0;
+		final double total = callLikelihood + smallLikelihood + bigLikelihood;
+
+		for (int i = 0; i < count; i++) {
+			if (actions[i] == PackedGameState.FOLD) {
+				weights[i] = fold;
+				continue;
+			}
+			final double likelihood;
+			final int sharing;
+			switch (RangeInference.getBucket(actions[i], call, pot)) {
+			case RangeInference.CALL:
+				likelihood = callLikelihood;
+				sharing = calls;
+				break;
+			case RangeInference.SMALL_RAISE:
+				likelihood = smallLikelihood;
+				sharing = smallRaises;
+				break;
+			default:
+				likelihood = bigLikelihood;
+				sharing = bigRaises;
+			}
+			weights[i] = (1 - fold) * likelihood / total / sharing;
+		}
+	}
+
+	/**
+	 * @return 0 if a call of the given amount is cheap (less than a quarter of
+	 *         the pot after calling), 1 if it isn't.
+	 */
+	private static int getBetSize(final int call, final int pot) {
+		return 4 * call < pot + call ? 0 : 1;
+	}
+
+	private int getOwnStack(final long state) {
+		return isPlayerOne ? PackedGameState.playerOneStack(state)
+				: PackedGameState.playerTwoStack(state);
+	}
+
+	/**
+	 * @return The number of positions searched in the last decision.
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * @return The number of raises made so far in the current hand, which
+	 *         limits the actions searched.
+	 */
+	public int getRaisesThisHand() {
+		return raises;
+	}
+
+	/**
+	 * @return The depth of the deepest search finished in the last decision.
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	@Override
+	public String getName() {
+		return "SearchAgent";
+	}
+}
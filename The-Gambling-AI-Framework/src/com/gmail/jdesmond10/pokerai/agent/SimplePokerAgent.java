@@ -67,7 +67,7 @@ public abstract class SimplePokerAgent extends PokerAgent {
 	 *         blinds).
 	 */
 	protected boolean isPoor() {
-		if (getMyMoney() < Main.BIG_BLIND * 10)
+		if (getMyMoney() < getGameState().rules.getBigBlind() * 10)
 			return true;
 		else
 			return false;
@@ -78,7 +78,7 @@ public abstract class SimplePokerAgent extends PokerAgent {
 	 * @return True if you have 1.7* the amount of money you started with.
 	 */
 	protected boolean isRich() {
-		if (getMyMoney() > 1.7 * Main.STARTING_CHIPS)
+		if (getMyMoney() > 1.7 * getGameState().rules.getStartingChips())
 			return true;
 		else
 			return false;
@@ -0,0 +1,85 @@
+package com.gmail.jdesmond10.pokerai.agent;
+
+/**
+ * A fixed-size table of search values by key, that any number of threads
+ * can read and write without locks.
+ *
+ * Each entry is two longs: the value's bits, and the key XORed with them. An
+ * entry torn by two threads writing at once no longer XORs back to its key,
+ * so it reads as a miss instead of returning a wrong value. A new entry
+ * always replaces the one in its slot.
+ */
+public final class TranspositionTable {
+
+	private final long[] keys;
+	private final long[] values;
+	private final int mask;
+
+	/**
+	 * @param log2Entries
+	 *            The table has 2^log2Entries entries, of 16 bytes each.
+	 */
+	public TranspositionTable(final int log2Entries) {
+		if (log2Entries < 1 || log2Entries > 30)
+			throw new IllegalArgumentException(
+					"log2Entries must be between 1 and 30, was " + log2Entries);
+		keys = new long[1 << log2Entries];
+		values = new long[1 << log2Entries];
+		mask = (1 << log2Entries) - 1;
+	}
+
+	/**
+	 * Mixes a position into a key.
+	 *
+	 * @param state
+	 *            A packed state, including any cards assumed.
+	 * @param depth
+	 *            The depth left to search below the state.
+	 * @param raises
+	 *            The number of raises made on the way to the state, which
+	 *            limits the actions below it.
+	 * @param salt
+	 *            Whatever else the value depends on, such as who is searching
+	 *            and with which model.
+	 * @return The key.
+	 */
+	public static long key(final long state, final int depth,
+			final int raises, final long salt) {
+		return mix(mix(mix(state) ^ ((long) raises << 32 | depth)) ^ salt);
+	}
+
+	/** SplitMix64's finalizer. */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return The value stored under the key, or NaN if there is none.
+	 */
+	public double get(final long key) {
+		final int slot = (int) key & mask;
+		final long bits = values[slot];
+		if ((keys[slot] ^ bits) != key)
+			return Double.NaN;
+		return Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * Stores a value, which must not be NaN.
+	 */
+	public void put(final long key, final double value) {
+		final int slot = (int) key & mask;
+		final long bits = Double.doubleToRawLongBits(value);
+		values[slot] = bits;
+		keys[slot] = key ^ bits;
+	}
+
+	/**
+	 * @return The number of entries.
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+}
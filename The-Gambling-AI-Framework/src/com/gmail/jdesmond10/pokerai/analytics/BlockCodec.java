@@ -0,0 +1,152 @@
+package com.gmail.jdesmond10.pokerai.analytics;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes and decodes the blocks of a column file.
+ *
+ * A column file starts with the four bytes {@link #MAGIC} and then holds
+ * blocks of up to {@link #BLOCK_ROWS} values. A block is a header of the row
+ * count, the smallest and largest value (each 4 bytes big endian), the width
+ * byte and the 4 byte length of the data, followed by the data: each value
+ * minus the smallest, little endian in width bytes, deflated. A block whose
+ * values are all the same has a width of 0 and no data.
+ *
+ * The i-th block of every column of an export holds the same rows, so the
+ * headers alone tell a query which blocks can't match.
+ *
+ * A BlockCodec keeps its buffers between blocks, so it is not thread safe.
+ */
+final class BlockCodec {
+
+	static final byte[] MAGIC = { 'C', 'O', 'L', '1' };
+	static final int BLOCK_ROWS = 1 << 16;
+	static final int HEADER_SIZE = 17;
+
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private final Inflater inflater = new Inflater();
+	private final byte[] raw = new byte[BLOCK_ROWS * 4];
+	private byte[] compressed = new byte[BLOCK_ROWS];
+
+	/**
+	 * Writes one block.
+	 *
+	 * @param values
+	 *            The values, of which the first rows are written.
+	 */
+	void write(final DataOutputStream out, final int[] values, final int rows)
+			throws IOException {
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (int i = 0; i < rows; i++) {
+			min = Math.min(min, values[i]);
+			max = Math.max(max, values[i]);
+		}
+		final int width = width((long) max - min);
+		out.writeInt(rows);
+		out.writeInt(min);
+		out.writeInt(max);
+		out.writeByte(width);
+		if (width == 0) {
+			out.writeInt(0);
+			return;
+		}
+
+		for (int i = 0, p = 0; i < rows; i++) {
+			final int value = values[i] - min;
+			for (int b = 0; b < width; b++) {
+				raw[p++] = (byte) (value >>> (8 * b));
+			}
+		}
+		deflater.reset();
+		deflater.setInput(raw, 0, rows * width);
+		deflater.finish();
+		int length = 0;
+		while (!deflater.finished()) {
+			if (length == compressed.length) {
+				compressed = Arrays.copyOf(compressed, 2 * length);
+			}
+			length += deflater.deflate(compressed, length, compressed.length
+					- length);
+		}
+		out.writeInt(length);
+		out.write(compressed, 0, length);
+	}
+
+	/**
+	 * Reads one block.
+	 *
+	 * @param data
+	 *            The block's data, from position to limit.
+	 * @param out
+	 *            Where the values go, from index 0.
+	 */
+	void read(final ByteBuffer data, final int rows, final int min,
+			final int width, final int[] out) throws IOException {
+		if (width == 0) {
+			Arrays.fill(out, 0, rows, min);
+			return;
+		}
+
+		final int length = rows * width;
+		inflater.reset();
+		inflater.setInput(data);
+		try {
+			for (int n = 0; n < length;) {
+				final int read = inflater.inflate(raw, n, length - n);
+				if (read == 0 && (inflater.finished() || inflater.needsInput()))
+					throw new IOException("Truncated column block");
+				n += read;
+			}
+		} catch (final DataFormatException e) {
+			throw new IOException("Corrupt column block", e);
+		}
+
+		switch (width) {
+		case 1:
+			for (int i = 0; i < rows; i++) {
+				out[i] = min + (raw[i] & 0xFF);
+			}
+			break;
+		case 2:
+			for (int i = 0, p = 0; i < rows; i++, p += 2) {
+				out[i] = min + ((raw[p] & 0xFF) | (raw[p + 1] & 0xFF) << 8);
+			}
+			break;
+		default:
+			for (int i = 0, p = 0; i < rows; i++, p += 4) {
+				out[i] = min
+						+ ((raw[p] & 0xFF) | (raw[p + 1] & 0xFF) << 8
+								| (raw[p + 2] & 0xFF) << 16 | raw[p + 3] << 24);
+			}
+		}
+	}
+
+	/**
+	 * Frees the native compression state. The codec can't be used after.
+	 */
+	void end() {
+		deflater.end();
+		inflater.end();
+	}
+
+	/**
+	 * @return The fewest bytes (0, 1, 2 or 4) that hold every value from 0 to
+	 *         range.
+	 */
+	static int width(final long range) {
+		if (range == 0)
+			return 0;
+		if (range < 1 << 8)
+			return 1;
+		if (range < 1 << 16)
+			return 2;
+		return 4;
+	}
+}
@@ -0,0 +1,49 @@
+package com.gmail.jdesmond10.pokerai.analytics;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * The columns of an exported hand history. There is one row per decision: a
+ * player facing a bet, the state they faced it in, and what they did. Every
+ * column holds ints.
+ *
+ * @see ColumnarExporter
+ */
+public enum Column {
+	/** The number of the hand in the export, counting from 0. */
+	HAND,
+	/** The seat of the player deciding: 0 for player one, 1 for player two. */
+	SEAT,
+	/** The player deciding, as an id from {@link ColumnStore#getPlayerId}. */
+	PLAYER,
+	/** The value of the deciding player's card, from 2 (Two) to 14 (Ace). */
+	CARD,
+	/** The amount put in, or -2 for a fold. A check is 0. */
+	ACTION,
+	/** 1 if the action put every remaining chip in, otherwise 0. */
+	ALL_IN,
+	/** The amount the player had to put in to call. */
+	CALL,
+	/** The chips in the pot, including this betting round. */
+	POT,
+	/** The deciding player's chips behind. */
+	STACK,
+	/** The opponent's chips behind. */
+	OPPONENT_STACK,
+	/** The seat that won the hand, or -1 if the pot was split. */
+	WINNER,
+	/** The deciding player's net winnings from the hand. */
+	WINNINGS;
+
+	/** Cached copy of values(), since values() clones the array on every call. */
+	static final Column[] VALUES = values();
+
+	/**
+	 * @return The file the column is stored in, inside an export's
+	 *         directory.
+	 */
+	File getFile(final File directory) {
+		return new File(directory, name().toLowerCase(Locale.ROOT) + ".col");
+	}
+}
@@ -0,0 +1,150 @@
+package com.gmail.jdesmond10.pokerai.analytics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scan over a {@link ColumnStore}, filtered by ranges of column values. For
+ * example, how often TheManiac shoves with a Nine:
+ *
+ * <pre>
+ * store.query().where(Column.PLAYER, store.getPlayerId(&quot;TheManiac&quot;))
+ * 		.where(Column.CARD, 9).aggregate(Column.ALL_IN);
+ * </pre>
+ *
+ * The filters are pushed down to the blocks: a block whose smallest and
+ * largest values show it can't match is never inflated, and a filter that
+ * every value of a block meets is not evaluated on it. Only the filtered
+ * columns and the aggregated one are ever read.
+ *
+ * A query is not thread safe, but any number of queries can run on a store at
+ * once.
+ */
+public final class ColumnQuery {
+
+	private final ColumnStore store;
+	private final List<Column> columns = new ArrayList<Column>();
+	private final List<int[]> ranges = new ArrayList<int[]>();
+
+	ColumnQuery(final ColumnStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Keeps only the rows whose value of the column is between min and max,
+	 * inclusive.
+	 *
+	 * @return This query.
+	 */
+	public ColumnQuery where(final Column column, final int min, final int max) {
+		columns.add(column);
+		ranges.add(new int[] { min, max });
+		return this;
+	}
+
+	/**
+	 * Keeps only the rows with the given value of the column.
+	 *
+	 * @return This query.
+	 */
+	public ColumnQuery where(final Column column, final int value) {
+		return where(column, value, value);
+	}
+
+	/**
+	 * Counts the matching rows.
+	 */
+	public QueryResult count() throws IOException {
+		return aggregate(null);
+	}
+
+	/**
+	 * Counts the matching rows and sums their values of a column.
+	 *
+	 * @param column
+	 *            The column to sum, or null to only count.
+	 */
+	public QueryResult aggregate(final Column column) throws IOException {
+		final long start = System.nanoTime();
+		final int filters = columns.size();
+		final BlockCodec codec = new BlockCodec();
+		final int[] values = new int[BlockCodec.BLOCK_ROWS];
+		final int[] selection = new int[BlockCodec.BLOCK_ROWS];
+		final boolean[] needed = new boolean[filters];
+		final QueryResult result = new QueryResult(column);
+
+		try {
+			for (int block = 0; block < store.getBlockCount(); block++) {
+				final int rows = store.getBlockRows(block);
+
+				// Prune on the block statistics first.
+				boolean pruned = false;
+				for (int f = 0; f < filters && !pruned; f++) {
+					final int min = ranges.get(f)[0];
+					final int max = ranges.get(f)[1];
+					final int blockMin = store.getBlockMin(columns.get(f), block);
+					final int blockMax = store.getBlockMax(columns.get(f), block);
+					pruned = blockMax < min || blockMin > max;
+					needed[f] = blockMin < min || blockMax > max;
+				}
+				if (pruned) {
+					result.addSkippedBlock();
+					continue;
+				}
+
+				// Narrow a selection of rows, one filtered column at a time.
+				boolean all = true;
+				int count = rows;
+				for (int f = 0; f < filters && count > 0; f++) {
+					if (!needed[f]) {
+						continue;
+					}
+					final int min = ranges.get(f)[0];
+					final int max = ranges.get(f)[1];
+					store.readBlock(codec, columns.get(f), block, values);
+					int n = 0;
+					if (all) {
+						for (int i = 0; i < rows; i++) {
+							if (values[i] >= min && values[i] <= max) {
+								selection[n++] = i;
+							}
+						}
+						all = false;
+					} else {
+						for (int j = 0; j < count; j++) {
+							final int i = selection[j];
+							if (values[i] >= min && values[i] <= max) {
+								selection[n++] = i;
+							}
+						}
+					}
+					count = n;
+				}
+
+				result.addScannedBlock();
+				if (count == 0) {
+					continue;
+				}
+				if (column == null) {
+					result.addRows(count);
+					continue;
+				}
+				store.readBlock(codec, column, block, values);
+				if (all) {
+					for (int i = 0; i < rows; i++) {
+						result.add(values[i]);
+					}
+				} else {
+					for (int j = 0; j < count; j++) {
+						result.add(values[selection[j]]);
+					}
+				}
+			}
+		} finally {
+			codec.end();
+		}
+		result.setElapsedNanos(System.nanoTime() - start);
+		return result;
+	}
+}
@@ -0,0 +1,210 @@
+package com.gmail.jdesmond10.pokerai.analytics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read only view of a directory written by a {@link ColumnarExporter}. The
+ * column files are memory-mapped and only the block headers are read up
+ * front; the data of a block is inflated when a query needs it.
+ *
+ * A ColumnStore can be shared by threads, each running its own
+ * {@link ColumnQuery}.
+ */
+public final class ColumnStore {
+
+	private final String[] players;
+	private final Map<String, Integer> playerIds = new HashMap<String, Integer>();
+	/** The mapped file of each column. */
+	private final ByteBuffer[] files = new ByteBuffer[Column.VALUES.length];
+	/** Rows in each block. */
+	private final int[] blockRows;
+	private final long rowCount;
+	// The rest are indexed by column, then block.
+	private final int[][] blockMin;
+	private final int[][] blockMax;
+	private final int[][] blockWidth;
+	/** The position of each block's data in its file. */
+	private final int[][] blockOffset;
+	private final int[][] blockLength;
+
+	/**
+	 * @param directory
+	 *            A directory written by a {@link ColumnarExporter}.
+	 */
+	public ColumnStore(final File directory) throws IOException {
+		players = readPlayers(new File(directory,
+				ColumnarExporter.PLAYERS_FILE));
+		for (int i = 0; i < players.length; i++) {
+			playerIds.put(players[i], i);
+		}
+
+		final int columns = Column.VALUES.length;
+		blockMin = new int[columns][];
+		blockMax = new int[columns][];
+		blockWidth = new int[columns][];
+		blockOffset = new int[columns][];
+		blockLength = new int[columns][];
+		int[] rows = null;
+		for (final Column column : Column.VALUES) {
+			final int c = column.ordinal();
+			final File file = column.getFile(directory);
+			files[c] = map(file);
+			final int[] columnRows = readHeaders(file, c);
+			if (rows == null) {
+				rows = columnRows;
+			} else if (!Arrays.equals(rows, columnRows))
+				throw new IOException(file + " doesn't match the other columns");
+		}
+		blockRows = rows;
+
+		long total = 0;
+		for (final int r : blockRows) {
+			total += r;
+		}
+		rowCount = total;
+	}
+
+	private static String[] readPlayers(final File file) throws IOException {
+		final List<String> names = new ArrayList<String>();
+		final BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), StandardCharsets.UTF_8));
+		try {
+			for (String line; (line = in.readLine()) != null;) {
+				names.add(line);
+			}
+		} finally {
+			in.close();
+		}
+		return names.toArray(new String[names.size()]);
+	}
+
+	private static ByteBuffer map(final File file) throws IOException {
+		final RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			if (in.length() > Integer.MAX_VALUE)
+				throw new IOException(file + " is too large to map");
+			return in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+					in.length());
+		} finally {
+			// The mapping stays valid once the file is closed.
+			in.close();
+		}
+	}
+
+	/**
+	 * Walks the block headers of a column, skipping the data.
+	 *
+	 * @return The rows in each block.
+	 */
+	private int[] readHeaders(final File file, final int c) throws IOException {
+		final ByteBuffer data = files[c].duplicate();
+		final byte[] magic = new byte[BlockCodec.MAGIC.length];
+		if (data.remaining() < magic.length)
+			throw new IOException(file + " is not a column file");
+		data.get(magic);
+		if (!Arrays.equals(magic, BlockCodec.MAGIC))
+			throw new IOException(file + " is not a column file");
+
+		final int maxBlocks = data.remaining() / BlockCodec.HEADER_SIZE;
+		final int[] rows = new int[maxBlocks];
+		blockMin[c] = new int[maxBlocks];
+		blockMax[c] = new int[maxBlocks];
+		blockWidth[c] = new int[maxBlocks];
+		blockOffset[c] = new int[maxBlocks];
+		blockLength[c] = new int[maxBlocks];
+		int blocks = 0;
+		while (data.hasRemaining()) {
+			if (data.remaining() < BlockCodec.HEADER_SIZE)
+				throw new IOException(file + " is truncated");
+			rows[blocks] = data.getInt();
+			blockMin[c][blocks] = data.getInt();
+			blockMax[c][blocks] = data.getInt();
+			blockWidth[c][blocks] = data.get();
+			blockLength[c][blocks] = data.getInt();
+			blockOffset[c][blocks] = data.position();
+			if (blockLength[c][blocks] > data.remaining())
+				throw new IOException(file + " is truncated");
+			data.position(data.position() + blockLength[c][blocks]);
+			blocks++;
+		}
+		// The headers were sized for the most blocks the file could hold.
+		blockMin[c] = Arrays.copyOf(blockMin[c], blocks);
+		blockMax[c] = Arrays.copyOf(blockMax[c], blocks);
+		blockWidth[c] = Arrays.copyOf(blockWidth[c], blocks);
+		blockOffset[c] = Arrays.copyOf(blockOffset[c], blocks);
+		blockLength[c] = Arrays.copyOf(blockLength[c], blocks);
+		return Arrays.copyOf(rows, blocks);
+	}
+
+	/**
+	 * @return A new query over every row.
+	 */
+	public ColumnQuery query() {
+		return new ColumnQuery(this);
+	}
+
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	public int getBlockCount() {
+		return blockRows.length;
+	}
+
+	/**
+	 * @return The id the player has in the {@link Column#PLAYER} column, or -1
+	 *         if they never made a decision.
+	 */
+	public int getPlayerId(final String name) {
+		final Integer id = playerIds.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @return The name of the player with the given id.
+	 */
+	public String getPlayerName(final int id) {
+		return players[id];
+	}
+
+	int getBlockRows(final int block) {
+		return blockRows[block];
+	}
+
+	int getBlockMin(final Column column, final int block) {
+		return blockMin[column.ordinal()][block];
+	}
+
+	int getBlockMax(final Column column, final int block) {
+		return blockMax[column.ordinal()][block];
+	}
+
+	/**
+	 * Inflates one block of a column.
+	 *
+	 * @param out
+	 *            Where the values go, from index 0.
+	 */
+	void readBlock(final BlockCodec codec, final Column column,
+			final int block, final int[] out) throws IOException {
+		final int c = column.ordinal();
+		final ByteBuffer data = files[c].duplicate();
+		data.position(blockOffset[c][block]);
+		data.limit(blockOffset[c][block] + blockLength[c][block]);
+		codec.read(data, blockRows[block], blockMin[c][block],
+				blockWidth[c][block], out);
+	}
+}
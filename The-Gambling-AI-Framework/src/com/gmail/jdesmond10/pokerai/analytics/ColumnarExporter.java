@@ -0,0 +1,230 @@
+package com.gmail.jdesmond10.pokerai.analytics;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+import com.gmail.jdesmond10.pokerai.history.HandHistoryReader;
+import com.gmail.jdesmond10.pokerai.history.HandRecord;
+
+/**
+ * Turns hand histories into a directory of compressed column files, one per
+ * {@link Column}, that a {@link ColumnStore} can query. Each decision of each
+ * hand becomes one row; hands without any (where a player was all in on the
+ * blinds) have no rows.
+ *
+ * Rows are buffered a block at a time, so memory use doesn't grow with the
+ * size of the history.
+ *
+ * <pre>
+ * ColumnarExporter.export(historyDirectory, exportDirectory);
+ * </pre>
+ */
+public final class ColumnarExporter implements Closeable {
+
+	/** The file listing the player names, one per line, in id order. */
+	static final String PLAYERS_FILE = "players.txt";
+
+	private final File directory;
+	private final BlockCodec codec = new BlockCodec();
+	private final DataOutputStream[] out = new DataOutputStream[Column.VALUES.length];
+	private final int[][] block = new int[Column.VALUES.length][BlockCodec.BLOCK_ROWS];
+	private final Map<String, Integer> playerIds = new HashMap<String, Integer>();
+	private final List<String> players = new ArrayList<String>();
+	private int blockRows;
+	private long rows;
+	private int hands;
+
+	/**
+	 * @param directory
+	 *            The directory to export to. It is created if needed, and any
+	 *            export already in it is overwritten.
+	 */
+	public ColumnarExporter(final File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Can't create " + directory);
+		this.directory = directory;
+		try {
+			for (final Column column : Column.VALUES) {
+				out[column.ordinal()] = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(
+								column.getFile(directory)), 1 << 16));
+				out[column.ordinal()].write(BlockCodec.MAGIC);
+			}
+		} catch (final IOException e) {
+			closeStreams();
+			throw e;
+		}
+	}
+
+	/**
+	 * Exports every hand of a hand history.
+	 *
+	 * @param history
+	 *            A directory written by a
+	 *            {@link com.gmail.jdesmond10.pokerai.history.HandHistoryWriter}.
+	 * @param directory
+	 *            The directory to export to.
+	 * @return The number of rows exported.
+	 */
+	public static long export(final File history, final File directory)
+			throws IOException {
+		final HandHistoryReader reader = new HandHistoryReader(history);
+		final ColumnarExporter exporter = new ColumnarExporter(directory);
+		try {
+			for (HandRecord hand; (hand = reader.next()) != null;) {
+				exporter.add(hand);
+			}
+		} finally {
+			reader.close();
+			exporter.close();
+		}
+		return exporter.getRowCount();
+	}
+
+	/**
+	 * Adds a row for every decision in the hand.
+	 */
+	public void add(final HandRecord hand) throws IOException {
+		final int handId = hands++;
+		final int winner;
+		if (hand.playerOneWinnings > 0) {
+			winner = 0;
+		} else if (hand.playerOneWinnings < 0) {
+			winner = 1;
+		} else {
+			winner = -1;
+		}
+
+		long state = hand.getDealtState();
+		for (int i = 0; i < hand.getActionCount(); i++) {
+			final int action = hand.getAction(i);
+			final int seat = PackedGameState.getCurrentPlayer(state);
+			final boolean playerOne = seat == 0;
+			final int stack = playerOne ? PackedGameState.playerOneStack(state)
+					: PackedGameState.playerTwoStack(state);
+
+			final int row = blockRows++;
+			block[Column.HAND.ordinal()][row] = handId;
+			block[Column.SEAT.ordinal()][row] = seat;
+			block[Column.PLAYER.ordinal()][row] = playerId(hand.table
+					.getPlayerName(seat));
+			block[Column.CARD.ordinal()][row] = (playerOne ? hand.playerOneCard
+					: hand.playerTwoCard).value;
+			block[Column.ACTION.ordinal()][row] = action;
+			block[Column.ALL_IN.ordinal()][row] = action > 0
+					&& action == stack ? 1 : 0;
+			block[Column.CALL.ordinal()][row] = PackedGameState
+					.getCallAmount(state);
+			block[Column.POT.ordinal()][row] = PackedGameState.potSize(state);
+			block[Column.STACK.ordinal()][row] = stack;
+			block[Column.OPPONENT_STACK.ordinal()][row] = playerOne ? PackedGameState
+					.playerTwoStack(state) : PackedGameState
+					.playerOneStack(state);
+			block[Column.WINNER.ordinal()][row] = winner;
+			block[Column.WINNINGS.ordinal()][row] = playerOne ? hand.playerOneWinnings
+					: -hand.playerOneWinnings;
+
+			if (blockRows == BlockCodec.BLOCK_ROWS) {
+				flushBlock();
+			}
+			state = PackedGameState.applyAction(state, action);
+		}
+	}
+
+	private int playerId(final String name) {
+		Integer id = playerIds.get(name);
+		if (id == null) {
+			id = players.size();
+			playerIds.put(name, id);
+			players.add(name);
+		}
+		return id;
+	}
+
+	private void flushBlock() throws IOException {
+		for (final Column column : Column.VALUES) {
+			codec.write(out[column.ordinal()], block[column.ordinal()],
+					blockRows);
+		}
+		rows += blockRows;
+		blockRows = 0;
+	}
+
+	/**
+	 * @return The number of rows exported so far.
+	 */
+	public long getRowCount() {
+		return rows + blockRows;
+	}
+
+	/**
+	 * Writes the last block and the player names.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (blockRows > 0) {
+				flushBlock();
+			}
+			final Writer names = new OutputStreamWriter(new FileOutputStream(
+					new File(directory, PLAYERS_FILE)), StandardCharsets.UTF_8);
+			try {
+				for (final String name : players) {
+					names.write(name);
+					names.write('\n');
+				}
+			} finally {
+				names.close();
+			}
+		} finally {
+			closeStreams();
+			codec.end();
+		}
+	}
+
+	private void closeStreams() throws IOException {
+		IOException failure = null;
+		for (int i = 0; i < out.length; i++) {
+			if (out[i] == null) {
+				continue;
+			}
+			try {
+				out[i].close();
+			} catch (final IOException e) {
+				failure = e;
+			}
+			out[i] = null;
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Exports a hand history.
+	 *
+	 * @param args
+	 *            [hand history directory, export directory]
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: ColumnarExporter <history> <export>");
+			return;
+		}
+		final long start = System.nanoTime();
+		final long rows = export(new File(args[0]), new File(args[1]));
+		System.out.println("Exported " + rows + " rows in "
+				+ (System.nanoTime() - start) / 1000000 + "ms");
+	}
+}
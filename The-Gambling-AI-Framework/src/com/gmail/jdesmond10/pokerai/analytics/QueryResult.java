@@ -0,0 +1,119 @@
+package com.gmail.jdesmond10.pokerai.analytics;
+
+/**
+ * The result of a {@link ColumnQuery}: how many rows matched, the sum, mean
+ * and extremes of the aggregated column over them, and how much of the store
+ * had to be read.
+ */
+public final class QueryResult {
+
+	/** The aggregated column, or null if the query only counted. */
+	private final Column column;
+	private long rows;
+	private long sum;
+	private int min = Integer.MAX_VALUE;
+	private int max = Integer.MIN_VALUE;
+	private int blocksScanned;
+	private int blocksSkipped;
+	private long elapsedNanos;
+
+	QueryResult(final Column column) {
+		this.column = column;
+	}
+
+	void addRows(final int count) {
+		rows += count;
+	}
+
+	void add(final int value) {
+		rows++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	void addScannedBlock() {
+		blocksScanned++;
+	}
+
+	void addSkippedBlock() {
+		blocksSkipped++;
+	}
+
+	void setElapsedNanos(final long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return The number of rows that matched.
+	 */
+	public long getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * @return The sum of the aggregated column over the matching rows.
+	 */
+	public long getSum() {
+		return sum;
+	}
+
+	/**
+	 * @return The mean of the aggregated column over the matching rows, or 0
+	 *         if none matched.
+	 */
+	public double getMean() {
+		return rows == 0 ? 0 : (double) sum / rows;
+	}
+
+	/**
+	 * @return The smallest value of the aggregated column over the matching
+	 *         rows, or Integer.MAX_VALUE if none matched.
+	 */
+	public int getMin() {
+		return min;
+	}
+
+	/**
+	 * @return The largest value of the aggregated column over the matching
+	 *         rows, or Integer.MIN_VALUE if none matched.
+	 */
+	public int getMax() {
+		return max;
+	}
+
+	/**
+	 * @return The number of blocks whose data was read.
+	 */
+	public int getBlocksScanned() {
+		return blocksScanned;
+	}
+
+	/**
+	 * @return The number of blocks ruled out by their statistics alone.
+	 */
+	public int getBlocksSkipped() {
+		return blocksSkipped;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("QueryResult [rows=")
+				.append(rows);
+		if (column != null) {
+			sb.append(", ").append(column).append(": sum=").append(sum)
+					.append(", mean=")
+					.append(String.format("%.4f", getMean()));
+			if (rows > 0) {
+				sb.append(", min=").append(min).append(", max=").append(max);
+			}
+		}
+		return sb.append(", blocks scanned=").append(blocksScanned)
+				.append(", skipped=").append(blocksSkipped).append(", ")
+				.append(elapsedNanos / 1000000).append("ms]").toString();
+	}
+}
@@ -27,9 +27,13 @@ public interface Client {
 	public void inform(GameStateData currentState);
 
 	/**
-	 * Calculates the next move of the Client. There is no server-regulated time
-	 * limit on how long you are allowed to take, but for the sake of
-	 * practicality, assume a time-limit of ~4-5 seconds.
+	 * Calculates the next move of the Client. By default there is no
+	 * server-regulated time limit on how long you are allowed to take, but for
+	 * the sake of practicality, assume a time-limit of ~4-5 seconds. A Server
+	 * given a time limit (see {@link Server#setTimeLimit}) calls this on a
+	 * separate thread, and if it doesn't return in time, acts for the Client
+	 * and throws the late answer away. inform() may then be called while this
+	 * is still running.
 	 * 
 	 * @return the Action of this Client.
 	 */
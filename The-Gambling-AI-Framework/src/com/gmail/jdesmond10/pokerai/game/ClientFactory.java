@@ -0,0 +1,27 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+/**
+ * Creates fresh, seated instances of a {@link Client}. Clients such as
+ * PokerAgents keep state between calls of inform(), so every match needs its
+ * own instance; a ClientFactory is how batch runners (which may be playing
+ * many matches at once) get them.
+ *
+ * @see MatchEngine
+ */
+public interface ClientFactory {
+
+	/**
+	 * Creates a new Client ready to be seated at a table.
+	 *
+	 * @param isPlayerOne
+	 *            True if the Client will be sitting in the first seat (player
+	 *            one/zero).
+	 * @return a new instance of a Client, never shared with another match.
+	 */
+	public Client createClient(boolean isPlayerOne);
+
+	/**
+	 * @return A name for the kind of Client this factory creates.
+	 */
+	public String getName();
+}
@@ -0,0 +1,153 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.log.Logger;
+import com.gmail.jdesmond10.pokerai.log.Logging;
+import com.gmail.jdesmond10.pokerai.main.Main;
+
+/**
+ * Prompts Clients asynchronously and stops waiting for them after a fixed
+ * time, so that one slow agent can't stall a table. A Client that misses its
+ * deadline has the {@link TimeoutAction} applied for it, and the timeout is
+ * counted against its seat.
+ *
+ * A prompt that times out can't be interrupted; it keeps running on its own
+ * thread and its answer is thrown away when it arrives. Until it does, that
+ * Client is not prompted again: every turn it gets in the meantime is an
+ * immediate timeout, so no Client ever has two prompts in progress.
+ *
+ * @see Server#setTimeLimit(long, TimeoutAction)
+ */
+public final class DeadlinePrompter {
+
+	/** Shared by every table; prompt threads are daemons, made on demand. */
+	private static final ExecutorService PROMPT_THREADS = Executors
+			.newCachedThreadPool(new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread = new Thread(r, "prompt-"
+							+ count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	private static final Logger LOG = Logging
+			.getLogger(DeadlinePrompter.class);
+
+	private final long timeLimitMillis;
+	private final TimeoutAction timeoutAction;
+	/** The prompt each seat is still working on, or null. */
+	private final CompletableFuture<?>[] pending;
+	private final AtomicIntegerArray timeouts;
+
+	/**
+	 * @param seats
+	 *            The number of seats at the table.
+	 * @param timeLimitMillis
+	 *            How long each Client has to act, in milliseconds.
+	 * @param timeoutAction
+	 *            What to do for a Client that runs out of time.
+	 */
+	public DeadlinePrompter(final int seats, final long timeLimitMillis,
+			final TimeoutAction timeoutAction) {
+		if (timeLimitMillis <= 0)
+			throw new IllegalArgumentException(
+					"The time limit must be positive, was " + timeLimitMillis);
+		this.timeLimitMillis = timeLimitMillis;
+		this.timeoutAction = timeoutAction;
+		pending = new CompletableFuture<?>[seats];
+		timeouts = new AtomicIntegerArray(seats);
+	}
+
+	/**
+	 * Starts the Client's prompt() on a prompt thread.
+	 *
+	 * @return A future of the Client's action.
+	 */
+	public static CompletableFuture<BettingAction> promptAsync(
+			final Client client) {
+		return CompletableFuture.supplyAsync(new Supplier<BettingAction>() {
+			@Override
+			public BettingAction get() {
+				return client.prompt();
+			}
+		}, PROMPT_THREADS);
+	}
+
+	/**
+	 * Prompts the Client in the given seat, waiting at most the time limit.
+	 *
+	 * @param client
+	 *            The Client to act.
+	 * @param seat
+	 *            The Client's seat.
+	 * @param state
+	 *            The true state of the game, used to pick the timeout action.
+	 * @return The Client's action, or the timeout action if it didn't answer
+	 *         in time or its prompt() threw.
+	 */
+	public BettingAction prompt(final Client client, final int seat,
+			final GameStateData state) {
+		// Timeouts can happen on every action, so like the other per-action
+		// messages they are logged at debug, and counted for getTimeoutCount.
+		if (pending[seat] != null && !pending[seat].isDone()) {
+			timeouts.incrementAndGet(seat);
+			LOG.debug("{} is still answering an earlier prompt",
+					client.getName());
+			return timeoutAction.getAction(state);
+		}
+
+		// Pending until it completes, however the wait for it ends, so that
+		// the Client is never prompted while still answering.
+		final CompletableFuture<BettingAction> future = promptAsync(client);
+		pending[seat] = future;
+		try {
+			final BettingAction action = future.get(timeLimitMillis,
+					TimeUnit.MILLISECONDS);
+			pending[seat] = null;
+			return action;
+		} catch (final TimeoutException e) {
+			timeouts.incrementAndGet(seat);
+			LOG.debug("{} timed out after {}ms", client.getName(),
+					timeLimitMillis);
+		} catch (final ExecutionException e) {
+			pending[seat] = null;
+			Main.fail(client.getName() + " threw from prompt(): "
+					+ e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return timeoutAction.getAction(state);
+	}
+
+	/**
+	 * @return The number of times the Client in the given seat ran out of
+	 *         time.
+	 */
+	public int getTimeoutCount(final int seat) {
+		return timeouts.get(seat);
+	}
+
+	public long getTimeLimitMillis() {
+		return timeLimitMillis;
+	}
+
+	public TimeoutAction getTimeoutAction() {
+		return timeoutAction;
+	}
+}
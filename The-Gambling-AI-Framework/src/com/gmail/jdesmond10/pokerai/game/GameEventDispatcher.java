@@ -0,0 +1,129 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.gmail.jdesmond10.pokerai.main.Main;
+
+/**
+ * A single thread that reads any number of {@link GameEventRing}s and hands
+ * their events to listeners. Each subscription reads at its own pace; a
+ * listener that can't keep up misses events rather than slowing its table
+ * down. When there is nothing to read the thread parks briefly, so an idle
+ * dispatcher costs next to nothing.
+ *
+ * Subscriptions to a ring are dropped once the ring is closed and they have
+ * read all of it.
+ */
+public final class GameEventDispatcher {
+
+	/** The most events handed to one listener before moving on to the next. */
+	private static final int MAX_BATCH = 256;
+	/** How long the thread parks when there are no events. */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS
+			.toNanos(1);
+
+	private static GameEventDispatcher shared;
+
+	private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	public GameEventDispatcher(final String name) {
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * @return The dispatcher tables use for the GUI and logging.
+	 */
+	public static synchronized GameEventDispatcher getShared() {
+		if (shared == null) {
+			shared = new GameEventDispatcher("game-events");
+		}
+		return shared;
+	}
+
+	/**
+	 * Starts handing the ring's events to the listener, beginning with the
+	 * next event published.
+	 *
+	 * @return The subscription, to unsubscribe with.
+	 */
+	public Subscription subscribe(final GameEventRing ring,
+			final GameEventListener listener) {
+		final Subscription subscription = new Subscription(ring, listener);
+		subscriptions.add(subscription);
+		LockSupport.unpark(thread);
+		return subscription;
+	}
+
+	public void unsubscribe(final Subscription subscription) {
+		subscriptions.remove(subscription);
+	}
+
+	/**
+	 * @return The number of subscriptions still being read.
+	 */
+	public int getSubscriptionCount() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * Stops the dispatcher thread.
+	 */
+	public void shutdown() {
+		running = false;
+		LockSupport.unpark(thread);
+	}
+
+	private void dispatch() {
+		while (running) {
+			int events = 0;
+			for (final Subscription subscription : subscriptions) {
+				try {
+					events += subscription.ring.poll(subscription.cursor,
+							subscription.listener, MAX_BATCH);
+				} catch (final RuntimeException e) {
+					Main.fail("A game event listener threw " + e);
+				}
+				if (subscription.ring.isExhausted(subscription.cursor)) {
+					subscriptions.remove(subscription);
+				}
+			}
+			if (events == 0) {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * A listener reading a ring.
+	 */
+	public static final class Subscription {
+		private final GameEventRing ring;
+		private final GameEventRing.Cursor cursor;
+		private final GameEventListener listener;
+
+		private Subscription(final GameEventRing ring,
+				final GameEventListener listener) {
+			this.ring = ring;
+			this.listener = listener;
+			cursor = ring.newCursor();
+		}
+
+		/**
+		 * @return The number of published events this listener hasn't read.
+		 */
+		public long getLag() {
+			return ring.getPublishedCount() - cursor.getNext();
+		}
+	}
+}
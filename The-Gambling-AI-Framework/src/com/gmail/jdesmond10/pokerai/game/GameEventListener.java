@@ -0,0 +1,38 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+/**
+ * Observes the events of a table, as published to its {@link GameEventRing}.
+ * Listeners are called on a {@link GameEventDispatcher} thread, never on the
+ * table's own thread, so a slow listener can't slow the game down; it only
+ * falls behind, and may miss events.
+ *
+ * @see Server#getEvents()
+ */
+public interface GameEventListener {
+
+	/**
+	 * Called for each event, in order, in batches of whatever has been
+	 * published since the last batch. A listener that only cares about the
+	 * latest state (a display, say) can coalesce by ignoring every event but
+	 * the end of a batch.
+	 *
+	 * @param packedState
+	 *            The full state of the table after the event, see
+	 *            {@link com.gmail.jdesmond10.pokerai.game.logic.PackedGameState}.
+	 * @param sequence
+	 *            The event's number, counting from 0 at the first event of the
+	 *            table.
+	 * @param endOfBatch
+	 *            True if this is the last event available right now.
+	 */
+	public void onEvent(long packedState, long sequence, boolean endOfBatch);
+
+	/**
+	 * Called when the listener fell so far behind that events were
+	 * overwritten before it read them.
+	 *
+	 * @param count
+	 *            The number of events missed.
+	 */
+	public void onSkipped(long count);
+}
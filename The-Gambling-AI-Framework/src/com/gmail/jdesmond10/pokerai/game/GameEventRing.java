@@ -0,0 +1,162 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size ring of a table's events, written by the table's thread and
+ * read by any number of observers without locks. Each event is the packed
+ * state of the table after something happened, as a single long, so
+ * publishing allocates nothing.
+ *
+ * The producer never waits for readers. The slot of the oldest event is the
+ * one the next publish writes, so it may be overwritten while it is read:
+ * only the newest capacity - 1 events are safe to read. A reader that falls
+ * further behind loses the oldest events, and is told how many it lost; see
+ * {@link #poll(Cursor, GameEventListener, int)}.
+ */
+public final class GameEventRing {
+
+	/** The default number of events kept. */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final AtomicLongArray events;
+	private final int mask;
+	/** Sequence number of the next event to publish. */
+	private final AtomicLong published = new AtomicLong();
+	private volatile boolean closed;
+
+	public GameEventRing() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            The number of events kept; a power of two.
+	 */
+	public GameEventRing(final int capacity) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException(
+					"capacity must be a power of two, was " + capacity);
+		events = new AtomicLongArray(capacity);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Publishes an event. Only the table's thread may call this.
+	 *
+	 * @param packedState
+	 *            The state of the table after the event.
+	 */
+	public void publish(final long packedState) {
+		final long sequence = published.get();
+		events.lazySet((int) sequence & mask, packedState);
+		published.lazySet(sequence + 1);
+	}
+
+	/**
+	 * Marks that no more events will be published. Dispatchers drop rings
+	 * that are closed and fully read.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * @return The number of events published so far.
+	 */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * @return A new reader positioned at the next event to be published.
+	 */
+	public Cursor newCursor() {
+		return new Cursor(published.get());
+	}
+
+	/**
+	 * Hands the events the reader hasn't seen yet to the listener.
+	 *
+	 * @param cursor
+	 *            The reader's position, which this advances.
+	 * @param listener
+	 *            Receives the events.
+	 * @param maxBatch
+	 *            The most events to hand over in one call.
+	 * @return The number of events handed over.
+	 */
+	public int poll(final Cursor cursor, final GameEventListener listener,
+			final int maxBatch) {
+		final int capacity = getCapacity();
+		long first = cursor.next;
+		final long available = published.get();
+		if (available - first >= capacity) {
+			listener.onSkipped(available - capacity + 1 - first);
+			first = available - capacity + 1;
+		}
+
+		// Copy the batch out, then check which slots might have been written
+		// again while they were being copied.
+		final int size = (int) Math.min(available - first,
+				Math.min(maxBatch, capacity));
+		final long[] batch = cursor.buffer(size);
+		for (int i = 0; i < size; i++) {
+			batch[i] = events.get((int) (first + i) & mask);
+		}
+		final long oldest = published.get() - capacity + 1;
+		int start = 0;
+		if (first < oldest) {
+			start = (int) Math.min(size, oldest - first);
+			listener.onSkipped(start);
+		}
+
+		for (int i = start; i < size; i++) {
+			listener.onEvent(batch[i], first + i, i == size - 1);
+		}
+		cursor.next = first + size;
+		return size - start;
+	}
+
+	/**
+	 * @return True if the reader has seen every event, and no more are coming.
+	 */
+	public boolean isExhausted(final Cursor cursor) {
+		return closed && cursor.next >= published.get();
+	}
+
+	/**
+	 * A reader's position in a ring. A cursor belongs to a single reader.
+	 */
+	public static final class Cursor {
+		private long next;
+		private long[] buffer = new long[0];
+
+		private Cursor(final long next) {
+			this.next = next;
+		}
+
+		private long[] buffer(final int size) {
+			if (buffer.length < size) {
+				buffer = new long[size];
+			}
+			return buffer;
+		}
+
+		/**
+		 * @return The sequence number of the next event this reader will see.
+		 */
+		public long getNext() {
+			return next;
+		}
+	}
+}
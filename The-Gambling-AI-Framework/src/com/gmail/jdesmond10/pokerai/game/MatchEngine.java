@@ -0,0 +1,463 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gmail.jdesmond10.pokerai.agent.PokerAgent;
+import com.gmail.jdesmond10.pokerai.history.HandHistoryWriter;
+import com.gmail.jdesmond10.pokerai.history.TableRecorder;
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.GameState;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.game.logic.ValidationMode;
+
+/**
+ * A headless alternative to {@link Server} for simulations. A MatchEngine plays
+ * a whole sit n' go synchronously on the calling thread: it never sleeps,
+ * never touches the GUI or Main, and returns a {@link MatchResult} instead of
+ * printing who won. Clients are still informed after every step exactly as
+ * the Server would inform them, so any {@link PokerAgent} can be evaluated
+ * with it.
+ *
+ * A MatchEngine holds no per-match state, so one engine per worker thread can
+ * play any number of matches back to back.
+ *
+ * @see Server
+ */
+public final class MatchEngine {
+
+	/**
+	 * Default cap on the number of hands in a match, to protect batch runs
+	 * from two agents that never put each other at risk.
+	 */
+	public static final int DEFAULT_MAX_HANDS = 100000;
+
+	private final int maxHands;
+	/** Where every hand is recorded, or null. */
+	private final HandHistoryWriter history;
+	private final TableRules rules;
+	private final ValidationMode validationMode;
+
+	public MatchEngine() {
+		this(DEFAULT_MAX_HANDS);
+	}
+
+	/**
+	 * @param maxHands
+	 *            the number of hands after which a match is abandoned with no
+	 *            winner.
+	 */
+	public MatchEngine(final int maxHands) {
+		this(maxHands, null);
+	}
+
+	/**
+	 * @param maxHands
+	 *            the number of hands after which a match is abandoned with no
+	 *            winner.
+	 * @param history
+	 *            the hand history every match is recorded to, or null. The
+	 *            writer may be shared by engines on other threads.
+	 */
+	public MatchEngine(final int maxHands, final HandHistoryWriter history) {
+		this(maxHands, history, TableRules.DEFAULT);
+	}
+
+	/**
+	 * @param maxHands
+	 *            the number of hands after which a match is abandoned with no
+	 *            winner.
+	 * @param history
+	 *            the hand history every match is recorded to, or null. The
+	 *            writer may be shared by engines on other threads. Hand
+	 *            histories don't record the blinds, so this must be null
+	 *            unless the rules are the default.
+	 * @param rules
+	 *            the blinds and starting chips of every match. These must be
+	 *            packable (see {@link TableRules#isPackable()}), since agents
+	 *            may work on packed states.
+	 */
+	public MatchEngine(final int maxHands, final HandHistoryWriter history,
+			final TableRules rules) {
+		this(maxHands, history, rules, ValidationMode.STRICT);
+	}
+
+	/**
+	 * @param maxHands
+	 *            the number of hands after which a match is abandoned with no
+	 *            winner.
+	 * @param history
+	 *            the hand history every match is recorded to, or null.
+	 * @param rules
+	 *            the blinds and starting chips of every match.
+	 * @param validationMode
+	 *            how much checking the states of this engine's matches do.
+	 *            The engine checks every action itself, so batch runs can
+	 *            pass {@link ValidationMode#TRUSTED} to skip the checks inside
+	 *            the states; other tables are unaffected.
+	 * @see #MatchEngine(int, HandHistoryWriter, TableRules)
+	 */
+	public MatchEngine(final int maxHands, final HandHistoryWriter history,
+			final TableRules rules, final ValidationMode validationMode) {
+		if (maxHands < 1)
+			throw new IllegalArgumentException("maxHands must be positive, was "
+					+ maxHands);
+		if (!rules.isPackable())
+			throw new IllegalArgumentException(
+					"Matches can't be played with too many chips: " + rules);
+		if (history != null && !rules.equals(TableRules.DEFAULT))
+			throw new IllegalArgumentException(
+					"Only matches played by the default rules can be recorded");
+		this.maxHands = maxHands;
+		this.history = history;
+		this.rules = rules;
+		this.validationMode = validationMode;
+	}
+
+	/**
+	 * @return the blinds and starting chips of every match.
+	 */
+	public TableRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Plays a single sit n' go between the two clients on the calling thread,
+	 * with a randomly seeded deck.
+	 *
+	 * @see #play(Client, Client, long)
+	 */
+	public MatchResult play(final Client playerOne, final Client playerTwo) {
+		return play(playerOne, playerTwo, ThreadLocalRandom.current()
+				.nextLong());
+	}
+
+	/**
+	 * Plays a single sit n' go between the two clients on the calling thread.
+	 * Illegal actions (including null) are treated as folds; every action is
+	 * checked here, once, whatever the engine's {@link ValidationMode}. Given
+	 * the same seed and deterministic clients, the match is replayed exactly.
+	 *
+	 * @param playerOne
+	 *            The client in the first seat, who starts with the button.
+	 * @param playerTwo
+	 *            The client in the second seat.
+	 * @param seed
+	 *            The seed of the deck every card is dealt from.
+	 * @return The result of the match.
+	 * @throws UncheckedIOException
+	 *             if the hand history can't be written.
+	 */
+	public MatchResult play(final Client playerOne, final Client playerTwo,
+			final long seed) {
+		final Client[] players = { playerOne, playerTwo };
+		final GameState state = new GameState(players.length,
+				new SeededDeckSource(seed), rules, validationMode);
+		int handCount = 0;
+		int actionCount = 0;
+		boolean gameOver = false;
+
+		final TableRecorder recorder;
+		try {
+			recorder = history == null ? null : new TableRecorder(history,
+					seed, playerOne.getName(), playerTwo.getName());
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		introducePlayers(players);
+		recordStartOfHand(recorder, state);
+		informPlayers(players, state);
+
+		// Same loop as Server.run(), minus the pausing and printing.
+		while (!gameOver && handCount < maxHands) {
+			actionCount++;
+
+			BettingAction nextAction = players[state.getCurrentPlayer()]
+					.prompt();
+			if (nextAction == null
+					|| !state.getGameStateData().isLegalAction(nextAction)) {
+				nextAction = BettingAction.FOLD;
+			}
+			if (recorder != null) {
+				recorder.action(nextAction);
+			}
+
+			if (state.applyLegalAction(nextAction)) {
+				handCount++;
+				state.endHand();
+				recordEndOfHand(recorder, state);
+				informPlayers(players, state);
+
+				if (state.isTerminalState()) {
+					break;
+				}
+
+				// Hands where a player is all in on the blinds have no bets.
+				while (state.dealNextHand()) {
+					recordStartOfHand(recorder, state);
+					handCount++;
+					state.endHand();
+					recordEndOfHand(recorder, state);
+					informPlayers(players, state);
+					if (state.isTerminalState()) {
+						gameOver = true;
+						break;
+					}
+				}
+				if (gameOver) {
+					// As at a Server, a game ended by an all in hand is shown
+					// to the players a second time.
+					informPlayers(players, state);
+					break;
+				}
+				recordStartOfHand(recorder, state);
+			}
+
+			informPlayers(players, state);
+		}
+
+		if (recorder != null) {
+			try {
+				recorder.close();
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		final int p1Stack = state.getGameStateData().playerOneStack;
+		final int p2Stack = state.getGameStateData().playerTwoStack;
+		final int winner;
+		if (!state.isTerminalState()) {
+			winner = MatchResult.NO_WINNER;
+		} else if (p1Stack > p2Stack) {
+			winner = 0;
+		} else {
+			winner = 1;
+		}
+
+		return new MatchResult(winner, handCount, actionCount, p1Stack,
+				p2Stack, seed);
+	}
+
+	/**
+	 * Plays hands between the two clients on the calling thread, each from the
+	 * starting stacks of the engine's rules with player one on the button, as
+	 * if both players topped up after every hand. Each hand takes the next two
+	 * cards of the deck, so hand k deals the same cards to the same seats
+	 * whoever sits in them; this is what duplicate evaluation by hands
+	 * relies on. Actions are checked as in {@link #play(Client, Client, long)}.
+	 *
+	 * @param playerOne
+	 *            The client in the first seat, on the button every hand.
+	 * @param playerTwo
+	 *            The client in the second seat.
+	 * @param seed
+	 *            The seed of the deck every card is dealt from.
+	 * @param hands
+	 *            The number of hands to play.
+	 * @return The chips player one won in each hand (negative if lost).
+	 * @throws UncheckedIOException
+	 *             if the hand history can't be written.
+	 */
+	public int[] playHands(final Client playerOne, final Client playerTwo,
+			final long seed, final int hands) {
+		final Client[] players = { playerOne, playerTwo };
+		final SeededDeckSource deck = new SeededDeckSource(seed);
+		final int[] won = new int[hands];
+
+		final TableRecorder recorder;
+		try {
+			recorder = history == null ? null : new TableRecorder(history,
+					seed, playerOne.getName(), playerTwo.getName());
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		introducePlayers(players);
+		for (int hand = 0; hand < hands; hand++) {
+			final GameState state = new GameState(players.length, deck,
+					rules, validationMode);
+			recordStartOfHand(recorder, state);
+			informPlayers(players, state);
+
+			boolean handOver = false;
+			while (!handOver) {
+				BettingAction nextAction = players[state.getCurrentPlayer()]
+						.prompt();
+				if (nextAction == null
+						|| !state.getGameStateData().isLegalAction(nextAction)) {
+					nextAction = BettingAction.FOLD;
+				}
+				if (recorder != null) {
+					recorder.action(nextAction);
+				}
+				handOver = state.applyLegalAction(nextAction);
+				if (!handOver) {
+					informPlayers(players, state);
+				}
+			}
+
+			state.endHand();
+			recordEndOfHand(recorder, state);
+			informPlayers(players, state);
+			won[hand] = state.getGameStateData().playerOneStack
+					- rules.getStartingChips();
+		}
+
+		if (recorder != null) {
+			try {
+				recorder.close();
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return won;
+	}
+
+	private static void recordStartOfHand(final TableRecorder recorder,
+			final GameState state) {
+		if (recorder != null) {
+			recorder.startHand(state.getGameStateData());
+		}
+	}
+
+	private static void recordEndOfHand(final TableRecorder recorder,
+			final GameState state) {
+		if (recorder != null) {
+			try {
+				recorder.endHand(state.getGameStateData());
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private static void introducePlayers(final Client[] players) {
+		for (int i = 0; i < players.length; i++) {
+			if (players[i] instanceof OpponentAware) {
+				((OpponentAware) players[i])
+						.setOpponentName(players[1 - i].getName());
+			}
+		}
+	}
+
+	private static void informPlayers(final Client[] players,
+			final GameState state) {
+		for (int i = 0; i < players.length; i++) {
+			players[i].inform(state.generateLimitedGameState(i));
+		}
+	}
+
+	/**
+	 * Plays a batch of matches with a randomly chosen master seed.
+	 *
+	 * @see #playMatches(ClientFactory, ClientFactory, int, int, long)
+	 */
+	public static MatchSummary playMatches(final ClientFactory playerOne,
+			final ClientFactory playerTwo, final int matches, final int threads) {
+		return playMatches(playerOne, playerTwo, matches, threads,
+				ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Plays a batch of matches on a fixed pool of worker threads. Each worker
+	 * owns one MatchEngine and plays matches back to back until the batch is
+	 * exhausted, so no thread is created per match.
+	 *
+	 * The deck of match i is seeded with
+	 * {@code SeededDeckSource.matchSeed(masterSeed, i)}, so (for deterministic
+	 * clients) the summary is the same for any number of threads.
+	 *
+	 * @param playerOne
+	 *            Creates the client for the first seat of every match.
+	 * @param playerTwo
+	 *            Creates the client for the second seat of every match.
+	 * @param matches
+	 *            The number of matches to play.
+	 * @param threads
+	 *            The number of worker threads, usually
+	 *            {@code Runtime.getRuntime().availableProcessors()}.
+	 * @param masterSeed
+	 *            The seed from which every match's seed is derived.
+	 * @return The combined results of every match.
+	 */
+	public static MatchSummary playMatches(final ClientFactory playerOne,
+			final ClientFactory playerTwo, final int matches,
+			final int threads, final long masterSeed) {
+		return playMatches(playerOne, playerTwo, matches, threads, masterSeed,
+				TableRules.DEFAULT);
+	}
+
+	/**
+	 * Plays a batch of matches by the given rules. Batches of different rules
+	 * share nothing, so they may be played at the same time from different
+	 * threads.
+	 *
+	 * @param rules
+	 *            The blinds and starting chips of every match, which must be
+	 *            packable.
+	 * @see #playMatches(ClientFactory, ClientFactory, int, int, long)
+	 */
+	public static MatchSummary playMatches(final ClientFactory playerOne,
+			final ClientFactory playerTwo, final int matches,
+			final int threads, final long masterSeed, final TableRules rules) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be positive, was "
+					+ threads);
+		if (!rules.isPackable())
+			throw new IllegalArgumentException(
+					"Matches can't be played with too many chips: " + rules);
+
+		final long start = System.nanoTime();
+		final AtomicInteger nextMatch = new AtomicInteger();
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final List<Future<MatchSummary>> futures = new ArrayList<Future<MatchSummary>>();
+
+		try {
+			for (int i = 0; i < threads; i++) {
+				futures.add(pool.submit(new Callable<MatchSummary>() {
+					@Override
+					public MatchSummary call() {
+						final MatchEngine engine = new MatchEngine(
+								DEFAULT_MAX_HANDS, null, rules);
+						final MatchSummary summary = new MatchSummary();
+						int match;
+						while ((match = nextMatch.getAndIncrement()) < matches) {
+							summary.add(engine.play(
+									playerOne.createClient(true),
+									playerTwo.createClient(false),
+									SeededDeckSource.matchSeed(masterSeed,
+											match)));
+						}
+						return summary;
+					}
+				}));
+			}
+
+			final MatchSummary total = new MatchSummary();
+			for (final Future<MatchSummary> future : futures) {
+				total.merge(future.get());
+			}
+			total.setElapsedNanos(System.nanoTime() - start);
+			return total;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during a batch", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException("A match failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+/**
+ * The outcome of a single sit n' go played by a {@link MatchEngine}. This is
+ * an immutable class.
+ */
+public final class MatchResult {
+
+	/** Value of {@link #winner} when the match hit the hand limit. */
+	public static final int NO_WINNER = -1;
+
+	/** Seat (0 or 1) of the winning player, or {@link #NO_WINNER}. */
+	public final int winner;
+	public final int handCount;
+	public final int actionCount;
+	public final int playerOneStack;
+	public final int playerTwoStack;
+	/** Seed of the deck the match was dealt from. */
+	public final long seed;
+
+	MatchResult(final int winner, final int handCount, final int actionCount,
+			final int playerOneStack, final int playerTwoStack, final long seed) {
+		this.winner = winner;
+		this.handCount = handCount;
+		this.actionCount = actionCount;
+		this.playerOneStack = playerOneStack;
+		this.playerTwoStack = playerTwoStack;
+		this.seed = seed;
+	}
+
+	/**
+	 * @return True if the match ended because a player was eliminated (as
+	 *         opposed to being cut off by the engine's hand limit).
+	 */
+	public boolean isFinished() {
+		return winner != NO_WINNER;
+	}
+
+	@Override
+	public String toString() {
+		return "MatchResult [winner=" + winner + ", handCount=" + handCount
+				+ ", actionCount=" + actionCount + ", playerOneStack="
+				+ playerOneStack + ", playerTwoStack=" + playerTwoStack
+				+ ", seed=" + seed + "]";
+	}
+}
@@ -0,0 +1,103 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+/**
+ * Aggregated results of a batch of matches between the same two kinds of
+ * Clients, as returned by
+ * {@link MatchEngine#playMatches(ClientFactory, ClientFactory, int, int)}.
+ * Each worker thread fills its own summary, and the summaries are merged once
+ * the batch is done.
+ */
+public final class MatchSummary {
+
+	private int playerOneWins;
+	private int playerTwoWins;
+	private int unfinished;
+	private long handCount;
+	private long actionCount;
+	private long elapsedNanos;
+
+	MatchSummary() {
+	}
+
+	/**
+	 * Adds a single match to the summary.
+	 */
+	void add(final MatchResult result) {
+		if (result.winner == 0) {
+			playerOneWins++;
+		} else if (result.winner == 1) {
+			playerTwoWins++;
+		} else {
+			unfinished++;
+		}
+		handCount += result.handCount;
+		actionCount += result.actionCount;
+	}
+
+	/**
+	 * Adds every match of another summary to this one.
+	 */
+	void merge(final MatchSummary other) {
+		playerOneWins += other.playerOneWins;
+		playerTwoWins += other.playerTwoWins;
+		unfinished += other.unfinished;
+		handCount += other.handCount;
+		actionCount += other.actionCount;
+	}
+
+	void setElapsedNanos(final long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public int getMatchCount() {
+		return playerOneWins + playerTwoWins + unfinished;
+	}
+
+	public int getPlayerOneWins() {
+		return playerOneWins;
+	}
+
+	public int getPlayerTwoWins() {
+		return playerTwoWins;
+	}
+
+	/**
+	 * @return The number of matches that were cut off by the hand limit.
+	 */
+	public int getUnfinished() {
+		return unfinished;
+	}
+
+	public long getHandCount() {
+		return handCount;
+	}
+
+	public long getActionCount() {
+		return actionCount;
+	}
+
+	/**
+	 * @return Wall clock time taken by the whole batch, in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return The number of matches played per hour at the measured rate.
+	 */
+	public double getMatchesPerHour() {
+		if (elapsedNanos == 0)
+			return 0;
+		return getMatchCount() * 3600e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "MatchSummary [matches=" + getMatchCount() + ", playerOneWins="
+				+ playerOneWins + ", playerTwoWins=" + playerTwoWins
+				+ ", unfinished=" + unfinished + ", handCount=" + handCount
+				+ ", actionCount=" + actionCount + ", matchesPerHour="
+				+ (long) getMatchesPerHour() + "]";
+	}
+}
@@ -0,0 +1,16 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+/**
+ * A {@link Client} that wants to know who it is playing. A {@link Server} or
+ * {@link MatchEngine} tells it the name of its opponent (as given by
+ * {@link Client#getName()}) before it is informed of the first state of a
+ * game, so it can recall what it knows about them.
+ */
+public interface OpponentAware {
+
+	/**
+	 * @param name
+	 *            The name of the opponent in the coming game.
+	 */
+	public void setOpponentName(String name);
+}
@@ -0,0 +1,103 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gmail.jdesmond10.pokerai.main.Main;
+
+/**
+ * Runs any number of tables on a small shared pool by calling
+ * {@link Server#step()} and scheduling each table's next step after the pause
+ * its pacing asks for, instead of sleeping a thread per table. Unpaced tables
+ * run a batch of steps at a time and then go to the back of the queue, so
+ * they share the pool fairly with each other and with paced tables. Give the
+ * pool spare threads if paced tables must keep to time while it is busy.
+ *
+ * A table's steps never overlap, but successive steps may run on different
+ * threads. Clients that block for a long time in prompt() (such as a human
+ * at the GUI) hold a pool thread while they do; host those tables on a
+ * {@link TableHost} instead, or give the Server a time limit.
+ */
+public final class PacingScheduler {
+
+	/** Steps an unpaced table takes before yielding to other tables. */
+	private static final int UNPACED_BATCH = 64;
+
+	private final ScheduledExecutorService executor;
+	private final AtomicInteger liveTables = new AtomicInteger();
+
+	/**
+	 * @param threads
+	 *            The number of threads in the shared pool.
+	 */
+	public PacingScheduler(final int threads) {
+		executor = Executors.newScheduledThreadPool(threads,
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r, "pacing-"
+								+ count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Starts playing the table. Use {@link Server#stop()} to stop it after its
+	 * current step.
+	 *
+	 * @param server
+	 *            A table not being run anywhere else.
+	 * @return A future completed with the Server when its game is over or it
+	 *         is stopped.
+	 */
+	public CompletableFuture<Server> start(final Server server) {
+		final CompletableFuture<Server> done = new CompletableFuture<Server>();
+		liveTables.incrementAndGet();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				long delay = 0;
+				try {
+					for (int i = 0; i < UNPACED_BATCH && delay == 0; i++) {
+						delay = server.isRunning() ? server.step() : -1;
+					}
+				} catch (final RuntimeException e) {
+					Main.fail("A paced table stopped with " + e);
+					delay = -1;
+				}
+
+				if (delay < 0) {
+					liveTables.decrementAndGet();
+					done.complete(server);
+				} else if (delay == 0) {
+					executor.execute(this);
+				} else {
+					executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+				}
+			}
+		});
+		return done;
+	}
+
+	/**
+	 * @return The number of tables started and not yet finished or stopped.
+	 */
+	public int getLiveTableCount() {
+		return liveTables.get();
+	}
+
+	/**
+	 * Stops scheduling steps. Tables still playing are left where they are.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -1,10 +1,21 @@
 package com.gmail.jdesmond10.pokerai.game;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.gmail.jdesmond10.pokerai.agent.PokerAgent;
 import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.DeckSource;
 import com.gmail.jdesmond10.pokerai.game.logic.GameState;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.history.HandHistoryWriter;
+import com.gmail.jdesmond10.pokerai.history.TableRecorder;
+import com.gmail.jdesmond10.pokerai.log.LogLevel;
+import com.gmail.jdesmond10.pokerai.log.Logger;
+import com.gmail.jdesmond10.pokerai.log.Logging;
 import com.gmail.jdesmond10.pokerai.main.Main;
 
 /**
@@ -22,8 +33,8 @@ public class Server implements Runnable {
 	private final List<Client> players;
 	/** Absolute state of the game. */
 	private final GameState state;
-	/** True if run() is looping. */
-	private boolean running;
+	/** True if run() is looping. Cleared by stop() from any thread. */
+	private volatile boolean running;
 	/**
 	 * True if run() has been run() before, in order that run() can also serve
 	 * as a resume()
@@ -32,8 +43,27 @@ public class Server implements Runnable {
 	/** True if this class should inform Main of GameState updates */
 	private final boolean informMain;
 
-	private int handCount;
-	private int actionCount;
+	/** Written only by the thread running the table, read by any. */
+	private volatile int handCount;
+	private volatile int actionCount;
+	/** How fast the table plays, or null to follow Main.shouldPause(). */
+	private volatile TablePacing pacing;
+	/** Numbers the tables, to name their loggers. */
+	private static final AtomicInteger TABLE_COUNT = new AtomicInteger();
+
+	/** This table's logger, named table-N. */
+	private final Logger log;
+	/**
+	 * Published to after every informPlayers(). Created by the first call of
+	 * getEvents(), so that a table nobody watches doesn't publish at all.
+	 */
+	private volatile GameEventRing events;
+	/** True once the game is over and no more events will be published. */
+	private boolean eventsClosed;
+	/** Records the hands of this game, or null if they aren't recorded. */
+	private TableRecorder recorder;
+	/** Enforces the time limit on prompts, or null if there is none. */
+	private DeadlinePrompter prompter;
 
 	/**
 	 * Creates a new game with the given List of clients. There must be two or
@@ -47,6 +77,46 @@ public class Server implements Runnable {
 	 *            if the Server is not being run from GUI, essentially).
 	 */
 	public Server(final List<Client> players, final boolean informMain) {
+		this(players, informMain, new SeededDeckSource());
+	}
+
+	/**
+	 * Creates a new game with the given List of clients, dealt from the given
+	 * deck.
+	 * 
+	 * @param players
+	 *            The list of clients playing. The order of players is
+	 *            permanent, and will coincide with the seating order.
+	 * @param informMain
+	 *            True if the Server should inform Main of the gameState (False
+	 *            if the Server is not being run from GUI, essentially).
+	 * @param deck
+	 *            The source of every card dealt at this table.
+	 */
+	public Server(final List<Client> players, final boolean informMain,
+			final DeckSource deck) {
+		this(players, informMain, deck, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Creates a new game with the given List of clients, played by the given
+	 * rules.
+	 * 
+	 * @param players
+	 *            The list of clients playing. The order of players is
+	 *            permanent, and will coincide with the seating order.
+	 * @param informMain
+	 *            True if the Server should inform Main of the gameState (False
+	 *            if the Server is not being run from GUI, essentially).
+	 * @param deck
+	 *            The source of every card dealt at this table.
+	 * @param rules
+	 *            The blinds and starting chips of the game. They must be
+	 *            packable (see {@link TableRules#isPackable()}), since the
+	 *            table's events are packed states.
+	 */
+	public Server(final List<Client> players, final boolean informMain,
+			final DeckSource deck, final TableRules rules) {
 		// Validates players
 		if (players.size() != 2) {
 			Main.fail("Creation of a Server with " + players.size()
@@ -55,9 +125,54 @@ public class Server implements Runnable {
 
 		this.informMain = informMain;
 		this.players = players;
-		state = new GameState(players.size());
+		if (!rules.isPackable())
+			throw new IllegalArgumentException(
+					"Servers can't be created with too many chips: " + rules);
+
+		state = new GameState(players.size(), deck, rules);
 		running = true;
 		firstLoop = true;
+		log = Logging.getLogger("table-" + TABLE_COUNT.incrementAndGet());
+	}
+
+	/**
+	 * Hands the table's events to the GUI, if the Server should inform Main,
+	 * and to the table's logger, if it traces. Both run on the shared
+	 * dispatcher thread. The GUI only draws the latest state of each batch.
+	 */
+	private void subscribeObservers() {
+		final GameEventDispatcher dispatcher = GameEventDispatcher.getShared();
+		if (informMain) {
+			dispatcher.subscribe(getEvents(), new GameEventListener() {
+				@Override
+				public void onEvent(final long packedState,
+						final long sequence, final boolean endOfBatch) {
+					if (endOfBatch) {
+						Main.updateState(GameStateData.fromPacked(packedState,
+								state.getRules()));
+					}
+				}
+
+				@Override
+				public void onSkipped(final long count) {
+				}
+			});
+		}
+		if (log.isEnabled(LogLevel.TRACE)) {
+			dispatcher.subscribe(getEvents(), new GameEventListener() {
+				@Override
+				public void onEvent(final long packedState,
+						final long sequence, final boolean endOfBatch) {
+					log.trace("{}", GameStateData.fromPacked(packedState,
+							state.getRules()));
+				}
+
+				@Override
+				public void onSkipped(final long count) {
+					log.log(LogLevel.TRACE, "Skipped {} game states", count);
+				}
+			});
+		}
 	}
 
 	private void endGame() {
@@ -71,29 +186,191 @@ public class Server implements Runnable {
 		if (informMain) {
 			Main.consolePrint(String.format(
 					"GAME OVER: There were %s total hands and %s total actions"
-							+ "\nPlayer %s won", handCount, actionCount,
-							winningPlayer));
+							+ "\nPlayer %s won (%s)", handCount, actionCount,
+							winningPlayer, state.getDeck()));
+			if (prompter != null) {
+				for (int i = 0; i < players.size(); i++) {
+					Main.consolePrint(String.format("%s timed out %s times",
+							players.get(i).getName(), getTimeoutCount(i)));
+				}
+			}
 			Main.gameOver();
 		}
+		if (recorder != null) {
+			try {
+				recorder.close();
+			} catch (final IOException e) {
+				stopRecording(e);
+			}
+		}
+		Logging.removeLogger(log.getName());
 		this.stop();
 
 	}
 
+	/**
+	 * Records every hand of this game to the given hand history. Must be
+	 * called before the game starts. Hand histories don't record the blinds,
+	 * so only games played by the default rules can be recorded.
+	 * 
+	 * @param history
+	 *            The writer to append the hands to, which may be shared with
+	 *            other tables.
+	 * @throws IOException
+	 *             if the table's record can't be written.
+	 */
+	public void setHistory(final HandHistoryWriter history) throws IOException {
+		if (!firstLoop)
+			throw new IllegalStateException(
+					"The history must be set before the game starts");
+		if (!state.getRules().equals(TableRules.DEFAULT))
+			throw new IllegalStateException(
+					"Only games played by the default rules can be recorded");
+		final String[] names = new String[players.size()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = players.get(i).getName();
+		}
+		final DeckSource deck = state.getDeck();
+		recorder = new TableRecorder(history,
+				deck instanceof SeededDeckSource ? ((SeededDeckSource) deck)
+						.getSeed() : 0, names);
+	}
+
+	private void recordStartOfHand() {
+		if (recorder != null) {
+			recorder.startHand(state.getGameStateData());
+		}
+	}
+
+	/**
+	 * Gives up on recording after the history failed; the game goes on.
+	 */
+	private void stopRecording(final IOException e) {
+		log.warn("The hand history failed, and is no longer recorded: {}", e);
+		recorder = null;
+	}
+
+	/**
+	 * Gives every Client a time limit to act in. Prompts are then run on a
+	 * separate thread, and a Client that runs out of time has the given
+	 * action applied for it. Without a time limit (the default, which a human
+	 * player needs) the Server waits as long as a Client takes.
+	 * 
+	 * @param millis
+	 *            The time limit of each prompt, in milliseconds.
+	 * @param timeoutAction
+	 *            What to do for a Client that runs out of time.
+	 */
+	public void setTimeLimit(final long millis,
+			final TimeoutAction timeoutAction) {
+		prompter = new DeadlinePrompter(players.size(), millis, timeoutAction);
+	}
+
+	/**
+	 * @param seat
+	 *            The seat of a Client.
+	 * @return The number of times that Client ran out of time; always 0 if
+	 *         there is no time limit.
+	 */
+	public int getTimeoutCount(final int seat) {
+		return prompter == null ? 0 : prompter.getTimeoutCount(seat);
+	}
+
+	/**
+	 * Prompts the current player, within the time limit if there is one.
+	 */
+	private BettingAction promptCurrentPlayer() {
+		final int current = state.getCurrentPlayer();
+		if (prompter == null)
+			return players.get(current).prompt();
+		return prompter.prompt(players.get(current), current,
+				state.getGameStateData());
+	}
+
+	/**
+	 * Tells each client that wants to know who its opponent is.
+	 */
+	private void introducePlayers() {
+		for (int i = 0; i < players.size(); i++) {
+			if (players.get(i) instanceof OpponentAware) {
+				((OpponentAware) players.get(i)).setOpponentName(players.get(
+						1 - i).getName());
+			}
+		}
+	}
+
 	/**
 	 * Informs each player of the current game state by iterating through
-	 * players and generating LimitedGameStates. Also informs the Main class of
-	 * the new state.
+	 * players and generating LimitedGameStates. Players are informed right
+	 * away, as they need the state before they are next prompted; everyone
+	 * else (Main, the GUI, loggers) gets the state from the table's events.
 	 */
 	private void informPlayers() {
 		for (int i = 0; i < players.size(); i++) {
 			players.get(i).inform(state.generateLimitedGameState(i));
 		}
 
-		if (informMain) {
-			Main.updateState(state);
+		publishState();
+	}
+
+	/**
+	 * Publishes the current state to the table's events, if anyone has asked
+	 * for them.
+	 */
+	private void publishState() {
+		final GameEventRing ring = events;
+		if (ring != null) {
+			ring.publish(state.getGameStateData().toPacked());
+		}
+	}
+
+	/**
+	 * Marks that the table publishes no more events, including to a ring
+	 * created after the game is over.
+	 */
+	private synchronized void closeEvents() {
+		eventsClosed = true;
+		if (events != null) {
+			events.close();
 		}
+	}
+
+	/**
+	 * @return The events of this table, one per state the players are
+	 *         informed of from now on. Subscribe to them with a
+	 *         {@link GameEventDispatcher}.
+	 */
+	public synchronized GameEventRing getEvents() {
+		if (events == null) {
+			final GameEventRing ring = new GameEventRing();
+			if (eventsClosed) {
+				ring.close();
+			}
+			events = ring;
+		}
+		return events;
+	}
+
+	/**
+	 * @return This table's logger. Set its level before the game starts to
+	 *         also trace every state.
+	 */
+	public Logger getLogger() {
+		return log;
+	}
 
-		Main.systemPrint(state.toString());
+	/**
+	 * @return The number of hands played in this game, across resumes.
+	 */
+	public int getHandCount() {
+		return handCount;
+	}
+
+	/**
+	 * @return The number of actions made in this game, across resumes.
+	 */
+	public int getActionCount() {
+		return actionCount;
 	}
 
 	/**
@@ -105,108 +382,189 @@ public class Server implements Runnable {
 		return running;
 	}
 
+	/**
+	 * @return True if a player has won the game, after which run() does
+	 *         nothing.
+	 */
+	public boolean isGameOver() {
+		return state.isTerminalState();
+	}
+
 	/**
 	 * Executes a game of poker until the game is over/all players but one are
-	 * eliminated. run() should also function as a resume() function.
+	 * eliminated, or until stop() is called. After stop(), resume() carries on
+	 * from the next action. Between steps, the calling thread sleeps for as
+	 * long as the table's pacing asks; use a {@link PacingScheduler} instead
+	 * to run paced tables without a thread each.
 	 */
 	@Override
 	public void run() {
-		handCount = 0;
-		actionCount = 0;
+		if (!firstLoop) {
+			publishState();
+		}
 
-		if (informMain) {
-			Main.updateState(state);
+		// Check after each action if the game should has been terminated
+		while (running == true) {
+			final long delay = step();
+			if (delay < 0) {
+				break;
+			}
+			if (delay > 0) {
+				try {
+					Thread.sleep(delay);
+				} catch (final InterruptedException e) {
+					Main.fail("Interrupted Exception, " + e.getMessage());
+				}
+			}
 		}
+	}
+
+	/**
+	 * Advances the game by one step: either one player's action, or, after a
+	 * hand has ended, the deal of the next hand. Tables are paused between
+	 * steps, so that a watcher can follow the game.
+	 * 
+	 * @return The time in milliseconds the table's pacing asks to wait before
+	 *         the next step, or -1 if the game is over.
+	 */
+	public long step() {
+		if (state.isTerminalState())
+			return -1;
+
 		// If it's the first time being run, initialize the first hand.
 		if (firstLoop) {
+			handCount = 0;
+			actionCount = 0;
+			subscribeObservers();
+			introducePlayers();
+			recordStartOfHand();
 			informPlayers();
 			firstLoop = false;
 		}
 
-		// Check after each action if the game should has been terminated
-		while (running == true) {
-			/*
-			 * The game loop works as follows:
-			 * 
-			 * 1: Prompt the current player to act to act.
-			 * 
-			 * 2: Update the current GameState by applying the given Action
-			 * 
-			 * 3: Check if the game is over.
-			 * 
-			 * 4: Inform each client of their resulting limitedGameState (after
-			 * the action was applied)
-			 */
-
-			// increase actionCount
-			actionCount++;
-
-			// Prompts current player
-			final BettingAction nextAction = players.get(
-					state.getCurrentPlayer()).prompt();
-
-			Main.systemPrint(String.format("Player %s %s",
-					state.getCurrentPlayer(), nextAction));
-
-			// Updates state, and checks if that was the last bet to be made.
-			if (state.applyAction(nextAction)) { // TEMP MODULARIZE THIS!
-				// Increases handCount;
-				handCount++;
-				/*
-				 * What should be done next is to inform each player of the
-				 * other players final action, and again what the state is of
-				 * the next hand.
-				 */
-				state.endHand();
-				informPlayers(); // First inform
-
-				if (Main.shouldPause()) {
-					try {
-						Thread.sleep(100);
-					} catch (final InterruptedException e) {
-						Main.fail("Interrupted Exception, " + e.getMessage());
-					}
+		if (state.getGameStateData().isHandOver) {
+			// Deal the next hand and then again inform players of the new hand
+			// (second inform). If the next hand results in one of the two
+			// players being all in, it is over at once, and is shown as long
+			// as any other finished hand. If that hand ends the game, the
+			// players are informed of the final state a second time.
+			final boolean allIn = state.dealNextHand();
+			recordStartOfHand();
+			if (allIn) {
+				final long delay = endHand();
+				if (delay < 0) {
+					informPlayers();
+					closeEvents();
 				}
+				return delay;
+			}
+			informPlayers();
+			return getPacing().getDelayMillis(Main.ACTION_PAUSE_TIME);
+		}
 
-				// At the end of every hand, checks to see if a player wins the
-				// entire sit and go
-				if (state.isTerminalState()) {
-					endGame();
-					break;
-				}
+		/*
+		 * An action step works as follows:
+		 * 
+		 * 1: Prompt the current player to act to act.
+		 * 
+		 * 2: Update the current GameState by applying the given Action
+		 * 
+		 * 3: Check if the hand, and then the game, is over.
+		 * 
+		 * 4: Inform each client of their resulting limitedGameState (after the
+		 * action was applied)
+		 */
 
-				// Deal the next hand and then again inform players of the
-				// new hand (second inform). If the next hand results in one of
-				// the two players being all in, then run the next hand code
-				// again.
-				while (state.dealNextHand()) {
-					handCount++;
-					state.endHand();
-					informPlayers();
-					if (Main.shouldPause()) {
-						try {
-							Thread.sleep(100);
-						} catch (final InterruptedException e) {
-							Main.fail("Interrupted Exception, "
-									+ e.getMessage());
-						}
-					}
-					if (state.isTerminalState()) {
-						endGame();
-						break;
-					}
-				}
+		// increase actionCount
+		actionCount++;
+
+		// Prompts current player. This is the one place a Client's action is
+		// checked; illegal actions (including null) count as folds.
+		BettingAction nextAction = promptCurrentPlayer();
+		if (nextAction == null
+				|| !state.getGameStateData().isLegalAction(nextAction)) {
+			log.warn("Player {} made the illegal action {}, treated as a fold",
+					state.getCurrentPlayer(), nextAction);
+			nextAction = BettingAction.FOLD;
+		}
+
+		log.debug("Player {} {}", state.getCurrentPlayer(), nextAction);
+
+		if (recorder != null) {
+			recorder.action(nextAction);
+		}
+
+		// Updates state, and checks if that was the last bet to be made.
+		if (state.applyLegalAction(nextAction)) {
+			final long delay = endHand();
+			if (delay < 0) {
+				closeEvents();
 			}
+			return delay;
+		}
 
-			informPlayers();
-			if (Main.shouldPause()) {
-				try {
-					Thread.sleep(30);
-				} catch (final InterruptedException e) {
-					Main.fail("Interrupted Exception, " + e.getMessage());
-				}
+		informPlayers();
+		return getPacing().getDelayMillis(Main.ACTION_PAUSE_TIME);
+	}
+
+	/**
+	 * Finishes a hand whose last action has been applied, informs the players
+	 * of the result, and checks to see if a player has won the entire sit and
+	 * go.
+	 * 
+	 * @return The delay before the next step, or -1 if the game is over.
+	 */
+	private long endHand() {
+		handCount++;
+		state.endHand();
+		if (recorder != null) {
+			try {
+				recorder.endHand(state.getGameStateData());
+			} catch (final IOException e) {
+				stopRecording(e);
 			}
 		}
+		informPlayers();
+
+		if (state.isTerminalState()) {
+			endGame();
+			return -1;
+		}
+		return getPacing().getDelayMillis(Main.PAUSE_TIME);
+	}
+
+	/**
+	 * Sets how fast this table plays. By default a table is paced in real
+	 * time if {@link Main#shouldPause()}, and is unpaced otherwise.
+	 */
+	public void setPacing(final TablePacing pacing) {
+		this.pacing = pacing;
+	}
+
+	/**
+	 * @return How fast this table plays.
+	 */
+	public TablePacing getPacing() {
+		if (pacing != null)
+			return pacing;
+		return Main.shouldPause() ? TablePacing.REALTIME : TablePacing.UNPACED;
+	}
+
+	/**
+	 * Carries on a game stopped by stop(), on the calling thread.
+	 */
+	public void resume() {
+		markRunning();
+		run();
+	}
+
+	/**
+	 * Marks a game stopped by stop() as running again, without running it.
+	 * Whoever then calls run(), on whatever thread, carries it on; until then
+	 * isRunning() is already true, so that the game isn't resumed twice.
+	 */
+	public void markRunning() {
+		running = true;
 	}
 
 	/**
@@ -0,0 +1,151 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.game.logic.TableState;
+
+/**
+ * The {@link MatchEngine} of tables with more than two players: plays a whole
+ * sit n' go of up to {@link TableState#MAX_SEATS} {@link TablePlayer}s
+ * synchronously on the calling thread, and returns a {@link TableResult}.
+ *
+ * A TableEngine holds no per-match state, so one engine per worker thread can
+ * play any number of matches back to back.
+ */
+public final class TableEngine {
+
+	private final int maxHands;
+	private final TableRules rules;
+
+	public TableEngine() {
+		this(MatchEngine.DEFAULT_MAX_HANDS, TableRules.DEFAULT);
+	}
+
+	/**
+	 * @param maxHands
+	 *            the number of hands after which a match is abandoned with no
+	 *            winner.
+	 */
+	public TableEngine(final int maxHands) {
+		this(maxHands, TableRules.DEFAULT);
+	}
+
+	/**
+	 * @param maxHands
+	 *            the number of hands after which a match is abandoned with no
+	 *            winner.
+	 * @param rules
+	 *            the blinds and starting chips of every match.
+	 */
+	public TableEngine(final int maxHands, final TableRules rules) {
+		if (maxHands < 1)
+			throw new IllegalArgumentException("maxHands must be positive, was "
+					+ maxHands);
+		this.maxHands = maxHands;
+		this.rules = rules;
+	}
+
+	/**
+	 * Plays a single sit n' go with a randomly seeded deck.
+	 *
+	 * @see #play(TablePlayer[], long)
+	 */
+	public TableResult play(final TablePlayer[] players) {
+		return play(players, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Plays a single sit n' go between the players, the first of whom starts
+	 * with the button. Illegal actions are treated as folds. Players knocked
+	 * out in the same hand are placed by the chips they started it with, and
+	 * share a place if those were the same.
+	 * Given the same seed and deterministic players, the match is replayed
+	 * exactly.
+	 *
+	 * @param players
+	 *            The player of each seat, between 2 and
+	 *            {@link TableState#MAX_SEATS} of them.
+	 * @param seed
+	 *            The seed of the deck every card is dealt from.
+	 * @return The result of the match.
+	 */
+	public TableResult play(final TablePlayer[] players, final long seed) {
+		final TableState table = new TableState(players.length,
+				new SeededDeckSource(seed), rules);
+		final int seats = players.length;
+		final int[] places = new int[seats];
+		final int[] startingChips = new int[seats];
+		int remaining = seats;
+		int handCount = 0;
+		int actionCount = 0;
+
+		boolean noBets = table.isHandOver();
+		while (handCount < maxHands) {
+			for (int seat = 0; seat < seats; seat++) {
+				startingChips[seat] = table.getStack(seat) + table.getBet(seat);
+			}
+
+			// Hands where all but one player is all in on the blinds have no
+			// bets.
+			if (!noBets) {
+				boolean over = false;
+				while (!over) {
+					actionCount++;
+					final int seat = table.getCurrentSeat();
+					int action = players[seat].prompt(table, seat);
+					if (!table.isLegalAction(action)) {
+						action = TableState.FOLD;
+					}
+					over = table.applyAction(action);
+				}
+			}
+			handCount++;
+			table.endHand();
+
+			for (int seat = 0; seat < seats; seat++) {
+				if (startingChips[seat] > 0) {
+					players[seat].handOver(table, seat);
+				}
+			}
+
+			// Place everyone knocked out this hand, the bigger stacks first.
+			int knockedOut = 0;
+			for (int seat = 0; seat < seats; seat++) {
+				if (startingChips[seat] > 0 && table.getStack(seat) == 0) {
+					knockedOut++;
+				}
+			}
+			remaining -= knockedOut;
+			for (int seat = 0; seat < seats; seat++) {
+				if (startingChips[seat] > 0 && table.getStack(seat) == 0) {
+					int place = remaining + 1;
+					for (int other = 0; other < seats; other++) {
+						if (table.getStack(other) == 0
+								&& startingChips[other] > startingChips[seat]) {
+							place++;
+						}
+					}
+					places[seat] = place;
+				}
+			}
+
+			if (table.isTerminalState()) {
+				break;
+			}
+			noBets = table.dealNextHand();
+		}
+
+		int winner = TableResult.NO_WINNER;
+		if (table.isTerminalState()) {
+			for (int seat = 0; seat < seats; seat++) {
+				if (table.getStack(seat) > 0) {
+					winner = seat;
+					places[seat] = 1;
+				}
+			}
+		}
+		return new TableResult(winner, places, handCount, actionCount, seed);
+	}
+}
@@ -0,0 +1,253 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gmail.jdesmond10.pokerai.main.Main;
+
+/**
+ * Runs many {@link Server}s at once, each on a thread of its own, and manages
+ * their lifecycle: tables can be started, stopped and resumed (a stopped
+ * Server carries on from where it was, see {@link Server#resume()}).
+ *
+ * On a JVM with virtual threads (Java 21 and later) every table gets a
+ * virtual thread, so tables blocked on a human player or sleeping between
+ * actions don't hold an OS thread, and tens of thousands of tables fit in one
+ * JVM. Older JVMs get daemon platform threads with a small stack instead,
+ * which works the same way but scales to far fewer tables.
+ *
+ * @see Server
+ */
+public final class TableHost {
+
+	/** Stack size of the fallback platform threads. */
+	private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+	/** The hosted tables that haven't finished, and their current threads. */
+	private final Map<Server, Thread> tables = new ConcurrentHashMap<Server, Thread>();
+	private final ThreadFactory threadFactory;
+	private final boolean virtual;
+	/**
+	 * Guards the removal of finished tables together with their totals, so
+	 * that the counts never see a table both hosted and finished.
+	 */
+	private final Object countLock = new Object();
+	/** Actions made at tables that have finished and been removed. */
+	private long finishedActions;
+	private int finishedTables;
+
+	private long lastSampleNanos = System.nanoTime();
+	private long lastSampleActions;
+
+	/**
+	 * Creates a host that runs tables on virtual threads if the JVM has them.
+	 */
+	public TableHost() {
+		ThreadFactory factory = virtualThreadFactory();
+		virtual = factory != null;
+		if (factory == null) {
+			factory = new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread = new Thread(null, r, "table-"
+							+ count.incrementAndGet(), PLATFORM_STACK_SIZE);
+					thread.setDaemon(true);
+					return thread;
+				}
+			};
+		}
+		threadFactory = factory;
+	}
+
+	/**
+	 * Creates a host that runs each table on a thread from the given factory.
+	 */
+	public TableHost(final ThreadFactory threadFactory) {
+		this.threadFactory = threadFactory;
+		virtual = false;
+	}
+
+	/**
+	 * Looks up {@code Thread.ofVirtual().factory()} reflectively, so this
+	 * still compiles and runs on JVMs without it.
+	 *
+	 * @return A factory of virtual threads, or null if there are none.
+	 */
+	private static ThreadFactory virtualThreadFactory() {
+		try {
+			final Object builder = Thread.class.getMethod("ofVirtual").invoke(
+					null);
+			final Method factory = Class.forName("java.lang.Thread$Builder")
+					.getMethod("factory");
+			return (ThreadFactory) factory.invoke(builder);
+		} catch (final ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return True if tables run on virtual threads.
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Starts running a new table. The table is hosted until its game is over.
+	 *
+	 * @param server
+	 *            A Server that isn't already hosted.
+	 */
+	public void start(final Server server) {
+		if (tables.containsKey(server))
+			throw new IllegalStateException("The table is already hosted");
+		launch(server);
+	}
+
+	/**
+	 * Stops a table after its current action. It stays hosted, and can be
+	 * resumed.
+	 */
+	public void stop(final Server server) {
+		server.stop();
+	}
+
+	/**
+	 * Carries on running a stopped table. Does nothing if the table is still
+	 * running. A table that has been stopped but whose thread hasn't yet
+	 * finished its last action is waited for before it is resumed.
+	 *
+	 * @param server
+	 *            A hosted Server.
+	 */
+	public synchronized void resume(final Server server) {
+		final Thread thread = tables.get(server);
+		if (thread == null)
+			throw new IllegalStateException("The table isn't hosted");
+		if (server.isRunning())
+			return;
+		try {
+			// Let the old thread finish winding down before starting anew.
+			thread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		// The game may have ended on the old thread, which then unhosted it.
+		if (server.isGameOver())
+			return;
+		// Running from now on, so that another resume() returns at once
+		// rather than waiting on the new thread.
+		server.markRunning();
+		launch(server);
+	}
+
+	private void launch(final Server server) {
+		final Thread thread = threadFactory.newThread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					server.run();
+				} catch (final RuntimeException e) {
+					Main.fail("A hosted table stopped with " + e);
+					server.stop();
+				}
+				if (server.isGameOver()) {
+					synchronized (countLock) {
+						tables.remove(server);
+						finishedActions += server.getActionCount();
+						finishedTables++;
+					}
+				}
+			}
+		});
+		tables.put(server, thread);
+		thread.start();
+	}
+
+	/**
+	 * Stops every table.
+	 */
+	public void stopAll() {
+		for (final Server server : tables.keySet()) {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Waits for every table to finish or stop.
+	 */
+	public void awaitAll() throws InterruptedException {
+		for (final Thread thread : new ArrayList<Thread>(tables.values())) {
+			thread.join();
+		}
+	}
+
+	/**
+	 * @return The tables being hosted (running or stopped).
+	 */
+	public List<Server> getTables() {
+		synchronized (countLock) {
+			return new ArrayList<Server>(tables.keySet());
+		}
+	}
+
+	/**
+	 * @return The number of tables currently running.
+	 */
+	public int getLiveTableCount() {
+		int live = 0;
+		synchronized (countLock) {
+			for (final Server server : tables.keySet()) {
+				if (server.isRunning()) {
+					live++;
+				}
+			}
+		}
+		return live;
+	}
+
+	/**
+	 * @return The number of tables whose game has finished.
+	 */
+	public int getFinishedTableCount() {
+		synchronized (countLock) {
+			return finishedTables;
+		}
+	}
+
+	/**
+	 * @return The total number of actions made at every table this host has
+	 *         run.
+	 */
+	public long getActionCount() {
+		synchronized (countLock) {
+			long actions = finishedActions;
+			for (final Server server : tables.keySet()) {
+				actions += server.getActionCount();
+			}
+			return actions;
+		}
+	}
+
+	/**
+	 * @return The number of actions per second made across all tables since
+	 *         the last call of this method (or since the host was created).
+	 */
+	public synchronized double getActionsPerSecond() {
+		final long now = System.nanoTime();
+		final long actions = getActionCount();
+		final double rate = (actions - lastSampleActions) * 1e9
+				/ Math.max(1, now - lastSampleNanos);
+		lastSampleNanos = now;
+		lastSampleActions = actions;
+		return rate;
+	}
+}
@@ -0,0 +1,65 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import com.gmail.jdesmond10.pokerai.main.Main;
+
+/**
+ * How fast a table plays: in real time (slow enough for a person to follow),
+ * some multiple of real time, or unpaced (as fast as the clients act).
+ *
+ * @see Server#setPacing(TablePacing)
+ */
+public final class TablePacing {
+
+	/** Pauses of {@link Main#PAUSE_TIME} after hands and
+	 * {@link Main#ACTION_PAUSE_TIME} after actions. */
+	public static final TablePacing REALTIME = new TablePacing(1);
+
+	/** No pauses at all. */
+	public static final TablePacing UNPACED = new TablePacing(
+			Double.POSITIVE_INFINITY);
+
+	private final double speed;
+
+	private TablePacing(final double speed) {
+		this.speed = speed;
+	}
+
+	/**
+	 * @param speed
+	 *            How many times faster than real time to play; 2 halves every
+	 *            pause.
+	 * @return Pacing at the given multiple of real time.
+	 */
+	public static TablePacing times(final double speed) {
+		if (!(speed > 0))
+			throw new IllegalArgumentException("speed must be positive, was "
+					+ speed);
+		if (speed == Double.POSITIVE_INFINITY)
+			return UNPACED;
+		return new TablePacing(speed);
+	}
+
+	/**
+	 * @param realtimeMillis
+	 *            The pause in real time.
+	 * @return The pause at this speed, in milliseconds.
+	 */
+	public long getDelayMillis(final long realtimeMillis) {
+		return Math.round(realtimeMillis / speed);
+	}
+
+	public boolean isUnpaced() {
+		return speed == Double.POSITIVE_INFINITY;
+	}
+
+	public double getSpeed() {
+		return speed;
+	}
+
+	@Override
+	public String toString() {
+		if (isUnpaced())
+			return "TablePacing [unpaced]";
+		return "TablePacing [" + speed + "x]";
+	}
+}
@@ -0,0 +1,43 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import com.gmail.jdesmond10.pokerai.game.logic.TableState;
+
+/**
+ * A player at a table of up to {@link TableState#MAX_SEATS} seats, played by a
+ * {@link TableEngine}. Where a heads-up {@link Client} is handed a fresh
+ * immutable state after every step, a TablePlayer is handed the table itself
+ * and is only called when it has something to do, so that big tables cost no
+ * more per action than small ones.
+ *
+ * The table must only be read, and only through what the seat can see (see
+ * {@link TableState#getCard(int, int)}).
+ */
+public interface TablePlayer {
+
+	/**
+	 * Decides the action of this player, whose turn it is.
+	 *
+	 * @param table
+	 *            The table, as it stands.
+	 * @param seat
+	 *            The seat of this player.
+	 * @return {@link TableState#FOLD}, or the chips to add to the pot.
+	 */
+	public int prompt(TableState table, int seat);
+
+	/**
+	 * Called at the end of every hand this player was dealt into, after the
+	 * pot has been paid out, so the player can learn from the showdown.
+	 *
+	 * @param table
+	 *            The table, as the hand ended.
+	 * @param seat
+	 *            The seat of this player.
+	 */
+	public void handOver(TableState table, int seat);
+
+	/**
+	 * @return A String representing the name of the player.
+	 */
+	public String getName();
+}
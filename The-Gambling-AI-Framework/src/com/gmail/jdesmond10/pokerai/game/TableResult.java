@@ -0,0 +1,60 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a single sit n' go played by a {@link TableEngine}. This is
+ * an immutable class.
+ */
+public final class TableResult {
+
+	/** Value of {@link #winner} when the match hit the hand limit. */
+	public static final int NO_WINNER = -1;
+
+	/** Seat of the winning player, or {@link #NO_WINNER}. */
+	public final int winner;
+	public final int handCount;
+	public final int actionCount;
+	/** Seed of the deck the match was dealt from. */
+	public final long seed;
+	/** Place of each seat, 1 being the winner; 0 if it was never knocked out. */
+	private final int[] places;
+
+	TableResult(final int winner, final int[] places, final int handCount,
+			final int actionCount, final long seed) {
+		this.winner = winner;
+		this.places = places.clone();
+		this.handCount = handCount;
+		this.actionCount = actionCount;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param seat
+	 *            A seat of the table.
+	 * @return The place the seat finished in, 1 being the winner, or 0 if the
+	 *         match was cut off while the seat still had chips.
+	 */
+	public int getPlace(final int seat) {
+		return places[seat];
+	}
+
+	public int getSeatCount() {
+		return places.length;
+	}
+
+	/**
+	 * @return True if the match ended because all but one player was
+	 *         eliminated (as opposed to being cut off by the hand limit).
+	 */
+	public boolean isFinished() {
+		return winner != NO_WINNER;
+	}
+
+	@Override
+	public String toString() {
+		return "TableResult [winner=" + winner + ", places="
+				+ Arrays.toString(places) + ", handCount=" + handCount
+				+ ", actionCount=" + actionCount + ", seed=" + seed + "]";
+	}
+}
@@ -0,0 +1,28 @@
+package com.gmail.jdesmond10.pokerai.game;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+
+/**
+ * What the Server does on behalf of a Client that doesn't act before its
+ * deadline.
+ *
+ * @see DeadlinePrompter
+ */
+public enum TimeoutAction {
+	/** Check if there is nothing to call, otherwise fold. */
+	CHECK_OR_FOLD,
+	/** Always fold, even when checking is free. */
+	FOLD;
+
+	/**
+	 * @param state
+	 *            The state in which the Client timed out.
+	 * @return The action to apply in its place.
+	 */
+	public BettingAction getAction(final GameStateData state) {
+		if (this == CHECK_OR_FOLD && state.getCallAmount() == 0)
+			return new BettingAction(0);
+		return BettingAction.FOLD;
+	}
+}
@@ -0,0 +1,117 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+import java.util.Arrays;
+
+/**
+ * Reduces the (up to a hundred or so) legal bet amounts of a decision down to
+ * a handful of representative actions: fold, call/check, a few raises sized
+ * as fractions of the pot, and all-in. Solvers and search agents use this to
+ * keep their trees small.
+ *
+ * Every action returned is legal according to
+ * {@link PackedGameState#isLegalAction(long, int)}.
+ */
+public final class BetAbstraction {
+
+	/**
+	 * Raises of half pot up to eight times the pot, with at most three raises
+	 * a hand. The big overbets matter: without them, bets like "halfway to
+	 * all-in" land far from any size in the abstraction.
+	 */
+	public static final BetAbstraction DEFAULT = new BetAbstraction(
+			new double[] { 0.5, 1, 2, 4, 8 }, 3);
+
+	private final double[] potFractions;
+	private final int maxRaises;
+
+	/**
+	 * @param potFractions
+	 *            The raise sizes as fractions of the pot after calling, in
+	 *            increasing order. All-in is always included, so it need not be
+	 *            listed.
+	 * @param maxRaises
+	 *            The number of raises after which only fold and call are
+	 *            offered.
+	 */
+	public BetAbstraction(final double[] potFractions, final int maxRaises) {
+		for (int i = 0; i < potFractions.length; i++) {
+			if (potFractions[i] <= 0
+					|| (i > 0 && potFractions[i] <= potFractions[i - 1]))
+				throw new IllegalArgumentException(
+						"Pot fractions must be positive and increasing: "
+								+ Arrays.toString(potFractions));
+		}
+		if (maxRaises < 0)
+			throw new IllegalArgumentException("maxRaises must not be negative");
+
+		this.potFractions = potFractions.clone();
+		this.maxRaises = maxRaises;
+	}
+
+	/**
+	 * @return The largest number of actions {@link #getActions} can return;
+	 *         use this to size the output array.
+	 */
+	public int getMaxActions() {
+		return potFractions.length + 3;
+	}
+
+	/**
+	 * Writes the abstract actions of the player to act into {@code out}, in
+	 * increasing order: {@link PackedGameState#FOLD} (only if there is
+	 * something to call), the call (or check), then the raises and all-in.
+	 *
+	 * @param state
+	 *            a packed state where the hand is not over.
+	 * @param raises
+	 *            the number of raises already made this hand.
+	 * @param out
+	 *            an array of at least {@link #getMaxActions()} elements.
+	 * @return The number of actions written.
+	 */
+	public int getActions(final long state, final int raises, final int[] out) {
+		final int call = PackedGameState.getCallAmount(state);
+		final int max = PackedGameState.getMaxBetAmount(state);
+		int count = 0;
+
+		// Folding when you could check is never better, so it's left out.
+		if (call > 0) {
+			out[count++] = PackedGameState.FOLD;
+		}
+		out[count++] = call;
+
+		if (raises < maxRaises && max > call) {
+			final int potAfterCall = PackedGameState.potSize(state) + call;
+			for (final double fraction : potFractions) {
+				final int amount = call
+						+ (int) Math.round(fraction * potAfterCall);
+				if (amount >= max) {
+					break;
+				}
+				if (amount > out[count - 1]) {
+					out[count++] = amount;
+				}
+			}
+			out[count++] = max;
+		}
+
+		return count;
+	}
+
+	/**
+	 * @return A copy of the pot fractions of the raises.
+	 */
+	public double[] getPotFractions() {
+		return potFractions.clone();
+	}
+
+	public int getMaxRaises() {
+		return maxRaises;
+	}
+
+	@Override
+	public String toString() {
+		return "BetAbstraction [potFractions=" + Arrays.toString(potFractions)
+				+ ", maxRaises=" + maxRaises + "]";
+	}
+}
@@ -1,5 +1,7 @@
 package com.gmail.jdesmond10.pokerai.game.logic;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * A Card is a number between 2 and 14. It can also have a value of Unknown, if
  * the card is face-down, a value of Winner, if the other player folded and all
@@ -12,6 +14,14 @@ public enum Card {
 			8), Nine(9), Ten(10), Jack(11), Queen(12), King(13), Ace(14), Winner(
 			32767);
 
+	/** The number of dealable cards, Two through Ace. */
+	public static final int NUM_RANKS = 13;
+
+	/**
+	 * Cached copy of values(), since values() clones the array on every call.
+	 */
+	private static final Card[] VALUES = values();
+
 	public final int value;
 
 	Card(int i) {
@@ -19,16 +29,35 @@ public enum Card {
 	}
 
 	private static Card getCard(int cardVal) {
-		return Card.values()[cardVal + 1];
+		return VALUES[cardVal + 1];
+	}
+
+	/**
+	 * @param rank
+	 *            A value between 0 (Two) and {@link #NUM_RANKS} - 1 (Ace).
+	 * @return The dealable card of the given rank.
+	 */
+	public static Card fromRank(final int rank) {
+		return getCard(rank + 1);
 	}
 
 	/**
+	 * 
+	 * @return the rank of a dealable card, between 0 (Two) and
+	 *         {@link #NUM_RANKS} - 1 (Ace).
+	 */
+	public int rank() {
+		return value - 2;
+	}
+
+	/**
+	 * Deals a card from the calling thread's own generator. Games that need to
+	 * be reproducible should deal from a {@link DeckSource} instead.
 	 * 
 	 * @return A random card between Two and Ace.
 	 */
 	public static Card getRandomCard() {
-		final double d = Math.random() * 13;
-		return Card.getCard((int) d + 1);
-	} 
+		return Card.fromRank(ThreadLocalRandom.current().nextInt(NUM_RANKS));
+	}
 
 }
@@ -0,0 +1,18 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+/**
+ * Where a {@link GameState} gets its cards from. Each GameState owns its own
+ * DeckSource, so tables never share (or contend over) a generator.
+ * 
+ * The game is played with a multi-deck, so every card is dealt independently
+ * of the cards before it.
+ * 
+ * @see SeededDeckSource
+ */
+public interface DeckSource {
+
+	/**
+	 * @return The next card dealt, between Two and Ace.
+	 */
+	public Card nextCard();
+}
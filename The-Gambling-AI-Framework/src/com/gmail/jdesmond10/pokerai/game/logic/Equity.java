@@ -0,0 +1,131 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+/**
+ * Exact showdown odds of a card against a {@link Range}. With thirteen ranks,
+ * the odds are one dot product of the range with a precomputed row of
+ * outcomes, so they cost a few nanoseconds and allocate nothing.
+ *
+ * The game is dealt from a multi-deck (see {@link DeckSource}), and the
+ * default engine assumes an endless one, where holding a card says nothing
+ * about the other player's. An engine for a shoe of a given number of decks
+ * also accounts for the card held: there is one fewer of its rank left for
+ * the opponent.
+ *
+ * Equity instances are immutable and can be shared by any number of threads.
+ */
+public final class Equity {
+
+	/** Odds for the game as it is dealt, from an endless multi-deck. */
+	public static final Equity DEFAULT = new Equity(0);
+
+	private static final int RANKS = Card.NUM_RANKS;
+	/** The number of each rank in one deck. */
+	private static final int SUITS = 4;
+
+	private final int decks;
+	/**
+	 * The outcome table, indexed by our rank i and theirs j at i * RANKS + j.
+	 * dealt holds the chance weight of j being dealt to them (relative to an
+	 * endless deck); the others hold that weight where we win, where we tie,
+	 * and times our share of the pot.
+	 */
+	private final double[] dealt = new double[RANKS * RANKS];
+	private final double[] share = new double[RANKS * RANKS];
+	private final double[] wins = new double[RANKS * RANKS];
+	private final double[] ties = new double[RANKS * RANKS];
+
+	/**
+	 * @param decks
+	 *            The number of decks in the shoe, or 0 for an endless one.
+	 */
+	public Equity(final int decks) {
+		if (decks < 0)
+			throw new IllegalArgumentException(
+					"decks can't be negative, was " + decks);
+		this.decks = decks;
+		for (int i = 0; i < RANKS; i++) {
+			for (int j = 0; j < RANKS; j++) {
+				final double weight;
+				if (decks == 0 || i != j) {
+					weight = 1;
+				} else {
+					weight = (SUITS * decks - 1.0) / (SUITS * decks);
+				}
+				final int k = i * RANKS + j;
+				dealt[k] = weight;
+				if (i > j) {
+					wins[k] = weight;
+					share[k] = weight;
+				} else if (i == j) {
+					ties[k] = weight;
+					share[k] = weight / 2;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param rank
+	 *            Our card's rank, between 0 (Two) and {@link Card#NUM_RANKS}
+	 *            - 1 (Ace).
+	 * @param range
+	 *            The opponent's range.
+	 * @return Our expected share of the pot at showdown, counting a tie as
+	 *         half; NaN if the range has no weight.
+	 */
+	public double getEquity(final int rank, final Range range) {
+		return dot(share, rank, range) / dot(dealt, rank, range);
+	}
+
+	/**
+	 * @see #getEquity(int, Range)
+	 */
+	public double getEquity(final Card card, final Range range) {
+		return getEquity(card.rank(), range);
+	}
+
+	/**
+	 * @return The chance our card of the given rank beats the range.
+	 */
+	public double getWinProbability(final int rank, final Range range) {
+		return dot(wins, rank, range) / dot(dealt, rank, range);
+	}
+
+	/**
+	 * @return The chance our card of the given rank ties with the range.
+	 */
+	public double getTieProbability(final int rank, final Range range) {
+		return dot(ties, rank, range) / dot(dealt, rank, range);
+	}
+
+	/**
+	 * @return The chance our card of the given rank loses to the range.
+	 */
+	public double getLoseProbability(final int rank, final Range range) {
+		return 1 - getWinProbability(rank, range)
+				- getTieProbability(rank, range);
+	}
+
+	private static double dot(final double[] table, final int rank,
+			final Range range) {
+		final double[] weights = range.getWeights();
+		final int row = rank * RANKS;
+		double sum = 0;
+		for (int j = 0; j < RANKS; j++) {
+			sum += table[row + j] * weights[j];
+		}
+		return sum;
+	}
+
+	/**
+	 * @return The number of decks in the shoe, or 0 for an endless one.
+	 */
+	public int getDecks() {
+		return decks;
+	}
+
+	@Override
+	public String toString() {
+		return "Equity [decks=" + (decks == 0 ? "endless" : "" + decks) + "]";
+	}
+}
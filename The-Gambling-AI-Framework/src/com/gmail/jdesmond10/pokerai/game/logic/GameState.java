@@ -1,5 +1,7 @@
 package com.gmail.jdesmond10.pokerai.game.logic;
 
+import com.gmail.jdesmond10.pokerai.log.Logger;
+import com.gmail.jdesmond10.pokerai.log.Logging;
 import com.gmail.jdesmond10.pokerai.main.Main;
 
 /**
@@ -11,16 +13,71 @@ import com.gmail.jdesmond10.pokerai.main.Main;
  */
 public class GameState {
 
+	private static final Logger LOG = Logging.getLogger(GameState.class);
+
 	private GameStateData data;
+	/** Where this table's cards come from. */
+	private final DeckSource deck;
 
 	/**
-	 * Initializes a new Game with the given number of players.
+	 * Initializes a new Game with the given number of players, dealt from a
+	 * freshly seeded deck.
 	 * 
 	 * @param numPlayers
 	 *            the number of players in the game. (Must be a value between 2
 	 *            and Main.MAX_PLAYERS)
 	 **/
 	public GameState(final int numPlayers) {
+		this(numPlayers, new SeededDeckSource());
+	}
+
+	/**
+	 * Initializes a new Game with the given number of players.
+	 * 
+	 * @param numPlayers
+	 *            the number of players in the game. (Must be a value between 2
+	 *            and Main.MAX_PLAYERS)
+	 * @param deck
+	 *            The source of every card dealt in this game.
+	 **/
+	public GameState(final int numPlayers, final DeckSource deck) {
+		this(numPlayers, deck, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new Game with the given number of players, played by the
+	 * given rules.
+	 * 
+	 * @param numPlayers
+	 *            the number of players in the game. (Must be a value between 2
+	 *            and Main.MAX_PLAYERS)
+	 * @param deck
+	 *            The source of every card dealt in this game.
+	 * @param rules
+	 *            The blinds and starting chips of the game.
+	 **/
+	public GameState(final int numPlayers, final DeckSource deck,
+			final TableRules rules) {
+		this(numPlayers, deck, rules, ValidationMode.STRICT);
+	}
+
+	/**
+	 * Initializes a new Game with the given number of players, played by the
+	 * given rules and checked as the given mode says. Only a table that
+	 * checks every action itself should be {@link ValidationMode#TRUSTED}.
+	 * 
+	 * @param numPlayers
+	 *            the number of players in the game. (Must be a value between 2
+	 *            and Main.MAX_PLAYERS)
+	 * @param deck
+	 *            The source of every card dealt in this game.
+	 * @param rules
+	 *            The blinds and starting chips of the game.
+	 * @param mode
+	 *            How much checking this game's states do.
+	 **/
+	public GameState(final int numPlayers, final DeckSource deck,
+			final TableRules rules, final ValidationMode mode) {
 		// Validates numPlayers
 		if (numPlayers > Main.MAX_PLAYERS || numPlayers < 2) {
 			Main.fail("Creation of a GameState with " + numPlayers
@@ -29,7 +86,8 @@ public class GameState {
 					+ Main.MAX_PLAYERS);
 		}
 
-		data = GameStateData.getInitialGameStateData();
+		this.deck = deck;
+		data = GameStateData.getInitialGameStateData(deck, rules, mode);
 	}
 
 	/**
@@ -42,19 +100,30 @@ public class GameState {
 	 *            legal action).
 	 * @return True if the given action terminates the round of betting (i.e. if
 	 *         there are no more possible bets).
+	 * @throws IllegalActionException
+	 *             if the action isn't legal, in strict mode (see
+	 *             {@link ValidationMode}).
 	 */
 	public boolean applyAction(final BettingAction action) {
-		// Validates the action
-		if (!isLegal(action)) {
-			Main.fail("Illegal Action was submitted by player "
-					+ getCurrentPlayer() + ": " + action.toString());
-		}
-
-		// Applies the action
+		// Applies the action, which validates it if need be.
 		data = data.getResultingGameStateData(action);
 		return data.isHandOver;
 	}
 
+	/**
+	 * Applies an action the caller has already checked with
+	 * {@link GameStateData#isLegalAction(BettingAction)}, so that it isn't
+	 * checked a second time in strict mode.
+	 * 
+	 * @param action
+	 *            The legal Action being made by the current player to act.
+	 * @return True if the given action terminates the round of betting.
+	 */
+	public boolean applyLegalAction(final BettingAction action) {
+		data = data.getResultingGameStateData(action, true);
+		return data.isHandOver;
+	}
+
 	/**
 	 * Causes players to pay their blinds, then deals out cards and properly
 	 * sets all variables. This should be called after {@link #endHand()}.
@@ -63,10 +132,9 @@ public class GameState {
 	 *         just the blinds).
 	 */
 	public boolean dealNextHand() {
-		Main.systemPrint("Dealing Next Hand. The current gameState is "
-				+ data.toString());
+		LOG.trace("Dealing Next Hand. The current gameState is {}", data);
 
-		data = data.dealNextHand();
+		data = data.dealNextHand(deck);
 
 		if (data.playerOneStack <= 0 || data.playerTwoStack <= 0)
 			return true;
@@ -79,8 +147,7 @@ public class GameState {
 	 * called if the betting round is over (whether someone folds or not).
 	 */
 	public void endHand() {
-		Main.systemPrint("Finalizing the hand. The current gameState is "
-				+ data.toString());
+		LOG.trace("Finalizing the hand. The current gameState is {}", data);
 
 		data = data.endHand();
 	}
@@ -118,23 +185,22 @@ public class GameState {
 		return 1;
 	}
 
-	public GameStateData getGameStateData() {
-		return data;
+	/**
+	 * @return The source of the cards dealt in this game.
+	 */
+	public DeckSource getDeck() {
+		return deck;
 	}
 
 	/**
-	 * Determines if an action is legal for the current player to act
-	 * 
-	 * @param action
-	 *            the BettingAction
-	 * @return True if the action is legal
+	 * @return The blinds and starting chips of this game.
 	 */
-	private boolean isLegal(final BettingAction action) {
-		// Folding is always legal
-		if (action.isFold())
-			return true;
+	public TableRules getRules() {
+		return data.rules;
+	}
 
-		return data.isLegalAction(action);
+	public GameStateData getGameStateData() {
+		return data;
 	}
 
 	/**
@@ -1,6 +1,8 @@
 package com.gmail.jdesmond10.pokerai.game.logic;
 
-import com.gmail.jdesmond10.pokerai.main.Main;
+import com.gmail.jdesmond10.pokerai.log.LogLevel;
+import com.gmail.jdesmond10.pokerai.log.Logger;
+import com.gmail.jdesmond10.pokerai.log.Logging;
 
 /**
  * An object representing the state of a poker game. For limited view game
@@ -11,6 +13,19 @@ import com.gmail.jdesmond10.pokerai.main.Main;
  */
 public final class GameStateData {
 
+	private static final Logger LOG = Logging.getLogger(GameStateData.class);
+
+	/**
+	 * @return How much checking this state, and the states after it, do.
+	 */
+	public ValidationMode getValidationMode() {
+		return validationMode;
+	}
+
+	private boolean isStrict() {
+		return validationMode == ValidationMode.STRICT;
+	}
+
 	/**
 	 * Simple nested enum for use in passing parameters between endHand() and
 	 * determine Winner.
@@ -28,10 +43,61 @@ public final class GameStateData {
 	 * @return Initial game state data object.
 	 */
 	public static GameStateData getInitialGameStateData() {
-		return new GameStateData(Main.STARTING_CHIPS - Main.SMALL_BLIND,
-				Main.STARTING_CHIPS - Main.BIG_BLIND, Card.getRandomCard(),
-				Card.getRandomCard(), Main.SMALL_BLIND, Main.BIG_BLIND, true,
-				true, Main.SMALL_BLIND + Main.BIG_BLIND, null, false);
+		return getInitialGameStateData(new SeededDeckSource());
+	}
+
+	/**
+	 * Generates an initial GameStateData for use at the beginning of the game,
+	 * dealing the cards from the given deck. Player One/Zero is small blind
+	 * and first to act.
+	 * 
+	 * @param deck
+	 *            The source of the cards dealt.
+	 * @return Initial game state data object.
+	 */
+	public static GameStateData getInitialGameStateData(final DeckSource deck) {
+		return getInitialGameStateData(deck, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Generates an initial GameStateData for use at the beginning of a game
+	 * played by the given rules. Player One/Zero is small blind and first to
+	 * act.
+	 * 
+	 * @param deck
+	 *            The source of the cards dealt.
+	 * @param rules
+	 *            The blinds and starting chips of the game.
+	 * @return Initial game state data object.
+	 */
+	public static GameStateData getInitialGameStateData(final DeckSource deck,
+			final TableRules rules) {
+		return getInitialGameStateData(deck, rules, ValidationMode.STRICT);
+	}
+
+	/**
+	 * Generates an initial GameStateData for use at the beginning of a game
+	 * played by the given rules, checked as the given mode says. Every state
+	 * that follows from it is checked the same way.
+	 * 
+	 * @param deck
+	 *            The source of the cards dealt.
+	 * @param rules
+	 *            The blinds and starting chips of the game.
+	 * @param mode
+	 *            How much checking the game's states do.
+	 * @return Initial game state data object.
+	 */
+	public static GameStateData getInitialGameStateData(final DeckSource deck,
+			final TableRules rules, final ValidationMode mode) {
+		final Card p1Card = deck.nextCard();
+		final Card p2Card = deck.nextCard();
+		final int smallBlind = rules.getSmallBlind();
+		final int bigBlind = rules.getBigBlind();
+		return new GameStateData(rules.getStartingChips() - smallBlind,
+				rules.getStartingChips() - bigBlind, p1Card, p2Card,
+				smallBlind, bigBlind, true, true, smallBlind + bigBlind, null,
+				false, rules, mode);
 	}
 
 	public final int playerOneStack;
@@ -46,6 +112,10 @@ public final class GameStateData {
 	public final BettingAction lastAction;
 	/** True if the game is over, and this state is only there to show cards */
 	public final boolean isHandOver;
+	/** The blinds and starting chips of the game. */
+	public final TableRules rules;
+	/** How much checking this state, and every state after it, does. */
+	private final ValidationMode validationMode;
 
 	/**
 	 * Private Constructor of new gameStates.
@@ -60,6 +130,9 @@ public final class GameStateData {
 	 * @param playerOneToBet
 	 * @param potSize
 	 * @param lastAction
+	 * @param isHandOver
+	 * @param rules
+	 * @param validationMode
 	 */
 	private GameStateData(final int playerOneStack, final int playerTwoStack,
 			final Card playerOneCard, final Card playerTwoCard,
@@ -67,7 +140,8 @@ public final class GameStateData {
 			final int playerTwoAmountBetSoFar,
 			final boolean playerOneHasButton, final boolean playerOneToBet,
 			final int potSize, final BettingAction lastAction,
-			final boolean isHandOver) {
+			final boolean isHandOver, final TableRules rules,
+			final ValidationMode validationMode) {
 		super();
 		this.playerOneStack = playerOneStack;
 		this.playerTwoStack = playerTwoStack;
@@ -80,11 +154,16 @@ public final class GameStateData {
 		this.potSize = potSize;
 		this.lastAction = lastAction;
 		this.isHandOver = isHandOver;
+		this.rules = rules;
+		this.validationMode = validationMode;
 
 		// Validate the number of total chips in the game.
-		if (playerOneStack + playerTwoStack + potSize != Main.STARTING_CHIPS * 2) {
-			Main.fail("Illegal gameStateData creation where total chips != what it should");
-		}
+		if (isStrict()
+				&& playerOneStack + playerTwoStack + potSize != rules
+						.getStartingChips() * 2)
+			throw new InvalidGameStateException(
+					"Illegal gameStateData creation where total chips != what it should: "
+							+ this);
 	}
 
 	/**
@@ -92,30 +171,34 @@ public final class GameStateData {
 	 * and properly sets all variables. This should be called after
 	 * {@link #endHand()}.
 	 * 
+	 * @param deck
+	 *            The source of the cards dealt.
 	 * @return The new instance of a GameStateData after the hand has been
 	 *         dealt.
 	 */
-	protected GameStateData dealNextHand() {
+	protected GameStateData dealNextHand(final DeckSource deck) {
 		// Handle easy variables:
 		final boolean p1Button = !playerOneHasButton;
 		final boolean p1ToBet = p1Button;
 		// Declare variables for use in constructor call
 		final int p1Stack, p2Stack, p1Bet, p2Bet, pSize;
+		final int smallBlind = rules.getSmallBlind();
+		final int bigBlind = rules.getBigBlind();
 
 		// Now lets handle the normal case where the blinds aren't more than a
 		// players stack size
-		if (playerOneStack >= Main.BIG_BLIND
-				&& playerTwoStack >= Main.BIG_BLIND) {
+		if (playerOneStack >= bigBlind
+				&& playerTwoStack >= bigBlind) {
 
-			pSize = Main.BIG_BLIND + Main.SMALL_BLIND;
+			pSize = bigBlind + smallBlind;
 
 			// Handle the bets
 			if (!p1Button) {
-				p1Bet = Main.BIG_BLIND;
-				p2Bet = Main.SMALL_BLIND;
+				p1Bet = bigBlind;
+				p2Bet = smallBlind;
 			} else {
-				p1Bet = Main.SMALL_BLIND;
-				p2Bet = Main.BIG_BLIND;
+				p1Bet = smallBlind;
+				p2Bet = bigBlind;
 			}
 
 			// Subtract from stacks
@@ -123,28 +206,27 @@ public final class GameStateData {
 			p2Stack = playerTwoStack - p2Bet;
 		}
 
-		// However, in the case that a player has only one chip, we must only
-		// bet small blinds.
+		// However, in the case that a player can't cover the big blind, we
+		// must only bet small blinds, and no more than the short stack has.
 		else {
-			pSize = Main.SMALL_BLIND + Main.SMALL_BLIND;
+			final int blind = Math.min(smallBlind,
+					Math.min(playerOneStack, playerTwoStack));
+			pSize = blind + blind;
 
 			// Handle the bets
-			if (!p1Button) {
-				p1Bet = Main.SMALL_BLIND;
-				p2Bet = Main.SMALL_BLIND;
-			} else {
-				p1Bet = Main.SMALL_BLIND;
-				p2Bet = Main.SMALL_BLIND;
-			}
+			p1Bet = blind;
+			p2Bet = blind;
 
 			// Subtract from stacks
 			p1Stack = playerOneStack - p1Bet;
 			p2Stack = playerTwoStack - p2Bet;
 		}
 
-		return new GameStateData(p1Stack, p2Stack, Card.getRandomCard(),
-				Card.getRandomCard(), p1Bet, p2Bet, p1Button, p1ToBet, pSize,
-				null, false);
+		final Card p1Card = deck.nextCard();
+		final Card p2Card = deck.nextCard();
+		return new GameStateData(p1Stack, p2Stack, p1Card, p2Card, p1Bet,
+				p2Bet, p1Button, p1ToBet, pSize, null, false, rules,
+				validationMode);
 	}
 
 	/**
@@ -154,9 +236,9 @@ public final class GameStateData {
 	 */
 	private Winner determineWinner() {
 		// Validate current state of game
-		if (playerOneCard == Card.Unkown || playerTwoCard == Card.Unkown) {
-			Main.fail("Improper usage of #determineWinner()");
-		}
+		if (playerOneCard == Card.Unkown || playerTwoCard == Card.Unkown)
+			throw new InvalidGameStateException(
+					"Improper usage of #determineWinner(): " + this);
 
 		// Handle folds SUGGESTION Ensure this is still necessary if we change
 		// how GameState handles folding.
@@ -188,9 +270,10 @@ public final class GameStateData {
 		 */
 
 		final Winner winner = this.determineWinner();
-		Main.systemPrint(String.format(
-				"The winner was %s! The winning player(s) will"
-						+ " recieve the pot of %s chips", winner, potSize));
+		if (LOG.isEnabled(LogLevel.TRACE)) {
+			LOG.trace("The winner was {}! The winning player(s) will"
+					+ " recieve the pot of {} chips", winner, potSize);
+		}
 
 		// Variables that will be used in the creation of a new GameStateData
 		int p1Stack;
@@ -216,7 +299,7 @@ public final class GameStateData {
 		return new GameStateData(p1Stack, p2Stack, playerOneCard,
 				playerTwoCard, playerOneAmountBetSoFar,
 				playerTwoAmountBetSoFar, playerOneHasButton, playerOneToBet, 0,
-				lastAction, true);
+				lastAction, true, rules, validationMode);
 	}
 
 	/**
@@ -231,20 +314,28 @@ public final class GameStateData {
 	 * @param isPlayerOnePerspective
 	 *            True if the obfuscated data should be from the perspective of
 	 *            player one. False if for the perspective of the second player.
-	 * @return GameStateData with Card.Unkown in place of the opponents card.
+	 * Once the hand is over the cards are shown down, so nothing is hidden: a
+	 * hand that ended in a fold already shows only Fold and Winner.
+	 * 
+	 * @return GameStateData with Card.Unkown in place of the opponents card,
+	 *         unless the hand is over.
 	 */
 	protected GameStateData generateObfuscatedData(
 			final boolean isPlayerOnePerspective) {
+		if (isHandOver)
+			return this;
 		if (isPlayerOnePerspective)
 			return new GameStateData(playerOneStack, playerTwoStack,
 					playerOneCard, Card.Unkown, playerOneAmountBetSoFar,
 					playerTwoAmountBetSoFar, playerOneHasButton,
-					playerOneToBet, potSize, lastAction, isHandOver);
+					playerOneToBet, potSize, lastAction, isHandOver,
+					rules, validationMode);
 		else
 			return new GameStateData(playerOneStack, playerTwoStack,
 					Card.Unkown, playerTwoCard, playerOneAmountBetSoFar,
 					playerTwoAmountBetSoFar, playerOneHasButton,
-					playerOneToBet, potSize, lastAction, isHandOver);
+					playerOneToBet, potSize, lastAction, isHandOver,
+					rules, validationMode);
 	}
 
 	/**
@@ -266,21 +357,15 @@ public final class GameStateData {
 				callAmount = playerOneStack;
 			}
 
-			if (callAmount > playerTwoStack) {
-
-				callAmount = playerTwoStack;
-			}
-
 			// Validate callAmount before returning.
-			if (callAmount < 0 || callAmount > Main.STARTING_CHIPS) {
-				Main.fail(String
-						.format("Illegal CallAmount of %s, where player one is "
+			if (isStrict()
+					&& (callAmount < 0 || callAmount > rules.getStartingChips()))
+				throw new InvalidGameStateException(String.format(
+						"Illegal CallAmount of %s, where player one is "
 								+ "up to act and player one has bet %s and player"
 								+ " two has bet %s."
 								+ "\nThe current state is:\n	%s", callAmount,
-								playerOneAmountBetSoFar,
-								playerTwoAmountBetSoFar, this));
-			}
+						playerOneAmountBetSoFar, playerTwoAmountBetSoFar, this));
 		} else {
 			callAmount = playerOneAmountBetSoFar - playerTwoAmountBetSoFar;
 
@@ -289,15 +374,14 @@ public final class GameStateData {
 				callAmount = playerTwoStack;
 			}
 
-			if (callAmount < 0 || callAmount > Main.STARTING_CHIPS) {
-				Main.fail(String
-						.format("Illegal CallAmount of %s, where player two is "
+			if (isStrict()
+					&& (callAmount < 0 || callAmount > rules.getStartingChips()))
+				throw new InvalidGameStateException(String.format(
+						"Illegal CallAmount of %s, where player two is "
 								+ "up to act and player one has bet %s and player"
 								+ " two has bet %s."
 								+ "\nThe current state is:\n	%s", callAmount,
-								playerOneAmountBetSoFar,
-								playerTwoAmountBetSoFar, this));
-			}
+						playerOneAmountBetSoFar, playerTwoAmountBetSoFar, this));
 		}
 
 		return callAmount;
@@ -319,17 +403,21 @@ public final class GameStateData {
 			maxBet = playerTwoStack;
 		}
 
-		if (maxBet < getCallAmount()) {
-			maxBet = getCallAmount();
+		final int callAmount = getCallAmount();
+		if (maxBet < callAmount) {
+			maxBet = callAmount;
 		}
 
 		// Validate return value.
-		if (maxBet < 0) {
-			Main.fail(String
-					.format("Illegal Return value from MaxBetAmount of %s in the gameState %s",
-							maxBet, this.toString()));
-		} else if (maxBet > Main.STARTING_CHIPS) {
-			Main.fail("Max bet should never be more than the starting amount of chips.");
+		if (isStrict()) {
+			if (maxBet < 0)
+				throw new InvalidGameStateException(String.format(
+						"Illegal Return value from MaxBetAmount of %s in the gameState %s",
+						maxBet, this.toString()));
+			if (maxBet > rules.getStartingChips())
+				throw new InvalidGameStateException(
+						"Max bet should never be more than the starting amount of chips: "
+								+ this);
 		}
 
 		return maxBet;
@@ -347,14 +435,32 @@ public final class GameStateData {
 	 * @param bet
 	 *            Any legal betting action.
 	 * @return new Instance of GameStateData after applying the bet.
+	 * @throws IllegalActionException
+	 *             if the bet isn't legal, in strict mode.
 	 */
 	protected GameStateData getResultingGameStateData(final BettingAction bet) {
+		return getResultingGameStateData(bet, false);
+	}
 
-		if (!isLegalAction(bet)) {
-			Main.fail(String.format(
-					"Illegal action %s applied to the gameState %s",
-					bet.toString(), this.toString()));
-		}
+	/**
+	 * Generates a GameStateData after applying the bet, without checking it
+	 * again if the caller already has.
+	 * 
+	 * @param bet
+	 *            Any legal betting action.
+	 * @param isChecked
+	 *            True if the caller has already checked the bet with
+	 *            {@link #isLegalAction(BettingAction)}.
+	 * @return new Instance of GameStateData after applying the bet.
+	 * @throws IllegalActionException
+	 *             if the bet isn't legal, in strict mode, unless it was
+	 *             already checked.
+	 */
+	protected GameStateData getResultingGameStateData(final BettingAction bet,
+			final boolean isChecked) {
+
+		if (!isChecked && isStrict() && !isLegalAction(bet))
+			throw new IllegalActionException(bet, this);
 
 		boolean isOver = false;
 
@@ -373,7 +479,7 @@ public final class GameStateData {
 		// If the action was a call, but isn't the first call of the game
 		// (determined by pot size), then the betting is over.
 		else if (bet.getAmount() <= getCallAmount()
-				&& !(potSize <= (Main.BIG_BLIND + Main.SMALL_BLIND))) {
+				&& !(potSize <= (rules.getBigBlind() + rules.getSmallBlind()))) {
 			// Big Blind plus small blind is the starting pot size- it's an easy
 			// way of knowing if it's the first action of the game.
 			isOver = true;
@@ -388,25 +494,29 @@ public final class GameStateData {
 				return new GameStateData(playerOneStack, playerTwoStack,
 						Card.Fold, Card.Winner, playerOneAmountBetSoFar,
 						playerTwoAmountBetSoFar, playerOneHasButton,
-						playerOneToBet, potSize, bet, isOver);
+						playerOneToBet, potSize, bet, isOver, rules,
+						validationMode);
 
 			return new GameStateData(playerOneStack - bet.getAmount(),
 					playerTwoStack, playerOneCard, playerTwoCard,
 					playerOneAmountBetSoFar + bet.getAmount(),
 					playerTwoAmountBetSoFar, playerOneHasButton,
-					!playerOneToBet, potSize + bet.getAmount(), bet, isOver);
+					!playerOneToBet, potSize + bet.getAmount(), bet, isOver,
+					rules, validationMode);
 		} else {
 			if (bet.isFold())
 				return new GameStateData(playerOneStack, playerTwoStack,
 						Card.Winner, Card.Fold, playerOneAmountBetSoFar,
 						playerTwoAmountBetSoFar, playerOneHasButton,
-						playerOneToBet, potSize, bet, isOver);
+						playerOneToBet, potSize, bet, isOver, rules,
+						validationMode);
 
 			return new GameStateData(playerOneStack, playerTwoStack
 					- bet.getAmount(), playerOneCard, playerTwoCard,
 					playerOneAmountBetSoFar, playerTwoAmountBetSoFar
 							+ bet.getAmount(), playerOneHasButton,
-					!playerOneToBet, potSize + bet.getAmount(), bet, isOver);
+					!playerOneToBet, potSize + bet.getAmount(), bet, isOver,
+					rules, validationMode);
 		}
 	}
 
@@ -463,13 +573,88 @@ public final class GameStateData {
 			return true;
 		if (playerOneStack < 0 || playerTwoStack < 0)
 			return true;
-		if (playerOneStack == Main.STARTING_CHIPS * 2
-				|| playerTwoStack == Main.STARTING_CHIPS * 2)
+		if (playerOneStack == rules.getStartingChips() * 2
+				|| playerTwoStack == rules.getStartingChips() * 2)
 			return true;
 
 		return false;
 	}
 
+	/**
+	 * Converts a state created by {@link PackedGameState} under the default
+	 * rules back into a GameStateData.
+	 * 
+	 * @param state
+	 *            a packed game state.
+	 * @return an equivalent GameStateData.
+	 */
+	public static GameStateData fromPacked(final long state) {
+		return fromPacked(state, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Converts a state created by {@link PackedGameState} back into a
+	 * GameStateData.
+	 * 
+	 * @param state
+	 *            a packed game state.
+	 * @param rules
+	 *            the rules the state was played by.
+	 * @return an equivalent GameStateData.
+	 */
+	public static GameStateData fromPacked(final long state,
+			final TableRules rules) {
+		final int action = PackedGameState.lastAction(state);
+		final BettingAction lastAction;
+		if (action == PackedGameState.NO_ACTION) {
+			lastAction = null;
+		} else if (action == PackedGameState.FOLD) {
+			lastAction = BettingAction.FOLD;
+		} else {
+			lastAction = new BettingAction(action);
+		}
+
+		return new GameStateData(PackedGameState.playerOneStack(state),
+				PackedGameState.playerTwoStack(state),
+				PackedGameState.playerOneCard(state),
+				PackedGameState.playerTwoCard(state),
+				PackedGameState.playerOneAmountBetSoFar(state),
+				PackedGameState.playerTwoAmountBetSoFar(state),
+				PackedGameState.playerOneHasButton(state),
+				PackedGameState.playerOneToBet(state),
+				PackedGameState.potSize(state), lastAction,
+				PackedGameState.isHandOver(state), rules,
+				ValidationMode.STRICT);
+	}
+
+	/**
+	 * Packs this state into a long for use with {@link PackedGameState}.
+	 * 
+	 * @return the packed equivalent of this GameStateData.
+	 * @throws IllegalStateException
+	 *             if the game has too many chips to pack (see
+	 *             {@link TableRules#isPackable()}).
+	 */
+	public long toPacked() {
+		if (!rules.isPackable())
+			throw new IllegalStateException("Too many chips to pack: "
+					+ rules);
+
+		final int action;
+		if (lastAction == null) {
+			action = PackedGameState.NO_ACTION;
+		} else if (lastAction.isFold()) {
+			action = PackedGameState.FOLD;
+		} else {
+			action = lastAction.getAmount();
+		}
+
+		return PackedGameState.pack(playerOneStack, playerTwoStack,
+				playerOneCard, playerTwoCard, playerOneAmountBetSoFar,
+				playerTwoAmountBetSoFar, playerOneHasButton, playerOneToBet,
+				potSize, action, isHandOver);
+	}
+
 	@Override
 	public String toString() {
 		return "GameStateData [playerOneStack=" + playerOneStack
@@ -479,6 +664,6 @@ public final class GameStateData {
 				+ ", playerTwoAmountBetSoFar=" + playerTwoAmountBetSoFar
 				+ ", playerOneHasButton=" + playerOneHasButton
 				+ ", playerOneToBet=" + playerOneToBet + ", potSize=" + potSize
-				+ ", lastAction=" + lastAction + "]";
+				+ ", lastAction=" + lastAction + ", rules=" + rules + "]";
 	}
 }
@@ -0,0 +1,34 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+/**
+ * Thrown when an action that isn't legal is applied to a game.
+ */
+public class IllegalActionException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final BettingAction action;
+	private final GameStateData state;
+
+	/**
+	 * @param action
+	 *            The illegal action.
+	 * @param state
+	 *            The state it was applied to.
+	 */
+	public IllegalActionException(final BettingAction action,
+			final GameStateData state) {
+		super("Illegal action " + action + " applied to the gameState "
+				+ state);
+		this.action = action;
+		this.state = state;
+	}
+
+	public BettingAction getAction() {
+		return action;
+	}
+
+	public GameStateData getState() {
+		return state;
+	}
+}
@@ -0,0 +1,15 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+/**
+ * Thrown when a game state breaks one of the rules every state must follow,
+ * such as the number of chips in play staying the same. This always means a
+ * bug in the game logic, not a bad action from a Client.
+ */
+public class InvalidGameStateException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidGameStateException(final String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,493 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+/**
+ * A primitive encoding of {@link GameStateData} packed into a single long, for
+ * simulation and search loops that can't afford to allocate a new object on
+ * every action. Every method is static and works on the long directly, and
+ * the transition functions follow exactly the same rules as their
+ * GameStateData counterparts, so a packed state can be converted back with
+ * {@link GameStateData#fromPacked(long)} at any point.
+ *
+ * Unlike GameStateData, none of these methods validate their input: they are
+ * meant to be called with legal actions only (check with
+ * {@link #isLegalAction(long, int)} first if in doubt).
+ *
+ * <pre>
+ * bits  0-7   player one stack      bits 40-43  player one card (ordinal)
+ * bits  8-15  player two stack      bits 44-47  player two card (ordinal)
+ * bits 16-23  player one bet        bit  48     player one has button
+ * bits 24-31  player two bet        bit  49     player one to bet
+ * bits 32-39  pot size              bit  50     hand is over
+ *                                   bits 51-52  last action kind
+ *                                   bits 53-60  last action amount
+ * </pre>
+ *
+ * Chip counts are 8 bits wide, so all chips in play (twice the starting
+ * chips) must fit in 255; see {@link TableRules#isPackable()}. The rules a
+ * state is played by aren't packed with it: the methods that depend on them
+ * take the {@link TableRules}, and default to {@link TableRules#DEFAULT}.
+ */
+public final class PackedGameState {
+
+	/** The action value of a fold. Any other action is a bet amount. */
+	public static final int FOLD = -2;
+
+	/** The value of {@link #lastAction(long)} before anyone has acted. */
+	public static final int NO_ACTION = -1;
+
+	/** Largest chip count that can be stored in a packed state. */
+	public static final int MAX_CHIPS = 0xFF;
+
+	private static final int P1_STACK_SHIFT = 0;
+	private static final int P2_STACK_SHIFT = 8;
+	private static final int P1_BET_SHIFT = 16;
+	private static final int P2_BET_SHIFT = 24;
+	private static final int POT_SHIFT = 32;
+	private static final int P1_CARD_SHIFT = 40;
+	private static final int P2_CARD_SHIFT = 44;
+	private static final int P1_BUTTON_SHIFT = 48;
+	private static final int P1_TO_BET_SHIFT = 49;
+	private static final int HAND_OVER_SHIFT = 50;
+	private static final int LAST_KIND_SHIFT = 51;
+	private static final int LAST_AMOUNT_SHIFT = 53;
+
+	private static final long CHIPS_MASK = 0xFFL;
+	private static final long CARD_MASK = 0xFL;
+	private static final long KIND_MASK = 0x3L;
+
+	private static final int KIND_NONE = 0;
+	private static final int KIND_FOLD = 1;
+	private static final int KIND_BET = 2;
+
+	private static final Card[] CARDS = Card.values();
+
+	private PackedGameState() {
+	}
+
+	/**
+	 * Packs the given values into a state. Chip counts must be between 0 and
+	 * {@link #MAX_CHIPS}.
+	 *
+	 * @param lastAction
+	 *            {@link #FOLD}, a bet amount, or {@link #NO_ACTION}.
+	 */
+	public static long pack(final int playerOneStack, final int playerTwoStack,
+			final Card playerOneCard, final Card playerTwoCard,
+			final int playerOneAmountBetSoFar,
+			final int playerTwoAmountBetSoFar,
+			final boolean playerOneHasButton, final boolean playerOneToBet,
+			final int potSize, final int lastAction, final boolean isHandOver) {
+		checkChips(playerOneStack);
+		checkChips(playerTwoStack);
+		checkChips(playerOneAmountBetSoFar);
+		checkChips(playerTwoAmountBetSoFar);
+		checkChips(potSize);
+		if (lastAction != NO_ACTION && lastAction != FOLD) {
+			checkChips(lastAction);
+		}
+
+		return encode(playerOneStack, playerTwoStack, playerOneCard.ordinal(),
+				playerTwoCard.ordinal(), playerOneAmountBetSoFar,
+				playerTwoAmountBetSoFar, playerOneHasButton, playerOneToBet,
+				potSize, lastAction, isHandOver);
+	}
+
+	private static void checkChips(final int chips) {
+		if (chips < 0 || chips > MAX_CHIPS)
+			throw new IllegalArgumentException("Chip count " + chips
+					+ " does not fit in a packed state");
+	}
+
+	private static long encode(final int p1Stack, final int p2Stack,
+			final int p1Card, final int p2Card, final int p1Bet,
+			final int p2Bet, final boolean p1Button, final boolean p1ToBet,
+			final int pot, final int lastAction, final boolean handOver) {
+		final long kind;
+		final long amount;
+		if (lastAction == NO_ACTION) {
+			kind = KIND_NONE;
+			amount = 0;
+		} else if (lastAction == FOLD) {
+			kind = KIND_FOLD;
+			amount = 0;
+		} else {
+			kind = KIND_BET;
+			amount = lastAction;
+		}
+
+		return ((long) p1Stack << P1_STACK_SHIFT)
+				| ((long) p2Stack << P2_STACK_SHIFT)
+				| ((long) p1Bet << P1_BET_SHIFT)
+				| ((long) p2Bet << P2_BET_SHIFT) | ((long) pot << POT_SHIFT)
+				| ((long) p1Card << P1_CARD_SHIFT)
+				| ((long) p2Card << P2_CARD_SHIFT)
+				| ((p1Button ? 1L : 0L) << P1_BUTTON_SHIFT)
+				| ((p1ToBet ? 1L : 0L) << P1_TO_BET_SHIFT)
+				| ((handOver ? 1L : 0L) << HAND_OVER_SHIFT)
+				| (kind << LAST_KIND_SHIFT) | (amount << LAST_AMOUNT_SHIFT);
+	}
+
+	/*
+	 * Field accessors.
+	 */
+
+	public static int playerOneStack(final long state) {
+		return (int) ((state >>> P1_STACK_SHIFT) & CHIPS_MASK);
+	}
+
+	public static int playerTwoStack(final long state) {
+		return (int) ((state >>> P2_STACK_SHIFT) & CHIPS_MASK);
+	}
+
+	public static int playerOneAmountBetSoFar(final long state) {
+		return (int) ((state >>> P1_BET_SHIFT) & CHIPS_MASK);
+	}
+
+	public static int playerTwoAmountBetSoFar(final long state) {
+		return (int) ((state >>> P2_BET_SHIFT) & CHIPS_MASK);
+	}
+
+	public static int potSize(final long state) {
+		return (int) ((state >>> POT_SHIFT) & CHIPS_MASK);
+	}
+
+	public static Card playerOneCard(final long state) {
+		return CARDS[(int) ((state >>> P1_CARD_SHIFT) & CARD_MASK)];
+	}
+
+	public static Card playerTwoCard(final long state) {
+		return CARDS[(int) ((state >>> P2_CARD_SHIFT) & CARD_MASK)];
+	}
+
+	public static boolean playerOneHasButton(final long state) {
+		return ((state >>> P1_BUTTON_SHIFT) & 1L) != 0;
+	}
+
+	public static boolean playerOneToBet(final long state) {
+		return ((state >>> P1_TO_BET_SHIFT) & 1L) != 0;
+	}
+
+	public static boolean isHandOver(final long state) {
+		return ((state >>> HAND_OVER_SHIFT) & 1L) != 0;
+	}
+
+	/**
+	 * @return {@link #NO_ACTION}, {@link #FOLD}, or the amount of the last bet.
+	 */
+	public static int lastAction(final long state) {
+		final int kind = (int) ((state >>> LAST_KIND_SHIFT) & KIND_MASK);
+		if (kind == KIND_NONE)
+			return NO_ACTION;
+		if (kind == KIND_FOLD)
+			return FOLD;
+		return (int) ((state >>> LAST_AMOUNT_SHIFT) & CHIPS_MASK);
+	}
+
+	/**
+	 * @return 0 if player one is next to act, 1 otherwise.
+	 */
+	public static int getCurrentPlayer(final long state) {
+		return playerOneToBet(state) ? 0 : 1;
+	}
+
+	/*
+	 * Game rules. These mirror the methods of the same names in GameStateData.
+	 */
+
+	/**
+	 * @see GameStateData#getInitialGameStateData()
+	 */
+	public static long initialState(final Card playerOneCard,
+			final Card playerTwoCard) {
+		return initialState(playerOneCard, playerTwoCard, TableRules.DEFAULT);
+	}
+
+	/**
+	 * @see GameStateData#getInitialGameStateData(DeckSource, TableRules)
+	 */
+	public static long initialState(final Card playerOneCard,
+			final Card playerTwoCard, final TableRules rules) {
+		final int smallBlind = rules.getSmallBlind();
+		final int bigBlind = rules.getBigBlind();
+		return encode(rules.getStartingChips() - smallBlind,
+				rules.getStartingChips() - bigBlind, playerOneCard.ordinal(),
+				playerTwoCard.ordinal(), smallBlind, bigBlind, true, true,
+				smallBlind + bigBlind, NO_ACTION, false);
+	}
+
+	/**
+	 * @see GameStateData#getCallAmount()
+	 */
+	public static int getCallAmount(final long state) {
+		final int p1Stack = playerOneStack(state);
+		final int p2Stack = playerTwoStack(state);
+		final int p1Bet = playerOneAmountBetSoFar(state);
+		final int p2Bet = playerTwoAmountBetSoFar(state);
+		int callAmount;
+
+		if (playerOneToBet(state)) {
+			callAmount = p2Bet - p1Bet;
+			if (callAmount > p1Stack) {
+				callAmount = p1Stack;
+			}
+		} else {
+			callAmount = p1Bet - p2Bet;
+			if (callAmount > p2Stack) {
+				callAmount = p2Stack;
+			}
+		}
+		return callAmount;
+	}
+
+	/**
+	 * @see GameStateData#getMaxBetAmount()
+	 */
+	public static int getMaxBetAmount(final long state) {
+		int maxBet = Math.min(playerOneStack(state), playerTwoStack(state));
+		final int callAmount = getCallAmount(state);
+		if (maxBet < callAmount) {
+			maxBet = callAmount;
+		}
+		return maxBet;
+	}
+
+	/**
+	 * @see GameStateData#isLegalAction(BettingAction)
+	 */
+	public static boolean isLegalAction(final long state, final int action) {
+		if (action == FOLD)
+			return true;
+		if (action < 0)
+			return false;
+
+		final int stack = playerOneToBet(state) ? playerOneStack(state)
+				: playerTwoStack(state);
+		return action <= stack && action >= getCallAmount(state);
+	}
+
+	/**
+	 * Applies a legal action to a state played by the default rules.
+	 *
+	 * @see #applyAction(long, int, TableRules)
+	 */
+	public static long applyAction(final long state, final int action) {
+		return applyAction(state, action, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Applies a legal action to the state.
+	 *
+	 * @see GameStateData#getResultingGameStateData(BettingAction)
+	 * @param action
+	 *            {@link #FOLD} or a legal bet amount.
+	 * @param rules
+	 *            The rules the state is played by.
+	 * @return The resulting state.
+	 */
+	public static long applyAction(final long state, final int action,
+			final TableRules rules) {
+		final boolean p1ToBet = playerOneToBet(state);
+		final int p1Stack = playerOneStack(state);
+		final int p2Stack = playerTwoStack(state);
+		final int pot = potSize(state);
+		final boolean isOver;
+
+		if (p1ToBet && p1Stack == 0) {
+			isOver = true;
+		} else if (!p1ToBet && p2Stack == 0) {
+			isOver = true;
+		} else if (action == FOLD) {
+			isOver = true;
+		} else if (action <= getCallAmount(state)
+				&& !(pot <= (rules.getBigBlind() + rules.getSmallBlind()))) {
+			isOver = true;
+		} else {
+			isOver = action == 0;
+		}
+
+		// Only the handOver flag and the last action change on a fold; the
+		// cards become Fold and Winner.
+		if (action == FOLD) {
+			final long folded = p1ToBet ? withCards(state, Card.Fold,
+					Card.Winner) : withCards(state, Card.Winner, Card.Fold);
+			return withLastAction(folded, FOLD, isOver);
+		}
+
+		final long bet = action;
+		long next = state;
+		if (p1ToBet) {
+			next -= bet << P1_STACK_SHIFT;
+			next += bet << P1_BET_SHIFT;
+		} else {
+			next -= bet << P2_STACK_SHIFT;
+			next += bet << P2_BET_SHIFT;
+		}
+		next += bet << POT_SHIFT;
+		next ^= 1L << P1_TO_BET_SHIFT;
+		return withLastAction(next, action, isOver);
+	}
+
+	/**
+	 * Replaces both cards, for instance to try out what the opponent might
+	 * hold.
+	 *
+	 * @return The state with the given cards.
+	 */
+	public static long withCards(final long state, final Card playerOneCard,
+			final Card playerTwoCard) {
+		final long cleared = state
+				& ~((CARD_MASK << P1_CARD_SHIFT) | (CARD_MASK << P2_CARD_SHIFT));
+		return cleared | ((long) playerOneCard.ordinal() << P1_CARD_SHIFT)
+				| ((long) playerTwoCard.ordinal() << P2_CARD_SHIFT);
+	}
+
+	private static long withLastAction(final long state, final int action,
+			final boolean isHandOver) {
+		final long cleared = state
+				& ~((1L << HAND_OVER_SHIFT) | (KIND_MASK << LAST_KIND_SHIFT)
+						| (CHIPS_MASK << LAST_AMOUNT_SHIFT));
+		final long kind;
+		final long amount;
+		if (action == NO_ACTION) {
+			kind = KIND_NONE;
+			amount = 0;
+		} else if (action == FOLD) {
+			kind = KIND_FOLD;
+			amount = 0;
+		} else {
+			kind = KIND_BET;
+			amount = action;
+		}
+		return cleared | ((isHandOver ? 1L : 0L) << HAND_OVER_SHIFT)
+				| (kind << LAST_KIND_SHIFT) | (amount << LAST_AMOUNT_SHIFT);
+	}
+
+	/**
+	 * @return 1 if player one wins the hand, -1 if player two wins it, or 0
+	 *         for a tie.
+	 * @see GameStateData#endHand()
+	 */
+	public static int determineWinner(final long state) {
+		final Card p1Card = playerOneCard(state);
+		final Card p2Card = playerTwoCard(state);
+		if (p1Card == Card.Fold || p2Card == Card.Winner)
+			return -1;
+		if (p1Card == Card.Winner || p2Card == Card.Fold)
+			return 1;
+		if (p1Card.value > p2Card.value)
+			return 1;
+		if (p1Card.value == p2Card.value)
+			return 0;
+		return -1;
+	}
+
+	/**
+	 * Transfers the pot to the winner of the hand.
+	 *
+	 * @see GameStateData#endHand()
+	 */
+	public static long endHand(final long state) {
+		final int winner = determineWinner(state);
+		final int pot = potSize(state);
+		final int p1Won;
+		if (winner == 0) {
+			// PlayerOne gets the extra chip in odd sized pots.
+			p1Won = pot - pot / 2;
+		} else if (winner > 0) {
+			p1Won = pot;
+		} else {
+			p1Won = 0;
+		}
+
+		final long p1Gain = p1Won;
+		final long p2Gain = pot - p1Won;
+		final long next = state + (p1Gain << P1_STACK_SHIFT)
+				+ (p2Gain << P2_STACK_SHIFT)
+				- ((long) pot << POT_SHIFT);
+		return next | (1L << HAND_OVER_SHIFT);
+	}
+
+	/**
+	 * Switches the button, posts the default blinds and deals the given cards.
+	 *
+	 * @see #dealNextHand(long, Card, Card, TableRules)
+	 */
+	public static long dealNextHand(final long state, final Card playerOneCard,
+			final Card playerTwoCard) {
+		return dealNextHand(state, playerOneCard, playerTwoCard,
+				TableRules.DEFAULT);
+	}
+
+	/**
+	 * Switches the button, posts the blinds and deals the given cards.
+	 *
+	 * @see GameStateData#dealNextHand(DeckSource)
+	 */
+	public static long dealNextHand(final long state, final Card playerOneCard,
+			final Card playerTwoCard, final TableRules rules) {
+		final boolean p1Button = !playerOneHasButton(state);
+		final int p1Stack = playerOneStack(state);
+		final int p2Stack = playerTwoStack(state);
+		final int smallBlind = rules.getSmallBlind();
+		final int bigBlind = rules.getBigBlind();
+		final int p1Bet, p2Bet;
+
+		if (p1Stack >= bigBlind && p2Stack >= bigBlind) {
+			p1Bet = p1Button ? smallBlind : bigBlind;
+			p2Bet = p1Button ? bigBlind : smallBlind;
+		} else {
+			p1Bet = Math.min(smallBlind, Math.min(p1Stack, p2Stack));
+			p2Bet = p1Bet;
+		}
+
+		return encode(p1Stack - p1Bet, p2Stack - p2Bet,
+				playerOneCard.ordinal(), playerTwoCard.ordinal(), p1Bet, p2Bet,
+				p1Button, p1Button, p1Bet + p2Bet, NO_ACTION, false);
+	}
+
+	/**
+	 * @return True if, after {@link #dealNextHand(long, Card, Card)}, the hand
+	 *         has no betting because a player is all in on the blinds.
+	 * @see GameState#dealNextHand()
+	 */
+	public static boolean isAllInOnBlinds(final long state) {
+		return playerOneStack(state) <= 0 || playerTwoStack(state) <= 0;
+	}
+
+	/**
+	 * @see #isTerminalState(long, TableRules)
+	 */
+	public static boolean isTerminalState(final long state) {
+		return isTerminalState(state, TableRules.DEFAULT);
+	}
+
+	/**
+	 * @see GameStateData#isTerminalState()
+	 */
+	public static boolean isTerminalState(final long state,
+			final TableRules rules) {
+		final int p1Stack = playerOneStack(state);
+		final int p2Stack = playerTwoStack(state);
+		if ((p1Stack == 0 || p2Stack == 0) && potSize(state) == 0)
+			return true;
+		return p1Stack == rules.getStartingChips() * 2
+				|| p2Stack == rules.getStartingChips() * 2;
+	}
+
+	/**
+	 * Hides the opponents card, unless the hand is over.
+	 *
+	 * @see GameStateData#generateObfuscatedData(boolean)
+	 */
+	public static long obfuscate(final long state,
+			final boolean isPlayerOnePerspective) {
+		if (isHandOver(state))
+			return state;
+		if (isPlayerOnePerspective)
+			return (state & ~(CARD_MASK << P2_CARD_SHIFT))
+					| ((long) Card.Unkown.ordinal() << P2_CARD_SHIFT);
+		else
+			return (state & ~(CARD_MASK << P1_CARD_SHIFT))
+					| ((long) Card.Unkown.ordinal() << P1_CARD_SHIFT);
+	}
+}
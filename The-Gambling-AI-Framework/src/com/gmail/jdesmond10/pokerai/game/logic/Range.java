@@ -0,0 +1,123 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+import java.util.Arrays;
+
+/**
+ * The cards a player might hold, as a weight per rank. Weights need not sum
+ * to one; only their ratios matter. A Range is a small mutable vector, meant
+ * to be kept by an agent and updated in place as a hand goes on, so it is not
+ * thread safe.
+ *
+ * @see Equity
+ */
+public final class Range {
+
+	private final double[] weights = new double[Card.NUM_RANKS];
+
+	/**
+	 * Creates a range where every rank is equally likely.
+	 */
+	public Range() {
+		setUniform();
+	}
+
+	/**
+	 * Makes every rank equally likely again.
+	 */
+	public void setUniform() {
+		Arrays.fill(weights, 1);
+	}
+
+	/**
+	 * Copies another range into this one.
+	 */
+	public void set(final Range other) {
+		System.arraycopy(other.weights, 0, weights, 0, weights.length);
+	}
+
+	/**
+	 * @param rank
+	 *            between 0 (Two) and {@link Card#NUM_RANKS} - 1 (Ace).
+	 */
+	public double getWeight(final int rank) {
+		return weights[rank];
+	}
+
+	/**
+	 * @param rank
+	 *            between 0 (Two) and {@link Card#NUM_RANKS} - 1 (Ace).
+	 * @param weight
+	 *            a weight of at least 0.
+	 */
+	public void setWeight(final int rank, final double weight) {
+		if (!(weight >= 0))
+			throw new IllegalArgumentException("Weights can't be negative, was "
+					+ weight);
+		weights[rank] = weight;
+	}
+
+	/**
+	 * Multiplies each rank's weight by the matching likelihood, as in a
+	 * Bayesian update.
+	 *
+	 * @param likelihood
+	 *            {@link Card#NUM_RANKS} factors of at least 0, by rank.
+	 */
+	public void multiply(final double[] likelihood) {
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] *= likelihood[i];
+		}
+	}
+
+	/**
+	 * @return The sum of the weights.
+	 */
+	public double getTotal() {
+		double total = 0;
+		for (final double weight : weights) {
+			total += weight;
+		}
+		return total;
+	}
+
+	/**
+	 * Scales the weights to sum to one. A range with no weight is made
+	 * uniform instead.
+	 */
+	public void normalize() {
+		final double total = getTotal();
+		if (total > 0) {
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] /= total;
+			}
+		} else {
+			Arrays.fill(weights, 1.0 / weights.length);
+		}
+	}
+
+	/**
+	 * @return The probability of the rank, given the range.
+	 */
+	public double getProbability(final int rank) {
+		final double total = getTotal();
+		return total > 0 ? weights[rank] / total : 1.0 / weights.length;
+	}
+
+	double[] getWeights() {
+		return weights;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("Range [");
+		final double total = getTotal();
+		for (int i = 0; i < weights.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(Card.fromRank(i)).append('=')
+					.append(String.format("%.3f", weights[i] / total));
+		}
+		return sb.append(']').toString();
+	}
+}
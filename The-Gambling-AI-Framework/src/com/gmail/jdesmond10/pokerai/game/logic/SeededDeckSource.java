@@ -0,0 +1,72 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link DeckSource} backed by a {@link SplittableRandom}. Two
+ * SeededDeckSources created with the same seed deal exactly the same cards, so
+ * a game can be replayed from its logged {@link #getSeed()}.
+ * 
+ * This class is not thread safe; give each table its own instance.
+ */
+public final class SeededDeckSource implements DeckSource {
+
+	/** Odd constant used to spread consecutive match indices apart. */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+	private final SplittableRandom random;
+
+	/**
+	 * Creates a deck with a fresh, randomly chosen seed.
+	 */
+	public SeededDeckSource() {
+		this(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * @param seed
+	 *            the seed of the deck.
+	 */
+	public SeededDeckSource(final long seed) {
+		this.seed = seed;
+		random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Derives the seed of one match of a batch. The seed only depends on the
+	 * master seed and the index of the match, not on which thread plays it or
+	 * when, so a batch gives the same results however it is scheduled.
+	 * 
+	 * @param masterSeed
+	 *            The seed of the whole batch.
+	 * @param matchIndex
+	 *            The index of the match within the batch.
+	 * @return The seed to give that match's SeededDeckSource.
+	 */
+	public static long matchSeed(final long masterSeed, final long matchIndex) {
+		// SplitMix64's finalizer, applied to the matchIndex'th gamma step.
+		long z = masterSeed + (matchIndex + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return The seed this deck was created with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public Card nextCard() {
+		return Card.fromRank(random.nextInt(Card.NUM_RANKS));
+	}
+
+	@Override
+	public String toString() {
+		return "SeededDeckSource [seed=" + seed + "]";
+	}
+}
@@ -0,0 +1,86 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+import com.gmail.jdesmond10.pokerai.main.Main;
+
+/**
+ * The stakes of a table: its blinds and how many chips every player starts
+ * with. Each {@link GameState}, {@link GameStateData} and {@link TableState}
+ * carries its own rules, so tables of different stakes and stack depths can
+ * be played side by side in one program. This is an immutable class.
+ *
+ * A heads-up table can only be packed into a {@link PackedGameState} (which
+ * the Server, the search agents and the solver work with) if all its chips
+ * fit in {@link PackedGameState#MAX_CHIPS}; see {@link #isPackable()}.
+ */
+public final class TableRules {
+
+	/** The rules of Main: blinds of 1 and 2, and 100 chips each. */
+	public static final TableRules DEFAULT = new TableRules(Main.SMALL_BLIND,
+			Main.BIG_BLIND, Main.STARTING_CHIPS);
+
+	private final int smallBlind;
+	private final int bigBlind;
+	private final int startingChips;
+
+	/**
+	 * @param smallBlind
+	 *            The small blind, at least 1.
+	 * @param bigBlind
+	 *            The big blind, at least the small blind.
+	 * @param startingChips
+	 *            The chips of every player at the start of a game, at least
+	 *            the big blind.
+	 */
+	public TableRules(final int smallBlind, final int bigBlind,
+			final int startingChips) {
+		if (smallBlind < 1 || bigBlind < smallBlind
+				|| startingChips < bigBlind)
+			throw new IllegalArgumentException(
+					"Blinds must be positive and no more than the starting "
+							+ "chips, was " + smallBlind + "/" + bigBlind
+							+ " with " + startingChips);
+		this.smallBlind = smallBlind;
+		this.bigBlind = bigBlind;
+		this.startingChips = startingChips;
+	}
+
+	public int getSmallBlind() {
+		return smallBlind;
+	}
+
+	public int getBigBlind() {
+		return bigBlind;
+	}
+
+	public int getStartingChips() {
+		return startingChips;
+	}
+
+	/**
+	 * @return True if a heads-up game under these rules fits in a
+	 *         {@link PackedGameState}.
+	 */
+	public boolean isPackable() {
+		return startingChips * 2 <= PackedGameState.MAX_CHIPS;
+	}
+
+	@Override
+	public int hashCode() {
+		return (smallBlind * 31 + bigBlind) * 31 + startingChips;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (!(obj instanceof TableRules))
+			return false;
+		final TableRules other = (TableRules) obj;
+		return smallBlind == other.smallBlind && bigBlind == other.bigBlind
+				&& startingChips == other.startingChips;
+	}
+
+	@Override
+	public String toString() {
+		return "TableRules [blinds=" + smallBlind + "/" + bigBlind
+				+ ", startingChips=" + startingChips + "]";
+	}
+}
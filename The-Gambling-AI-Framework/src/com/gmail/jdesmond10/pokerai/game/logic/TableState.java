@@ -0,0 +1,495 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+import java.util.Arrays;
+
+/**
+ * A sit n' go between two and {@link #MAX_SEATS} players. Where
+ * {@link GameState} is heads-up only, a TableState keeps every seat's state
+ * in primitive arrays indexed by seat and changes them in place, so a hand
+ * allocates nothing however many players sit down.
+ *
+ * The rules are the one-card, one-round game of {@link GameStateData},
+ * generalized: the small blind sits left of the button and the big blind
+ * left of that (heads-up, the button posts the small blind), and the first
+ * to act is left of the big blind (heads-up, the button). A blind bigger than
+ * a stack puts that player all in. Actions are ints as in
+ * {@link PackedGameState}: {@link #FOLD}, or the chips added to the pot, which
+ * must cover the call and can't be more than some other player could match.
+ * Betting ends when everyone still able to bet has acted since the last raise,
+ * or when all but one player has folded.
+ *
+ * At the end of a hand, the pot is split into a main pot and side pots in a
+ * single pass over the seats, from the biggest bet down. Each pot goes to the
+ * best card among the players who put at least that much in; on a tie, the
+ * odd chips go to the tied players closest to the left of the button.
+ *
+ * This class is not thread safe; give each table its own instance.
+ */
+public final class TableState {
+
+	/** The most players a table can seat. */
+	public static final int MAX_SEATS = 10;
+
+	/** The action value of a fold. Any other action is a bet amount. */
+	public static final int FOLD = PackedGameState.FOLD;
+
+	/** The value of {@link #getLastAction()} before anyone has acted. */
+	public static final int NO_ACTION = PackedGameState.NO_ACTION;
+
+	private final int seats;
+	private final DeckSource deck;
+	private final TableRules rules;
+	private final int[] stacks;
+	/** What each seat has put into this hand's pot. */
+	private final int[] bets;
+	/** What each seat got back from the pot at the end of the last hand. */
+	private final int[] winnings;
+	private final Card[] cards;
+	/** Out of the hand, by folding or by having no chips left at the deal. */
+	private final boolean[] folded;
+	/** Seats sorted by bet and the winners of a pot, reused by endHand. */
+	private final int[] order;
+	private final int[] winners;
+
+	private int button;
+	private int currentSeat;
+	/** The biggest bet of the hand so far. */
+	private int currentBet;
+	private int potSize;
+	/** Seats that haven't folded. */
+	private int liveCount;
+	/** Actions still owed before the betting is over. */
+	private int pending;
+	private int lastAction;
+	private boolean isHandOver;
+
+	/**
+	 * Seats the given number of players under the default rules and deals the
+	 * first hand, with the button at seat 0.
+	 *
+	 * @param seats
+	 *            The number of players, between 2 and {@link #MAX_SEATS}.
+	 * @param deck
+	 *            The source of every card dealt at this table.
+	 */
+	public TableState(final int seats, final DeckSource deck) {
+		this(seats, deck, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Seats the given number of players with the starting chips of the rules
+	 * and deals the first hand, with the button at seat 0.
+	 *
+	 * @param seats
+	 *            The number of players, between 2 and {@link #MAX_SEATS}.
+	 * @param deck
+	 *            The source of every card dealt at this table.
+	 * @param rules
+	 *            The blinds and starting chips of the table.
+	 */
+	public TableState(final int seats, final DeckSource deck,
+			final TableRules rules) {
+		this(filledStacks(seats, rules.getStartingChips()), deck, rules);
+	}
+
+	/**
+	 * Seats a player for every stack and deals the first hand, with the button
+	 * at seat 0.
+	 *
+	 * @param stacks
+	 *            The chips of each seat, all positive; between 2 and
+	 *            {@link #MAX_SEATS} of them.
+	 * @param deck
+	 *            The source of every card dealt at this table.
+	 * @param rules
+	 *            The blinds of the table. (The starting chips are the given
+	 *            stacks instead.)
+	 */
+	public TableState(final int[] stacks, final DeckSource deck,
+			final TableRules rules) {
+		if (stacks.length < 2 || stacks.length > MAX_SEATS)
+			throw new IllegalArgumentException("A table seats 2 to "
+					+ MAX_SEATS + " players, not " + stacks.length);
+		for (final int stack : stacks) {
+			if (stack <= 0)
+				throw new IllegalArgumentException("Every seat needs chips, was "
+						+ Arrays.toString(stacks));
+		}
+
+		seats = stacks.length;
+		this.deck = deck;
+		this.rules = rules;
+		this.stacks = stacks.clone();
+		bets = new int[seats];
+		winnings = new int[seats];
+		cards = new Card[seats];
+		folded = new boolean[seats];
+		order = new int[seats];
+		winners = new int[seats];
+
+		// Dealing moves the button on, so start it one seat early.
+		button = seats - 1;
+		dealNextHand();
+	}
+
+	private static int[] filledStacks(final int seats, final int chips) {
+		if (seats < 2 || seats > MAX_SEATS)
+			throw new IllegalArgumentException("A table seats 2 to "
+					+ MAX_SEATS + " players, not " + seats);
+		final int[] stacks = new int[seats];
+		Arrays.fill(stacks, chips);
+		return stacks;
+	}
+
+	/**
+	 * Moves the button to the next player with chips, posts the blinds and
+	 * deals every player a card. This should be called after
+	 * {@link #endHand()}.
+	 *
+	 * @return True if the hand will have no bets (if all but at most one
+	 *         player is all in on the blinds).
+	 */
+	public boolean dealNextHand() {
+		liveCount = 0;
+		for (int seat = 0; seat < seats; seat++) {
+			bets[seat] = 0;
+			folded[seat] = stacks[seat] == 0;
+			if (folded[seat]) {
+				cards[seat] = Card.Unkown;
+			} else {
+				cards[seat] = deck.nextCard();
+				liveCount++;
+			}
+		}
+		potSize = 0;
+		currentBet = 0;
+		lastAction = NO_ACTION;
+		isHandOver = false;
+
+		button = nextLive(button);
+		final int smallBlind = liveCount == 2 ? button : nextLive(button);
+		final int bigBlind = nextLive(smallBlind);
+		postBlind(smallBlind, rules.getSmallBlind());
+		postBlind(bigBlind, rules.getBigBlind());
+
+		pending = 0;
+		int lastActive = -1;
+		for (int seat = 0; seat < seats; seat++) {
+			if (!folded[seat] && stacks[seat] > 0) {
+				pending++;
+				lastActive = seat;
+			}
+		}
+		if (pending == 0 || pending == 1 && bets[lastActive] >= currentBet) {
+			isHandOver = true;
+			return true;
+		}
+
+		currentSeat = nextActive(bigBlind);
+		return false;
+	}
+
+	private void postBlind(final int seat, final int blind) {
+		final int amount = Math.min(blind, stacks[seat]);
+		stacks[seat] -= amount;
+		bets[seat] += amount;
+		potSize += amount;
+		currentBet = Math.max(currentBet, bets[seat]);
+	}
+
+	/**
+	 * Applies an action of the current seat. The action must be legal (see
+	 * {@link #isLegalAction(int)}); it isn't checked here.
+	 *
+	 * @param action
+	 *            {@link #FOLD}, or the chips the current seat adds to the pot.
+	 * @return True if the action ends the betting of the hand.
+	 */
+	public boolean applyAction(final int action) {
+		final int seat = currentSeat;
+		lastAction = action;
+		if (action == FOLD) {
+			folded[seat] = true;
+			liveCount--;
+			pending--;
+		} else {
+			final int call = getCallAmount();
+			stacks[seat] -= action;
+			bets[seat] += action;
+			potSize += action;
+			if (action > call) {
+				// A raise reopens the betting to everyone else who can bet.
+				currentBet = bets[seat];
+				pending = 0;
+				for (int other = 0; other < seats; other++) {
+					if (other != seat && !folded[other] && stacks[other] > 0) {
+						pending++;
+					}
+				}
+			} else {
+				pending--;
+			}
+		}
+
+		if (liveCount == 1 || pending <= 0) {
+			isHandOver = true;
+		} else {
+			currentSeat = nextActive(seat);
+		}
+		return isHandOver;
+	}
+
+	/**
+	 * Splits the pot into a main pot and side pots and pays each to the best
+	 * card of the players who contested it. This should only be called once
+	 * the betting is over.
+	 */
+	public void endHand() {
+		// Sort the seats that put chips in by bet, biggest first.
+		int count = 0;
+		for (int seat = 0; seat < seats; seat++) {
+			winnings[seat] = 0;
+			if (bets[seat] == 0) {
+				continue;
+			}
+			int i = count++;
+			while (i > 0 && bets[order[i - 1]] < bets[seat]) {
+				order[i] = order[i - 1];
+				i--;
+			}
+			order[i] = seat;
+		}
+
+		// Walk down from the biggest bet. The pot between one bet level and
+		// the next was paid by every seat seen so far, and is contested by
+		// those of them still in the hand.
+		int winnerCount = 0;
+		int best = -1;
+		int carry = 0;
+		for (int i = 0; i < count; i++) {
+			final int seat = order[i];
+			if (!folded[seat]) {
+				final int value = cards[seat].value;
+				if (value > best) {
+					best = value;
+					winnerCount = 0;
+				}
+				if (value == best) {
+					winners[winnerCount++] = seat;
+				}
+			}
+
+			final int next = i + 1 < count ? bets[order[i + 1]] : 0;
+			final int pot = carry + (bets[seat] - next) * (i + 1);
+			if (winnerCount == 0) {
+				// Only folded seats put this much in; it goes to the next pot.
+				carry = pot;
+				continue;
+			}
+			carry = 0;
+			pay(pot, winnerCount);
+		}
+
+		potSize = 0;
+		isHandOver = true;
+	}
+
+	/**
+	 * Splits a pot between the first winnerCount seats of winners, the odd
+	 * chips going to the winners closest to the left of the button.
+	 */
+	private void pay(final int pot, final int winnerCount) {
+		final int share = pot / winnerCount;
+		int odd = pot % winnerCount;
+		for (int i = 0; i < winnerCount; i++) {
+			stacks[winners[i]] += share;
+			winnings[winners[i]] += share;
+		}
+		for (int distance = 1; odd > 0; distance++) {
+			final int seat = (button + distance) % seats;
+			for (int i = 0; i < winnerCount; i++) {
+				if (winners[i] == seat) {
+					stacks[seat]++;
+					winnings[seat]++;
+					odd--;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The next seat after the given one that is still in the hand.
+	 */
+	private int nextLive(final int seat) {
+		int next = seat;
+		do {
+			next = next + 1 == seats ? 0 : next + 1;
+		} while (folded[next] && next != seat);
+		return next;
+	}
+
+	/**
+	 * @return The next seat after the given one that is still in the hand and
+	 *         has chips to bet.
+	 */
+	private int nextActive(final int seat) {
+		int next = seat;
+		do {
+			next = next + 1 == seats ? 0 : next + 1;
+		} while ((folded[next] || stacks[next] == 0) && next != seat);
+		return next;
+	}
+
+	/**
+	 * @return The chips the current seat needs to call, capped by its stack.
+	 */
+	public int getCallAmount() {
+		return Math.min(currentBet - bets[currentSeat], stacks[currentSeat]);
+	}
+
+	/**
+	 * Determines the most the current seat may bet: its stack, but no more
+	 * than any other player in the hand could match, and never less than the
+	 * call.
+	 *
+	 * @return The maximum bet allowed for the current seat.
+	 */
+	public int getMaxBetAmount() {
+		int most = 0;
+		for (int seat = 0; seat < seats; seat++) {
+			if (seat != currentSeat && !folded[seat]) {
+				most = Math.max(most, bets[seat] + stacks[seat]);
+			}
+		}
+		final int max = Math.min(stacks[currentSeat], most - bets[currentSeat]);
+		return Math.max(max, getCallAmount());
+	}
+
+	/**
+	 * @param action
+	 *            {@link #FOLD}, or the chips the current seat would add.
+	 * @return True if the current seat may take the action.
+	 */
+	public boolean isLegalAction(final int action) {
+		if (action == FOLD)
+			return true;
+		return action >= getCallAmount() && action <= getMaxBetAmount();
+	}
+
+	/**
+	 * @return True if the sit n' go is over: one player has every chip.
+	 */
+	public boolean isTerminalState() {
+		if (potSize > 0)
+			return false;
+		int withChips = 0;
+		for (int seat = 0; seat < seats; seat++) {
+			if (stacks[seat] > 0) {
+				withChips++;
+			}
+		}
+		return withChips <= 1;
+	}
+
+	/**
+	 * Looks at a seat's card as a given player would see it: their own card,
+	 * and at the end of a hand the cards of everyone who didn't fold, if more
+	 * than one didn't.
+	 *
+	 * @param seat
+	 *            The seat whose card to look at.
+	 * @param viewer
+	 *            The seat of the player looking.
+	 * @return The card, or Card.Unkown if the viewer can't see it.
+	 */
+	public Card getCard(final int seat, final int viewer) {
+		if (seat == viewer
+				|| isHandOver && !folded[seat] && liveCount > 1)
+			return cards[seat];
+		return Card.Unkown;
+	}
+
+	/**
+	 * @return The blinds and starting chips of this table.
+	 */
+	public TableRules getRules() {
+		return rules;
+	}
+
+	public int getSeatCount() {
+		return seats;
+	}
+
+	public int getStack(final int seat) {
+		return stacks[seat];
+	}
+
+	/**
+	 * @return The chips the seat has put into this hand's pot.
+	 */
+	public int getBet(final int seat) {
+		return bets[seat];
+	}
+
+	/**
+	 * @return The chips the seat won at the end of the last hand.
+	 */
+	public int getWinnings(final int seat) {
+		return winnings[seat];
+	}
+
+	/**
+	 * @return True if the seat is out of this hand, by folding or by having
+	 *         been knocked out of the game.
+	 */
+	public boolean isFolded(final int seat) {
+		return folded[seat];
+	}
+
+	public int getButton() {
+		return button;
+	}
+
+	/**
+	 * @return The seat to act.
+	 */
+	public int getCurrentSeat() {
+		return currentSeat;
+	}
+
+	public int getPotSize() {
+		return potSize;
+	}
+
+	/**
+	 * @return The number of seats that haven't folded this hand.
+	 */
+	public int getLiveCount() {
+		return liveCount;
+	}
+
+	/**
+	 * @return The last action taken this hand, or {@link #NO_ACTION}.
+	 */
+	public int getLastAction() {
+		return lastAction;
+	}
+
+	/**
+	 * @return True if the betting of this hand is over.
+	 */
+	public boolean isHandOver() {
+		return isHandOver;
+	}
+
+	@Override
+	public String toString() {
+		return "TableState [stacks=" + Arrays.toString(stacks) + ", bets="
+				+ Arrays.toString(bets) + ", cards=" + Arrays.toString(cards)
+				+ ", folded=" + Arrays.toString(folded) + ", button=" + button
+				+ ", currentSeat=" + currentSeat + ", potSize=" + potSize
+				+ ", lastAction=" + lastAction + ", isHandOver=" + isHandOver
+				+ "]";
+	}
+}
@@ -0,0 +1,26 @@
+package com.gmail.jdesmond10.pokerai.game.logic;
+
+/**
+ * How much checking GameStateData does as a game is played. The mode belongs
+ * to a game: it is given to its {@link GameState} and carried by every state
+ * that follows, so games in different modes can be played side by side.
+ *
+ * @see GameState#GameState(int, DeckSource, TableRules, ValidationMode)
+ */
+public enum ValidationMode {
+	/**
+	 * Every action is checked for legality when applied (unless the table
+	 * has already checked it; see {@link GameState#applyLegalAction}), and
+	 * every state checks its invariants (such as the number of chips in play)
+	 * when created. Violations throw {@link IllegalActionException} or
+	 * {@link InvalidGameStateException}.
+	 */
+	STRICT,
+	/**
+	 * Nothing is checked: actions are assumed to have been checked once
+	 * already, at the boundary where a Client hands them to the Server or
+	 * MatchEngine. For simulations and search that need full speed. An
+	 * illegal action applied in this mode gives an undefined state.
+	 */
+	TRUSTED
+}
@@ -0,0 +1,39 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+/**
+ * Constants of the hand history file format.
+ *
+ * A history is a directory of segment files named hands-NNNNNN.hh, read in
+ * order. Each segment starts with the four bytes {@link #MAGIC} and then
+ * holds records back to back, each one a type byte, the varint length of the
+ * payload and the payload. A zero type byte (or the end of the file) ends
+ * the segment; segments are preallocated, so the tail may be zeros.
+ *
+ * A {@link #TABLE} record introduces a table before any of its hands:
+ * varint table id, the deck seed as 8 bytes big endian, and the varint
+ * number of players followed by each name as a varint length and UTF-8.
+ *
+ * A {@link #HAND} record is one finished hand: varint table id, varint hand
+ * number, a flags byte (bit 0 set if player one has the button), a byte with
+ * player one's card rank in the low four bits and player two's in the high
+ * four, each player's varint stack before the blinds, the varint number of
+ * actions and each action as a varint (0 for a fold, otherwise the amount
+ * put in plus one), and player one's zigzag varint winnings for the hand.
+ * A typical hand is 10 to 15 bytes.
+ */
+final class HandHistoryFormat {
+
+	static final byte[] MAGIC = { 'H', 'H', '0', '1' };
+	static final byte END = 0;
+	static final byte TABLE = 1;
+	static final byte HAND = 2;
+	static final String SEGMENT_PREFIX = "hands-";
+	static final String SEGMENT_SUFFIX = ".hh";
+
+	private HandHistoryFormat() {
+	}
+
+	static String segmentName(final int index) {
+		return String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+	}
+}
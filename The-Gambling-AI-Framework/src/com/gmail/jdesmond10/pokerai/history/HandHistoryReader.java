@@ -0,0 +1,207 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+
+/**
+ * Streams the hands of a history written by a {@link HandHistoryWriter}, one
+ * segment at a time, in the order they were appended. Hands of different
+ * tables are interleaved; each hand carries its {@link TableInfo}.
+ *
+ * <pre>
+ * HandHistoryReader reader = new HandHistoryReader(directory);
+ * for (HandRecord hand; (hand = reader.next()) != null;) {
+ * 	...
+ * }
+ * reader.close();
+ * </pre>
+ */
+public final class HandHistoryReader implements Closeable {
+
+	private final File[] segments;
+	private final Map<Long, TableInfo> tables;
+	/** True to only read table records. */
+	private boolean skipHands;
+	private int nextSegment;
+	private ByteBuffer segment;
+
+	/**
+	 * @param directory
+	 *            A directory of segments.
+	 */
+	public HandHistoryReader(final File directory) throws IOException {
+		this(listSegments(directory));
+	}
+
+	/**
+	 * @param segments
+	 *            The segments to read, in order.
+	 */
+	public HandHistoryReader(final File[] segments) {
+		this(segments, new HashMap<Long, TableInfo>());
+	}
+
+	/**
+	 * Creates a reader that already knows some tables, so it can start
+	 * partway through a history.
+	 *
+	 * @see #readTables(File[])
+	 */
+	HandHistoryReader(final File[] segments, final Map<Long, TableInfo> tables) {
+		this.segments = segments.clone();
+		this.tables = new HashMap<Long, TableInfo>(tables);
+	}
+
+	/**
+	 * Reads just the table records of the given segments, skipping over the
+	 * hands.
+	 *
+	 * @return Every table, by id.
+	 */
+	static Map<Long, TableInfo> readTables(final File[] segments)
+			throws IOException {
+		final HandHistoryReader reader = new HandHistoryReader(segments);
+		reader.skipHands = true;
+		while (reader.next() != null) {
+			// Hands are skipped, so this only ends at the end of the history.
+		}
+		return reader.tables;
+	}
+
+	/**
+	 * @return The segments in the directory, in order.
+	 */
+	public static File[] listSegments(final File directory) throws IOException {
+		final File[] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(final File file) {
+				final String name = file.getName();
+				return file.isFile()
+						&& name.startsWith(HandHistoryFormat.SEGMENT_PREFIX)
+						&& name.endsWith(HandHistoryFormat.SEGMENT_SUFFIX);
+			}
+		});
+		if (files == null)
+			throw new IOException(directory + " is not a directory");
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(final File a, final File b) {
+				return Integer.compare(segmentIndex(a), segmentIndex(b));
+			}
+		});
+		return files;
+	}
+
+	static int segmentIndex(final File segment) {
+		final String name = segment.getName();
+		return Integer.parseInt(name.substring(
+				HandHistoryFormat.SEGMENT_PREFIX.length(), name.length()
+						- HandHistoryFormat.SEGMENT_SUFFIX.length()));
+	}
+
+	/**
+	 * @return The next hand, or null at the end of the history.
+	 */
+	public HandRecord next() throws IOException {
+		while (true) {
+			if (segment == null || !segment.hasRemaining()
+					|| segment.get(segment.position()) == HandHistoryFormat.END) {
+				if (nextSegment == segments.length)
+					return null;
+				openSegment(segments[nextSegment++]);
+				continue;
+			}
+
+			final byte type = segment.get();
+			final int length = VarInts.readInt(segment);
+			final int end = segment.position() + length;
+			if (type == HandHistoryFormat.TABLE) {
+				readTable();
+			} else if (type == HandHistoryFormat.HAND && !skipHands) {
+				final HandRecord hand = readHand();
+				segment.position(end);
+				return hand;
+			}
+			// Skip anything not understood (or not fully read).
+			segment.position(end);
+		}
+	}
+
+	private void openSegment(final File file) throws IOException {
+		final RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			segment = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+					in.length());
+		} finally {
+			// The mapping stays valid once the file is closed.
+			in.close();
+		}
+		final byte[] magic = new byte[HandHistoryFormat.MAGIC.length];
+		if (segment.remaining() < magic.length)
+			throw new IOException(file + " is not a hand history segment");
+		segment.get(magic);
+		if (!Arrays.equals(magic, HandHistoryFormat.MAGIC))
+			throw new IOException(file + " is not a hand history segment");
+	}
+
+	private void readTable() {
+		final long tableId = VarInts.read(segment);
+		final long seed = segment.getLong();
+		final String[] names = new String[VarInts.readInt(segment)];
+		for (int i = 0; i < names.length; i++) {
+			final byte[] utf = new byte[VarInts.readInt(segment)];
+			segment.get(utf);
+			names[i] = new String(utf, StandardCharsets.UTF_8);
+		}
+		tables.put(tableId, new TableInfo(tableId, seed, names));
+	}
+
+	private HandRecord readHand() throws IOException {
+		final long tableId = VarInts.read(segment);
+		final TableInfo table = tables.get(tableId);
+		if (table == null)
+			throw new IOException("Hand of unknown table " + tableId);
+
+		final int handNumber = VarInts.readInt(segment);
+		final boolean playerOneHasButton = (segment.get() & 1) != 0;
+		final int cards = segment.get() & 0xFF;
+		final int playerOneStartStack = VarInts.readInt(segment);
+		final int playerTwoStartStack = VarInts.readInt(segment);
+		final int[] actions = new int[VarInts.readInt(segment)];
+		for (int i = 0; i < actions.length; i++) {
+			final int action = VarInts.readInt(segment);
+			actions[i] = action == 0 ? PackedGameState.FOLD : action - 1;
+		}
+		final int winnings = (int) VarInts.unzigzag(VarInts.read(segment));
+
+		return new HandRecord(table, handNumber, playerOneHasButton,
+				Card.fromRank(cards & 0xF), Card.fromRank(cards >>> 4),
+				playerOneStartStack, playerTwoStartStack, actions, winnings);
+	}
+
+	/**
+	 * @return The table of the given id, if its record has been read.
+	 */
+	public TableInfo getTable(final long tableId) {
+		return tables.get(tableId);
+	}
+
+	@Override
+	public void close() {
+		segment = null;
+		nextSegment = segments.length;
+	}
+}
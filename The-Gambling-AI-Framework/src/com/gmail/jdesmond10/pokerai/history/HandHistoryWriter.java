@@ -0,0 +1,145 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends hand history records to memory-mapped segment files in a
+ * directory. Each segment is mapped whole when it is opened, so appending is
+ * a memory copy; when a batch doesn't fit in what's left of a segment, the
+ * segment is trimmed to its contents and the next one is started. A batch
+ * too large for any segment gets a new segment just large enough for it.
+ *
+ * Tables don't write here directly: each has a {@link TableRecorder} that
+ * buffers its hands and appends them in batches, so the lock here is taken
+ * once per batch rather than once per hand. One writer can be shared by
+ * every table in the program.
+ *
+ * @see HandHistoryReader
+ */
+public final class HandHistoryWriter implements Closeable {
+
+	/** The default size of a segment file. */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private final File directory;
+	private final int segmentSize;
+	private final AtomicLong nextTableId = new AtomicLong();
+
+	private int segmentIndex;
+	private RandomAccessFile file;
+	private MappedByteBuffer segment;
+	private long bytesWritten;
+	private boolean closed;
+
+	public HandHistoryWriter(final File directory) throws IOException {
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * @param directory
+	 *            The directory to write segments to. Segments already there
+	 *            are kept; new ones are numbered after them.
+	 * @param segmentSize
+	 *            The size of each segment file in bytes. Must be larger than
+	 *            a TableRecorder's buffer; larger records get a segment of
+	 *            their own.
+	 */
+	public HandHistoryWriter(final File directory, final int segmentSize)
+			throws IOException {
+		if (segmentSize < TableRecorder.BUFFER_SIZE * 2)
+			throw new IllegalArgumentException("segmentSize must be at least "
+					+ TableRecorder.BUFFER_SIZE * 2 + " bytes");
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Could not create " + directory);
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+
+		final File[] existing = HandHistoryReader.listSegments(directory);
+		segmentIndex = existing.length == 0 ? 0 : HandHistoryReader
+				.segmentIndex(existing[existing.length - 1]) + 1;
+		openSegment(segmentSize);
+	}
+
+	/**
+	 * @param size
+	 *            The size to map the new segment at.
+	 */
+	private void openSegment(final long size) throws IOException {
+		file = new RandomAccessFile(new File(directory,
+				HandHistoryFormat.segmentName(segmentIndex)), "rw");
+		segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+				size);
+		segment.put(HandHistoryFormat.MAGIC);
+	}
+
+	/**
+	 * Trims the current segment to what has been written and closes it.
+	 */
+	private void closeSegment() throws IOException {
+		segment.force();
+		final long length = segment.position();
+		segment = null;
+		try {
+			file.getChannel().truncate(length);
+		} catch (final IOException e) {
+			// Some platforms can't truncate a mapped file; the reader stops at
+			// the zeros anyway.
+		}
+		file.close();
+	}
+
+	/**
+	 * @return A new id for a table, unique within this writer.
+	 */
+	long nextTableId() {
+		return nextTableId.getAndIncrement();
+	}
+
+	/**
+	 * Appends whole records.
+	 *
+	 * @param records
+	 *            One or more complete records.
+	 * @throws IOException
+	 *             if a new segment can't be created.
+	 */
+	synchronized void append(final byte[] records, final int offset,
+			final int length) throws IOException {
+		if (closed)
+			throw new IOException("The hand history writer is closed");
+		// Keep one byte spare for the end marker.
+		if (segment.remaining() <= length) {
+			closeSegment();
+			segmentIndex++;
+			openSegment(Math.max(segmentSize,
+					(long) HandHistoryFormat.MAGIC.length + length + 1));
+		}
+		segment.put(records, offset, length);
+		bytesWritten += length;
+	}
+
+	/**
+	 * @return The number of record bytes written so far.
+	 */
+	public synchronized long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * Writes out and trims the current segment. Recorders should be closed
+	 * first, or their buffered hands are lost.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			closeSegment();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.util.Arrays;
+
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+
+/**
+ * One hand read back from a hand history.
+ *
+ * @see HandHistoryReader
+ */
+public final class HandRecord {
+
+	/** The table the hand was played at. */
+	public final TableInfo table;
+	/** The number of the hand at its table, counting from 0. */
+	public final int handNumber;
+	public final boolean playerOneHasButton;
+	public final Card playerOneCard;
+	public final Card playerTwoCard;
+	/** Player one's chips before the blinds. */
+	public final int playerOneStartStack;
+	/** Player two's chips before the blinds. */
+	public final int playerTwoStartStack;
+	/** Player one's net winnings (negative for a loss) from the hand. */
+	public final int playerOneWinnings;
+	/**
+	 * The actions in order, as amounts put in, or
+	 * {@link PackedGameState#FOLD}.
+	 */
+	private final int[] actions;
+
+	HandRecord(final TableInfo table, final int handNumber,
+			final boolean playerOneHasButton, final Card playerOneCard,
+			final Card playerTwoCard, final int playerOneStartStack,
+			final int playerTwoStartStack, final int[] actions,
+			final int playerOneWinnings) {
+		this.table = table;
+		this.handNumber = handNumber;
+		this.playerOneHasButton = playerOneHasButton;
+		this.playerOneCard = playerOneCard;
+		this.playerTwoCard = playerTwoCard;
+		this.playerOneStartStack = playerOneStartStack;
+		this.playerTwoStartStack = playerTwoStartStack;
+		this.actions = actions;
+		this.playerOneWinnings = playerOneWinnings;
+	}
+
+	public int getActionCount() {
+		return actions.length;
+	}
+
+	/**
+	 * @return The i-th action: the amount put in, or
+	 *         {@link PackedGameState#FOLD}.
+	 */
+	public int getAction(final int i) {
+		return actions[i];
+	}
+
+	/**
+	 * Rebuilds the state of the hand just after the blinds were posted, from
+	 * which the actions can be applied in order with
+	 * {@link PackedGameState#applyAction(long, int)}.
+	 *
+	 * @return The packed state at the start of the betting.
+	 */
+	public long getDealtState() {
+		// Deal from the end of a previous hand, so the blinds are posted
+		// exactly as the engine posts them.
+		final long previous = PackedGameState.pack(playerOneStartStack,
+				playerTwoStartStack, Card.Two, Card.Two, 0, 0,
+				!playerOneHasButton, !playerOneHasButton, 0,
+				PackedGameState.NO_ACTION, true);
+		return PackedGameState.dealNextHand(previous, playerOneCard,
+				playerTwoCard);
+	}
+
+	@Override
+	public String toString() {
+		return "HandRecord [table=" + table.tableId + ", hand=" + handNumber
+				+ ", button=" + (playerOneHasButton ? 1 : 2) + ", cards="
+				+ playerOneCard + "/" + playerTwoCard + ", stacks="
+				+ playerOneStartStack + "/" + playerTwoStartStack
+				+ ", actions=" + Arrays.toString(actions)
+				+ ", playerOneWinnings=" + playerOneWinnings + "]";
+	}
+}
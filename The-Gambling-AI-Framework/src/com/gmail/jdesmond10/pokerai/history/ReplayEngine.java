@@ -0,0 +1,246 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.OpponentAware;
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+
+/**
+ * Replays a recorded hand history through an agent, to see how it would have
+ * played the same spots. For every recorded hand, the agent takes the place
+ * of a chosen player: it is informed of each state from that seat exactly as
+ * a Server would inform it (the opponent's card hidden), and prompted at each
+ * of that player's decisions. Its answer is compared to the recorded action,
+ * and then the recorded action is applied, so the hand always follows the
+ * history.
+ *
+ * Agreement is measured exactly and by kind (fold, call/check or raise). The
+ * difference in value between the agent's action and the recorded one is
+ * estimated with a showdown approximation: a fold loses what is already in
+ * the pot; any other action is assumed to be called and the hand shown down,
+ * winning or losing the matched chips with the real cards. This is crude
+ * (nobody is assumed to fold to a raise) but cheap and unbiased between
+ * agents, which is what comparing versions needs.
+ *
+ * Segments are replayed in parallel, each by one worker with its own agents.
+ * A table whose hands carry over into the next segment is picked up there by
+ * a fresh agent, which loses what the old one had learned about the table.
+ * Segments are memory-mapped and read as a stream, so the corpus never has to
+ * fit in memory.
+ */
+public final class ReplayEngine {
+
+	private final ClientFactory agent;
+	private final String playerName;
+
+	/**
+	 * @param agent
+	 *            Creates the agent for each seat replayed, a new one per
+	 *            table.
+	 * @param playerName
+	 *            The name of the recorded player whose seat the agent takes,
+	 *            or null to replay both seats of every hand.
+	 */
+	public ReplayEngine(final ClientFactory agent, final String playerName) {
+		this.agent = agent;
+		this.playerName = playerName;
+	}
+
+	/**
+	 * Replays every hand in a directory of segments.
+	 *
+	 * @param directory
+	 *            A hand history written by a {@link HandHistoryWriter}.
+	 * @param threads
+	 *            The number of worker threads.
+	 * @return The totals over every segment.
+	 */
+	public ReplayResult replay(final File directory, final int threads)
+			throws IOException {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be positive, was "
+					+ threads);
+
+		final long start = System.nanoTime();
+		final File[] segments = HandHistoryReader.listSegments(directory);
+		final Map<Long, TableInfo> tables = HandHistoryReader
+				.readTables(segments);
+		final AtomicInteger nextSegment = new AtomicInteger();
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final List<Future<ReplayResult>> futures = new ArrayList<Future<ReplayResult>>();
+
+		try {
+			for (int i = 0; i < threads; i++) {
+				futures.add(pool.submit(new Callable<ReplayResult>() {
+					@Override
+					public ReplayResult call() throws IOException {
+						final ReplayResult result = new ReplayResult();
+						int segment;
+						while ((segment = nextSegment.getAndIncrement()) < segments.length) {
+							replaySegment(segments[segment], tables, result);
+						}
+						return result;
+					}
+				}));
+			}
+
+			final ReplayResult total = new ReplayResult();
+			for (final Future<ReplayResult> future : futures) {
+				total.merge(future.get());
+			}
+			total.setElapsedNanos(System.nanoTime() - start);
+			return total;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during a replay", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IllegalStateException("A replay failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void replaySegment(final File segment,
+			final Map<Long, TableInfo> tables, final ReplayResult result)
+			throws IOException {
+		final HandHistoryReader reader = new HandHistoryReader(
+				new File[] { segment }, tables);
+		// The agents of the tables in this segment, by table, then seat.
+		final Map<TableInfo, Client[]> agents = new HashMap<TableInfo, Client[]>();
+		try {
+			for (HandRecord hand; (hand = reader.next()) != null;) {
+				Client[] seats = agents.get(hand.table);
+				if (seats == null) {
+					seats = new Client[2];
+					agents.put(hand.table, seats);
+				}
+				for (int seat = 0; seat < seats.length; seat++) {
+					if (playerName != null
+							&& !playerName.equals(hand.table
+									.getPlayerName(seat))) {
+						continue;
+					}
+					if (seats[seat] == null) {
+						seats[seat] = agent.createClient(seat == 0);
+						if (seats[seat] instanceof OpponentAware) {
+							((OpponentAware) seats[seat])
+									.setOpponentName(hand.table
+											.getPlayerName(1 - seat));
+						}
+					}
+					replayHand(hand, seat, seats[seat], result);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Plays one recorded hand through the agent in the given seat.
+	 */
+	static void replayHand(final HandRecord hand, final int seat,
+			final Client client, final ReplayResult result) {
+		long state = hand.getDealtState();
+		inform(client, state, seat);
+		result.addHand();
+
+		for (int i = 0; i < hand.getActionCount(); i++) {
+			final int recorded = hand.getAction(i);
+			if (PackedGameState.getCurrentPlayer(state) == seat) {
+				final int chosen = toAction(client.prompt(), state);
+				result.addDecision(kind(chosen, state) == kind(recorded, state),
+						chosen == recorded, showdownValue(state, seat, chosen)
+								- showdownValue(state, seat, recorded));
+			}
+			state = PackedGameState.applyAction(state, recorded);
+			inform(client, state, seat);
+		}
+
+		inform(client, PackedGameState.endHand(state), seat);
+	}
+
+	private static void inform(final Client client, final long state,
+			final int seat) {
+		client.inform(GameStateData.fromPacked(PackedGameState.obfuscate(
+				state, seat == 0)));
+	}
+
+	/**
+	 * @return The agent's action as a packed action; illegal actions
+	 *         (including null) are folds, as at a Server.
+	 */
+	private static int toAction(final BettingAction action, final long state) {
+		if (action == null || action.isFold())
+			return PackedGameState.FOLD;
+		if (!PackedGameState.isLegalAction(state, action.getAmount()))
+			return PackedGameState.FOLD;
+		return action.getAmount();
+	}
+
+	/**
+	 * @return 0 for a fold, 1 for a call or check, 2 for a raise.
+	 */
+	private static int kind(final int action, final long state) {
+		if (action == PackedGameState.FOLD)
+			return 0;
+		return action <= PackedGameState.getCallAmount(state) ? 1 : 2;
+	}
+
+	/**
+	 * Estimates what the seat ends the hand with, relative to its start, if
+	 * it takes the given action: a fold loses what it has put in; anything
+	 * else is assumed to be called and shown down.
+	 */
+	private static int showdownValue(final long state, final int seat,
+			final int action) {
+		final boolean playerOne = seat == 0;
+		final int committed = playerOne ? PackedGameState
+				.playerOneAmountBetSoFar(state) : PackedGameState
+				.playerTwoAmountBetSoFar(state);
+		if (action == PackedGameState.FOLD)
+			return -committed;
+
+		final int ownTotal = committed
+				+ (playerOne ? PackedGameState.playerOneStack(state)
+						: PackedGameState.playerTwoStack(state));
+		final int opponentTotal = playerOne ? PackedGameState
+				.playerTwoStack(state)
+				+ PackedGameState.playerTwoAmountBetSoFar(state)
+				: PackedGameState.playerOneStack(state)
+						+ PackedGameState.playerOneAmountBetSoFar(state);
+		final int opponentCommitted = playerOne ? PackedGameState
+				.playerTwoAmountBetSoFar(state) : PackedGameState
+				.playerOneAmountBetSoFar(state);
+		final int matched = Math.max(opponentCommitted, Math.min(
+				committed + action, Math.min(ownTotal, opponentTotal)));
+
+		final int ownRank = (playerOne ? PackedGameState.playerOneCard(state)
+				: PackedGameState.playerTwoCard(state)).rank();
+		final int opponentRank = (playerOne ? PackedGameState
+				.playerTwoCard(state) : PackedGameState.playerOneCard(state))
+				.rank();
+		if (ownRank > opponentRank)
+			return matched;
+		if (ownRank < opponentRank)
+			return -matched;
+		return 0;
+	}
+}
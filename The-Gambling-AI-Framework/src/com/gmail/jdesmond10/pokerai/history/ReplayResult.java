@@ -0,0 +1,117 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+/**
+ * The totals of a replay: how often the agent chose what was actually done,
+ * and how many chips its choices would have won or lost in comparison.
+ *
+ * @see ReplayEngine
+ */
+public final class ReplayResult {
+
+	private long hands;
+	private long decisions;
+	private long kindAgreements;
+	private long exactAgreements;
+	private double evDifference;
+	private long elapsedNanos;
+
+	ReplayResult() {
+	}
+
+	void addHand() {
+		hands++;
+	}
+
+	/**
+	 * @param sameKind
+	 *            True if both actions were folds, both calls/checks or both
+	 *            raises.
+	 * @param same
+	 *            True if the actions were exactly the same.
+	 * @param evDifference
+	 *            The agent's estimated winnings minus the recorded action's.
+	 */
+	void addDecision(final boolean sameKind, final boolean same,
+			final double evDifference) {
+		decisions++;
+		if (sameKind) {
+			kindAgreements++;
+		}
+		if (same) {
+			exactAgreements++;
+		}
+		this.evDifference += evDifference;
+	}
+
+	void merge(final ReplayResult other) {
+		hands += other.hands;
+		decisions += other.decisions;
+		kindAgreements += other.kindAgreements;
+		exactAgreements += other.exactAgreements;
+		evDifference += other.evDifference;
+	}
+
+	void setElapsedNanos(final long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return The number of hands replayed (counting a hand once per seat
+	 *         replayed).
+	 */
+	public long getHandCount() {
+		return hands;
+	}
+
+	/**
+	 * @return The number of decisions the agent was asked to make.
+	 */
+	public long getDecisionCount() {
+		return decisions;
+	}
+
+	/**
+	 * @return The fraction of decisions where the agent chose the same kind
+	 *         of action (fold, call/check or raise) as was recorded.
+	 */
+	public double getAgreementRate() {
+		return decisions == 0 ? 0 : (double) kindAgreements / decisions;
+	}
+
+	/**
+	 * @return The fraction of decisions where the agent chose exactly the
+	 *         recorded action, amount and all.
+	 */
+	public double getExactAgreementRate() {
+		return decisions == 0 ? 0 : (double) exactAgreements / decisions;
+	}
+
+	/**
+	 * @return The mean, per decision, of how many more chips the agent's
+	 *         action would have won than the recorded one, estimated as
+	 *         described in {@link ReplayEngine}.
+	 */
+	public double getMeanEvDifference() {
+		return decisions == 0 ? 0 : evDifference / decisions;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return The number of decisions replayed per second.
+	 */
+	public double getDecisionsPerSecond() {
+		return elapsedNanos == 0 ? 0 : decisions * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ReplayResult [hands=%d, decisions=%d, "
+				+ "agreement=%.4f, exactAgreement=%.4f, "
+				+ "meanEvDifference=%.4f chips, decisions/sec=%.0f]", hands,
+				decisions, getAgreementRate(), getExactAgreementRate(),
+				getMeanEvDifference(), getDecisionsPerSecond());
+	}
+}
@@ -0,0 +1,39 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The table a recorded hand was played at.
+ */
+public final class TableInfo {
+
+	/** The table's id, unique within one history. */
+	public final long tableId;
+	/** The seed of the table's deck, or 0 if it wasn't seeded. */
+	public final long seed;
+	private final String[] playerNames;
+
+	TableInfo(final long tableId, final long seed, final String[] playerNames) {
+		this.tableId = tableId;
+		this.seed = seed;
+		this.playerNames = playerNames;
+	}
+
+	/**
+	 * @return The name of the Client in each seat.
+	 */
+	public List<String> getPlayerNames() {
+		return Arrays.asList(playerNames.clone());
+	}
+
+	public String getPlayerName(final int seat) {
+		return playerNames[seat];
+	}
+
+	@Override
+	public String toString() {
+		return "TableInfo [tableId=" + tableId + ", seed=" + seed
+				+ ", players=" + Arrays.toString(playerNames) + "]";
+	}
+}
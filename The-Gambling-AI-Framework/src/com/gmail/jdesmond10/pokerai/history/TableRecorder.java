@@ -0,0 +1,187 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+
+/**
+ * Records the hands of one table into a buffer, and appends the buffer to a
+ * {@link HandHistoryWriter} whenever it fills up and when the table closes.
+ * A TableRecorder belongs to the thread running its table.
+ *
+ * For each hand, call {@link #startHand} with the full state once the cards
+ * are dealt, {@link #action} for every action applied, and {@link #endHand}
+ * with the state after the pot has been awarded.
+ */
+public final class TableRecorder implements Closeable {
+
+	/** Size of the buffer of hands waiting to be appended. */
+	static final int BUFFER_SIZE = 8 * 1024;
+
+	private final HandHistoryWriter writer;
+	private final long tableId;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int buffered;
+	/** The record being built. */
+	private byte[] scratch = new byte[64];
+
+	private int handNumber;
+	private boolean inHand;
+	private boolean playerOneHasButton;
+	private int cards;
+	private int playerOneStartStack;
+	private int playerTwoStartStack;
+	private int[] actions = new int[16];
+	private int actionCount;
+
+	/**
+	 * Starts recording a table, writing its table record.
+	 *
+	 * @param writer
+	 *            Where to append the hands.
+	 * @param seed
+	 *            The seed of the table's deck, or 0 if it isn't seeded.
+	 * @param playerNames
+	 *            The name of the Client in each seat.
+	 */
+	public TableRecorder(final HandHistoryWriter writer, final long seed,
+			final String... playerNames) throws IOException {
+		this.writer = writer;
+		tableId = writer.nextTableId();
+
+		int length = VarInts.write(scratch, 0, tableId);
+		ensureScratch(length + 8 + VarInts.MAX_LONG_BYTES);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			scratch[length++] = (byte) (seed >>> shift);
+		}
+		length = VarInts.write(scratch, length, playerNames.length);
+		for (final String name : playerNames) {
+			final byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+			ensureScratch(length + VarInts.MAX_LONG_BYTES + utf.length);
+			length = VarInts.write(scratch, length, utf.length);
+			System.arraycopy(utf, 0, scratch, length, utf.length);
+			length += utf.length;
+		}
+		addRecord(HandHistoryFormat.TABLE, length);
+	}
+
+	/**
+	 * @return This table's id in the history.
+	 */
+	public long getTableId() {
+		return tableId;
+	}
+
+	/**
+	 * Starts a hand.
+	 *
+	 * @param dealt
+	 *            The full (not obfuscated) state once the blinds are posted
+	 *            and cards dealt.
+	 */
+	public void startHand(final GameStateData dealt) {
+		inHand = true;
+		actionCount = 0;
+		playerOneHasButton = dealt.playerOneHasButton;
+		cards = dealt.playerOneCard.rank() | dealt.playerTwoCard.rank() << 4;
+		playerOneStartStack = dealt.playerOneStack
+				+ dealt.playerOneAmountBetSoFar;
+		playerTwoStartStack = dealt.playerTwoStack
+				+ dealt.playerTwoAmountBetSoFar;
+	}
+
+	/**
+	 * Records an action of the hand in progress.
+	 */
+	public void action(final BettingAction action) {
+		if (actionCount == actions.length) {
+			actions = Arrays.copyOf(actions, actionCount * 2);
+		}
+		actions[actionCount++] = action.isFold() ? 0 : action.getAmount() + 1;
+	}
+
+	/**
+	 * Finishes the hand in progress and buffers its record.
+	 *
+	 * @param finished
+	 *            The state after the pot has been awarded.
+	 */
+	public void endHand(final GameStateData finished) throws IOException {
+		if (!inHand)
+			throw new IllegalStateException("endHand() without startHand()");
+		inHand = false;
+
+		ensureScratch(6 * VarInts.MAX_LONG_BYTES + 2 + actionCount
+				* VarInts.MAX_LONG_BYTES);
+		int length = VarInts.write(scratch, 0, tableId);
+		length = VarInts.write(scratch, length, handNumber++);
+		scratch[length++] = (byte) (playerOneHasButton ? 1 : 0);
+		scratch[length++] = (byte) cards;
+		length = VarInts.write(scratch, length, playerOneStartStack);
+		length = VarInts.write(scratch, length, playerTwoStartStack);
+		length = VarInts.write(scratch, length, actionCount);
+		for (int i = 0; i < actionCount; i++) {
+			length = VarInts.write(scratch, length, actions[i]);
+		}
+		length = VarInts.write(scratch, length, VarInts.zigzag(finished.playerOneStack
+				- playerOneStartStack));
+		addRecord(HandHistoryFormat.HAND, length);
+	}
+
+	private void ensureScratch(final int size) {
+		if (scratch.length < size) {
+			scratch = Arrays.copyOf(scratch, Math.max(size, scratch.length * 2));
+		}
+	}
+
+	/**
+	 * Moves the record in the scratch buffer into the buffer, flushing first
+	 * if it doesn't fit.
+	 */
+	private void addRecord(final byte type, final int length)
+			throws IOException {
+		final int size = 1 + VarInts.size(length) + length;
+		if (buffered + size > BUFFER_SIZE) {
+			flush();
+		}
+		if (size > BUFFER_SIZE) {
+			// Far longer than any real hand; append it on its own.
+			final byte[] record = new byte[size];
+			writeRecord(record, 0, type, length);
+			writer.append(record, 0, size);
+			return;
+		}
+		buffered = writeRecord(buffer, buffered, type, length);
+	}
+
+	private int writeRecord(final byte[] out, int position, final byte type,
+			final int length) {
+		out[position++] = type;
+		position = VarInts.write(out, position, length);
+		System.arraycopy(scratch, 0, out, position, length);
+		return position + length;
+	}
+
+	/**
+	 * Appends the buffered hands to the writer.
+	 */
+	public void flush() throws IOException {
+		if (buffered > 0) {
+			writer.append(buffer, 0, buffered);
+			buffered = 0;
+		}
+	}
+
+	/**
+	 * Flushes the buffered hands. A hand in progress is not recorded.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+	}
+}
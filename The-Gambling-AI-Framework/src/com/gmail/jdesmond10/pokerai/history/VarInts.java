@@ -0,0 +1,66 @@
+package com.gmail.jdesmond10.pokerai.history;
+
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 variable length integers: seven bits a byte, low bits first, with
+ * the top bit set on every byte but the last. Values under 128 take one
+ * byte. Signed values are zigzag encoded first so small negatives stay small.
+ */
+final class VarInts {
+
+	/** The most bytes a long can take. */
+	static final int MAX_LONG_BYTES = 10;
+
+	private VarInts() {
+	}
+
+	/**
+	 * Writes the value at the given position.
+	 *
+	 * @return The position after the value.
+	 */
+	static int write(final byte[] out, int position, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out[position++] = (byte) value;
+		return position;
+	}
+
+	static long read(final ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IllegalStateException("Malformed varint");
+	}
+
+	static int readInt(final ByteBuffer in) {
+		return (int) read(in);
+	}
+
+	/**
+	 * @return The number of bytes the value takes.
+	 */
+	static int size(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			size++;
+			value >>>= 7;
+		}
+		return size;
+	}
+
+	static long zigzag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static long unzigzag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,119 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends records to a file, one key=value line each, from a background
+ * thread. Logging only puts the record on a bounded queue: formatting and
+ * file writes happen on the writer thread. If the queue is full the record
+ * is dropped rather than making the logging thread wait, and the number of
+ * dropped records is counted.
+ */
+public final class AsyncFileSink implements LogSink {
+
+	/** The default number of records that can wait to be written. */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	private final BlockingQueue<LogRecord> queue;
+	private final Writer writer;
+	private final Thread thread;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean running = true;
+
+	public AsyncFileSink(final File file) throws IOException {
+		this(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param file
+	 *            The file to append to.
+	 * @param capacity
+	 *            The number of records that can wait to be written.
+	 */
+	public AsyncFileSink(final File file, final int capacity)
+			throws IOException {
+		queue = new ArrayBlockingQueue<LogRecord>(capacity);
+		writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file, true), StandardCharsets.UTF_8));
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "log-" + file.getName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void write(final LogRecord record) {
+		if (!queue.offer(record)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return The number of records dropped because the queue was full.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	private void drain() {
+		final List<LogRecord> batch = new ArrayList<LogRecord>();
+		try {
+			while (running || !queue.isEmpty()) {
+				final LogRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch);
+				for (final LogRecord record : batch) {
+					writer.write(record.toString());
+					writer.write('\n');
+				}
+				batch.clear();
+				// Only flush once the queue has been emptied.
+				if (queue.isEmpty()) {
+					writer.flush();
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final IOException e) {
+			System.err.println("Log file failed: " + e);
+		} finally {
+			try {
+				writer.close();
+			} catch (final IOException e) {
+				System.err.println("Log file failed to close: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Writes out every queued record and closes the file.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		try {
+			thread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
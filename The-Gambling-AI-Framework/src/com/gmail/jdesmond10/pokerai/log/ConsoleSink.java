@@ -0,0 +1,18 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+/**
+ * Prints each record's message to System.out as it is logged. This is the
+ * default sink, matching what Main.systemPrint() has always done.
+ */
+public final class ConsoleSink implements LogSink {
+
+	@Override
+	public void write(final LogRecord record) {
+		System.out.println(record.getMessage());
+	}
+
+	@Override
+	public void close() {
+		System.out.flush();
+	}
+}
@@ -0,0 +1,26 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+/**
+ * The importance of a log message, from most to least important. A logger
+ * set to a level lets through messages of that level and every more
+ * important one.
+ */
+public enum LogLevel {
+	/** Logging turned off; no message has this level. */
+	OFF,
+	ERROR,
+	WARN,
+	INFO,
+	/** Per-hand and per-action detail. */
+	DEBUG,
+	/** Full game states and the like. */
+	TRACE;
+
+	/**
+	 * @return True if a logger at this level lets through messages of the
+	 *         given level.
+	 */
+	public boolean allows(final LogLevel messageLevel) {
+		return messageLevel != OFF && messageLevel.ordinal() <= ordinal();
+	}
+}
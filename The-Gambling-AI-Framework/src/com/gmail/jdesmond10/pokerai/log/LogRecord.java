@@ -0,0 +1,54 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+/**
+ * A single log message, kept as its template and arguments so that it is
+ * only formatted if and when a sink writes it (possibly on another thread).
+ * Arguments should therefore be immutable, like GameStateData and
+ * BettingAction.
+ */
+public final class LogRecord {
+
+	public final long timeMillis;
+	public final LogLevel level;
+	public final String logger;
+	public final String template;
+	private final Object[] arguments;
+
+	LogRecord(final LogLevel level, final String logger,
+			final String template, final Object... arguments) {
+		timeMillis = System.currentTimeMillis();
+		this.level = level;
+		this.logger = logger;
+		this.template = template;
+		this.arguments = arguments;
+	}
+
+	/**
+	 * @return The message, with each {} of the template replaced by the next
+	 *         argument.
+	 */
+	public String getMessage() {
+		if (arguments.length == 0)
+			return template;
+
+		final StringBuilder message = new StringBuilder(template.length() + 32);
+		int argument = 0;
+		int from = 0;
+		int at;
+		while (argument < arguments.length
+				&& (at = template.indexOf("{}", from)) >= 0) {
+			message.append(template, from, at).append(arguments[argument++]);
+			from = at + 2;
+		}
+		return message.append(template, from, template.length()).toString();
+	}
+
+	/**
+	 * @return The record as one line of key=value fields.
+	 */
+	@Override
+	public String toString() {
+		return "time=" + timeMillis + " level=" + level + " logger=" + logger
+				+ " msg=\"" + getMessage().replace("\"", "\\\"") + "\"";
+	}
+}
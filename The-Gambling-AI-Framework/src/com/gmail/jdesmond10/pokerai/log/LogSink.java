@@ -0,0 +1,20 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+/**
+ * Where log records go. Sinks may be called from any number of threads at
+ * once.
+ *
+ * @see Logging#setSink(LogSink)
+ */
+public interface LogSink {
+
+	/**
+	 * Writes, or queues for writing, the given record.
+	 */
+	public void write(LogRecord record);
+
+	/**
+	 * Writes out anything still queued and releases the sink's resources.
+	 */
+	public void close();
+}
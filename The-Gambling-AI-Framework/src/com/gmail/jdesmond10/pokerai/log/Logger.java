@@ -0,0 +1,121 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+/**
+ * A named logger with its own level. Messages are templates where each {} is
+ * replaced by the next argument, and nothing is formatted or allocated when
+ * the level is off: check the level, then return. Primitive arguments are
+ * boxed, so wrap calls with large numbers in {@link #isEnabled(LogLevel)} if
+ * they are on a hot path (small ints are cached and cost nothing).
+ *
+ * A logger without a level of its own follows {@link Logging#getRootLevel()}.
+ * Tables each have their own logger, so one table can be traced while the
+ * rest stay quiet.
+ *
+ * @see Logging#getLogger(String)
+ */
+public final class Logger {
+
+	private final String name;
+	/** This logger's own level, or null to follow the root level. */
+	private volatile LogLevel level;
+
+	Logger(final String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param level
+	 *            This logger's own level, or null to follow the root level.
+	 */
+	public void setLevel(final LogLevel level) {
+		this.level = level;
+	}
+
+	/**
+	 * @return The level messages are filtered at.
+	 */
+	public LogLevel getEffectiveLevel() {
+		final LogLevel own = level;
+		return own != null ? own : Logging.getRootLevel();
+	}
+
+	public boolean isEnabled(final LogLevel messageLevel) {
+		return getEffectiveLevel().allows(messageLevel);
+	}
+
+	public void log(final LogLevel messageLevel, final String message) {
+		if (isEnabled(messageLevel)) {
+			Logging.getSink().write(new LogRecord(messageLevel, name, message));
+		}
+	}
+
+	public void log(final LogLevel messageLevel, final String template,
+			final Object argument) {
+		if (isEnabled(messageLevel)) {
+			Logging.getSink().write(
+					new LogRecord(messageLevel, name, template, argument));
+		}
+	}
+
+	public void log(final LogLevel messageLevel, final String template,
+			final Object first, final Object second) {
+		if (isEnabled(messageLevel)) {
+			Logging.getSink().write(
+					new LogRecord(messageLevel, name, template, first, second));
+		}
+	}
+
+	public void log(final LogLevel messageLevel, final String template,
+			final Object first, final Object second, final Object third) {
+		if (isEnabled(messageLevel)) {
+			Logging.getSink().write(
+					new LogRecord(messageLevel, name, template, first, second,
+							third));
+		}
+	}
+
+	public void warn(final String template, final Object argument) {
+		log(LogLevel.WARN, template, argument);
+	}
+
+	public void warn(final String template, final Object first,
+			final Object second) {
+		log(LogLevel.WARN, template, first, second);
+	}
+
+	public void info(final String template, final Object argument) {
+		log(LogLevel.INFO, template, argument);
+	}
+
+	public void info(final String template, final Object first,
+			final Object second) {
+		log(LogLevel.INFO, template, first, second);
+	}
+
+	public void debug(final String template, final Object argument) {
+		log(LogLevel.DEBUG, template, argument);
+	}
+
+	public void debug(final String template, final Object first,
+			final Object second) {
+		log(LogLevel.DEBUG, template, first, second);
+	}
+
+	public void trace(final String template, final Object argument) {
+		log(LogLevel.TRACE, template, argument);
+	}
+
+	public void trace(final String template, final Object first,
+			final Object second) {
+		log(LogLevel.TRACE, template, first, second);
+	}
+
+	@Override
+	public String toString() {
+		return "Logger [" + name + ", " + getEffectiveLevel() + "]";
+	}
+}
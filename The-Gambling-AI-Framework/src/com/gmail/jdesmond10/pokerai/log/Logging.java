@@ -0,0 +1,75 @@
+package com.gmail.jdesmond10.pokerai.log;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The logging configuration shared by the whole program: the loggers by
+ * name, the root level they follow by default, and the sink every record is
+ * written to.
+ */
+public final class Logging {
+
+	private static final ConcurrentMap<String, Logger> LOGGERS = new ConcurrentHashMap<String, Logger>();
+	private static volatile LogLevel rootLevel = LogLevel.INFO;
+	private static volatile LogSink sink = new ConsoleSink();
+
+	private Logging() {
+	}
+
+	/**
+	 * @return The logger of the given name, created if need be.
+	 */
+	public static Logger getLogger(final String name) {
+		Logger logger = LOGGERS.get(name);
+		if (logger == null) {
+			final Logger created = new Logger(name);
+			logger = LOGGERS.putIfAbsent(name, created);
+			if (logger == null) {
+				logger = created;
+			}
+		}
+		return logger;
+	}
+
+	/**
+	 * @return The logger named after the given class.
+	 */
+	public static Logger getLogger(final Class<?> type) {
+		return getLogger(type.getSimpleName());
+	}
+
+	/**
+	 * Forgets the logger of the given name, so that short-lived loggers (such
+	 * as those of finished tables) don't pile up.
+	 */
+	public static void removeLogger(final String name) {
+		LOGGERS.remove(name);
+	}
+
+	public static LogLevel getRootLevel() {
+		return rootLevel;
+	}
+
+	/**
+	 * Sets the level of every logger without a level of its own.
+	 */
+	public static void setRootLevel(final LogLevel level) {
+		rootLevel = level;
+	}
+
+	public static LogSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * Sends all further records to the given sink, and closes the old one.
+	 */
+	public static void setSink(final LogSink newSink) {
+		final LogSink old = sink;
+		sink = newSink;
+		if (old != newSink) {
+			old.close();
+		}
+	}
+}
@@ -11,6 +11,9 @@ import com.gmail.jdesmond10.pokerai.agent.TheRock;
 import com.gmail.jdesmond10.pokerai.game.Client;
 import com.gmail.jdesmond10.pokerai.game.Server;
 import com.gmail.jdesmond10.pokerai.game.logic.GameState;
+import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.log.LogLevel;
+import com.gmail.jdesmond10.pokerai.log.Logging;
 
 /**
  * This is the intended Main class for when our project is finished. Main will
@@ -23,7 +26,8 @@ public class Main {
 
 	/**
 	 * Set Should_Print to false if you want to disable System.out.println()
-	 * commands.
+	 * commands. If it's true when main() starts, every logger is also set to
+	 * trace (see {@link Logging}).
 	 */
 	protected static boolean SHOULD_PRINT = false;
 
@@ -32,9 +36,13 @@ public class Main {
 	/** True if Server should pause between loops */
 	protected static boolean SHOULD_PAUSE = true;
 
-	// SUGGESTION Instead of public final variables in Main, write a public
-	// static getter in Server, so that way the creation of a new server can
-	// change the big and small blind values.
+	// The blinds and starting chips below are only the defaults
+	// (TableRules.DEFAULT); every game carries its own TableRules.
+	/**
+	 * Players of a {@link com.gmail.jdesmond10.pokerai.game.Server} game.
+	 * Bigger tables are played by a
+	 * {@link com.gmail.jdesmond10.pokerai.game.TableEngine}.
+	 */
 	public static final int MAX_PLAYERS = 2;
 
 	public static final int BIG_BLIND = 2;
@@ -44,11 +52,17 @@ public class Main {
 	public static final int STARTING_CHIPS = 100;
 
 	/**
-	 * Time in Milliseconds that Server will pause between each action. Change
-	 * this number to slow/speed up execution of a hand. XXX
+	 * Time in Milliseconds that a real time Server will pause after each hand.
+	 * Change this number to slow/speed up execution of a game.
 	 **/
 	public static final int PAUSE_TIME = 100;
 
+	/**
+	 * Time in Milliseconds that a real time Server will pause between each
+	 * action of a hand.
+	 **/
+	public static final int ACTION_PAUSE_TIME = 30;
+
 	private static Semaphore serverCompletedSemaphore;
 
 	/**
@@ -70,6 +84,9 @@ public class Main {
 	 * @param args
 	 */
 	public static void main(final String[] args) {
+		if (SHOULD_PRINT) {
+			Logging.setRootLevel(LogLevel.TRACE);
+		}
 		/*
 		 * If you want to run a server where one of the players is SwingGUI, set
 		 * the boolean in the constructor of SwingGUI to true, then in the
@@ -235,12 +252,29 @@ public class Main {
 	 *            the current {@link GameState}
 	 */
 	public static void updateState(final GameState state) {
+		final SwingGUI gui = SwingGUI.getInstance();
+		if (gui != null) {
+			gui.updateState(state);
+		}
+	}
 
-		SwingGUI.getInstance().updateState(state);
+	/**
+	 * Updates the GUI's current state of the game.
+	 * 
+	 * @param state
+	 *            the current {@link GameStateData}
+	 */
+	public static void updateState(final GameStateData state) {
+		final SwingGUI gui = SwingGUI.getInstance();
+		if (gui != null) {
+			gui.updateState(state);
+		}
 	}
 
 	public static void gameOver() {
-		serverCompletedSemaphore.release();
+		if (serverCompletedSemaphore != null) {
+			serverCompletedSemaphore.release();
+		}
 	}
 
 	/**
@@ -253,12 +287,18 @@ public class Main {
 	}
 
 	/**
-	 * Prints a message in the GUI's console.
+	 * Prints a message in the GUI's console. If there is no GUI (e.g. when
+	 * running headless simulations) the message goes to System.out instead.
 	 * 
 	 * @param string
 	 *            message to printed in the GUI's console.
 	 */
 	public static void consolePrint(final String message) {
-		SwingGUI.getInstance().printToConsole(message);
+		final SwingGUI gui = SwingGUI.getInstance();
+		if (gui != null) {
+			gui.printToConsole(message);
+		} else {
+			System.out.println(message);
+		}
 	}
 }
@@ -1,15 +1,87 @@
 package com.gmail.jdesmond10.pokerai.main;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import com.gmail.jdesmond10.pokerai.agent.AgentFactory;
+import com.gmail.jdesmond10.pokerai.agent.BetSizer;
+import com.gmail.jdesmond10.pokerai.agent.EquilibriumAgent;
+import com.gmail.jdesmond10.pokerai.agent.OpponentProfiles;
+import com.gmail.jdesmond10.pokerai.agent.ProjectPokerPlayer;
+import com.gmail.jdesmond10.pokerai.agent.RangeInference;
+import com.gmail.jdesmond10.pokerai.agent.RunningStat;
+import com.gmail.jdesmond10.pokerai.agent.SearchAgent;
 import com.gmail.jdesmond10.pokerai.agent.TestClient;
+import com.gmail.jdesmond10.pokerai.agent.TheFish;
+import com.gmail.jdesmond10.pokerai.agent.TheManiac;
+import com.gmail.jdesmond10.pokerai.agent.TheRock;
+import com.gmail.jdesmond10.pokerai.agent.TranspositionTable;
+import com.gmail.jdesmond10.pokerai.analytics.Column;
+import com.gmail.jdesmond10.pokerai.analytics.ColumnStore;
+import com.gmail.jdesmond10.pokerai.analytics.ColumnarExporter;
 import com.gmail.jdesmond10.pokerai.game.Client;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.GameEventListener;
+import com.gmail.jdesmond10.pokerai.game.GameEventRing;
+import com.gmail.jdesmond10.pokerai.game.MatchEngine;
+import com.gmail.jdesmond10.pokerai.game.MatchResult;
+import com.gmail.jdesmond10.pokerai.game.MatchSummary;
+import com.gmail.jdesmond10.pokerai.game.PacingScheduler;
 import com.gmail.jdesmond10.pokerai.game.Server;
+import com.gmail.jdesmond10.pokerai.game.TableEngine;
+import com.gmail.jdesmond10.pokerai.game.TableHost;
+import com.gmail.jdesmond10.pokerai.game.TablePacing;
+import com.gmail.jdesmond10.pokerai.game.TablePlayer;
+import com.gmail.jdesmond10.pokerai.game.TableResult;
+import com.gmail.jdesmond10.pokerai.game.TimeoutAction;
+import com.gmail.jdesmond10.pokerai.game.logic.BetAbstraction;
 import com.gmail.jdesmond10.pokerai.game.logic.BettingAction;
 import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.DeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.Equity;
 import com.gmail.jdesmond10.pokerai.game.logic.GameState;
 import com.gmail.jdesmond10.pokerai.game.logic.GameStateData;
+import com.gmail.jdesmond10.pokerai.game.logic.IllegalActionException;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+import com.gmail.jdesmond10.pokerai.game.logic.Range;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.game.logic.TableState;
+import com.gmail.jdesmond10.pokerai.game.logic.ValidationMode;
+import com.gmail.jdesmond10.pokerai.history.HandHistoryReader;
+import com.gmail.jdesmond10.pokerai.history.HandHistoryWriter;
+import com.gmail.jdesmond10.pokerai.history.HandRecord;
+import com.gmail.jdesmond10.pokerai.history.ReplayEngine;
+import com.gmail.jdesmond10.pokerai.history.ReplayResult;
+import com.gmail.jdesmond10.pokerai.history.TableInfo;
+import com.gmail.jdesmond10.pokerai.history.TableRecorder;
+import com.gmail.jdesmond10.pokerai.log.AsyncFileSink;
+import com.gmail.jdesmond10.pokerai.log.LogLevel;
+import com.gmail.jdesmond10.pokerai.log.LogRecord;
+import com.gmail.jdesmond10.pokerai.log.LogSink;
+import com.gmail.jdesmond10.pokerai.log.Logger;
+import com.gmail.jdesmond10.pokerai.log.Logging;
+import com.gmail.jdesmond10.pokerai.solver.CfrSolver;
+import com.gmail.jdesmond10.pokerai.solver.CfrStrategy;
+import com.gmail.jdesmond10.pokerai.solver.GameTree;
+import com.gmail.jdesmond10.pokerai.tournament.DuplicateEvaluator;
+import com.gmail.jdesmond10.pokerai.tournament.DuplicateResult;
+import com.gmail.jdesmond10.pokerai.tournament.Rating;
+import com.gmail.jdesmond10.pokerai.tournament.SequentialEvaluator;
+import com.gmail.jdesmond10.pokerai.tournament.SequentialResult;
+import com.gmail.jdesmond10.pokerai.tournament.SequentialTest;
+import com.gmail.jdesmond10.pokerai.tournament.Tournament;
+import com.gmail.jdesmond10.pokerai.tournament.TournamentResult;
 
 public class ProjectTesting {
 
@@ -67,6 +139,151 @@ public class ProjectTesting {
 		} else {
 			Main.consolePrint("gameStateTest Passed");
 		}
+		if (!matchEngineTest()) {
+			Main.fail("Test Failure: matchEngineTest");
+		} else {
+			Main.consolePrint("matchEngineTest Passed");
+		}
+		if (!seededDeckTest()) {
+			Main.fail("Test Failure: seededDeckTest");
+		} else {
+			Main.consolePrint("seededDeckTest Passed");
+		}
+		if (!packedGameStateTest()) {
+			Main.fail("Test Failure: packedGameStateTest");
+		} else {
+			Main.consolePrint("packedGameStateTest Passed");
+		}
+		if (!validationModeTest()) {
+			Main.fail("Test Failure: validationModeTest");
+		} else {
+			Main.consolePrint("validationModeTest Passed");
+		}
+		if (!runningStatTest()) {
+			Main.fail("Test Failure: runningStatTest");
+		} else {
+			Main.consolePrint("runningStatTest Passed");
+		}
+		if (!equityTest()) {
+			Main.fail("Test Failure: equityTest");
+		} else {
+			Main.consolePrint("equityTest Passed");
+		}
+		if (!betSizerTest()) {
+			Main.fail("Test Failure: betSizerTest");
+		} else {
+			Main.consolePrint("betSizerTest Passed");
+		}
+		if (!cfrSolverTest()) {
+			Main.fail("Test Failure: cfrSolverTest");
+		} else {
+			Main.consolePrint("cfrSolverTest Passed");
+		}
+		if (!gameEventRingTest()) {
+			Main.fail("Test Failure: gameEventRingTest");
+		} else {
+			Main.consolePrint("gameEventRingTest Passed");
+		}
+		if (!handHistoryTest()) {
+			Main.fail("Test Failure: handHistoryTest");
+		} else {
+			Main.consolePrint("handHistoryTest Passed");
+		}
+		if (!oversizeRecordTest()) {
+			Main.fail("Test Failure: oversizeRecordTest");
+		} else {
+			Main.consolePrint("oversizeRecordTest Passed");
+		}
+		if (!replayTest()) {
+			Main.fail("Test Failure: replayTest");
+		} else {
+			Main.consolePrint("replayTest Passed");
+		}
+		if (!columnarExportTest()) {
+			Main.fail("Test Failure: columnarExportTest");
+		} else {
+			Main.consolePrint("columnarExportTest Passed");
+		}
+		if (!rangeInferenceTest()) {
+			Main.fail("Test Failure: rangeInferenceTest");
+		} else {
+			Main.consolePrint("rangeInferenceTest Passed");
+		}
+		if (!opponentProfilesTest()) {
+			Main.fail("Test Failure: opponentProfilesTest");
+		} else {
+			Main.consolePrint("opponentProfilesTest Passed");
+		}
+		if (!searchAgentTest()) {
+			Main.fail("Test Failure: searchAgentTest");
+		} else {
+			Main.consolePrint("searchAgentTest Passed");
+		}
+		if (!sidePotTest()) {
+			Main.fail("Test Failure: sidePotTest");
+		} else {
+			Main.consolePrint("sidePotTest Passed");
+		}
+		if (!tableEngineTest()) {
+			Main.fail("Test Failure: tableEngineTest");
+		} else {
+			Main.consolePrint("tableEngineTest Passed");
+		}
+		if (!tableRulesTest()) {
+			Main.fail("Test Failure: tableRulesTest");
+		} else {
+			Main.consolePrint("tableRulesTest Passed");
+		}
+		if (!shortStackBlindTest()) {
+			Main.fail("Test Failure: shortStackBlindTest");
+		} else {
+			Main.consolePrint("shortStackBlindTest Passed");
+		}
+		if (!tournamentTest()) {
+			Main.fail("Test Failure: tournamentTest");
+		} else {
+			Main.consolePrint("tournamentTest Passed");
+		}
+		if (!sequentialTest()) {
+			Main.fail("Test Failure: sequentialTest");
+		} else {
+			Main.consolePrint("sequentialTest Passed");
+		}
+		if (!duplicateTest()) {
+			Main.fail("Test Failure: duplicateTest");
+		} else {
+			Main.consolePrint("duplicateTest Passed");
+		}
+		if (!timeLimitTest()) {
+			Main.fail("Test Failure: timeLimitTest");
+		} else {
+			Main.consolePrint("timeLimitTest Passed");
+		}
+		if (!logTest()) {
+			Main.fail("Test Failure: logTest");
+		} else {
+			Main.consolePrint("logTest Passed");
+		}
+		if (!informSequenceTest()) {
+			Main.fail("Test Failure: informSequenceTest");
+		} else {
+			Main.consolePrint("informSequenceTest Passed");
+		}
+		if (!pacingTest()) {
+			Main.fail("Test Failure: pacingTest");
+		} else {
+			Main.consolePrint("pacingTest Passed");
+		}
+		if (!tableHostTest()) {
+			Main.fail("Test Failure: tableHostTest");
+		} else {
+			Main.consolePrint("tableHostTest Passed");
+		}
+		if (!tableHostResumeTest()) {
+			Main.fail("Test Failure: tableHostResumeTest");
+		} else {
+			Main.consolePrint("tableHostResumeTest Passed");
+		}
 
 		// We will run serverTest 20 times to ensure it's definitely definitely
 		// working (as random is involved in the server testing, so with enough
@@ -177,6 +394,1632 @@ public class ProjectTesting {
 		return true;
 	}
 
+	/**
+	 * Plays the same seeded match twice, which should give the same result
+	 * every time, and a batch of matches on one thread and on three, which
+	 * should give the same summary.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean matchEngineTest() {
+		final MatchEngine engine = new MatchEngine();
+		for (long seed = 0; seed < 10; seed++) {
+			final MatchResult first = engine.play(
+					new TheFish().initializeAgent(true),
+					new TheRock().initializeAgent(false), seed);
+			final MatchResult second = engine.play(
+					new TheFish().initializeAgent(true),
+					new TheRock().initializeAgent(false), seed);
+			if (first.winner != second.winner
+					|| first.handCount != second.handCount
+					|| first.actionCount != second.actionCount
+					|| first.playerOneStack != second.playerOneStack
+					|| first.seed != seed || second.seed != seed) {
+				System.out.println("FAILURE: seed " + seed + " gave " + first
+						+ " and " + second);
+				return false;
+			}
+		}
+
+		final MatchSummary single = MatchEngine.playMatches(new AgentFactory(
+				TheFish.class), new AgentFactory(TheManiac.class), 40, 1, 7);
+		final MatchSummary pooled = MatchEngine.playMatches(new AgentFactory(
+				TheFish.class), new AgentFactory(TheManiac.class), 40, 3, 7);
+		if (single.getPlayerOneWins() != pooled.getPlayerOneWins()
+				|| single.getHandCount() != pooled.getHandCount()
+				|| single.getActionCount() != pooled.getActionCount()) {
+			System.out.println("FAILURE: " + single + " on one thread, "
+					+ pooled + " on three");
+			return false;
+		}
+		return single.getMatchCount() == 40;
+	}
+
+	/**
+	 * Checks that two decks of the same seed deal the same cards, that match
+	 * seeds depend only on the master seed and the index, and that decks
+	 * dealing on several threads at once deal what each would alone.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean seededDeckTest() {
+		final int cards = 10000;
+		final SeededDeckSource a = new SeededDeckSource(42);
+		final SeededDeckSource b = new SeededDeckSource(42);
+		boolean differs = false;
+		final SeededDeckSource other = new SeededDeckSource(43);
+		for (int i = 0; i < cards; i++) {
+			final int rank = a.nextCard().rank();
+			if (rank != b.nextCard().rank())
+				return false;
+			differs |= rank != other.nextCard().rank();
+		}
+		if (!differs || SeededDeckSource.matchSeed(5, 3) != SeededDeckSource
+				.matchSeed(5, 3)
+				|| SeededDeckSource.matchSeed(5, 3) == SeededDeckSource
+						.matchSeed(5, 4)) {
+			System.out.println("FAILURE: Seeds don't reproduce their decks");
+			return false;
+		}
+
+		// Deal from one deck per thread, all at once.
+		final int threads = 4;
+		final int[][] dealt = new int[threads][cards];
+		final Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int index = t;
+			workers[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					final SeededDeckSource deck = new SeededDeckSource(
+							SeededDeckSource.matchSeed(42, index));
+					for (int i = 0; i < cards; i++) {
+						dealt[index][i] = deck.nextCard().rank();
+					}
+				}
+			});
+			workers[t].start();
+		}
+		try {
+			for (final Thread worker : workers) {
+				worker.join();
+			}
+		} catch (final InterruptedException e) {
+			Main.fail("Interruption while dealing during tests");
+		}
+		for (int t = 0; t < threads; t++) {
+			final SeededDeckSource alone = new SeededDeckSource(
+					SeededDeckSource.matchSeed(42, t));
+			for (int i = 0; i < cards; i++) {
+				if (dealt[t][i] != alone.nextCard().rank()) {
+					System.out.println("FAILURE: Deck " + t
+							+ " dealt differently on its own thread");
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Plays random legal actions on a GameState and on a packed state side by
+	 * side, and checks that the two never disagree.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean packedGameStateTest() {
+		final Random random = new Random(42);
+		GameState g = new GameState(2);
+		long packed = g.getGameStateData().toPacked();
+
+		for (int step = 0; step < 5000; step++) {
+			final GameStateData data = g.getGameStateData();
+			if (GameStateData.fromPacked(packed).toPacked() != packed) {
+				System.out.println("FAILURE to round trip a packed state");
+				return false;
+			}
+			if (PackedGameState.getCallAmount(packed) != data.getCallAmount()
+					|| PackedGameState.getMaxBetAmount(packed) != data
+							.getMaxBetAmount()) {
+				System.out.println("FAILURE of packed call/max bet amounts");
+				return false;
+			}
+
+			// Pick a fold, a call, or a random bet up to the max.
+			final int choice = random.nextInt(4);
+			final int call = data.getCallAmount();
+			final int amount;
+			if (choice == 0) {
+				amount = PackedGameState.FOLD;
+			} else if (choice == 1) {
+				amount = call;
+			} else {
+				amount = call + random.nextInt(data.getMaxBetAmount() - call + 1);
+			}
+			final BettingAction action;
+			if (amount == PackedGameState.FOLD) {
+				action = BettingAction.FOLD;
+			} else {
+				action = new BettingAction(amount);
+			}
+			if (data.isLegalAction(action) != PackedGameState.isLegalAction(
+					packed, amount)) {
+				System.out.println("FAILURE of packed isLegalAction");
+				return false;
+			}
+
+			boolean handOver = g.applyAction(action);
+			packed = PackedGameState.applyAction(packed, amount);
+
+			while (handOver) {
+				if (g.getGameStateData().toPacked() != packed) {
+					System.out.println("FAILURE of packed applyAction");
+					return false;
+				}
+				g.endHand();
+				packed = PackedGameState.endHand(packed);
+				if (g.getGameStateData().toPacked() != packed
+						|| g.isTerminalState() != PackedGameState
+								.isTerminalState(packed)) {
+					System.out.println("FAILURE of packed endHand");
+					return false;
+				}
+				if (g.isTerminalState()) {
+					g = new GameState(2);
+					packed = g.getGameStateData().toPacked();
+					break;
+				}
+
+				handOver = g.dealNextHand();
+				packed = PackedGameState.dealNextHand(packed,
+						g.getGameStateData().playerOneCard,
+						g.getGameStateData().playerTwoCard);
+				if (handOver != PackedGameState.isAllInOnBlinds(packed)) {
+					System.out.println("FAILURE of packed dealNextHand");
+					return false;
+				}
+			}
+
+			if (g.getGameStateData().toPacked() != packed) {
+				System.out.println("FAILURE of packed state transition");
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks a RunningStat with a prior against the mean and variance of the
+	 * same values computed the long way.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean runningStatTest() {
+		final Random random = new Random(7);
+		final double[] values = new double[1000];
+		final RunningStat stat = new RunningStat(8, 10, 1);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 2 + random.nextInt(13);
+			stat.add(values[i]);
+		}
+
+		// The prior counts as ten observations of 8.
+		double sum = 10 * 8;
+		for (final double value : values) {
+			sum += value;
+		}
+		final double mean = sum / (values.length + 10);
+		double squares = 10 * (8 - mean) * (8 - mean);
+		for (final double value : values) {
+			squares += (value - mean) * (value - mean);
+		}
+		final double variance = squares / (values.length + 10);
+
+		// A decaying stat should follow a change of level.
+		final RunningStat decaying = new RunningStat(0, 0, 0.9);
+		for (int i = 0; i < 100; i++) {
+			decaying.add(i < 50 ? 0 : 10);
+		}
+
+		// A capped copy keeps the mean and variance but is outweighed by a
+		// hundred new observations.
+		final RunningStat capped = stat.capWeight(100);
+		final RunningStat warm = new RunningStat(2, 10, 1);
+		warm.merge(capped);
+		for (int i = 0; i < 100; i++) {
+			warm.add(14);
+		}
+		if (capped.getWeight() != 100
+				|| Math.abs(capped.getMean() - mean) > 1e-9
+				|| Math.abs(capped.getVariance() - variance) > 1e-9
+				|| stat.capWeight(5000).getWeight() != stat.getWeight()
+				|| warm.getMean() < 10)
+			return false;
+
+		return stat.getCount() == values.length
+				&& Math.abs(stat.getMean() - mean) < 1e-9
+				&& Math.abs(stat.getVariance() - variance) < 1e-9
+				&& decaying.getMean() > 9.9;
+	}
+
+	/**
+	 * Checks exact equities against a few ranges worked out by hand.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean equityTest() {
+		final Range uniform = new Range();
+		for (int rank = 0; rank < Card.NUM_RANKS; rank++) {
+			// Against an endless deck, r ranks lose to us and one ties.
+			final double expected = (rank + 0.5) / Card.NUM_RANKS;
+			if (Math.abs(Equity.DEFAULT.getEquity(rank, uniform) - expected) > 1e-12) {
+				return false;
+			}
+		}
+
+		// From a single deck, an Ace leaves 3 Aces of the other 51 cards.
+		final Equity oneDeck = new Equity(1);
+		final int ace = Card.Ace.rank();
+		final double tie = oneDeck.getTieProbability(ace, uniform);
+		final double win = oneDeck.getWinProbability(ace, uniform);
+		if (Math.abs(tie - 3.0 / 51) > 1e-12 || Math.abs(win - 48.0 / 51) > 1e-12)
+			return false;
+
+		// Against only Kings and Aces, a Queen never wins.
+		final Range strong = new Range();
+		for (int rank = 0; rank < Card.King.rank(); rank++) {
+			strong.setWeight(rank, 0);
+		}
+		return Equity.DEFAULT.getEquity(Card.Queen, strong) == 0
+				&& Equity.DEFAULT.getEquity(Card.Ace, strong) == 0.75
+				&& Equity.DEFAULT.getLoseProbability(Card.King.rank(),
+						strong) == 0.5;
+	}
+
+	/**
+	 * Checks that a BetSizer finds the peak of a value between its coarse
+	 * sizes, without evaluating every amount, and that ProjectPokerPlayer
+	 * counts the raises of each hand it hands to its sizer.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean betSizerTest() {
+		// 100 chips each, the blinds posted.
+		final long state = new GameState(2, new SeededDeckSource(1))
+				.getGameStateData().toPacked();
+		final BetSizer sizer = new BetSizer();
+		final int peak = 37;
+		final int best = sizer.choose(state, 0, new BetSizer.Evaluator() {
+			@Override
+			public double evaluate(final int amount) {
+				if (amount == PackedGameState.FOLD)
+					return -1e9;
+				return -(amount - peak) * (amount - peak);
+			}
+		});
+		if (best != peak || sizer.getEvaluationCount() > 25) {
+			System.out.println("FAILURE: found " + best + " in "
+					+ sizer.getEvaluationCount() + " evaluations");
+			return false;
+		}
+
+		// Without refinement, only a coarse size is chosen.
+		final int coarse = new BetSizer(BetAbstraction.DEFAULT, new int[0],
+				false).choose(state, 0, new BetSizer.Evaluator() {
+			@Override
+			public double evaluate(final int amount) {
+				return amount == PackedGameState.FOLD ? 0 : -amount;
+			}
+		});
+		if (coarse != PackedGameState.FOLD)
+			return false;
+
+		// ProjectPokerPlayer should pass its sizer the raises of the hand:
+		// a raise, a reraise and a call, then none in the next hand.
+		final ProjectPokerPlayer player = (ProjectPokerPlayer) new ProjectPokerPlayer()
+				.initializeAgent(true);
+		final GameState game = new GameState(2, new SeededDeckSource(1));
+		final int[] raises = new int[5];
+		player.inform(game.generateLimitedGameState(0));
+		raises[0] = player.getRaisesThisHand();
+		for (int i = 1; i <= 2; i++) {
+			game.applyAction(new BettingAction(game.getGameStateData()
+					.getCallAmount() + 10));
+			player.inform(game.generateLimitedGameState(0));
+			raises[i] = player.getRaisesThisHand();
+		}
+		game.applyAction(new BettingAction(game.getGameStateData()
+				.getCallAmount()));
+		game.endHand();
+		player.inform(game.generateLimitedGameState(0));
+		raises[3] = player.getRaisesThisHand();
+		game.dealNextHand();
+		player.inform(game.generateLimitedGameState(0));
+		raises[4] = player.getRaisesThisHand();
+		return raises[0] == 0 && raises[1] == 1 && raises[2] == 2
+				&& raises[3] == 2 && raises[4] == 0;
+	}
+
+	/**
+	 * Solves the shallow stack depths and checks that the strategy found is
+	 * close to unexploitable.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean cfrSolverTest() {
+		final CfrStrategy strategy = new CfrSolver(BetAbstraction.DEFAULT,
+				2000, 0.001).solve(10, 1);
+		for (int stack = 1; stack <= 10; stack++) {
+			if (strategy.getExploitability(stack) > 0.01) {
+				System.out.println("FAILURE to solve stack depth " + stack
+						+ ", exploitability "
+						+ strategy.getExploitability(stack));
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that strict mode rejects an illegal action with an exception, and
+	 * that trusted mode lets legal play through unchanged.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean validationModeTest() {
+		final GameState strict = new GameState(2, new SeededDeckSource(3));
+		try {
+			strict.applyAction(new BettingAction(500));
+			System.out.println("FAILURE: a bet of 500 was applied");
+			return false;
+		} catch (final IllegalActionException e) {
+			// Expected
+		}
+
+		// A trusted game leaves the checks of every other game alone.
+		final GameState trusted = new GameState(2, new SeededDeckSource(3),
+				TableRules.DEFAULT, ValidationMode.TRUSTED);
+		try {
+			new GameState(2, new SeededDeckSource(3))
+					.applyAction(new BettingAction(500));
+			return false;
+		} catch (final IllegalActionException e) {
+			// Expected
+		}
+
+		strict.applyAction(new BettingAction(5));
+		trusted.applyAction(new BettingAction(5));
+		return trusted.getGameStateData().getValidationMode() == ValidationMode.TRUSTED
+				&& trusted.getGameStateData().toPacked() == strict
+						.getGameStateData().toPacked();
+	}
+
+	/**
+	 * Checks that a reader of a GameEventRing sees events in order, in
+	 * batches, and is told how many it missed after falling behind.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean gameEventRingTest() {
+		final GameEventRing ring = new GameEventRing(8);
+		final GameEventRing.Cursor cursor = ring.newCursor();
+		final long[] seen = new long[3]; // last event, events, skipped
+		final GameEventListener listener = new GameEventListener() {
+			@Override
+			public void onEvent(final long packedState, final long sequence,
+					final boolean endOfBatch) {
+				if (packedState != sequence * 7
+						|| (seen[1] > 0 && sequence != seen[0] + 1))
+					throw new IllegalStateException("Event out of order");
+				seen[0] = sequence;
+				seen[1]++;
+			}
+
+			@Override
+			public void onSkipped(final long count) {
+				seen[2] += count;
+			}
+		};
+
+		for (long i = 0; i < 5; i++) {
+			ring.publish(i * 7);
+		}
+		if (ring.poll(cursor, listener, 3) != 3 || seen[0] != 2)
+			return false;
+
+		// Fall 12 events behind a ring of 8, which keeps the newest 7 safe.
+		for (long i = 5; i < 15; i++) {
+			ring.publish(i * 7);
+		}
+		seen[1] = 0;
+		if (ring.poll(cursor, listener, 100) != 7 || seen[2] != 5
+				|| seen[0] != 14)
+			return false;
+
+		// Fall exactly 8 behind: the oldest slot is the next one written.
+		for (long i = 15; i < 23; i++) {
+			ring.publish(i * 7);
+		}
+		seen[1] = 0;
+		if (ring.poll(cursor, listener, 100) != 7 || seen[2] != 6
+				|| seen[0] != 22 || seen[1] != 7)
+			return false;
+
+		ring.close();
+		return ring.isExhausted(cursor);
+	}
+
+	/**
+	 * Records a few matches to a hand history with small segments, and checks
+	 * that reading it back gives every hand, with stacks that add up.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean handHistoryTest() {
+		File directory = null;
+		try {
+			directory = Files.createTempDirectory("history").toFile();
+			final HandHistoryWriter writer = new HandHistoryWriter(directory,
+					16 * 1024);
+			final MatchEngine engine = new MatchEngine(
+					MatchEngine.DEFAULT_MAX_HANDS, writer);
+			int hands = 0;
+			for (int i = 0; i < 20; i++) {
+				hands += engine.play(new TheFish().initializeAgent(true),
+						new TheRock().initializeAgent(false), i).handCount;
+			}
+			writer.close();
+
+			final HandHistoryReader reader = new HandHistoryReader(directory);
+			int read = 0;
+			HandRecord previous = null;
+			for (HandRecord hand; (hand = reader.next()) != null; read++) {
+				final boolean sameTable = previous != null
+						&& previous.table == hand.table;
+				if (sameTable
+						&& previous.playerOneStartStack
+								+ previous.playerOneWinnings != hand.playerOneStartStack) {
+					System.out.println("FAILURE: stacks don't add up at "
+							+ hand);
+					return false;
+				}
+				previous = hand;
+			}
+			reader.close();
+			return read == hands
+					&& HandHistoryReader.listSegments(directory).length > 1;
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			if (directory != null) {
+				for (final File file : directory.listFiles()) {
+					file.delete();
+				}
+				directory.delete();
+			}
+		}
+	}
+
+	/**
+	 * Records a table whose table record is larger than a whole segment, then
+	 * some ordinary matches after it. The large record should get a segment
+	 * of its own, and everything should read back.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean oversizeRecordTest() {
+		File directory = null;
+		try {
+			directory = Files.createTempDirectory("history").toFile();
+			final int segmentSize = 16 * 1024;
+			final HandHistoryWriter writer = new HandHistoryWriter(directory,
+					segmentSize);
+			final StringBuilder name = new StringBuilder();
+			while (name.length() <= segmentSize) {
+				name.append("Oversize");
+			}
+			final TableRecorder recorder = new TableRecorder(writer, 0,
+					name.toString(), "Other");
+			recorder.close();
+
+			final MatchEngine engine = new MatchEngine(
+					MatchEngine.DEFAULT_MAX_HANDS, writer);
+			int hands = 0;
+			for (int i = 0; i < 5; i++) {
+				hands += engine.play(new TheFish().initializeAgent(true),
+						new TheRock().initializeAgent(false), i).handCount;
+			}
+			writer.close();
+
+			final HandHistoryReader reader = new HandHistoryReader(directory);
+			int read = 0;
+			while (reader.next() != null) {
+				read++;
+			}
+			final TableInfo table = reader.getTable(recorder.getTableId());
+			reader.close();
+			if (table == null
+					|| !table.getPlayerName(0).equals(name.toString())) {
+				System.out.println("FAILURE: The oversize table was lost");
+				return false;
+			}
+			return read == hands;
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			if (directory != null) {
+				for (final File file : directory.listFiles()) {
+					file.delete();
+				}
+				directory.delete();
+			}
+		}
+	}
+
+	/**
+	 * Records matches between two Rocks, then replays a Rock in both seats.
+	 * Since the Rock is deterministic, it should agree with every recorded
+	 * decision.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean replayTest() {
+		File directory = null;
+		try {
+			directory = Files.createTempDirectory("replay").toFile();
+			final HandHistoryWriter writer = new HandHistoryWriter(directory,
+					16 * 1024);
+			final MatchEngine engine = new MatchEngine(
+					MatchEngine.DEFAULT_MAX_HANDS, writer);
+			int hands = 0;
+			for (int i = 0; i < 20; i++) {
+				hands += engine.play(new TheRock().initializeAgent(true),
+						new TheRock().initializeAgent(false), i).handCount;
+			}
+			writer.close();
+
+			final ReplayResult result = new ReplayEngine(new AgentFactory(
+					TheRock.class), null).replay(directory, 2);
+			return result.getHandCount() == 2 * hands
+					&& result.getDecisionCount() > 0
+					&& result.getExactAgreementRate() == 1
+					&& result.getMeanEvDifference() == 0;
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			if (directory != null) {
+				for (final File file : directory.listFiles()) {
+					file.delete();
+				}
+				directory.delete();
+			}
+		}
+	}
+
+	/**
+	 * Exports the history of a few matches to columns, and checks that
+	 * queries over the columns agree with the hands they came from.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean columnarExportTest() {
+		File history = null;
+		File export = null;
+		try {
+			history = Files.createTempDirectory("history").toFile();
+			export = Files.createTempDirectory("export").toFile();
+			final HandHistoryWriter writer = new HandHistoryWriter(history,
+					16 * 1024);
+			final MatchEngine engine = new MatchEngine(
+					MatchEngine.DEFAULT_MAX_HANDS, writer);
+			for (int i = 0; i < 20; i++) {
+				engine.play(new TheManiac().initializeAgent(true),
+						new TheRock().initializeAgent(false), i);
+			}
+			writer.close();
+
+			long decisions = 0;
+			final HandHistoryReader reader = new HandHistoryReader(history);
+			for (HandRecord hand; (hand = reader.next()) != null;) {
+				decisions += hand.getActionCount();
+			}
+			reader.close();
+
+			final long rows = ColumnarExporter.export(history, export);
+			final ColumnStore store = new ColumnStore(export);
+			final long maniac = store.query()
+					.where(Column.PLAYER, store.getPlayerId("TheManiac"))
+					.count().getRowCount();
+			final long rock = store.query()
+					.where(Column.PLAYER, store.getPlayerId("TheRock"))
+					.count().getRowCount();
+			final long foldedAllIn = store.query()
+					.where(Column.ACTION, PackedGameState.FOLD)
+					.aggregate(Column.ALL_IN).getSum();
+			return rows == decisions && store.getRowCount() == rows
+					&& maniac + rock == rows && maniac > 0 && rock > 0
+					&& foldedAllIn == 0
+					&& store.query().where(Column.CARD, 15).count()
+							.getBlocksScanned() == 0;
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			for (final File directory : new File[] { history, export }) {
+				if (directory != null) {
+					for (final File file : directory.listFiles()) {
+						file.delete();
+					}
+					directory.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Watches TheRock from the seat of TheFish. The Rock only raises with big
+	 * cards, so after enough showdowns a raise should be far likelier from an
+	 * Ace than from a Five.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean rangeInferenceTest() {
+		final RangeInference inference = new RangeInference(true);
+		final Client fish = new TheFish().initializeAgent(true);
+		final Client watcher = new Client() {
+			@Override
+			public void inform(final GameStateData currentState) {
+				inference.update(currentState);
+				fish.inform(currentState);
+			}
+
+			@Override
+			public BettingAction prompt() {
+				return fish.prompt();
+			}
+
+			@Override
+			public String getName() {
+				return fish.getName();
+			}
+		};
+
+		final MatchEngine engine = new MatchEngine();
+		for (int i = 0; i < 200; i++) {
+			engine.play(watcher, new TheRock().initializeAgent(false), i);
+		}
+
+		final int ace = Card.Ace.rank();
+		final int five = Card.Five.rank();
+		final double aceRaises = inference.getLikelihood(
+				RangeInference.SMALL_RAISE, ace)
+				+ inference.getLikelihood(RangeInference.BIG_RAISE, ace);
+		final double fiveRaises = inference.getLikelihood(
+				RangeInference.SMALL_RAISE, five)
+				+ inference.getLikelihood(RangeInference.BIG_RAISE, five);
+		return inference.getShowdownCount() > 0 && aceRaises > 2 * fiveRaises;
+	}
+
+	/**
+	 * Plays ProjectPokerPlayers sharing a profile store against TheManiac, and
+	 * checks that what they learned is still there once the store is
+	 * reopened.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean opponentProfilesTest() {
+		File file = null;
+		try {
+			file = File.createTempFile("profiles", ".opp");
+			file.delete();
+			OpponentProfiles profiles = new OpponentProfiles(file, 16);
+			MatchEngine.playMatches(ProjectPokerPlayer.factory(profiles),
+					new AgentFactory(TheManiac.class), 50, 2, 1);
+			final double mean = profiles.get("TheManiac",
+					OpponentProfiles.Stat.TIGHTNESS).getMean();
+			final long count = profiles.get("TheManiac",
+					OpponentProfiles.Stat.TIGHTNESS).getCount();
+			profiles.close();
+
+			profiles = new OpponentProfiles(file, 16);
+			final RunningStat reloaded = profiles.get("TheManiac",
+					OpponentProfiles.Stat.TIGHTNESS);
+			profiles.close();
+			return count > 0 && reloaded != null
+					&& reloaded.getCount() == count
+					&& reloaded.getMean() == mean
+					&& profiles.get("TheRock",
+							OpponentProfiles.Stat.TIGHTNESS) == null;
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			if (file != null) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Checks that the transposition table gives back what was stored and
+	 * misses on any other key, that a search with a tiny budget stops short
+	 * of a depth it can't reach in time, then plays SearchAgent against
+	 * TheManiac, whom it should beat most of the time from either seat.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean searchAgentTest() {
+		final TranspositionTable table = new TranspositionTable(4);
+		final long state = PackedGameState.initialState(Card.Ace,
+				Card.Two);
+		final long key = TranspositionTable.key(state, 3, 0, 1);
+		table.put(key, 42.5);
+		if (table.get(key) != 42.5
+				|| !Double.isNaN(table.get(TranspositionTable.key(state, 3, 0,
+						2)))
+				|| !Double.isNaN(table.get(TranspositionTable.key(state, 3, 1,
+						1))))
+			return false;
+
+		final GameState game = new GameState(2, new SeededDeckSource(3));
+		final SearchAgent fixed = new SearchAgent(3, new TranspositionTable(
+				10));
+		fixed.initializeAgent(true);
+		fixed.inform(game.generateLimitedGameState(0));
+		fixed.prompt();
+		final SearchAgent hurried = new SearchAgent(40, 1,
+				new TranspositionTable(10));
+		hurried.initializeAgent(true);
+		hurried.inform(game.generateLimitedGameState(0));
+		final long start = System.nanoTime();
+		hurried.prompt();
+		if (fixed.getCompletedDepth() != 3
+				|| hurried.getCompletedDepth() < 1
+				|| hurried.getCompletedDepth() >= 40
+				|| System.nanoTime() - start > 500000000L)
+			return false;
+
+		// The raises of the hand so far are counted, and reset by a new hand.
+		final GameState hand = new GameState(2, new SeededDeckSource(1));
+		final SearchAgent counter = new SearchAgent(1, new TranspositionTable(
+				4));
+		counter.initializeAgent(true);
+		counter.inform(hand.generateLimitedGameState(0));
+		final int[] raises = new int[5];
+		raises[0] = counter.getRaisesThisHand();
+		for (int i = 1; i <= 2; i++) {
+			hand.applyAction(new BettingAction(hand.getGameStateData()
+					.getCallAmount() + 10));
+			counter.inform(hand.generateLimitedGameState(0));
+			raises[i] = counter.getRaisesThisHand();
+		}
+		hand.applyAction(new BettingAction(hand.getGameStateData()
+				.getCallAmount()));
+		hand.endHand();
+		counter.inform(hand.generateLimitedGameState(0));
+		raises[3] = counter.getRaisesThisHand();
+		hand.dealNextHand();
+		counter.inform(hand.generateLimitedGameState(0));
+		raises[4] = counter.getRaisesThisHand();
+		if (raises[0] != 0 || raises[1] != 1 || raises[2] != 2
+				|| raises[3] != 2 || raises[4] != 0)
+			return false;
+
+		final MatchSummary first = MatchEngine.playMatches(new AgentFactory(
+				SearchAgent.class), new AgentFactory(TheManiac.class), 50, 2, 1);
+		final MatchSummary second = MatchEngine.playMatches(new AgentFactory(
+				TheManiac.class), new AgentFactory(SearchAgent.class), 50, 2, 2);
+		return first.getPlayerOneWins() > 30 && second.getPlayerTwoWins() > 30;
+	}
+
+	/**
+	 * Plays a three-handed hand where two short stacks are all in: the Ace
+	 * should win only the main pot, the King the side pot. Then checks that a
+	 * three-way tie gives the odd chip to the first seat left of the button.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean sidePotTest() {
+		final Card[] dealt = { Card.Ace, Card.King, Card.Two };
+		final DeckSource deck = new DeckSource() {
+			private int next;
+
+			@Override
+			public Card nextCard() {
+				return dealt[next++ % dealt.length];
+			}
+		};
+
+		// Seat 0 has the button, 1 the small blind and 2 the big blind.
+		TableState table = new TableState(new int[] { 10, 40, 100 }, deck,
+				TableRules.DEFAULT);
+		if (table.getCurrentSeat() != 0 || table.getCallAmount() != 2)
+			return false;
+		table.applyAction(10);
+		table.applyAction(39);
+		// Seat 2 can't bet more than seat 1 could match.
+		if (table.getMaxBetAmount() != 38)
+			return false;
+		if (!table.applyAction(38))
+			return false;
+		table.endHand();
+		if (table.getStack(0) != 30 || table.getStack(1) != 60
+				|| table.getStack(2) != 60)
+			return false;
+
+		// Everyone gets a Two. Seat 0 raises to 3 and the blinds call, which
+		// splits 9 chips 3 ways.
+		dealt[0] = Card.Two;
+		dealt[1] = Card.Two;
+		table = new TableState(new int[] { 50, 50, 50 }, deck,
+				TableRules.DEFAULT);
+		table.applyAction(3);
+		table.applyAction(2);
+		if (!table.applyAction(1))
+			return false;
+		table.endHand();
+		if (table.getStack(0) != 50 || table.getStack(1) != 50
+				|| table.getStack(2) != 50)
+			return false;
+
+		// Seat 1 has the button, seat 2 posts 1 and seat 0 posts 2. Seat 1
+		// raises to 4, seat 2 folds and seat 0 calls: the 9 chips split 2
+		// ways, and the odd one goes to seat 0, the first left of the button.
+		if (table.dealNextHand() || table.getButton() != 1)
+			return false;
+		table.applyAction(4);
+		if (table.applyAction(TableState.FOLD))
+			return false;
+		if (!table.applyAction(2))
+			return false;
+		table.endHand();
+		return table.getStack(0) == 51 && table.getStack(1) == 50
+				&& table.getStack(2) == 49;
+	}
+
+	/**
+	 * Plays nine-handed sit n' gos between players that bet by their card, and
+	 * checks that every match ends with a winner and that every place is one
+	 * more than the number of players placed above it (players knocked out
+	 * together with the same chips share a place).
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean tableEngineTest() {
+		final TablePlayer[] players = new TablePlayer[9];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new TablePlayer() {
+				@Override
+				public int prompt(final TableState table, final int seat) {
+					final int value = table.getCard(seat, seat).value;
+					final int call = table.getCallAmount();
+					if (value > 12)
+						return table.getMaxBetAmount();
+					if (value > 8 || call == 0)
+						return call;
+					return TableState.FOLD;
+				}
+
+				@Override
+				public void handOver(final TableState table, final int seat) {
+				}
+
+				@Override
+				public String getName() {
+					return "Threshold";
+				}
+			};
+		}
+
+		final TableEngine engine = new TableEngine();
+		for (int i = 0; i < 20; i++) {
+			final TableResult result = engine.play(players, i);
+			if (!result.isFinished())
+				return false;
+			for (int seat = 0; seat < players.length; seat++) {
+				int above = 0;
+				for (int other = 0; other < players.length; other++) {
+					if (result.getPlace(other) < result.getPlace(seat)) {
+						above++;
+					}
+				}
+				if (result.getPlace(seat) != above + 1)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Plays batches of matches at two different stakes at the same time, and
+	 * checks that each game was dealt by its own rules and blinds bigger than
+	 * what's left behind them are called in full. Strict validation
+	 * checks the chip count of every state against its rules along the way.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean tableRulesTest() {
+		final TableRules deep = new TableRules(1, 2, 120);
+		final TableRules shallow = new TableRules(5, 10, 40);
+		final GameState state = new GameState(2, new SeededDeckSource(1),
+				shallow);
+		final GameStateData data = state.getGameStateData();
+		if (data.potSize != 15 || data.playerOneStack != 35
+				|| data.playerTwoStack != 30 || data.rules != shallow)
+			return false;
+
+		// A short big blind doesn't shrink the call of the small blind.
+		final long shortBlind = PackedGameState.dealNextHand(PackedGameState
+				.pack(30, 12, Card.Two, Card.Two, 0, 0, false, false, 0,
+						PackedGameState.NO_ACTION, true), Card.Two, Card.Ace,
+				shallow);
+		if (PackedGameState.getCallAmount(shortBlind) != 5)
+			return false;
+
+		final MatchSummary[] summaries = new MatchSummary[2];
+		final Thread other = new Thread() {
+			@Override
+			public void run() {
+				summaries[1] = MatchEngine.playMatches(new AgentFactory(
+						TheManiac.class), new AgentFactory(TheFish.class), 50,
+						1, 2, shallow);
+			}
+		};
+		other.start();
+		summaries[0] = MatchEngine.playMatches(new AgentFactory(
+				TheManiac.class), new AgentFactory(TheFish.class), 50, 1, 1,
+				deep);
+		try {
+			other.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		if (summaries[1] == null || summaries[0].getUnfinished() > 0
+				|| summaries[1].getUnfinished() > 0)
+			return false;
+
+		// Shallow stacks with big blinds make for far shorter matches.
+		if (summaries[1].getHandCount() * 2 >= summaries[0].getHandCount())
+			return false;
+
+		// Agents work on packed states, so deep stacks can't be played...
+		try {
+			new MatchEngine(100, null, new TableRules(1, 2, 200));
+			return false;
+		} catch (final IllegalArgumentException e) {
+			// Expected.
+		}
+		final List<Client> clients = new LinkedList<Client>();
+		clients.add(new TheFish().initializeAgent(false));
+		clients.add(new TheRock().initializeAgent(false));
+		try {
+			new Server(clients, false, new SeededDeckSource(1), new TableRules(
+					5, 10, PackedGameState.MAX_CHIPS + 1));
+			return false;
+		} catch (final IllegalArgumentException e) {
+			// Expected.
+		}
+
+		// ...and a strategy solved for the default blinds can't play others.
+		final CfrStrategy strategy = new CfrSolver(BetAbstraction.DEFAULT, 10,
+				1).solve(4, 1);
+		try {
+			new MatchEngine(100, null, shallow).play(EquilibriumAgent.factory(
+					strategy, 1).createClient(true), new TheFish()
+					.initializeAgent(false), 1);
+			return false;
+		} catch (final IllegalStateException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Leaves a player with fewer chips than the small blind of a 5/10 game,
+	 * and checks that both players then post only what the short stack has,
+	 * so that it plays its all in instead of going negative.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean shortStackBlindTest() {
+		final TableRules rules = new TableRules(5, 10, 100);
+		final Card[] dealt = { Card.Two, Card.Ace, Card.Ace, Card.Two };
+		final DeckSource deck = new DeckSource() {
+			private int next;
+
+			@Override
+			public Card nextCard() {
+				return dealt[next++ % dealt.length];
+			}
+		};
+		final GameState state = new GameState(2, deck, rules);
+		// Player one puts in 97 chips with a Two and loses them to an Ace.
+		state.applyAction(new BettingAction(92));
+		state.applyAction(new BettingAction(87));
+		state.endHand();
+		if (state.getGameStateData().playerOneStack != 3)
+			return false;
+
+		if (!state.dealNextHand())
+			return false;
+		GameStateData data = state.getGameStateData();
+		if (data.playerOneStack != 0 || data.playerTwoStack != 194
+				|| data.potSize != 6 || state.isTerminalState())
+			return false;
+		state.endHand();
+		data = state.getGameStateData();
+		if (data.playerOneStack != 6 || data.playerTwoStack != 194)
+			return false;
+
+		final long packed = PackedGameState.dealNextHand(PackedGameState.pack(
+				3, 197, Card.Two, Card.Two, 0, 0, true, true, 0,
+				PackedGameState.NO_ACTION, true), Card.Ace, Card.Two, rules);
+		if (PackedGameState.playerOneStack(packed) != 0
+				|| PackedGameState.playerTwoStack(packed) != 194
+				|| PackedGameState.potSize(packed) != 6
+				|| !PackedGameState.isAllInOnBlinds(packed)
+				|| PackedGameState.isTerminalState(packed, rules))
+			return false;
+
+		// The solver's shallowest trees are all in on the blinds.
+		final GameTree tree = new GameTree(3, BetAbstraction.DEFAULT, rules);
+		return tree.getNodeCount() == 1
+				&& tree.getPlayer(0) == GameTree.TERMINAL;
+	}
+
+	/**
+	 * Rates results drawn from known Elo strengths, which the fit should
+	 * recover to within its standard errors, then plays a small tournament
+	 * and checks that every pairing played all its matches.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean tournamentTest() {
+		final double[] strengths = { 250, 50, -50, -250 };
+		final String[] names = { "A", "B", "C", "D" };
+		final int n = strengths.length;
+		final long[][] wins = new long[n][n];
+		final Random random = new Random(5);
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				final double p = 1 / (1 + Math.pow(10,
+						(strengths[j] - strengths[i]) / 400));
+				for (int match = 0; match < 2000; match++) {
+					if (random.nextDouble() < p) {
+						wins[i][j]++;
+					} else {
+						wins[j][i]++;
+					}
+				}
+			}
+		}
+		final List<Rating> ratings = TournamentResult.fromCounts(names, wins,
+				new long[n][n]).getRatings();
+		for (int i = 0; i < n; i++) {
+			final Rating rating = ratings.get(i);
+			if (!rating.name.equals(names[i])
+					|| Math.abs(rating.elo - strengths[i]) > 3 * rating.standardError) {
+				System.out.println("FAILURE: " + rating + " for a strength of "
+						+ strengths[i]);
+				return false;
+			}
+		}
+
+		final List<ClientFactory> entrants = new ArrayList<ClientFactory>();
+		entrants.add(new AgentFactory(TheFish.class));
+		entrants.add(new AgentFactory(TheRock.class));
+		entrants.add(new AgentFactory(TheManiac.class));
+		final TournamentResult result = new Tournament(entrants, 4).run(
+				ForkJoinPool.commonPool(), 11);
+		for (int i = 0; i < entrants.size(); i++) {
+			for (int j = i + 1; j < entrants.size(); j++) {
+				if (result.getWins(i, j) + result.getWins(j, i)
+						+ result.getDraws(i, j) != 8) {
+					System.out.println("FAILURE: " + result.getName(i)
+							+ " and " + result.getName(j)
+							+ " didn't play 8 matches");
+					return false;
+				}
+			}
+		}
+		return result.getRatings().size() == entrants.size();
+	}
+
+	/**
+	 * Feeds a test a stream of even results, which should leave it undecided,
+	 * checks that an evaluator must be allowed some matches, then has one
+	 * decide TheRock against TheManiac, which it should do in far fewer
+	 * matches than its cap.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean sequentialTest() {
+		final SequentialTest even = new SequentialTest(50, 0.05, 0.05);
+		for (int i = 0; i < 1000; i++) {
+			even.add(i % 2);
+		}
+		if (even.isDecided() || even.getMatchCount() != 1000)
+			return false;
+
+		final List<ClientFactory> entrants = new ArrayList<ClientFactory>();
+		entrants.add(new AgentFactory(TheManiac.class));
+		entrants.add(new AgentFactory(TheRock.class));
+		try {
+			new SequentialEvaluator(entrants, 50, 0.05, 0.05, 8, 0);
+			return false;
+		} catch (final IllegalArgumentException e) {
+			// Expected.
+		}
+		final SequentialResult result = new SequentialEvaluator(entrants, 50,
+				0.05, 0.05, 8, 2000).run(ForkJoinPool.commonPool(), 1);
+		return result.getPairingCount() == 1
+				&& result.getDecision(0) == SequentialTest.Decision.SECOND_STRONGER
+				&& result.getMatchCount() < 200;
+	}
+
+	/**
+	 * An agent playing a copy of itself on duplicate deals replays the same
+	 * hands and matches from the other seat, so it must win no chips and
+	 * score exactly half of every deal; and two copies of a candidate must
+	 * differ by exactly nothing on the deals they share, by hands or by
+	 * matches, while a different candidate differs by something.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean duplicateTest() {
+		final List<ClientFactory> mirror = new ArrayList<ClientFactory>();
+		mirror.add(new AgentFactory(TheRock.class));
+		final DuplicateResult mirrored = new DuplicateEvaluator(mirror,
+				new AgentFactory(TheRock.class), 20).run(
+				ForkJoinPool.commonPool(), 1);
+		for (int d = 0; d < mirrored.getDealCount(); d++) {
+			if (mirrored.getScore(0, d) != 0.5
+					|| mirrored.getChips(0, d) != 0)
+				return false;
+		}
+
+		final List<ClientFactory> candidates = new ArrayList<ClientFactory>();
+		candidates.add(new AgentFactory(TheFish.class));
+		candidates.add(new AgentFactory(TheFish.class));
+		candidates.add(new AgentFactory(TheRock.class));
+		final DuplicateResult result = new DuplicateEvaluator(candidates,
+				new AgentFactory(TheManiac.class), 50).run(
+				ForkJoinPool.commonPool(), 2);
+		return result.getChipDifference(0, 1) == 0
+				&& result.getChipDifferenceError(0, 1) == 0
+				&& result.getChipDifferenceError(0, 2) > 0
+				&& result.getDifference(0, 1) == 0
+				&& result.getDifferenceError(0, 1) == 0
+				&& result.getWinRate(0) == result.getWinRate(1)
+				&& result.getDifferenceError(0, 2) > 0;
+	}
+
+	/**
+	 * Stops a hosted table part way through its game, then resumes it: the
+	 * table should stay hosted while stopped, finish once resumed, and have
+	 * its actions counted once it has been unhosted.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean tableHostTest() {
+		final TableHost host = new TableHost();
+		final Server[] table = new Server[1];
+		final Client fish = new TheFish().initializeAgent(true);
+		final List<Client> clients = new LinkedList<Client>();
+		clients.add(new Client() {
+			private int prompts;
+
+			@Override
+			public void inform(final GameStateData currentState) {
+				fish.inform(currentState);
+			}
+
+			@Override
+			public BettingAction prompt() {
+				if (++prompts == 3) {
+					host.stop(table[0]);
+				}
+				return fish.prompt();
+			}
+
+			@Override
+			public String getName() {
+				return "Stopper";
+			}
+		});
+		clients.add(new TheRock().initializeAgent(false));
+		table[0] = new Server(clients, false);
+
+		try {
+			host.start(table[0]);
+			host.awaitAll();
+			if (table[0].isGameOver() || host.getTables().size() != 1
+					|| host.getLiveTableCount() != 0) {
+				System.out.println("FAILURE: The stopped table wasn't kept");
+				return false;
+			}
+			final long stoppedAt = table[0].getActionCount();
+
+			host.resume(table[0]);
+			// Resuming a running table does nothing.
+			host.resume(table[0]);
+			host.awaitAll();
+			if (!table[0].isGameOver() || !host.getTables().isEmpty()
+					|| host.getFinishedTableCount() != 1) {
+				System.out.println("FAILURE: The resumed table didn't finish");
+				return false;
+			}
+			if (table[0].getActionCount() <= stoppedAt
+					|| host.getActionCount() != table[0].getActionCount()) {
+				System.out.println("FAILURE: " + host.getActionCount()
+						+ " actions counted of " + table[0].getActionCount());
+				return false;
+			}
+		} catch (final InterruptedException e) {
+			Main.fail("Interruption while waiting for a table during tests");
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that a table is running as soon as resume() returns, so that a
+	 * second resume() returns at once instead of waiting on the table's new
+	 * thread. The threads start late, and the resumed table then blocks until
+	 * released.
+	 */
+	private static boolean tableHostResumeTest() {
+		final TableHost host = new TableHost(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							Thread.sleep(300);
+						} catch (final InterruptedException e) {
+							return;
+						}
+						r.run();
+					}
+				});
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		final CountDownLatch release = new CountDownLatch(1);
+		final Server[] table = new Server[1];
+		final Client fish = new TheFish().initializeAgent(true);
+		final List<Client> clients = new LinkedList<Client>();
+		clients.add(new Client() {
+			private int prompts;
+
+			@Override
+			public void inform(final GameStateData currentState) {
+				fish.inform(currentState);
+			}
+
+			@Override
+			public BettingAction prompt() {
+				if (++prompts == 3) {
+					host.stop(table[0]);
+				} else if (prompts == 4) {
+					try {
+						release.await(2, TimeUnit.SECONDS);
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return fish.prompt();
+			}
+
+			@Override
+			public String getName() {
+				return "Blocker";
+			}
+		});
+		clients.add(new TheRock().initializeAgent(false));
+		table[0] = new Server(clients, false);
+
+		try {
+			host.start(table[0]);
+			host.awaitAll();
+
+			final long start = System.nanoTime();
+			host.resume(table[0]);
+			host.resume(table[0]);
+			final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+			final boolean running = table[0].isRunning();
+			release.countDown();
+			host.awaitAll();
+			if (elapsedMillis > 200 || !running) {
+				System.out.println("FAILURE: Resuming twice took "
+						+ elapsedMillis + "ms");
+				return false;
+			}
+			if (!table[0].isGameOver() || host.getFinishedTableCount() != 1) {
+				System.out.println("FAILURE: The resumed table didn't finish");
+				return false;
+			}
+		} catch (final InterruptedException e) {
+			Main.fail("Interruption while waiting for a table during tests");
+		}
+		return true;
+	}
+
+	/**
+	 * Checks the delays of each pacing, then runs unpaced tables on a
+	 * PacingScheduler, which should play exactly the games a MatchEngine does
+	 * with the same seeds, and a real time table, which should still be early
+	 * in its game when stopped a fraction of a second later.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean pacingTest() {
+		if (TablePacing.REALTIME.getDelayMillis(100) != 100
+				|| TablePacing.times(4).getDelayMillis(100) != 25
+				|| TablePacing.UNPACED.getDelayMillis(100) != 0
+				|| TablePacing.times(Double.POSITIVE_INFINITY) != TablePacing.UNPACED)
+			return false;
+		try {
+			TablePacing.times(0);
+			return false;
+		} catch (final IllegalArgumentException e) {
+			// Expected.
+		}
+
+		final PacingScheduler scheduler = new PacingScheduler(2);
+		try {
+			final int tables = 8;
+			final List<Server> servers = new ArrayList<Server>();
+			final List<CompletableFuture<Server>> done = new ArrayList<CompletableFuture<Server>>();
+			for (int seed = 0; seed < tables; seed++) {
+				final List<Client> clients = new LinkedList<Client>();
+				clients.add(new TheFish().initializeAgent(true));
+				clients.add(new TheManiac().initializeAgent(false));
+				final Server s = new Server(clients, false,
+						new SeededDeckSource(seed));
+				s.setPacing(TablePacing.UNPACED);
+				servers.add(s);
+				done.add(scheduler.start(s));
+			}
+
+			final List<Client> clients = new LinkedList<Client>();
+			clients.add(new TheFish().initializeAgent(true));
+			clients.add(new TheManiac().initializeAgent(false));
+			final Server paced = new Server(clients, false,
+					new SeededDeckSource(tables));
+			paced.setPacing(TablePacing.REALTIME);
+			final CompletableFuture<Server> pacedDone = scheduler.start(paced);
+
+			final MatchEngine engine = new MatchEngine();
+			for (int seed = 0; seed < tables; seed++) {
+				final Server s = done.get(seed).get(10, TimeUnit.SECONDS);
+				final MatchResult expected = engine.play(
+						new TheFish().initializeAgent(true),
+						new TheManiac().initializeAgent(false), seed);
+				if (!s.isGameOver()
+						|| s.getHandCount() != expected.handCount
+						|| s.getActionCount() != expected.actionCount) {
+					System.out.println("FAILURE: Table " + seed + " played "
+							+ s.getHandCount() + " hands, not "
+							+ expected.handCount);
+					return false;
+				}
+			}
+
+			// Real time pauses at least 30ms per action.
+			Thread.sleep(150);
+			paced.stop();
+			pacedDone.get(10, TimeUnit.SECONDS);
+			if (paced.isGameOver() || paced.getActionCount() > 10
+					|| scheduler.getLiveTableCount() != 0) {
+				System.out.println("FAILURE: The real time table made "
+						+ paced.getActionCount() + " actions");
+				return false;
+			}
+		} catch (final Exception e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			scheduler.shutdown();
+		}
+		return true;
+	}
+
+	/**
+	 * Checks which levels each level lets through, that a logger follows the
+	 * root level until it is given its own, that templates are filled in,
+	 * and that an AsyncFileSink writes every record it doesn't drop.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean logTest() {
+		if (!LogLevel.INFO.allows(LogLevel.WARN)
+				|| !LogLevel.INFO.allows(LogLevel.INFO)
+				|| LogLevel.INFO.allows(LogLevel.DEBUG)
+				|| LogLevel.OFF.allows(LogLevel.ERROR)
+				|| LogLevel.TRACE.allows(LogLevel.OFF))
+			return false;
+
+		final LogSink oldSink = Logging.getSink();
+		final LogLevel oldRoot = Logging.getRootLevel();
+		final Logger logger = Logging.getLogger("logTest");
+		File file = null;
+		try {
+			final List<LogRecord> records = new ArrayList<LogRecord>();
+			Logging.setSink(new LogSink() {
+				@Override
+				public void write(final LogRecord record) {
+					records.add(record);
+				}
+
+				@Override
+				public void close() {
+				}
+			});
+
+			Logging.setRootLevel(LogLevel.WARN);
+			logger.info("hidden {}", 1);
+			logger.warn("shown {} of {}", 1, 2);
+			logger.setLevel(LogLevel.DEBUG);
+			logger.debug("shown {}", 2);
+			logger.trace("hidden {}", 2);
+			Logging.setRootLevel(LogLevel.TRACE);
+			logger.trace("hidden {}", 3);
+			logger.log(LogLevel.ERROR, "{} {} and {}", "a", "b");
+			if (records.size() != 3
+					|| !records.get(0).getMessage().equals("shown 1 of 2")
+					|| records.get(1).level != LogLevel.DEBUG
+					|| !records.get(2).getMessage().equals("a b and {}")) {
+				System.out.println("FAILURE: Logged " + records);
+				return false;
+			}
+
+			file = File.createTempFile("log", ".txt");
+			final int total = 5000;
+			final AsyncFileSink sink = new AsyncFileSink(file, 64);
+			Logging.setSink(sink);
+			for (int i = 0; i < total; i++) {
+				logger.warn("record {}", i);
+			}
+			Logging.setSink(oldSink);
+
+			final List<String> lines = Files.readAllLines(file.toPath());
+			if (lines.size() + sink.getDroppedCount() != total
+					|| !lines.get(0).contains("level=WARN logger=logTest msg=\"record 0\"")) {
+				System.out.println("FAILURE: Wrote " + lines.size()
+						+ " lines and dropped " + sink.getDroppedCount() + " of "
+						+ total);
+				return false;
+			}
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			Logging.setSink(oldSink);
+			Logging.setRootLevel(oldRoot);
+			Logging.removeLogger("logTest");
+			if (file != null) {
+				file.delete();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Plays the same seeded games at a Server and with a MatchEngine, which
+	 * should inform the players of exactly the same states, including the
+	 * final state a second time when an all in hand ends the game (as seed 0
+	 * does).
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean informSequenceTest() {
+		for (long seed = 0; seed < 10; seed++) {
+			final List<Long> engineStates = new ArrayList<Long>();
+			new MatchEngine().play(
+					recordInforms(new TheFish().initializeAgent(true),
+							engineStates),
+					recordInforms(new TheManiac().initializeAgent(false),
+							engineStates), seed);
+
+			final List<Long> serverStates = new ArrayList<Long>();
+			final List<Client> clients = new LinkedList<Client>();
+			clients.add(recordInforms(new TheFish().initializeAgent(true),
+					serverStates));
+			clients.add(recordInforms(new TheManiac().initializeAgent(false),
+					serverStates));
+			final Server s = new Server(clients, false, new SeededDeckSource(
+					seed));
+			s.setPacing(TablePacing.UNPACED);
+			s.run();
+
+			if (!engineStates.equals(serverStates)) {
+				System.out.println("FAILURE: Seed " + seed + " informed "
+						+ engineStates.size() + " states in a MatchEngine and "
+						+ serverStates.size() + " at a Server");
+				return false;
+			}
+			final int n = serverStates.size();
+			if (seed == 0
+					&& !serverStates.get(n - 1).equals(serverStates.get(n - 3))) {
+				System.out.println("FAILURE: The final state wasn't repeated");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return A Client that adds every state it is informed of to the list,
+	 *         and otherwise plays as the given Client.
+	 */
+	private static Client recordInforms(final Client client,
+			final List<Long> states) {
+		return new Client() {
+			@Override
+			public void inform(final GameStateData currentState) {
+				states.add(currentState.toPacked());
+				client.inform(currentState);
+			}
+
+			@Override
+			public BettingAction prompt() {
+				return client.prompt();
+			}
+
+			@Override
+			public String getName() {
+				return client.getName();
+			}
+		};
+	}
+
+	/**
+	 * Plays a game against a client that never answers, which should lose
+	 * every hand by the timeout action instead of hanging the server.
+	 * 
+	 * @return True if the test passes
+	 */
+	private static boolean timeLimitTest() {
+		final List<Client> clients = new LinkedList<Client>();
+		clients.add(new Client() {
+			@Override
+			public void inform(final GameStateData currentState) {
+			}
+
+			@Override
+			public BettingAction prompt() {
+				try {
+					Thread.sleep(Long.MAX_VALUE);
+				} catch (final InterruptedException e) {
+				}
+				return BettingAction.FOLD;
+			}
+
+			@Override
+			public String getName() {
+				return "Sleeper";
+			}
+		});
+		clients.add(new TheFish().initializeAgent(false));
+		final Server s = new Server(clients, false);
+		s.setTimeLimit(20, TimeoutAction.CHECK_OR_FOLD);
+		s.run();
+
+		if (s.isRunning() || s.getTimeoutCount(0) == 0
+				|| s.getTimeoutCount(1) != 0) {
+			System.out.println("FAILURE: " + s.getTimeoutCount(0) + " and "
+					+ s.getTimeoutCount(1) + " timeouts");
+			return false;
+		}
+		return true;
+	}
+
 	private static boolean serverTest() {
 		/*
 		 * Creates two TestClient agents and creates a server to see if it runs
@@ -503,11 +503,22 @@ public final class SwingGUI extends JFrame implements Client, ActionListener {
 		if (state == null) {
 			Main.fail("Null state passed to GUI as the gameState");
 		}
+		updateState(state.getGameStateData());
+	}
+
+	/**
+	 * Informs the GUI of the current state of the game. This data is ignored if
+	 * GUI is acting as a Client.
+	 * 
+	 * @param state
+	 *            Current GameStateData.
+	 */
+	public void updateState(final GameStateData state) {
 		// Validate GUI
 		if (isClient) {
 			; // Do nothing
 		} else {
-			this.state = state.getGameStateData();
+			this.state = state;
 			render();
 		}
 	}
@@ -0,0 +1,181 @@
+package com.gmail.jdesmond10.pokerai.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BetAbstraction;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+
+/**
+ * Solves single hands of the game for an equilibrium with counterfactual
+ * regret minimization (CFR+). A hand is a zero-sum game in chips whose only
+ * parameter (for given blinds) is the effective stack, so the solver builds one
+ * {@link GameTree} per effective stack up to the starting chips of the
+ * {@link TableRules} and solves them independently, in parallel across a pool
+ * of workers.
+ *
+ * The result is near-exact for the abstract game: the only approximation is
+ * the {@link BetAbstraction}, which limits the bet sizes each player may
+ * choose from. Run main() to write a strategy file for the EquilibriumAgent.
+ *
+ * @see CfrStrategy
+ */
+public final class CfrSolver {
+
+	/** Iterations run between checks of the exploitability. */
+	private static final int CHECK_INTERVAL = 100;
+
+	private final BetAbstraction abstraction;
+	private final TableRules rules;
+	private final int maxIterations;
+	private final double targetExploitability;
+
+	/**
+	 * @param abstraction
+	 *            The bet sizes available to both players.
+	 * @param maxIterations
+	 *            The most CFR+ iterations run on any one tree.
+	 * @param targetExploitability
+	 *            Chips per hand a best response may win before a tree is
+	 *            considered solved.
+	 */
+	public CfrSolver(final BetAbstraction abstraction, final int maxIterations,
+			final double targetExploitability) {
+		this(abstraction, TableRules.DEFAULT, maxIterations,
+				targetExploitability);
+	}
+
+	/**
+	 * @param abstraction
+	 *            The bet sizes available to both players.
+	 * @param rules
+	 *            The blinds of the hands to solve.
+	 * @param maxIterations
+	 *            The most CFR+ iterations run on any one tree.
+	 * @param targetExploitability
+	 *            Chips per hand a best response may win before a tree is
+	 *            considered solved.
+	 */
+	public CfrSolver(final BetAbstraction abstraction, final TableRules rules,
+			final int maxIterations, final double targetExploitability) {
+		this.abstraction = abstraction;
+		this.rules = rules;
+		this.maxIterations = maxIterations;
+		this.targetExploitability = targetExploitability;
+	}
+
+	/**
+	 * Solves every effective stack from 1 to maxEffectiveStack.
+	 *
+	 * @param maxEffectiveStack
+	 *            The deepest effective stack to solve.
+	 * @param threads
+	 *            The number of worker threads.
+	 * @return The combined strategy.
+	 */
+	public CfrStrategy solve(final int maxEffectiveStack, final int threads) {
+		final GameTree[] trees = new GameTree[maxEffectiveStack + 1];
+		final float[][] probabilities = new float[maxEffectiveStack + 1][];
+		final double[] exploitability = new double[maxEffectiveStack + 1];
+
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final List<Future<?>> futures = new ArrayList<Future<?>>();
+		try {
+			// Deepest (largest) trees first, so the pool finishes evenly.
+			for (int stack = maxEffectiveStack; stack >= 1; stack--) {
+				final int effectiveStack = stack;
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						final GameTree tree = new GameTree(effectiveStack,
+								abstraction, rules);
+						final double[] average = new double[tree
+								.getSlotCount()];
+						exploitability[effectiveStack] = solveTree(tree,
+								average);
+						probabilities[effectiveStack] = toFloats(average);
+						trees[effectiveStack] = tree;
+						return null;
+					}
+				}));
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException("Solving failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return new CfrStrategy(abstraction, rules, trees, probabilities,
+				exploitability);
+	}
+
+	/**
+	 * Iterates on a single tree until it is solved or out of iterations.
+	 *
+	 * @return the exploitability of the average strategy written to average.
+	 */
+	private double solveTree(final GameTree tree, final double[] average) {
+		final TreeSolver solver = new TreeSolver(tree);
+		double exploitability = Double.POSITIVE_INFINITY;
+		while (solver.getIterations() < maxIterations
+				&& exploitability > targetExploitability) {
+			solver.iterate(Math.min(CHECK_INTERVAL, maxIterations
+					- solver.getIterations()));
+			solver.averageStrategy(average);
+			exploitability = solver.exploitability(average);
+		}
+		return exploitability;
+	}
+
+	private static float[] toFloats(final double[] values) {
+		final float[] floats = new float[values.length];
+		for (int i = 0; i < values.length; i++) {
+			floats[i] = (float) values[i];
+		}
+		return floats;
+	}
+
+	/**
+	 * Solves the game and writes the strategy to a file.
+	 *
+	 * @param args
+	 *            [output file, default "equilibrium.cfr"] [max iterations,
+	 *            default 5000]
+	 */
+	public static void main(final String[] args) throws IOException {
+		final File output = new File(args.length > 0 ? args[0]
+				: "equilibrium.cfr");
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1])
+				: 5000;
+		final int threads = Runtime.getRuntime().availableProcessors();
+
+		final long start = System.nanoTime();
+		final CfrStrategy strategy = new CfrSolver(BetAbstraction.DEFAULT,
+				iterations, 0.001).solve(
+				TableRules.DEFAULT.getStartingChips(), threads);
+		strategy.save(output);
+
+		double worst = 0;
+		for (int stack = 1; stack <= strategy.getMaxEffectiveStack(); stack++) {
+			worst = Math.max(worst, strategy.getExploitability(stack));
+		}
+		System.out.println(String.format(
+				"Solved %s stack depths in %.1fs on %s threads. Worst "
+						+ "exploitability: %.5f chips/hand. Written to %s",
+				strategy.getMaxEffectiveStack(),
+				(System.nanoTime() - start) / 1e9, threads, worst, output));
+	}
+}
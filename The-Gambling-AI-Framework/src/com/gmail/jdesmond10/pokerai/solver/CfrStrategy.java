@@ -0,0 +1,171 @@
+package com.gmail.jdesmond10.pokerai.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BetAbstraction;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+
+/**
+ * An equilibrium strategy computed by {@link CfrSolver}: for every effective
+ * stack from 1 to {@link #getMaxEffectiveStack()}, the {@link GameTree} of a
+ * hand at that depth and the probability of each action with each card at
+ * each decision. This is an immutable class.
+ *
+ * Only the probabilities are saved to disk; the trees are rebuilt from the
+ * abstraction and the blinds when a strategy is loaded.
+ */
+public final class CfrStrategy {
+
+	/** "CFR1", files of strategies for the default blinds. */
+	private static final int MAGIC_DEFAULT_RULES = 0x43465231;
+	/** "CFR2", files that start with their blinds. */
+	private static final int MAGIC = 0x43465232;
+
+	private final BetAbstraction abstraction;
+	private final TableRules rules;
+	private final GameTree[] trees;
+	private final float[][] probabilities;
+	private final double[] exploitability;
+
+	CfrStrategy(final BetAbstraction abstraction, final TableRules rules,
+			final GameTree[] trees, final float[][] probabilities,
+			final double[] exploitability) {
+		this.abstraction = abstraction;
+		this.rules = rules;
+		this.trees = trees;
+		this.probabilities = probabilities;
+		this.exploitability = exploitability;
+	}
+
+	public BetAbstraction getAbstraction() {
+		return abstraction;
+	}
+
+	/**
+	 * @return The blinds the strategy was solved for.
+	 */
+	public TableRules getRules() {
+		return rules;
+	}
+
+	public int getMaxEffectiveStack() {
+		return trees.length - 1;
+	}
+
+	/**
+	 * @param effectiveStack
+	 *            The smaller stack at the start of the hand, before blinds.
+	 *            Values past the solved range are clamped to it.
+	 * @return the betting tree of a hand at that depth.
+	 */
+	public GameTree getTree(final int effectiveStack) {
+		return trees[clamp(effectiveStack)];
+	}
+
+	/**
+	 * @return The probability of taking an action at a decision node of the
+	 *         tree of the given depth, holding the card of the given rank.
+	 */
+	public double getProbability(final int effectiveStack, final int node,
+			final int rank, final int action) {
+		final int stack = clamp(effectiveStack);
+		return probabilities[stack][trees[stack].getSlot(node, rank, action)];
+	}
+
+	/**
+	 * @return chips per hand a best response wins against this strategy in
+	 *         the abstract game of the given depth.
+	 */
+	public double getExploitability(final int effectiveStack) {
+		return exploitability[clamp(effectiveStack)];
+	}
+
+	private int clamp(final int effectiveStack) {
+		return Math.max(1, Math.min(effectiveStack, getMaxEffectiveStack()));
+	}
+
+	/**
+	 * Writes the strategy to a file.
+	 */
+	public void save(final File file) throws IOException {
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(rules.getSmallBlind());
+			out.writeInt(rules.getBigBlind());
+			out.writeInt(rules.getStartingChips());
+			final double[] fractions = abstraction.getPotFractions();
+			out.writeInt(fractions.length);
+			for (final double fraction : fractions) {
+				out.writeDouble(fraction);
+			}
+			out.writeInt(abstraction.getMaxRaises());
+			out.writeInt(getMaxEffectiveStack());
+
+			for (int stack = 1; stack < trees.length; stack++) {
+				out.writeDouble(exploitability[stack]);
+				out.writeInt(probabilities[stack].length);
+				for (final float p : probabilities[stack]) {
+					out.writeFloat(p);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a strategy written by {@link #save(File)}.
+	 */
+	public static CfrStrategy load(final File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			final int magic = in.readInt();
+			final TableRules rules;
+			if (magic == MAGIC) {
+				rules = new TableRules(in.readInt(), in.readInt(),
+						in.readInt());
+			} else if (magic == MAGIC_DEFAULT_RULES) {
+				rules = TableRules.DEFAULT;
+			} else
+				throw new IOException(file + " is not a CFR strategy file");
+
+			final double[] fractions = new double[in.readInt()];
+			for (int i = 0; i < fractions.length; i++) {
+				fractions[i] = in.readDouble();
+			}
+			final BetAbstraction abstraction = new BetAbstraction(fractions,
+					in.readInt());
+			final int maxStack = in.readInt();
+
+			final GameTree[] trees = new GameTree[maxStack + 1];
+			final float[][] probabilities = new float[maxStack + 1][];
+			final double[] exploitability = new double[maxStack + 1];
+			for (int stack = 1; stack <= maxStack; stack++) {
+				trees[stack] = new GameTree(stack, abstraction, rules);
+				exploitability[stack] = in.readDouble();
+				final int slots = in.readInt();
+				if (slots != trees[stack].getSlotCount())
+					throw new IOException("Strategy for stack " + stack
+							+ " does not match its game tree");
+				probabilities[stack] = new float[slots];
+				for (int i = 0; i < slots; i++) {
+					probabilities[stack][i] = in.readFloat();
+				}
+			}
+			return new CfrStrategy(abstraction, rules, trees, probabilities,
+					exploitability);
+		} finally {
+			in.close();
+		}
+	}
+}
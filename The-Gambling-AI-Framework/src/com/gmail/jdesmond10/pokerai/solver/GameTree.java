@@ -0,0 +1,268 @@
+package com.gmail.jdesmond10.pokerai.solver;
+
+import java.util.Arrays;
+
+import com.gmail.jdesmond10.pokerai.game.logic.BetAbstraction;
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+import com.gmail.jdesmond10.pokerai.game.logic.PackedGameState;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+
+/**
+ * The public betting tree of a single hand, where both players start the hand
+ * with the same (effective) stack and player one/zero has the button. Betting
+ * doesn't depend on the cards, so one tree serves all 13 * 13 deals; a
+ * player's information set is a decision node plus their own card.
+ *
+ * Nodes are stored in flat arrays indexed by node number, with the root at 0.
+ * Every transition is made with {@link PackedGameState}, so the tree follows
+ * exactly the same betting rules as GameStateData.
+ */
+public final class GameTree {
+
+	/** Value of {@link #getPlayer(int)} for nodes where the hand is over. */
+	public static final int TERMINAL = -1;
+
+	private final int effectiveStack;
+	private final TableRules rules;
+
+	private int nodeCount;
+	private long[] states;
+	private int[] player;
+	private int[] raises;
+	private int[] childStart;
+	private int[] childCount;
+	private int[] slot;
+
+	private int edgeCount;
+	private int[] childNode;
+	private int[] childAction;
+
+	/** Total size of the per-card strategy arrays of all decision nodes. */
+	private int slotCount;
+
+	/**
+	 * Builds the tree of a hand played with the default blinds.
+	 *
+	 * @see #GameTree(int, BetAbstraction, TableRules)
+	 */
+	public GameTree(final int effectiveStack, final BetAbstraction abstraction) {
+		this(effectiveStack, abstraction, TableRules.DEFAULT);
+	}
+
+	/**
+	 * Builds the tree.
+	 *
+	 * @param effectiveStack
+	 *            The stack of both players before the blinds are posted. A
+	 *            stack no bigger than the small blind is all in on the blinds,
+	 *            and its tree is a single terminal node.
+	 * @param abstraction
+	 *            The actions available at each decision.
+	 * @param rules
+	 *            The blinds of the hand.
+	 */
+	public GameTree(final int effectiveStack,
+			final BetAbstraction abstraction, final TableRules rules) {
+		if (effectiveStack < 1 || effectiveStack * 2 > PackedGameState.MAX_CHIPS)
+			throw new IllegalArgumentException("Illegal effective stack "
+					+ effectiveStack);
+		this.effectiveStack = effectiveStack;
+		this.rules = rules;
+
+		states = new long[64];
+		player = new int[64];
+		raises = new int[64];
+		childStart = new int[64];
+		childCount = new int[64];
+		slot = new int[64];
+		childNode = new int[64];
+		childAction = new int[64];
+
+		build(rootState(effectiveStack, rules), 0, abstraction,
+				new int[abstraction.getMaxActions()]);
+
+		states = Arrays.copyOf(states, nodeCount);
+		player = Arrays.copyOf(player, nodeCount);
+		raises = Arrays.copyOf(raises, nodeCount);
+		childStart = Arrays.copyOf(childStart, nodeCount);
+		childCount = Arrays.copyOf(childCount, nodeCount);
+		slot = Arrays.copyOf(slot, nodeCount);
+		childNode = Arrays.copyOf(childNode, edgeCount);
+		childAction = Arrays.copyOf(childAction, edgeCount);
+	}
+
+	/**
+	 * @return The packed state of a freshly dealt hand where both players had
+	 *         effectiveStack chips and player one has the button. The cards
+	 *         are left as Card.Unkown.
+	 */
+	static long rootState(final int effectiveStack, final TableRules rules) {
+		final long beforeDeal = PackedGameState.pack(effectiveStack,
+				effectiveStack, Card.Unkown, Card.Unkown, 0, 0, false, false,
+				0, PackedGameState.NO_ACTION, true);
+		return PackedGameState.dealNextHand(beforeDeal, Card.Unkown,
+				Card.Unkown, rules);
+	}
+
+	/**
+	 * Adds the subtree of the given state, depth first.
+	 *
+	 * @return the node number of the state.
+	 */
+	private int build(final long state, final int raisesSoFar,
+			final BetAbstraction abstraction, final int[] scratch) {
+		final int node = nodeCount++;
+		ensureNodeCapacity();
+		states[node] = state;
+		raises[node] = raisesSoFar;
+
+		final boolean isOver = PackedGameState.isHandOver(state)
+				|| (node == 0 && PackedGameState.isAllInOnBlinds(state));
+		if (isOver) {
+			player[node] = TERMINAL;
+			return node;
+		}
+
+		player[node] = PackedGameState.getCurrentPlayer(state);
+		final int count = abstraction.getActions(state, raisesSoFar, scratch);
+		final int[] actions = Arrays.copyOf(scratch, count);
+		final int call = PackedGameState.getCallAmount(state);
+
+		// Reserve this node's edges before recursing into the children.
+		childStart[node] = edgeCount;
+		childCount[node] = count;
+		slot[node] = slotCount;
+		slotCount += count * Card.NUM_RANKS;
+		edgeCount += count;
+		ensureEdgeCapacity();
+
+		for (int a = 0; a < count; a++) {
+			final int nextRaises = actions[a] > call ? raisesSoFar + 1
+					: raisesSoFar;
+			final int child = build(
+					PackedGameState.applyAction(state, actions[a], rules),
+					nextRaises, abstraction, scratch);
+			childNode[childStart[node] + a] = child;
+			childAction[childStart[node] + a] = actions[a];
+		}
+		return node;
+	}
+
+	private void ensureNodeCapacity() {
+		if (nodeCount > states.length) {
+			final int size = states.length * 2;
+			states = Arrays.copyOf(states, size);
+			player = Arrays.copyOf(player, size);
+			raises = Arrays.copyOf(raises, size);
+			childStart = Arrays.copyOf(childStart, size);
+			childCount = Arrays.copyOf(childCount, size);
+			slot = Arrays.copyOf(slot, size);
+		}
+	}
+
+	private void ensureEdgeCapacity() {
+		if (edgeCount > childNode.length) {
+			final int size = Math.max(childNode.length * 2, edgeCount);
+			childNode = Arrays.copyOf(childNode, size);
+			childAction = Arrays.copyOf(childAction, size);
+		}
+	}
+
+	/**
+	 * Computes the chips won by player one at a terminal node, given both
+	 * cards. (Player two wins the negative of this.)
+	 */
+	int getPlayerOneWinnings(final int node, final int playerOneRank,
+			final int playerTwoRank) {
+		final long state = states[node];
+		final Card p1Card;
+		final Card p2Card;
+		if (PackedGameState.lastAction(state) == PackedGameState.FOLD) {
+			p1Card = PackedGameState.playerOneCard(state);
+			p2Card = PackedGameState.playerTwoCard(state);
+		} else {
+			p1Card = Card.fromRank(playerOneRank);
+			p2Card = Card.fromRank(playerTwoRank);
+		}
+
+		final long dealt = PackedGameState.pack(
+				PackedGameState.playerOneStack(state),
+				PackedGameState.playerTwoStack(state), p1Card, p2Card,
+				PackedGameState.playerOneAmountBetSoFar(state),
+				PackedGameState.playerTwoAmountBetSoFar(state),
+				PackedGameState.playerOneHasButton(state),
+				PackedGameState.playerOneToBet(state),
+				PackedGameState.potSize(state),
+				PackedGameState.lastAction(state), true);
+		return PackedGameState.playerOneStack(PackedGameState.endHand(dealt))
+				- effectiveStack;
+	}
+
+	/**
+	 * @return True if the hand ended in a fold at the given terminal node.
+	 */
+	boolean isFold(final int node) {
+		return PackedGameState.lastAction(states[node]) == PackedGameState.FOLD;
+	}
+
+	public int getEffectiveStack() {
+		return effectiveStack;
+	}
+
+	/**
+	 * @return The blinds the tree was built with.
+	 */
+	public TableRules getRules() {
+		return rules;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return 0 or 1 for the player to act, or {@link #TERMINAL}.
+	 */
+	public int getPlayer(final int node) {
+		return player[node];
+	}
+
+	public long getState(final int node) {
+		return states[node];
+	}
+
+	/**
+	 * @return The number of raises made on the way to the node.
+	 */
+	public int getRaises(final int node) {
+		return raises[node];
+	}
+
+	public int getChildCount(final int node) {
+		return childCount[node];
+	}
+
+	public int getChild(final int node, final int action) {
+		return childNode[childStart[node] + action];
+	}
+
+	/**
+	 * @return {@link PackedGameState#FOLD} or the amount bet by the action.
+	 */
+	public int getAction(final int node, final int action) {
+		return childAction[childStart[node] + action];
+	}
+
+	/**
+	 * @return The index of the probability of taking the given action with the
+	 *         given card at a decision node, within an array of
+	 *         {@link #getSlotCount()} elements.
+	 */
+	public int getSlot(final int node, final int rank, final int action) {
+		return slot[node] + rank * childCount[node] + action;
+	}
+
+	public int getSlotCount() {
+		return slotCount;
+	}
+}
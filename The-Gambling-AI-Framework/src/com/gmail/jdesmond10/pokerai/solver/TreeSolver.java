@@ -0,0 +1,293 @@
+package com.gmail.jdesmond10.pokerai.solver;
+
+import com.gmail.jdesmond10.pokerai.game.logic.Card;
+
+/**
+ * Runs CFR+ on a single {@link GameTree}. Instead of sampling or enumerating
+ * the 169 deals, each pass walks the public tree once with a vector of 13
+ * reach probabilities (one per card) for the opponent of the player being
+ * updated, so an iteration costs O(nodes * 13 * actions).
+ *
+ * Regrets, strategy sums and all per-node working vectors live in flat double
+ * arrays allocated up front; iterating allocates nothing. Not thread safe: a
+ * TreeSolver belongs to one worker at a time.
+ */
+final class TreeSolver {
+
+	private static final int RANKS = Card.NUM_RANKS;
+
+	private final GameTree tree;
+	private final double[] regret;
+	private final double[] strategySum;
+
+	/** Counterfactual values of each node, per card of the updated player. */
+	private final double[] value;
+	/** Reach of the updated player's opponent at each node, per card. */
+	private final double[] opponentReach;
+	/** Reach of the updated player at each node, per card. */
+	private final double[] ownReach;
+	private final double[] strategy;
+
+	/** Player one's winnings at each terminal node (fold or win). */
+	private final int[] winUtility;
+	private final int[] tieUtility;
+	private final int[] loseUtility;
+
+	private int iterations;
+
+	TreeSolver(final GameTree tree) {
+		this.tree = tree;
+		final int nodes = tree.getNodeCount();
+		regret = new double[tree.getSlotCount()];
+		strategySum = new double[tree.getSlotCount()];
+		strategy = new double[tree.getSlotCount()];
+		value = new double[nodes * RANKS];
+		opponentReach = new double[nodes * RANKS];
+		ownReach = new double[nodes * RANKS];
+		winUtility = new int[nodes];
+		tieUtility = new int[nodes];
+		loseUtility = new int[nodes];
+
+		for (int node = 0; node < nodes; node++) {
+			if (tree.getPlayer(node) == GameTree.TERMINAL) {
+				winUtility[node] = tree.getPlayerOneWinnings(node, 1, 0);
+				tieUtility[node] = tree.getPlayerOneWinnings(node, 0, 0);
+				loseUtility[node] = tree.getPlayerOneWinnings(node, 0, 1);
+			}
+		}
+	}
+
+	/**
+	 * Runs the given number of CFR+ iterations, each one updating player one
+	 * and then player two.
+	 */
+	void iterate(final int count) {
+		for (int i = 0; i < count; i++) {
+			iterations++;
+			for (int p = 0; p < 2; p++) {
+				for (int c = 0; c < RANKS; c++) {
+					opponentReach[c] = 1.0 / RANKS;
+					ownReach[c] = 1;
+				}
+				walk(0, p);
+			}
+		}
+	}
+
+	int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Fills {@link #value} for the node from the perspective of the player
+	 * being updated, updating their regrets and strategy sums on the way.
+	 */
+	private void walk(final int node, final int updating) {
+		final int player = tree.getPlayer(node);
+		final int base = node * RANKS;
+
+		if (player == GameTree.TERMINAL) {
+			terminalValue(node, updating);
+			return;
+		}
+
+		final int actions = tree.getChildCount(node);
+		currentStrategy(node);
+
+		for (int c = 0; c < RANKS; c++) {
+			value[base + c] = 0;
+		}
+
+		for (int a = 0; a < actions; a++) {
+			final int child = tree.getChild(node, a);
+			final int childBase = child * RANKS;
+			for (int c = 0; c < RANKS; c++) {
+				final double p = strategy[tree.getSlot(node, c, a)];
+				if (player == updating) {
+					ownReach[childBase + c] = ownReach[base + c] * p;
+					opponentReach[childBase + c] = opponentReach[base + c];
+				} else {
+					ownReach[childBase + c] = ownReach[base + c];
+					opponentReach[childBase + c] = opponentReach[base + c] * p;
+				}
+			}
+
+			walk(child, updating);
+
+			for (int c = 0; c < RANKS; c++) {
+				if (player == updating) {
+					value[base + c] += strategy[tree.getSlot(node, c, a)]
+							* value[childBase + c];
+				} else {
+					value[base + c] += value[childBase + c];
+				}
+			}
+		}
+
+		if (player != updating)
+			return;
+
+		// CFR+: floor regrets at zero, and weight the average linearly.
+		for (int c = 0; c < RANKS; c++) {
+			for (int a = 0; a < actions; a++) {
+				final int s = tree.getSlot(node, c, a);
+				final double childValue = value[tree.getChild(node, a) * RANKS
+						+ c];
+				regret[s] = Math.max(0, regret[s] + childValue
+						- value[base + c]);
+				strategySum[s] += iterations * ownReach[base + c]
+						* strategy[s];
+			}
+		}
+	}
+
+	/**
+	 * Regret matching: writes the current strategy of the node into
+	 * {@link #strategy}.
+	 */
+	private void currentStrategy(final int node) {
+		final int actions = tree.getChildCount(node);
+		for (int c = 0; c < RANKS; c++) {
+			final int first = tree.getSlot(node, c, 0);
+			double total = 0;
+			for (int a = 0; a < actions; a++) {
+				total += regret[first + a];
+			}
+			for (int a = 0; a < actions; a++) {
+				strategy[first + a] = total > 0 ? regret[first + a] / total
+						: 1.0 / actions;
+			}
+		}
+	}
+
+	/**
+	 * Writes the value of a terminal node for each card of the given player,
+	 * against the opponent reach vector stored at the node.
+	 */
+	private void terminalValue(final int node, final int player) {
+		final int base = node * RANKS;
+		final double[] reach = opponentReach;
+		final int sign = player == 0 ? 1 : -1;
+
+		if (tree.isFold(node)) {
+			double total = 0;
+			for (int c = 0; c < RANKS; c++) {
+				total += reach[base + c];
+			}
+			for (int c = 0; c < RANKS; c++) {
+				value[base + c] = sign * winUtility[node] * total;
+			}
+			return;
+		}
+
+		// Sweep the cards in order, keeping the reach of lower cards.
+		double total = 0;
+		for (int c = 0; c < RANKS; c++) {
+			total += reach[base + c];
+		}
+		double below = 0;
+		for (int c = 0; c < RANKS; c++) {
+			final double tie = reach[base + c];
+			final double above = total - below - tie;
+			final double playerOneWins;
+			if (player == 0) {
+				playerOneWins = winUtility[node] * below + tieUtility[node]
+						* tie + loseUtility[node] * above;
+			} else {
+				// Player two holding c: player one wins with the cards above.
+				playerOneWins = winUtility[node] * above + tieUtility[node]
+						* tie + loseUtility[node] * below;
+			}
+			value[base + c] = sign * playerOneWins;
+			below += tie;
+		}
+	}
+
+	/**
+	 * Writes the average strategy into the given array, one probability per
+	 * slot of the tree.
+	 */
+	void averageStrategy(final double[] out) {
+		for (int node = 0; node < tree.getNodeCount(); node++) {
+			if (tree.getPlayer(node) == GameTree.TERMINAL) {
+				continue;
+			}
+			final int actions = tree.getChildCount(node);
+			for (int c = 0; c < RANKS; c++) {
+				final int first = tree.getSlot(node, c, 0);
+				double total = 0;
+				for (int a = 0; a < actions; a++) {
+					total += strategySum[first + a];
+				}
+				for (int a = 0; a < actions; a++) {
+					out[first + a] = total > 0 ? strategySum[first + a] / total
+							: 1.0 / actions;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes how many chips per hand a best response gains against the
+	 * given strategy, averaged over both seats. Zero means the strategy is an
+	 * exact equilibrium of the abstract game.
+	 *
+	 * @param average
+	 *            a strategy as written by {@link #averageStrategy(double[])}.
+	 */
+	double exploitability(final double[] average) {
+		double total = 0;
+		for (int p = 0; p < 2; p++) {
+			for (int c = 0; c < RANKS; c++) {
+				opponentReach[c] = 1.0 / RANKS;
+			}
+			bestResponse(0, p, average);
+			for (int c = 0; c < RANKS; c++) {
+				total += value[c] / RANKS;
+			}
+		}
+		// The game value cancels out between the two seats.
+		return total / 2;
+	}
+
+	private void bestResponse(final int node, final int responder,
+			final double[] average) {
+		final int player = tree.getPlayer(node);
+		final int base = node * RANKS;
+
+		if (player == GameTree.TERMINAL) {
+			terminalValue(node, responder);
+			return;
+		}
+
+		final int actions = tree.getChildCount(node);
+		for (int c = 0; c < RANKS; c++) {
+			value[base + c] = player == responder ? Double.NEGATIVE_INFINITY
+					: 0;
+		}
+
+		for (int a = 0; a < actions; a++) {
+			final int child = tree.getChild(node, a);
+			final int childBase = child * RANKS;
+			for (int c = 0; c < RANKS; c++) {
+				if (player == responder) {
+					opponentReach[childBase + c] = opponentReach[base + c];
+				} else {
+					opponentReach[childBase + c] = opponentReach[base + c]
+							* average[tree.getSlot(node, c, a)];
+				}
+			}
+
+			bestResponse(child, responder, average);
+
+			for (int c = 0; c < RANKS; c++) {
+				if (player == responder) {
+					value[base + c] = Math.max(value[base + c],
+							value[childBase + c]);
+				} else {
+					value[base + c] += value[childBase + c];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+import java.util.Arrays;
+
+/**
+ * Fits a Bradley-Terry model, P(i beats j) = s_i / (s_i + s_j), to a matrix
+ * of results using Hunter's MM algorithm. Strengths are reported on the Elo
+ * scale (400 * log10(s)), centred on zero.
+ *
+ * Every pair of players gets one virtual drawn match as a prior, so that
+ * players who never lose (or never win) still get finite ratings.
+ */
+final class BradleyTerry {
+
+	private static final double ELO_PER_NATURAL_UNIT = 400 / Math.log(10);
+	private static final int MAX_ITERATIONS = 10000;
+	private static final double TOLERANCE = 1e-10;
+
+	/** Elo ratings of each player. */
+	final double[] elo;
+	/** Standard error of each rating, in Elo points. */
+	final double[] standardError;
+
+	/**
+	 * @param wins
+	 *            wins[i][j] is the number of matches i won against j. A drawn
+	 *            match counts half a win to each.
+	 */
+	BradleyTerry(final double[][] wins) {
+		final int n = wins.length;
+		final double[][] games = new double[n][n];
+		final double[] totalWins = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j) {
+					continue;
+				}
+				games[i][j] = wins[i][j] + wins[j][i] + 1;
+				totalWins[i] += wins[i][j] + 0.5;
+			}
+		}
+
+		double[] strength = new double[n];
+		Arrays.fill(strength, 1);
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			final double[] next = new double[n];
+			double logSum = 0;
+			for (int i = 0; i < n; i++) {
+				double denominator = 0;
+				for (int j = 0; j < n; j++) {
+					if (i != j) {
+						denominator += games[i][j]
+								/ (strength[i] + strength[j]);
+					}
+				}
+				next[i] = totalWins[i] / denominator;
+				logSum += Math.log(next[i]);
+			}
+
+			// Normalize to a geometric mean of one, and check convergence.
+			final double scale = Math.exp(-logSum / n);
+			double change = 0;
+			for (int i = 0; i < n; i++) {
+				next[i] *= scale;
+				change = Math.max(change, Math.abs(Math.log(next[i]
+						/ strength[i])));
+			}
+			strength = next;
+			if (change < TOLERANCE) {
+				break;
+			}
+		}
+
+		elo = new double[n];
+		standardError = new double[n];
+		for (int i = 0; i < n; i++) {
+			elo[i] = ELO_PER_NATURAL_UNIT * Math.log(strength[i]);
+
+			// Diagonal of the Fisher information of the log-strengths.
+			double information = 0;
+			for (int j = 0; j < n; j++) {
+				if (i != j) {
+					final double p = strength[i] / (strength[i] + strength[j]);
+					information += games[i][j] * p * (1 - p);
+				}
+			}
+			standardError[i] = ELO_PER_NATURAL_UNIT / Math.sqrt(information);
+		}
+	}
+}
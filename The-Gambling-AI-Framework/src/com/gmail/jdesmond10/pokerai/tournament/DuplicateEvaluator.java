@@ -0,0 +1,237 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gmail.jdesmond10.pokerai.agent.AgentFactory;
+import com.gmail.jdesmond10.pokerai.agent.ProjectPokerPlayer;
+import com.gmail.jdesmond10.pokerai.agent.SearchAgent;
+import com.gmail.jdesmond10.pokerai.agent.TheFish;
+import com.gmail.jdesmond10.pokerai.agent.TheManiac;
+import com.gmail.jdesmond10.pokerai.agent.TheRock;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.MatchEngine;
+import com.gmail.jdesmond10.pokerai.game.MatchResult;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.game.logic.ValidationMode;
+
+/**
+ * Compares candidate agents against a common opponent with duplicate deals.
+ * Every deal is played twice from the same seed, once with the candidate in
+ * the first seat and once with the opponent there. Each hand takes the next
+ * two cards of the deck whatever happened before, so hand k of both plays
+ * deals the same cards to the same seats: the candidate gets exactly the
+ * cards the opponent got in the other play, and a run of good cards in one
+ * seat helps both players once.
+ *
+ * A deal is scored by hands: a run of hands each played from the starting
+ * stacks (see {@link MatchEngine#playHands}), in both seatings, and the
+ * candidate scores the chips it won over both. Since no hand's stacks depend
+ * on the hands before it, the same hand is played from the same position in
+ * both seatings, and only the decisions differ. Each deal is also played as
+ * a pair of whole matches, whose half wins are kept as a secondary, coarser
+ * report.
+ *
+ * Every candidate plays the same deals (common random numbers), so the
+ * difference between two candidates is taken deal by deal, and the luck the
+ * two share cancels as well. See {@link DuplicateResult} for how much
+ * variance this removes.
+ */
+public final class DuplicateEvaluator {
+
+	/** Fewest deals a task will play itself instead of splitting. */
+	private static final int DEALS_PER_TASK = 4;
+
+	/** The default number of hands each deal is scored by. */
+	public static final int DEFAULT_HANDS_PER_DEAL = 100;
+
+	private final List<ClientFactory> candidates;
+	private final ClientFactory opponent;
+	private final int deals;
+	private final int handsPerDeal;
+	private final MatchEngine engine;
+
+	/**
+	 * An evaluation scoring each deal by {@link #DEFAULT_HANDS_PER_DEAL}
+	 * hands.
+	 *
+	 * @see #DuplicateEvaluator(List, ClientFactory, int, int)
+	 */
+	public DuplicateEvaluator(final List<ClientFactory> candidates,
+			final ClientFactory opponent, final int deals) {
+		this(candidates, opponent, deals, DEFAULT_HANDS_PER_DEAL);
+	}
+
+	/**
+	 * @param candidates
+	 *            The agents being compared, each of which must create a new
+	 *            Client per call.
+	 * @param opponent
+	 *            The agent every candidate plays against.
+	 * @param deals
+	 *            The number of deals each candidate plays (twice each).
+	 * @param handsPerDeal
+	 *            The number of hands of each deal played from the starting
+	 *            stacks in each seating.
+	 */
+	public DuplicateEvaluator(final List<ClientFactory> candidates,
+			final ClientFactory opponent, final int deals,
+			final int handsPerDeal) {
+		if (candidates.isEmpty())
+			throw new IllegalArgumentException(
+					"An evaluation needs at least one candidate");
+		if (deals < 2)
+			throw new IllegalArgumentException(
+					"An evaluation needs at least two deals, was " + deals);
+		if (handsPerDeal < 1)
+			throw new IllegalArgumentException(
+					"handsPerDeal must be positive, was " + handsPerDeal);
+		this.candidates = new ArrayList<ClientFactory>(candidates);
+		this.opponent = opponent;
+		this.deals = deals;
+		this.handsPerDeal = handsPerDeal;
+		// MatchEngine keeps no state between matches, so one can be shared.
+		// It checks every action itself, so its states needn't.
+		engine = new MatchEngine(MatchEngine.DEFAULT_MAX_HANDS, null,
+				TableRules.DEFAULT, ValidationMode.TRUSTED);
+	}
+
+	/**
+	 * Plays every deal for every candidate.
+	 *
+	 * @param pool
+	 *            The pool to play the matches on.
+	 * @param masterSeed
+	 *            The seed every deal is derived from. Deal d is dealt from
+	 *            {@code SeededDeckSource.matchSeed(masterSeed, d)} for every
+	 *            candidate.
+	 * @return the score of every candidate on every deal.
+	 */
+	public DuplicateResult run(final ForkJoinPool pool, final long masterSeed) {
+		final int n = candidates.size();
+		final int[][] chips = new int[n][deals];
+		final int[][] halfWins = new int[n][deals];
+		final LongAdder hands = new LongAdder();
+
+		final long start = System.nanoTime();
+		pool.invoke(new DealTask(0, (long) n * deals, masterSeed, chips,
+				halfWins, hands));
+		final long elapsed = System.nanoTime() - start;
+
+		final String[] names = new String[n];
+		for (int i = 0; i < n; i++) {
+			names[i] = candidates.get(i).getName();
+		}
+		return new DuplicateResult(names, opponent.getName(), handsPerDeal,
+				chips, halfWins, hands.sum(), elapsed);
+	}
+
+	/**
+	 * Plays a range of the evaluation's deals, splitting it in half while it
+	 * is large. Index i is deal i % deals of candidate i / deals. Each index
+	 * writes only its own element of chips and halfWins, so no locking is
+	 * needed.
+	 */
+	private final class DealTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from;
+		private final long to;
+		private final long masterSeed;
+		private final int[][] chips;
+		private final int[][] halfWins;
+		private final LongAdder hands;
+
+		DealTask(final long from, final long to, final long masterSeed,
+				final int[][] chips, final int[][] halfWins,
+				final LongAdder hands) {
+			this.from = from;
+			this.to = to;
+			this.masterSeed = masterSeed;
+			this.chips = chips;
+			this.halfWins = halfWins;
+			this.hands = hands;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > DEALS_PER_TASK) {
+				final long middle = (from + to) >>> 1;
+				invokeAll(new DealTask(from, middle, masterSeed, chips,
+						halfWins, hands), new DealTask(middle, to, masterSeed,
+						chips, halfWins, hands));
+				return;
+			}
+
+			for (long i = from; i < to; i++) {
+				final int candidate = (int) (i / deals);
+				final int deal = (int) (i % deals);
+				final long seed = SeededDeckSource.matchSeed(masterSeed, deal);
+				final ClientFactory factory = candidates.get(candidate);
+
+				final int[] ahead = engine.playHands(factory.createClient(true),
+						opponent.createClient(false), seed, handsPerDeal);
+				final int[] behind = engine.playHands(
+						opponent.createClient(true), factory.createClient(false),
+						seed, handsPerDeal);
+				int won = 0;
+				for (int hand = 0; hand < handsPerDeal; hand++) {
+					won += ahead[hand] - behind[hand];
+				}
+				chips[candidate][deal] = won;
+
+				final MatchResult first = engine.play(
+						factory.createClient(true), opponent.createClient(false),
+						seed);
+				final MatchResult second = engine.play(
+						opponent.createClient(true),
+						factory.createClient(false), seed);
+
+				hands.add(2 * handsPerDeal + first.handCount
+						+ second.handCount);
+				halfWins[candidate][deal] = getHalfWins(first, 0)
+						+ getHalfWins(second, 1);
+			}
+		}
+	}
+
+	/**
+	 * @return 2 if the given seat won the match, 1 if it was cut off by the
+	 *         hand limit, 0 if the seat lost.
+	 */
+	private static int getHalfWins(final MatchResult result, final int seat) {
+		if (!result.isFinished())
+			return 1;
+		return result.winner == seat ? 2 : 0;
+	}
+
+	/**
+	 * Compares the bundled agents against TheFish on every core and prints
+	 * the scores and paired differences.
+	 *
+	 * @param args
+	 *            [deals per candidate, default 2000] [master seed, default
+	 *            random]
+	 */
+	public static void main(final String[] args) {
+		final int deals = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		final long seed = args.length > 1 ? Long.parseLong(args[1]) : System
+				.nanoTime();
+		System.out.println("Master seed " + seed);
+		final List<ClientFactory> candidates = new ArrayList<ClientFactory>();
+		candidates.add(new AgentFactory(TheRock.class));
+		candidates.add(new AgentFactory(TheManiac.class));
+		candidates.add(new AgentFactory(ProjectPokerPlayer.class));
+		candidates.add(new AgentFactory(SearchAgent.class));
+
+		final DuplicateResult result = new DuplicateEvaluator(candidates,
+				new AgentFactory(TheFish.class), deals).run(
+				ForkJoinPool.commonPool(), seed);
+		System.out.println(result);
+	}
+}
@@ -0,0 +1,242 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+/**
+ * The results of a {@link DuplicateEvaluator}. This is an immutable class.
+ *
+ * The main score of a candidate on a deal is the chips it won over the
+ * deal's hands, each played from the starting stacks in both seatings,
+ * reported per hand played. The secondary, match-level score is the fraction
+ * of the deal's two whole matches it won (0, 0.5 or 1, or a quarter step
+ * when a match was cut off by the hand limit).
+ *
+ * Standard errors are taken over deals, since the two plays of a deal aren't
+ * independent. {@link #getVarianceReduction(int)} says how many times more
+ * matches the same match-level accuracy would have taken with independent
+ * deals.
+ */
+public final class DuplicateResult {
+
+	private final String[] names;
+	private final String opponentName;
+	private final int handsPerDeal;
+	/** Chips won by each candidate on each deal, over both seatings. */
+	private final int[][] chips;
+	/** Half wins of each candidate on each deal, 0 to 4. */
+	private final int[][] halfWins;
+	private final long handCount;
+	private final long elapsedNanos;
+
+	DuplicateResult(final String[] names, final String opponentName,
+			final int handsPerDeal, final int[][] chips,
+			final int[][] halfWins, final long handCount,
+			final long elapsedNanos) {
+		this.names = names;
+		this.opponentName = opponentName;
+		this.handsPerDeal = handsPerDeal;
+		this.chips = chips;
+		this.halfWins = halfWins;
+		this.handCount = handCount;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public int getCandidateCount() {
+		return names.length;
+	}
+
+	public String getName(final int candidate) {
+		return names[candidate];
+	}
+
+	public String getOpponentName() {
+		return opponentName;
+	}
+
+	/**
+	 * @return The number of deals each candidate played.
+	 */
+	public int getDealCount() {
+		return halfWins[0].length;
+	}
+
+	/**
+	 * @return The number of hands of each deal played in each seating.
+	 */
+	public int getHandsPerDeal() {
+		return handsPerDeal;
+	}
+
+	/**
+	 * @return The chips the candidate won on the given deal, over every hand
+	 *         of both seatings.
+	 */
+	public int getChips(final int candidate, final int deal) {
+		return chips[candidate][deal];
+	}
+
+	/**
+	 * @return The chips the candidate won per hand played, on average.
+	 */
+	public double getChipRate(final int candidate) {
+		return mean(chips[candidate], null, 2.0 * handsPerDeal);
+	}
+
+	/**
+	 * @return The standard error of {@link #getChipRate(int)}.
+	 */
+	public double getChipError(final int candidate) {
+		return standardError(chips[candidate], null, 2.0 * handsPerDeal);
+	}
+
+	/**
+	 * @return How many more chips per hand the first candidate won against
+	 *         the opponent than the second, from the deal by deal differences.
+	 */
+	public double getChipDifference(final int first, final int second) {
+		return mean(chips[first], chips[second], 2.0 * handsPerDeal);
+	}
+
+	/**
+	 * @return The standard error of {@link #getChipDifference(int, int)}.
+	 */
+	public double getChipDifferenceError(final int first, final int second) {
+		return standardError(chips[first], chips[second], 2.0 * handsPerDeal);
+	}
+
+	/**
+	 * @return The candidate's match-level score on the given deal, between 0
+	 *         and 1.
+	 */
+	public double getScore(final int candidate, final int deal) {
+		return halfWins[candidate][deal] / 4.0;
+	}
+
+	/**
+	 * @return The fraction of its matches the candidate won, a match cut off
+	 *         by the hand limit counting as half a win.
+	 */
+	public double getWinRate(final int candidate) {
+		return mean(halfWins[candidate], null, 4);
+	}
+
+	/**
+	 * @return The standard error of {@link #getWinRate(int)}.
+	 */
+	public double getStandardError(final int candidate) {
+		return standardError(halfWins[candidate], null, 4);
+	}
+
+	/**
+	 * @return How much better the first candidate did against the opponent
+	 *         than the second, in win rate, from the deal by deal differences.
+	 */
+	public double getDifference(final int first, final int second) {
+		return mean(halfWins[first], halfWins[second], 4);
+	}
+
+	/**
+	 * @return The standard error of {@link #getDifference(int, int)}. Since
+	 *         the candidates played the same deals, this is usually well
+	 *         below the error of the difference of two independent win rates.
+	 */
+	public double getDifferenceError(final int first, final int second) {
+		return standardError(halfWins[first], halfWins[second], 4);
+	}
+
+	/**
+	 * @return The variance of the candidate's win rate had it played twice
+	 *         as many matches on independent deals, divided by its variance
+	 *         from duplicate deals; that is, how many times fewer matches
+	 *         duplicate deals need for the same standard error. Infinite if
+	 *         every deal scored the same.
+	 */
+	public double getVarianceReduction(final int candidate) {
+		final double p = getWinRate(candidate);
+		final double independent = p * (1 - p) / (2 * getDealCount());
+		final double error = getStandardError(candidate);
+		return independent / (error * error);
+	}
+
+	public long getHandCount() {
+		return handCount;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return The mean of a, minus that of b if b isn't null, divided by
+	 *         scale.
+	 */
+	private static double mean(final int[] a, final int[] b,
+			final double scale) {
+		long sum = 0;
+		for (int d = 0; d < a.length; d++) {
+			sum += b == null ? a[d] : a[d] - b[d];
+		}
+		return sum / (scale * a.length);
+	}
+
+	/**
+	 * @return The standard error of {@link #mean(int[], int[], double)}.
+	 */
+	private static double standardError(final int[] a, final int[] b,
+			final double scale) {
+		final double mean = mean(a, b, scale);
+		double squares = 0;
+		for (int d = 0; d < a.length; d++) {
+			final double deviation = (b == null ? a[d] : a[d] - b[d]) / scale
+					- mean;
+			squares += deviation * deviation;
+		}
+		final int n = a.length;
+		return Math.sqrt(squares / (n - 1) / n);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append(String.format(
+				"%d duplicate deals of %d hands against %s%n", getDealCount(),
+				handsPerDeal, opponentName));
+		builder.append(String.format("%-20s %10s %8s%n", "Candidate",
+				"Chips/hand", "Error"));
+		for (int c = 0; c < names.length; c++) {
+			builder.append(String.format("%-20s %10.3f %8.3f%n", names[c],
+					getChipRate(c), getChipError(c)));
+		}
+		for (int a = 0; a < names.length; a++) {
+			for (int b = a + 1; b < names.length; b++) {
+				final double independent = Math.sqrt(getChipError(a)
+						* getChipError(a) + getChipError(b) * getChipError(b));
+				builder.append(String.format(
+						"%s - %s: %+.3f +/- %.3f chips/hand (%.3f unpaired)%n",
+						names[a], names[b], getChipDifference(a, b),
+						getChipDifferenceError(a, b), independent));
+			}
+		}
+
+		builder.append(String.format("%nMatch-level pairing%n"));
+		builder.append(String.format("%-20s %8s %8s %10s%n", "Candidate",
+				"Win rate", "Error", "Reduction"));
+		for (int c = 0; c < names.length; c++) {
+			builder.append(String.format("%-20s %8.3f %8.3f %9.1fx%n",
+					names[c], getWinRate(c), getStandardError(c),
+					getVarianceReduction(c)));
+		}
+		for (int a = 0; a < names.length; a++) {
+			for (int b = a + 1; b < names.length; b++) {
+				final double independent = Math.sqrt(getStandardError(a)
+						* getStandardError(a) + getStandardError(b)
+						* getStandardError(b));
+				builder.append(String.format(
+						"%s - %s: %+.3f +/- %.3f (%.3f unpaired)%n", names[a],
+						names[b], getDifference(a, b), getDifferenceError(a, b),
+						independent));
+			}
+		}
+		builder.append(String.format("%s hands in %.1fs", handCount,
+				elapsedNanos / 1e9));
+		return builder.toString();
+	}
+}
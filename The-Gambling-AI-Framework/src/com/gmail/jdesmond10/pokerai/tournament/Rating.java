@@ -0,0 +1,50 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+/**
+ * The fitted rating of one entrant of a {@link Tournament}, on the Elo scale
+ * with the field's average at zero. This is an immutable class.
+ */
+public final class Rating implements Comparable<Rating> {
+
+	/** z value of a two-sided 95% confidence interval. */
+	private static final double Z_95 = 1.96;
+
+	public final String name;
+	public final double elo;
+	/** Standard error of {@link #elo}. */
+	public final double standardError;
+
+	Rating(final String name, final double elo, final double standardError) {
+		this.name = name;
+		this.elo = elo;
+		this.standardError = standardError;
+	}
+
+	/**
+	 * @return The lower end of the 95% confidence interval of the rating.
+	 */
+	public double getLower() {
+		return elo - Z_95 * standardError;
+	}
+
+	/**
+	 * @return The upper end of the 95% confidence interval of the rating.
+	 */
+	public double getUpper() {
+		return elo + Z_95 * standardError;
+	}
+
+	/**
+	 * Sorts the strongest entrant first.
+	 */
+	@Override
+	public int compareTo(final Rating other) {
+		return Double.compare(other.elo, elo);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-20s %7.1f  [%7.1f, %7.1f]", name, elo,
+				getLower(), getUpper());
+	}
+}
@@ -0,0 +1,249 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gmail.jdesmond10.pokerai.agent.AgentFactory;
+import com.gmail.jdesmond10.pokerai.agent.ProjectPokerPlayer;
+import com.gmail.jdesmond10.pokerai.agent.SearchAgent;
+import com.gmail.jdesmond10.pokerai.agent.TheFish;
+import com.gmail.jdesmond10.pokerai.agent.TheManiac;
+import com.gmail.jdesmond10.pokerai.agent.TheRock;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.MatchEngine;
+import com.gmail.jdesmond10.pokerai.game.MatchResult;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.game.logic.ValidationMode;
+
+/**
+ * Decides which entrant of every pairing is stronger, playing only as many
+ * matches as it takes. Where a {@link Tournament} plays a fixed number of
+ * matches per pairing, the evaluator plays rounds of a small batch per
+ * undecided pairing, feeds the results into the pairing's
+ * {@link SequentialTest}, and stops scheduling a pairing as soon as its test
+ * decides. Lopsided pairings drop out after a few batches, and the rest of the
+ * compute goes to the close ones, up to a cap per pairing.
+ *
+ * Each batch plays half its matches in each seat order. Results are fed to
+ * the tests in match order once a whole round is played, and match m of
+ * pairing p is always dealt from the same seed, so the outcome (for
+ * deterministic clients) doesn't depend on the number of threads.
+ */
+public final class SequentialEvaluator {
+
+	private final List<ClientFactory> entrants;
+	private final double eloMargin;
+	private final double alpha;
+	private final double beta;
+	private final int matchesPerBatch;
+	private final int maxMatches;
+	private final MatchEngine engine;
+
+	/**
+	 * @param entrants
+	 *            The entrants, each of which must create a new Client per
+	 *            call. Every entrant is paired with every other.
+	 * @param eloMargin
+	 *            The difference in strength, in Elo, the tests look for.
+	 * @param alpha
+	 *            The most likely a test is to get a pairing the wrong way
+	 *            round when the first entrant is the margin weaker.
+	 * @param beta
+	 *            The most likely a test is to get a pairing the wrong way
+	 *            round when the first entrant is the margin stronger.
+	 * @param matchesPerBatch
+	 *            The matches a pairing plays between two looks at its test; a
+	 *            positive even number.
+	 * @param maxMatches
+	 *            The most matches a pairing plays before it is left
+	 *            undecided; positive.
+	 */
+	public SequentialEvaluator(final List<ClientFactory> entrants,
+			final double eloMargin, final double alpha, final double beta,
+			final int matchesPerBatch, final int maxMatches) {
+		if (entrants.size() < 2)
+			throw new IllegalArgumentException(
+					"An evaluation needs at least two entrants");
+		if (matchesPerBatch < 2 || matchesPerBatch % 2 != 0)
+			throw new IllegalArgumentException(
+					"matchesPerBatch must be a positive even number, was "
+							+ matchesPerBatch);
+		if (maxMatches <= 0)
+			throw new IllegalArgumentException(
+					"maxMatches must be positive, was " + maxMatches);
+		// Checks the other parameters.
+		new SequentialTest(eloMargin, alpha, beta);
+
+		this.entrants = new ArrayList<ClientFactory>(entrants);
+		this.eloMargin = eloMargin;
+		this.alpha = alpha;
+		this.beta = beta;
+		this.matchesPerBatch = matchesPerBatch;
+		this.maxMatches = maxMatches;
+		// MatchEngine keeps no state between matches, so one can be shared.
+		// It checks every action itself, so its states needn't.
+		engine = new MatchEngine(MatchEngine.DEFAULT_MAX_HANDS, null,
+				TableRules.DEFAULT, ValidationMode.TRUSTED);
+	}
+
+	/**
+	 * Plays rounds until every pairing is decided or has played its most
+	 * matches.
+	 *
+	 * @param pool
+	 *            The pool to play the matches on.
+	 * @param masterSeed
+	 *            The seed every match's deck is derived from.
+	 * @return the decision of every pairing.
+	 */
+	public SequentialResult run(final ForkJoinPool pool, final long masterSeed) {
+		final int n = entrants.size();
+		final int pairings = n * (n - 1) / 2;
+		final int[] first = new int[pairings];
+		final int[] second = new int[pairings];
+		final SequentialTest[] tests = new SequentialTest[pairings];
+		int p = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				first[p] = i;
+				second[p] = j;
+				tests[p] = new SequentialTest(eloMargin, alpha, beta);
+				p++;
+			}
+		}
+
+		final LongAdder hands = new LongAdder();
+		final long[] played = new long[pairings];
+		final long start = System.nanoTime();
+		while (true) {
+			final List<BatchTask> round = new ArrayList<BatchTask>();
+			for (p = 0; p < pairings; p++) {
+				if (!tests[p].isDecided() && played[p] < maxMatches) {
+					final int size = (int) Math.min(matchesPerBatch,
+							maxMatches - played[p]);
+					round.add(new BatchTask(first[p], second[p], p, played[p],
+							size, masterSeed, hands));
+					played[p] += size;
+				}
+			}
+			if (round.isEmpty()) {
+				break;
+			}
+
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(round);
+				}
+			});
+			for (final BatchTask batch : round) {
+				final SequentialTest test = tests[batch.pairing];
+				for (int m = 0; m < batch.winners.length
+						&& !test.isDecided(); m++) {
+					test.add(batch.winners[m]);
+				}
+			}
+		}
+		final long elapsed = System.nanoTime() - start;
+
+		final String[] names = new String[n];
+		for (int i = 0; i < n; i++) {
+			names[i] = entrants.get(i).getName();
+		}
+		long total = 0;
+		for (final long count : played) {
+			total += count;
+		}
+		return new SequentialResult(names, first, second, tests, total,
+				hands.sum(), elapsed);
+	}
+
+	/**
+	 * Plays one batch of a pairing's matches, from the first entrant's point
+	 * of view: even matches with it in the first seat, odd ones in the second.
+	 */
+	private final class BatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int firstEntrant;
+		private final int secondEntrant;
+		final int pairing;
+		private final long firstMatch;
+		private final long masterSeed;
+		private final LongAdder hands;
+		/** 0 if the first entrant won each match, 1 if the second did. */
+		final int[] winners;
+
+		BatchTask(final int firstEntrant, final int secondEntrant,
+				final int pairing, final long firstMatch, final int size,
+				final long masterSeed, final LongAdder hands) {
+			this.firstEntrant = firstEntrant;
+			this.secondEntrant = secondEntrant;
+			this.pairing = pairing;
+			this.firstMatch = firstMatch;
+			this.masterSeed = masterSeed;
+			this.hands = hands;
+			winners = new int[size];
+		}
+
+		@Override
+		protected void compute() {
+			final long pairingSeed = SeededDeckSource.matchSeed(masterSeed,
+					pairing);
+			for (int i = 0; i < winners.length; i++) {
+				final long match = firstMatch + i;
+				final boolean swapped = match % 2 == 1;
+				final ClientFactory one = entrants.get(swapped ? secondEntrant
+						: firstEntrant);
+				final ClientFactory two = entrants.get(swapped ? firstEntrant
+						: secondEntrant);
+				final MatchResult result = engine.play(one.createClient(true),
+						two.createClient(false), SeededDeckSource.matchSeed(
+								pairingSeed, match));
+
+				hands.add(result.handCount);
+				if (result.isFinished() && swapped) {
+					winners[i] = 1 - result.winner;
+				} else {
+					winners[i] = result.winner;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the bundled agents against each other on every core and
+	 * prints the decisions.
+	 *
+	 * @param args
+	 *            [Elo margin, default 50] [most matches per pairing, default
+	 *            20000] [master seed, default random]
+	 */
+	public static void main(final String[] args) {
+		final double margin = args.length > 0 ? Double.parseDouble(args[0])
+				: 50;
+		final int maxMatches = args.length > 1 ? Integer.parseInt(args[1])
+				: 20000;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : System
+				.nanoTime();
+		System.out.println("Master seed " + seed);
+		final List<ClientFactory> entrants = new ArrayList<ClientFactory>();
+		entrants.add(new AgentFactory(TheFish.class));
+		entrants.add(new AgentFactory(TheRock.class));
+		entrants.add(new AgentFactory(TheManiac.class));
+		entrants.add(new AgentFactory(ProjectPokerPlayer.class));
+		entrants.add(new AgentFactory(SearchAgent.class));
+
+		final SequentialResult result = new SequentialEvaluator(entrants,
+				margin, 0.05, 0.05, 16, maxMatches).run(
+				ForkJoinPool.commonPool(), seed);
+		System.out.println(result);
+	}
+}
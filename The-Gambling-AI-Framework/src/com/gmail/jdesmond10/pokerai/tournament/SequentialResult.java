@@ -0,0 +1,128 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+import com.gmail.jdesmond10.pokerai.tournament.SequentialTest.Decision;
+
+/**
+ * The results of a {@link SequentialEvaluator}: for every pairing of
+ * entrants, who was found the stronger and on how many matches. This is an
+ * immutable class.
+ */
+public final class SequentialResult {
+
+	/** z value of a two-sided 95% confidence interval. */
+	private static final double Z_95 = 1.96;
+
+	private final String[] names;
+	private final int[] first;
+	private final int[] second;
+	private final Decision[] decisions;
+	private final long[] wins;
+	private final long[] losses;
+	private final long[] draws;
+	private final double[][] intervals;
+	private final long matchCount;
+	private final long handCount;
+	private final long elapsedNanos;
+
+	SequentialResult(final String[] names, final int[] first,
+			final int[] second, final SequentialTest[] tests,
+			final long matchCount, final long handCount,
+			final long elapsedNanos) {
+		this.names = names;
+		this.first = first;
+		this.second = second;
+		this.matchCount = matchCount;
+		this.handCount = handCount;
+		this.elapsedNanos = elapsedNanos;
+
+		decisions = new Decision[tests.length];
+		wins = new long[tests.length];
+		losses = new long[tests.length];
+		draws = new long[tests.length];
+		intervals = new double[tests.length][];
+		for (int p = 0; p < tests.length; p++) {
+			decisions[p] = tests[p].getDecision();
+			wins[p] = tests[p].getWins();
+			losses[p] = tests[p].getLosses();
+			draws[p] = tests[p].getDraws();
+			intervals[p] = tests[p].getWinRateInterval(Z_95);
+		}
+	}
+
+	public int getPairingCount() {
+		return decisions.length;
+	}
+
+	/**
+	 * @return The index of the first entrant of a pairing, from whose point
+	 *         of view its results are given.
+	 */
+	public int getFirst(final int pairing) {
+		return first[pairing];
+	}
+
+	public int getSecond(final int pairing) {
+		return second[pairing];
+	}
+
+	public String getName(final int entrant) {
+		return names[entrant];
+	}
+
+	public Decision getDecision(final int pairing) {
+		return decisions[pairing];
+	}
+
+	/**
+	 * @return The matches of the pairing the test was given (matches played
+	 *         in a batch after it decided aren't counted).
+	 */
+	public long getMatchCount(final int pairing) {
+		return wins[pairing] + losses[pairing] + draws[pairing];
+	}
+
+	public long getWins(final int pairing) {
+		return wins[pairing];
+	}
+
+	public long getLosses(final int pairing) {
+		return losses[pairing];
+	}
+
+	public long getDraws(final int pairing) {
+		return draws[pairing];
+	}
+
+	/**
+	 * @return The total number of matches played, by every pairing.
+	 */
+	public long getMatchCount() {
+		return matchCount;
+	}
+
+	public long getHandCount() {
+		return handCount;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%-20s %-20s %-16s %8s  %s%n", "First",
+				"Second", "Decision", "Matches", "First's win rate"));
+		for (int p = 0; p < decisions.length; p++) {
+			builder.append(String.format(
+					"%-20s %-20s %-16s %8s  %.3f [%.3f, %.3f]%n",
+					names[first[p]], names[second[p]], decisions[p],
+					getMatchCount(p), (wins[p] + draws[p] / 2.0)
+							/ Math.max(1, getMatchCount(p)), intervals[p][0],
+					intervals[p][1]));
+		}
+		builder.append(String.format("%s matches, %s hands in %.1fs",
+				matchCount, handCount, elapsedNanos / 1e9));
+		return builder.toString();
+	}
+}
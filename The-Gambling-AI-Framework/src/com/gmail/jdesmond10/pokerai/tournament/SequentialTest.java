@@ -0,0 +1,162 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+/**
+ * Wald's sequential probability ratio test of which of two entrants is
+ * stronger, fed one match at a time. The test weighs the hypothesis that the
+ * first entrant is a given Elo margin weaker than the second against the
+ * hypothesis that it is that much stronger, and decides as soon as the
+ * evidence favours one by enough to keep both kinds of error under their
+ * bounds. A lopsided pairing is decided after a handful of matches; entrants
+ * closer than the margin take the longest, and may never be decided.
+ *
+ * Drawn matches (cut off by the hand limit) say nothing about who is
+ * stronger, and are only counted. Not thread safe.
+ */
+public final class SequentialTest {
+
+	/** What the test has concluded so far. */
+	public enum Decision {
+		/** Not enough evidence yet. */
+		UNDECIDED,
+		/** The first entrant is the stronger. */
+		FIRST_STRONGER,
+		/** The second entrant is the stronger. */
+		SECOND_STRONGER
+	}
+
+	/** Evidence of a win and of a loss of the first entrant. */
+	private final double winWeight;
+	private final double lossWeight;
+	/** Bounds of the log likelihood ratio at which the test decides. */
+	private final double upper;
+	private final double lower;
+
+	private double logLikelihoodRatio;
+	private long wins;
+	private long losses;
+	private long draws;
+	private Decision decision = Decision.UNDECIDED;
+
+	/**
+	 * @param eloMargin
+	 *            How much stronger, in Elo, the stronger entrant is assumed to
+	 *            be; positive.
+	 * @param alpha
+	 *            The most likely the test is to call the first entrant the
+	 *            stronger when it is the margin weaker, between 0 and 0.5.
+	 * @param beta
+	 *            The most likely the test is to call the second entrant the
+	 *            stronger when it is the margin weaker, between 0 and 0.5.
+	 */
+	public SequentialTest(final double eloMargin, final double alpha,
+			final double beta) {
+		if (!(eloMargin > 0))
+			throw new IllegalArgumentException(
+					"eloMargin must be positive, was " + eloMargin);
+		if (!(alpha > 0 && alpha < 0.5 && beta > 0 && beta < 0.5))
+			throw new IllegalArgumentException("Illegal error bounds "
+					+ alpha + ", " + beta);
+
+		final double stronger = getWinProbability(eloMargin);
+		final double weaker = 1 - stronger;
+		winWeight = Math.log(stronger / weaker);
+		lossWeight = Math.log(weaker / stronger);
+		upper = Math.log((1 - beta) / alpha);
+		lower = Math.log(beta / (1 - alpha));
+	}
+
+	/**
+	 * @param eloDifference
+	 *            How much stronger one entrant is than another, in Elo.
+	 * @return The probability that it wins a match.
+	 */
+	public static double getWinProbability(final double eloDifference) {
+		return 1 / (1 + Math.pow(10, -eloDifference / 400));
+	}
+
+	/**
+	 * Adds the result of a match. Results added after the test has decided
+	 * are counted, but don't change the decision.
+	 *
+	 * @param winner
+	 *            0 if the first entrant won, 1 if the second did, or anything
+	 *            else for a draw.
+	 * @return the decision so far.
+	 */
+	public Decision add(final int winner) {
+		if (winner == 0) {
+			wins++;
+			logLikelihoodRatio += winWeight;
+		} else if (winner == 1) {
+			losses++;
+			logLikelihoodRatio += lossWeight;
+		} else {
+			draws++;
+		}
+
+		if (decision == Decision.UNDECIDED) {
+			if (logLikelihoodRatio >= upper) {
+				decision = Decision.FIRST_STRONGER;
+			} else if (logLikelihoodRatio <= lower) {
+				decision = Decision.SECOND_STRONGER;
+			}
+		}
+		return decision;
+	}
+
+	public Decision getDecision() {
+		return decision;
+	}
+
+	public boolean isDecided() {
+		return decision != Decision.UNDECIDED;
+	}
+
+	/**
+	 * @return The log of how much likelier the results are if the first
+	 *         entrant is the stronger than if it is the weaker.
+	 */
+	public double getLogLikelihoodRatio() {
+		return logLikelihoodRatio;
+	}
+
+	public long getWins() {
+		return wins;
+	}
+
+	public long getLosses() {
+		return losses;
+	}
+
+	public long getDraws() {
+		return draws;
+	}
+
+	public long getMatchCount() {
+		return wins + losses + draws;
+	}
+
+	/**
+	 * @return The Wilson score interval of the first entrant's win rate (a
+	 *         draw counting as half a win), at the given z value. An empty
+	 *         test gives [0, 1].
+	 */
+	public double[] getWinRateInterval(final double z) {
+		final double n = getMatchCount();
+		if (n == 0)
+			return new double[] { 0, 1 };
+		final double p = (wins + draws / 2.0) / n;
+		final double z2 = z * z;
+		final double centre = (p + z2 / (2 * n)) / (1 + z2 / n);
+		final double halfWidth = z
+				* Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / (1 + z2 / n);
+		return new double[] { centre - halfWidth, centre + halfWidth };
+	}
+
+	@Override
+	public String toString() {
+		return "SequentialTest [decision=" + decision + ", wins=" + wins
+				+ ", losses=" + losses + ", draws=" + draws
+				+ ", logLikelihoodRatio=" + logLikelihoodRatio + "]";
+	}
+}
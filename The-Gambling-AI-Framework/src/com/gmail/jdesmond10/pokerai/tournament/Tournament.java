@@ -0,0 +1,182 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gmail.jdesmond10.pokerai.agent.AgentFactory;
+import com.gmail.jdesmond10.pokerai.agent.ProjectPokerPlayer;
+import com.gmail.jdesmond10.pokerai.agent.TheFish;
+import com.gmail.jdesmond10.pokerai.agent.TheManiac;
+import com.gmail.jdesmond10.pokerai.agent.TheRock;
+import com.gmail.jdesmond10.pokerai.game.ClientFactory;
+import com.gmail.jdesmond10.pokerai.game.MatchEngine;
+import com.gmail.jdesmond10.pokerai.game.MatchResult;
+import com.gmail.jdesmond10.pokerai.game.logic.SeededDeckSource;
+import com.gmail.jdesmond10.pokerai.game.logic.TableRules;
+import com.gmail.jdesmond10.pokerai.game.logic.ValidationMode;
+
+/**
+ * A round robin between any number of entrants. Every entrant plays every
+ * other entrant the same number of matches in each seat order, and the
+ * results are fitted with a Bradley-Terry model to give each entrant an Elo
+ * rating with a confidence interval.
+ *
+ * Matches are split into a tree of tasks on a {@link ForkJoinPool}, so idle
+ * workers steal work from busy ones however unevenly long the pairings are.
+ * Results go straight into shared atomic counters; there are no locks.
+ */
+public final class Tournament {
+
+	/** Fewest matches a task will play itself instead of splitting. */
+	private static final int MATCHES_PER_TASK = 8;
+
+	private final List<ClientFactory> entrants;
+	private final int matchesPerSeating;
+	private final MatchEngine engine;
+
+	/**
+	 * @param entrants
+	 *            The entrants, each of which must create a new Client per
+	 *            call.
+	 * @param matchesPerSeating
+	 *            The number of matches each ordered pair of entrants plays
+	 *            (so each pairing plays twice this many).
+	 */
+	public Tournament(final List<ClientFactory> entrants,
+			final int matchesPerSeating) {
+		if (entrants.size() < 2)
+			throw new IllegalArgumentException(
+					"A tournament needs at least two entrants");
+		this.entrants = new ArrayList<ClientFactory>(entrants);
+		this.matchesPerSeating = matchesPerSeating;
+		// MatchEngine keeps no state between matches, so one can be shared.
+		// It checks every action itself, so its states needn't.
+		engine = new MatchEngine(MatchEngine.DEFAULT_MAX_HANDS, null,
+				TableRules.DEFAULT, ValidationMode.TRUSTED);
+	}
+
+	/**
+	 * Plays the whole round robin.
+	 *
+	 * @param pool
+	 *            The pool to play the matches on.
+	 * @param masterSeed
+	 *            The seed every match's deck is derived from.
+	 * @return the results and ratings.
+	 */
+	public TournamentResult run(final ForkJoinPool pool, final long masterSeed) {
+		final int n = entrants.size();
+		final AtomicLongArray wins = new AtomicLongArray(n * n);
+		final AtomicLongArray draws = new AtomicLongArray(n * n);
+		final LongAdder hands = new LongAdder();
+		final long totalMatches = (long) n * (n - 1) * matchesPerSeating;
+
+		final long start = System.nanoTime();
+		pool.invoke(new MatchTask(0, totalMatches, masterSeed, wins, draws,
+				hands));
+		final long elapsed = System.nanoTime() - start;
+
+		final String[] names = new String[n];
+		final long[][] winMatrix = new long[n][n];
+		final long[][] drawMatrix = new long[n][n];
+		for (int i = 0; i < n; i++) {
+			names[i] = entrants.get(i).getName();
+			for (int j = 0; j < n; j++) {
+				winMatrix[i][j] = wins.get(i * n + j);
+				drawMatrix[i][j] = draws.get(i * n + j);
+			}
+		}
+		return new TournamentResult(names, winMatrix, drawMatrix, hands.sum(),
+				elapsed);
+	}
+
+	/**
+	 * Plays a range of the tournament's matches, splitting it in half while
+	 * it is large. Match m is played by the ordered pairing m /
+	 * matchesPerSeating.
+	 */
+	private final class MatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from;
+		private final long to;
+		private final long masterSeed;
+		private final AtomicLongArray wins;
+		private final AtomicLongArray draws;
+		private final LongAdder hands;
+
+		MatchTask(final long from, final long to, final long masterSeed,
+				final AtomicLongArray wins, final AtomicLongArray draws,
+				final LongAdder hands) {
+			this.from = from;
+			this.to = to;
+			this.masterSeed = masterSeed;
+			this.wins = wins;
+			this.draws = draws;
+			this.hands = hands;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > MATCHES_PER_TASK) {
+				final long middle = (from + to) >>> 1;
+				invokeAll(new MatchTask(from, middle, masterSeed, wins, draws,
+						hands), new MatchTask(middle, to, masterSeed, wins,
+						draws, hands));
+				return;
+			}
+
+			final int n = entrants.size();
+			for (long match = from; match < to; match++) {
+				// Ordered pairings skip i == j: k -> (k / (n-1), the k % (n-1)th
+				// other entrant).
+				final int pairing = (int) (match / matchesPerSeating);
+				final int first = pairing / (n - 1);
+				int second = pairing % (n - 1);
+				if (second >= first) {
+					second++;
+				}
+
+				final MatchResult result = engine.play(entrants.get(first)
+						.createClient(true), entrants.get(second)
+						.createClient(false), SeededDeckSource.matchSeed(
+						masterSeed, match));
+
+				hands.add(result.handCount);
+				if (result.winner == 0) {
+					wins.incrementAndGet(first * n + second);
+				} else if (result.winner == 1) {
+					wins.incrementAndGet(second * n + first);
+				} else {
+					draws.incrementAndGet(first * n + second);
+					draws.incrementAndGet(second * n + first);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs a ladder of the bundled agents on every core and prints the
+	 * ratings.
+	 *
+	 * @param args
+	 *            [matches per seating, default 1000]
+	 */
+	public static void main(final String[] args) {
+		final int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		final List<ClientFactory> entrants = new ArrayList<ClientFactory>();
+		entrants.add(new AgentFactory(TheFish.class));
+		entrants.add(new AgentFactory(TheRock.class));
+		entrants.add(new AgentFactory(TheManiac.class));
+		entrants.add(new AgentFactory(ProjectPokerPlayer.class));
+
+		final TournamentResult result = new Tournament(entrants, matches).run(
+				ForkJoinPool.commonPool(), System.nanoTime());
+		System.out.println(result);
+	}
+}
@@ -0,0 +1,125 @@
+package com.gmail.jdesmond10.pokerai.tournament;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of a {@link Tournament}: how often each entrant beat each other
+ * entrant, and the ratings fitted to those results. This is an immutable
+ * class.
+ */
+public final class TournamentResult {
+
+	private final String[] names;
+	private final long[][] wins;
+	private final long[][] draws;
+	private final long handCount;
+	private final long elapsedNanos;
+	private final List<Rating> ratings;
+
+	TournamentResult(final String[] names, final long[][] wins,
+			final long[][] draws, final long handCount, final long elapsedNanos) {
+		this.names = names;
+		this.wins = wins;
+		this.draws = draws;
+		this.handCount = handCount;
+		this.elapsedNanos = elapsedNanos;
+
+		final int n = names.length;
+		final double[][] score = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				score[i][j] = wins[i][j] + draws[i][j] / 2.0;
+			}
+		}
+		final BradleyTerry fit = new BradleyTerry(score);
+		final List<Rating> list = new ArrayList<Rating>();
+		for (int i = 0; i < n; i++) {
+			list.add(new Rating(names[i], fit.elo[i], fit.standardError[i]));
+		}
+		Collections.sort(list);
+		ratings = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Rates results gathered elsewhere, such as the sum of several
+	 * tournaments between the same entrants.
+	 *
+	 * @param names
+	 *            The name of each entrant.
+	 * @param wins
+	 *            wins[i][j] is the number of matches i won against j.
+	 * @param draws
+	 *            draws[i][j] is the number of matches between i and j that
+	 *            hit the hand limit, and must equal draws[j][i].
+	 * @return the results, with no hands played.
+	 */
+	public static TournamentResult fromCounts(final String[] names,
+			final long[][] wins, final long[][] draws) {
+		if (wins.length != names.length || draws.length != names.length)
+			throw new IllegalArgumentException("Expected " + names.length
+					+ " rows of results");
+		return new TournamentResult(names.clone(), copy(wins), copy(draws), 0,
+				0);
+	}
+
+	private static long[][] copy(final long[][] matrix) {
+		final long[][] copy = new long[matrix.length][];
+		for (int i = 0; i < matrix.length; i++) {
+			copy[i] = matrix[i].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * @return The number of matches entrant i won against entrant j, in
+	 *         either seat.
+	 */
+	public long getWins(final int i, final int j) {
+		return wins[i][j];
+	}
+
+	/**
+	 * @return The number of matches between i and j that hit the hand limit.
+	 */
+	public long getDraws(final int i, final int j) {
+		return draws[i][j];
+	}
+
+	public String getName(final int i) {
+		return names[i];
+	}
+
+	public int getEntrantCount() {
+		return names.length;
+	}
+
+	public long getHandCount() {
+		return handCount;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return The ratings of every entrant, strongest first.
+	 */
+	public List<Rating> getRatings() {
+		return ratings;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%-20s %7s  %s%n", "Entrant", "Elo",
+				"95% interval"));
+		for (final Rating rating : ratings) {
+			builder.append(rating).append(String.format("%n"));
+		}
+		builder.append(String.format("%s hands in %.1fs", handCount,
+				elapsedNanos / 1e9));
+		return builder.toString();
+	}
+}